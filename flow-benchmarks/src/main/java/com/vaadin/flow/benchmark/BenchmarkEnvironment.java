@@ -0,0 +1,243 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.vaadin.flow.benchmark;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.function.DeploymentConfiguration;
+import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.flow.server.DefaultDeploymentConfiguration;
+import com.vaadin.flow.server.PwaRegistry;
+import com.vaadin.flow.server.RouteRegistry;
+import com.vaadin.flow.server.ServiceException;
+import com.vaadin.flow.server.VaadinContext;
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.server.startup.ApplicationRouteRegistry;
+
+/**
+ * Minimal servlet-less service, session and UI setup shared by the
+ * benchmarks.
+ * <p>
+ * The session is locked by the creating thread for its whole lifetime, which
+ * matches how JMH runs a benchmark state and its benchmark methods in the same
+ * thread.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+public final class BenchmarkEnvironment {
+
+    private BenchmarkEnvironment() {
+        // Static only
+    }
+
+    /**
+     * In-memory context without any underlying servlet context.
+     */
+    public static class BenchmarkContext implements VaadinContext {
+
+        private final Map<Class<?>, Object> attributes = new HashMap<>();
+
+        @Override
+        public synchronized <T> T getAttribute(Class<T> type,
+                Supplier<T> defaultValueSupplier) {
+            Object value = attributes.get(type);
+            if (value == null && defaultValueSupplier != null) {
+                value = defaultValueSupplier.get();
+                attributes.put(type, value);
+            }
+            return type.cast(value);
+        }
+
+        @Override
+        public synchronized <T> void setAttribute(Class<T> clazz, T value) {
+            attributes.put(clazz, value);
+        }
+
+        @Override
+        public synchronized void removeAttribute(Class<?> clazz) {
+            attributes.remove(clazz);
+        }
+
+        @Override
+        public Enumeration<String> getContextParameterNames() {
+            return Collections.emptyEnumeration();
+        }
+
+        @Override
+        public String getContextParameter(String name) {
+            return null;
+        }
+    }
+
+    /**
+     * Service running in production mode without any servlet container.
+     */
+    public static class BenchmarkService extends VaadinService {
+
+        /**
+         * Creates a new service with a production mode configuration.
+         */
+        public BenchmarkService() {
+            super(createConfiguration());
+        }
+
+        private static DeploymentConfiguration createConfiguration() {
+            Properties properties = new Properties();
+            properties.setProperty("productionMode", "true");
+            return new DefaultDeploymentConfiguration(BenchmarkService.class,
+                    properties);
+        }
+
+        @Override
+        protected RouteRegistry getRouteRegistry() {
+            return ApplicationRouteRegistry.getInstance(getContext());
+        }
+
+        @Override
+        protected PwaRegistry getPwaRegistry() {
+            return null;
+        }
+
+        @Override
+        public String getContextRootRelativePath(VaadinRequest request) {
+            return "/";
+        }
+
+        @Override
+        public String getMimeType(String resourceName) {
+            return null;
+        }
+
+        @Override
+        protected boolean requestCanCreateSession(VaadinRequest request) {
+            return true;
+        }
+
+        @Override
+        public String getServiceName() {
+            return "benchmark";
+        }
+
+        @Override
+        public String getMainDivId(VaadinSession session,
+                VaadinRequest request) {
+            return "benchmark";
+        }
+
+        @Override
+        public URL getStaticResource(String url) {
+            return null;
+        }
+
+        @Override
+        public URL getResource(String url) {
+            return null;
+        }
+
+        @Override
+        public InputStream getResourceAsStream(String url) {
+            return null;
+        }
+
+        @Override
+        public String resolveResource(String url) {
+            return url;
+        }
+
+        @Override
+        protected VaadinContext constructVaadinContext() {
+            return new BenchmarkContext();
+        }
+    }
+
+    /**
+     * Session that is locked by the thread creating it.
+     */
+    public static class BenchmarkSession extends VaadinSession {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * Creates a new session for the given service and locks it.
+         *
+         * @param service
+         *            the service of the session
+         */
+        public BenchmarkSession(VaadinService service) {
+            super(service);
+            setConfiguration(service.getDeploymentConfiguration());
+            lock.lock();
+        }
+
+        @Override
+        public Lock getLockInstance() {
+            return lock;
+        }
+    }
+
+    /**
+     * Creates and initializes a new service.
+     *
+     * @return an initialized service
+     */
+    public static BenchmarkService createService() {
+        BenchmarkService service = new BenchmarkService();
+        try {
+            service.init();
+        } catch (ServiceException e) {
+            throw new IllegalStateException(e);
+        }
+        return service;
+    }
+
+    /**
+     * Creates a new UI in a new locked session of a new service and sets them
+     * as the current instances.
+     *
+     * @return a new UI
+     */
+    public static UI createUI() {
+        VaadinService service = createService();
+        VaadinSession session = new BenchmarkSession(service);
+        UI ui = new UI();
+        ui.getInternals().setSession(session);
+        CurrentInstance.set(VaadinService.class, service);
+        CurrentInstance.set(VaadinSession.class, session);
+        UI.setCurrent(ui);
+        return ui;
+    }
+
+    /**
+     * Clears the current instances set by {@link #createUI()}.
+     */
+    public static void clearCurrentInstances() {
+        CurrentInstance.clearAll();
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.vaadin.flow.benchmark;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vaadin.flow.component.AbstractSinglePropertyField;
+import com.vaadin.flow.component.Tag;
+import com.vaadin.flow.data.binder.Binder;
+import com.vaadin.flow.data.binder.ValidationException;
+import com.vaadin.flow.data.converter.StringToIntegerConverter;
+
+/**
+ * Benchmarks for reading a bean into bound fields and writing the field values
+ * back with a {@link Binder}.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BinderBenchmark {
+
+    @Tag("input")
+    public static class TextField
+            extends AbstractSinglePropertyField<TextField, String> {
+        public TextField() {
+            super("value", "", false);
+        }
+    }
+
+    public static class Person implements Serializable {
+        private String firstName;
+        private String lastName;
+        private String email;
+        private int age;
+
+        public String getFirstName() {
+            return firstName;
+        }
+
+        public void setFirstName(String firstName) {
+            this.firstName = firstName;
+        }
+
+        public String getLastName() {
+            return lastName;
+        }
+
+        public void setLastName(String lastName) {
+            this.lastName = lastName;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public void setEmail(String email) {
+            this.email = email;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+    }
+
+    private Binder<Person> binder;
+
+    private Person person;
+
+    private final Person target = new Person();
+
+    @Setup
+    public void setup() {
+        BenchmarkEnvironment.createUI();
+
+        binder = new Binder<>();
+        binder.forField(new TextField()).asRequired()
+                .bind(Person::getFirstName, Person::setFirstName);
+        binder.forField(new TextField()).bind(Person::getLastName,
+                Person::setLastName);
+        binder.forField(new TextField())
+                .withValidator(value -> value.contains("@"), "Invalid email")
+                .bind(Person::getEmail, Person::setEmail);
+        binder.forField(new TextField())
+                .withConverter(new StringToIntegerConverter("Not a number"))
+                .bind(Person::getAge, Person::setAge);
+
+        person = new Person();
+        person.setFirstName("John");
+        person.setLastName("Doe");
+        person.setEmail("john@example.com");
+        person.setAge(42);
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkEnvironment.clearCurrentInstances();
+    }
+
+    @Benchmark
+    public Binder<Person> readBean() {
+        binder.readBean(person);
+        return binder;
+    }
+
+    @Benchmark
+    public Person writeBean() throws ValidationException {
+        binder.readBean(person);
+        binder.writeBean(target);
+        return target;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.vaadin.flow.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.data.provider.ArrayUpdater;
+import com.vaadin.flow.data.provider.DataCommunicator;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.ListDataProvider;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.dom.ElementFactory;
+import com.vaadin.flow.internal.StateTree;
+
+import elemental.json.JsonValue;
+
+/**
+ * Benchmarks for flushing a {@link DataCommunicator} backed by a
+ * {@link ListDataProvider}.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DataCommunicatorBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Param({ "1000", "100000" })
+    private int itemCount;
+
+    private UI ui;
+
+    private StateTree stateTree;
+
+    private DataCommunicator<String> dataCommunicator;
+
+    // Sink for the sent items so that the generation isn't optimized away
+    private int sentItemCount;
+
+    private int start;
+
+    private final ArrayUpdater arrayUpdater = new ArrayUpdater() {
+        @Override
+        public Update startUpdate(int sizeChange) {
+            return new Update() {
+                @Override
+                public void clear(int start, int length) {
+                    // NOP
+                }
+
+                @Override
+                public void set(int start, List<JsonValue> items) {
+                    sentItemCount += items.size();
+                }
+
+                @Override
+                public void commit(int updateId) {
+                    // NOP
+                }
+            };
+        }
+
+        @Override
+        public void initialize() {
+            // NOP
+        }
+    };
+
+    @Setup
+    public void setup() {
+        ui = BenchmarkEnvironment.createUI();
+        stateTree = ui.getInternals().getStateTree();
+        Element element = ElementFactory.createDiv();
+        ui.getElement().appendChild(element);
+
+        List<String> items = IntStream.range(0, itemCount)
+                .mapToObj(i -> "Item " + i).collect(Collectors.toList());
+
+        dataCommunicator = new DataCommunicator<>(
+                (item, json) -> json.put("name", item), arrayUpdater,
+                data -> {
+                }, element.getNode());
+        dataCommunicator.setPageSize(PAGE_SIZE);
+        dataCommunicator.setDataProvider(DataProvider.ofCollection(items),
+                null);
+        flush();
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkEnvironment.clearCurrentInstances();
+    }
+
+    /**
+     * Scrolls the requested range through the data set one page at a time.
+     */
+    @Benchmark
+    public int scroll() {
+        start = (start + PAGE_SIZE) % (itemCount - PAGE_SIZE);
+        dataCommunicator.setRequestedRange(start, PAGE_SIZE);
+        flush();
+        return sentItemCount;
+    }
+
+    /**
+     * Resets the communicator, which refetches the size and the active range.
+     */
+    @Benchmark
+    public int reset() {
+        dataCommunicator.reset();
+        flush();
+        return sentItemCount;
+    }
+
+    private void flush() {
+        stateTree.runExecutionsBeforeClientResponse();
+        stateTree.collectChanges(change -> {
+        });
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.vaadin.flow.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.dom.ElementFactory;
+
+/**
+ * Benchmarks for the most frequently used {@link Element} API calls, which are
+ * dominated by node feature lookups.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ElementApiBenchmark {
+
+    private Element element;
+
+    private int round;
+
+    @Setup
+    public void setup() {
+        element = ElementFactory.createDiv();
+        element.setAttribute("title", "Title");
+        element.setProperty("value", "Value");
+    }
+
+    /**
+     * Sets a property value on an element.
+     */
+    @Benchmark
+    public Element setProperty() {
+        return element.setProperty("value", round++);
+    }
+
+    /**
+     * Reads an attribute value from an element.
+     */
+    @Benchmark
+    public String getAttribute() {
+        return element.getAttribute("title");
+    }
+
+    /**
+     * Checks for a class name, touching a list based feature.
+     */
+    @Benchmark
+    public boolean hasClassName() {
+        return element.getClassList().contains("item");
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.vaadin.flow.benchmark;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vaadin.flow.data.provider.hierarchy.HierarchyMapper;
+import com.vaadin.flow.data.provider.hierarchy.TreeData;
+import com.vaadin.flow.data.provider.hierarchy.TreeDataProvider;
+import com.vaadin.flow.function.SerializablePredicate;
+import com.vaadin.flow.internal.Range;
+
+/**
+ * Benchmarks for expanding and collapsing items in a {@link HierarchyMapper}
+ * backed by a {@link TreeDataProvider}, and for finding rows in a hierarchy
+ * where every root item is expanded.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class HierarchyMapperBenchmark {
+
+    private static final int CHILD_COUNT = 10;
+
+    @Param({ "100", "1000" })
+    private int rootCount;
+
+    private HierarchyMapper<String, SerializablePredicate<String>> mapper;
+
+    private HierarchyMapper<String, SerializablePredicate<String>> expanded;
+
+    private List<String> roots;
+
+    @Setup
+    public void setup() {
+        TreeData<String> treeData = new TreeData<>();
+        roots = IntStream.range(0, rootCount).mapToObj(i -> "root-" + i)
+                .collect(Collectors.toList());
+        treeData.addItems(roots,
+                item -> !item.contains("/")
+                        ? IntStream.range(0, CHILD_COUNT)
+                                .mapToObj(i -> item + "/child-" + i)
+                                .collect(Collectors.toList())
+                        : Collections.emptyList());
+        mapper = new HierarchyMapper<>(new TreeDataProvider<>(treeData));
+
+        expanded = new HierarchyMapper<>(new TreeDataProvider<>(treeData));
+        roots.forEach(expanded::expand);
+        // Construct the hierarchy before measuring
+        expanded.getTreeSize();
+    }
+
+    /**
+     * Expands every other root item and collapses them again.
+     */
+    @Benchmark
+    public int expandAndCollapse() {
+        for (int i = 0; i < rootCount; i += 2) {
+            mapper.expand(roots.get(i));
+        }
+        int size = mapper.getTreeSize();
+        for (int i = 0; i < rootCount; i += 2) {
+            mapper.collapse(roots.get(i));
+        }
+        return size;
+    }
+
+    /**
+     * Expands the last root item at its position, as done by a hierarchical
+     * component, and collapses it again.
+     */
+    @Benchmark
+    public Range expandLastWithPosition() {
+        String last = roots.get(rootCount - 1);
+        Range range = mapper.expand(last, rootCount - 1);
+        mapper.collapse(last, rootCount - 1);
+        return range;
+    }
+
+    /**
+     * Finds the row index and the parent row index of the last item in the
+     * expanded hierarchy.
+     */
+    @Benchmark
+    public int indexOfLastItem() {
+        String last = roots.get(rootCount - 1) + "/child-" + (CHILD_COUNT - 1);
+        return expanded.getIndex(last) + expanded.getParentIndex(last);
+    }
+
+    /**
+     * Fetches the last page of rows in the expanded hierarchy.
+     */
+    @Benchmark
+    public List<String> fetchLastPage() {
+        int size = expanded.getTreeSize();
+        return expanded.fetchHierarchyItems(Range.between(size - 50, size))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Collapses and expands a root item in the middle of the expanded
+     * hierarchy at its position.
+     */
+    @Benchmark
+    public Range collapseAndExpandInExpandedTree() {
+        String middle = roots.get(rootCount / 2);
+        int position = expanded.getIndex(middle);
+        expanded.collapse(middle, position);
+        return expanded.expand(middle, position);
+    }
+}
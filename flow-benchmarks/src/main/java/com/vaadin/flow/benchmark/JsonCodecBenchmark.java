@@ -0,0 +1,111 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.vaadin.flow.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.dom.ElementFactory;
+import com.vaadin.flow.internal.JsonCodec;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+import elemental.json.JsonValue;
+
+/**
+ * Benchmarks for encoding values with {@link JsonCodec#encodeWithTypeInfo}.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JsonCodecBenchmark {
+
+    private UI ui;
+
+    private Element attachedElement;
+
+    private JsonObject json;
+
+    private JsonArray array;
+
+    @Setup
+    public void setup() {
+        ui = BenchmarkEnvironment.createUI();
+        attachedElement = ElementFactory.createDiv();
+        ui.getElement().appendChild(attachedElement);
+
+        json = Json.createObject();
+        json.put("name", "value");
+        json.put("number", 42);
+        json.put("flag", true);
+
+        array = Json.createArray();
+        array.set(0, "string");
+        array.set(1, 42);
+        array.set(2, json);
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkEnvironment.clearCurrentInstances();
+    }
+
+    @Benchmark
+    public JsonValue encodeString() {
+        return JsonCodec.encodeWithTypeInfo("Some string value");
+    }
+
+    @Benchmark
+    public JsonValue encodeNumber() {
+        return JsonCodec.encodeWithTypeInfo(Integer.valueOf(42));
+    }
+
+    @Benchmark
+    public JsonValue encodeJson() {
+        return JsonCodec.encodeWithTypeInfo(json);
+    }
+
+    @Benchmark
+    public JsonValue encodeElement() {
+        return JsonCodec.encodeWithTypeInfo(attachedElement);
+    }
+
+    @Benchmark
+    public JsonValue encodeJsonArray() {
+        return JsonCodec.encodeWithTypeInfo(array);
+    }
+}
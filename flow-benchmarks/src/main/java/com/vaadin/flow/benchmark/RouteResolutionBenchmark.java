@@ -0,0 +1,111 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.vaadin.flow.benchmark;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.Tag;
+import com.vaadin.flow.router.internal.NavigationRouteTarget;
+import com.vaadin.flow.server.startup.ApplicationRouteRegistry;
+
+/**
+ * Benchmarks for resolving navigation targets from URLs in
+ * {@link ApplicationRouteRegistry}.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RouteResolutionBenchmark {
+
+    @Tag("div")
+    public static class HomeView extends Component {
+    }
+
+    @Tag("div")
+    public static class UsersView extends Component {
+    }
+
+    @Tag("div")
+    public static class UserView extends Component {
+    }
+
+    @Tag("div")
+    public static class UserEditView extends Component {
+    }
+
+    @Tag("div")
+    public static class ProductView extends Component {
+    }
+
+    @Tag("div")
+    public static class OrderView extends Component {
+    }
+
+    @Tag("div")
+    public static class DocsView extends Component {
+    }
+
+    @Param({ "", "users", "users/123/edit", "products/books/42",
+            "orders/1234", "docs/guide/routing/templates", "missing/path" })
+    private String url;
+
+    private ApplicationRouteRegistry registry;
+
+    @Setup
+    public void setup() {
+        registry = ApplicationRouteRegistry
+                .getInstance(new BenchmarkEnvironment.BenchmarkContext());
+        registry.update(() -> {
+            setRoute("", HomeView.class);
+            setRoute("users", UsersView.class);
+            setRoute("users/:userId", UserView.class);
+            setRoute("users/:userId/edit", UserEditView.class);
+            setRoute("products/:category/:productId?", ProductView.class);
+            setRoute("orders/:orderId(\\d+)", OrderView.class);
+            setRoute("docs/:path*", DocsView.class);
+        });
+    }
+
+    private void setRoute(String path, Class<? extends Component> target) {
+        registry.setRoute(path, target, Collections.emptyList());
+    }
+
+    @Benchmark
+    public NavigationRouteTarget resolveRoute() {
+        return registry.getNavigationRouteTarget(url);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.vaadin.flow.benchmark;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.internal.nodefeature.NodeFeatures;
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.communication.ServerRpcHandler;
+import com.vaadin.flow.shared.ApplicationConstants;
+import com.vaadin.flow.shared.JsonConstants;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+
+/**
+ * Benchmarks for reading and handling client-to-server messages of different
+ * sizes with {@link ServerRpcHandler#handleRpc}.
+ * <p>
+ * A message contains property syncs for distinct elements and one DOM event
+ * with large event data. Run with <code>-prof gc</code> to see the allocation
+ * rate per message.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RpcMessageBenchmark {
+
+    @Param({ "1", "1000" })
+    private int invocations;
+
+    private UI ui;
+
+    private VaadinRequest request;
+
+    private String invocationsJson;
+
+    private final ServerRpcHandler rpcHandler = new ServerRpcHandler();
+
+    @Setup
+    public void setup() {
+        ui = BenchmarkEnvironment.createUI();
+        request = Mockito.mock(VaadinRequest.class);
+        Mockito.when(request.getService())
+                .thenReturn(ui.getSession().getService());
+
+        JsonArray invocationsData = Json.createArray();
+        for (int i = 0; i < invocations; i++) {
+            Element input = new Element("input");
+            ui.getElement().appendChild(input);
+
+            JsonObject invocation = Json.createObject();
+            invocation.put(JsonConstants.RPC_TYPE,
+                    JsonConstants.RPC_TYPE_MAP_SYNC);
+            invocation.put(JsonConstants.RPC_NODE, input.getNode().getId());
+            invocation.put(JsonConstants.RPC_FEATURE,
+                    NodeFeatures.ELEMENT_PROPERTIES);
+            invocation.put(JsonConstants.RPC_PROPERTY, "value");
+            invocation.put(JsonConstants.RPC_PROPERTY_VALUE, "value " + i);
+            invocationsData.set(invocationsData.length(), invocation);
+        }
+
+        Element target = new Element("div");
+        target.addEventListener("drop", event -> {
+        }).addEventData("event.detail");
+        ui.getElement().appendChild(target);
+        JsonObject eventData = Json.createObject();
+        StringBuilder detail = new StringBuilder();
+        for (int i = 0; i < invocations; i++) {
+            detail.append("item ").append(i).append(';');
+        }
+        eventData.put("event.detail", detail.toString());
+        JsonObject event = Json.createObject();
+        event.put(JsonConstants.RPC_TYPE, JsonConstants.RPC_TYPE_EVENT);
+        event.put(JsonConstants.RPC_NODE, target.getNode().getId());
+        event.put(JsonConstants.RPC_EVENT_TYPE, "drop");
+        event.put(JsonConstants.RPC_EVENT_DATA, eventData);
+        invocationsData.set(invocationsData.length(), event);
+        invocationsJson = invocationsData.toJson();
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkEnvironment.clearCurrentInstances();
+    }
+
+    @Benchmark
+    public int handleMessage() throws Exception {
+        // Only the message id changes, so the body is built as a string
+        String message = "{\"" + ApplicationConstants.CSRF_TOKEN + "\":\""
+                + ui.getCsrfToken() + "\",\""
+                + ApplicationConstants.SERVER_SYNC_ID + "\":"
+                + ui.getInternals().getServerSyncId() + ",\""
+                + ApplicationConstants.CLIENT_TO_SERVER_ID + "\":"
+                + (ui.getInternals().getLastProcessedClientToServerId() + 1)
+                + ",\"" + ApplicationConstants.RPC_INVOCATIONS + "\":"
+                + invocationsJson + "}";
+
+        rpcHandler.handleRpc(ui, new StringReader(message), request);
+        return ui.getInternals().getLastProcessedClientToServerId();
+    }
+}
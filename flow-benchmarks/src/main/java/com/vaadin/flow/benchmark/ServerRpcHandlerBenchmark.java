@@ -0,0 +1,132 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.vaadin.flow.benchmark;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.internal.nodefeature.NodeFeatures;
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.communication.ServerRpcHandler;
+import com.vaadin.flow.shared.ApplicationConstants;
+import com.vaadin.flow.shared.JsonConstants;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+
+/**
+ * Benchmarks for handling property synchronization and DOM event RPC messages
+ * with {@link ServerRpcHandler#handleRpc}.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ServerRpcHandlerBenchmark {
+
+    private UI ui;
+
+    private VaadinRequest request;
+
+    private Element input;
+
+    private final ServerRpcHandler rpcHandler = new ServerRpcHandler();
+
+    private int eventCount;
+
+    private int round;
+
+    @Setup
+    public void setup() {
+        ui = BenchmarkEnvironment.createUI();
+        input = new Element("input");
+        input.addPropertyChangeListener("value", "change", event -> {
+        });
+        input.addEventListener("click", event -> eventCount++);
+        ui.getElement().appendChild(input);
+
+        request = Mockito.mock(VaadinRequest.class);
+        Mockito.when(request.getService())
+                .thenReturn(ui.getSession().getService());
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkEnvironment.clearCurrentInstances();
+    }
+
+    @Benchmark
+    public Object propertySync() throws Exception {
+        round++;
+        JsonObject invocation = Json.createObject();
+        invocation.put(JsonConstants.RPC_TYPE,
+                JsonConstants.RPC_TYPE_MAP_SYNC);
+        invocation.put(JsonConstants.RPC_NODE, input.getNode().getId());
+        invocation.put(JsonConstants.RPC_FEATURE,
+                NodeFeatures.ELEMENT_PROPERTIES);
+        invocation.put(JsonConstants.RPC_PROPERTY, "value");
+        invocation.put(JsonConstants.RPC_PROPERTY_VALUE, "value " + round);
+        handle(invocation);
+        return input.getProperty("value");
+    }
+
+    @Benchmark
+    public int domEvent() throws Exception {
+        JsonObject invocation = Json.createObject();
+        invocation.put(JsonConstants.RPC_TYPE, JsonConstants.RPC_TYPE_EVENT);
+        invocation.put(JsonConstants.RPC_NODE, input.getNode().getId());
+        invocation.put(JsonConstants.RPC_EVENT_TYPE, "click");
+        handle(invocation);
+        return eventCount;
+    }
+
+    private void handle(JsonObject invocation) throws Exception {
+        JsonArray invocations = Json.createArray();
+        invocations.set(0, invocation);
+
+        JsonObject message = Json.createObject();
+        message.put(ApplicationConstants.CSRF_TOKEN, ui.getCsrfToken());
+        message.put(ApplicationConstants.SERVER_SYNC_ID,
+                ui.getInternals().getServerSyncId());
+        message.put(ApplicationConstants.CLIENT_TO_SERVER_ID,
+                ui.getInternals().getLastProcessedClientToServerId() + 1);
+        message.put(ApplicationConstants.RPC_INVOCATIONS, invocations);
+
+        rpcHandler.handleRpc(ui, new StringReader(message.toJson()), request);
+    }
+}
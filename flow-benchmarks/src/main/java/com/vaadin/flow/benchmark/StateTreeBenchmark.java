@@ -0,0 +1,134 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.vaadin.flow.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.dom.ElementFactory;
+import com.vaadin.flow.internal.StateTree;
+import com.vaadin.flow.server.communication.UidlWriter;
+
+import elemental.json.JsonObject;
+
+/**
+ * Benchmarks for collecting state tree changes and encoding them as a UIDL
+ * response for a synthetic component tree.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class StateTreeBenchmark {
+
+    @Param({ "100", "1000" })
+    private int elementCount;
+
+    private UI ui;
+
+    private StateTree stateTree;
+
+    private final List<Element> elements = new ArrayList<>();
+
+    private final UidlWriter uidlWriter = new UidlWriter();
+
+    private int round;
+
+    @Setup
+    public void setup() {
+        ui = BenchmarkEnvironment.createUI();
+        stateTree = ui.getInternals().getStateTree();
+        Element container = ElementFactory.createDiv();
+        for (int i = 0; i < elementCount; i++) {
+            Element element = ElementFactory.createDiv("Item " + i);
+            element.setAttribute("class", "item");
+            element.setProperty("index", i);
+            elements.add(element);
+            container.appendChild(element);
+        }
+        ui.getElement().appendChild(container);
+        uidlWriter.createUidl(ui, false);
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkEnvironment.clearCurrentInstances();
+    }
+
+    /**
+     * Updates a property of every element and collects the resulting changes.
+     */
+    @Benchmark
+    public void collectChanges(Blackhole blackhole) {
+        updateElements();
+        stateTree.collectChanges(blackhole::consume);
+    }
+
+    /**
+     * Updates a property of every element and encodes a full UIDL response.
+     */
+    @Benchmark
+    public JsonObject createUidl() {
+        updateElements();
+        return uidlWriter.createUidl(ui, false);
+    }
+
+    /**
+     * Attaches a new subtree with all the elements, encodes the response and
+     * detaches the subtree again.
+     */
+    @Benchmark
+    public JsonObject attachAndCreateUidl() {
+        Element container = ElementFactory.createDiv();
+        for (int i = 0; i < elementCount; i++) {
+            container.appendChild(ElementFactory.createSpan("Item " + i));
+        }
+        ui.getElement().appendChild(container);
+        JsonObject uidl = uidlWriter.createUidl(ui, false);
+        container.removeFromParent();
+        return uidl;
+    }
+
+    private void updateElements() {
+        round++;
+        for (Element element : elements) {
+            element.setProperty("round", round);
+        }
+    }
+}
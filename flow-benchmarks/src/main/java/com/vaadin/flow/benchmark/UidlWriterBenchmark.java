@@ -0,0 +1,127 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.vaadin.flow.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.dom.ElementFactory;
+import com.vaadin.flow.server.communication.UidlWriter;
+
+/**
+ * Benchmarks for encoding a UIDL response as UTF-8 bytes, either by building
+ * the JSON tree and a string first or by streaming the changes to the output.
+ * Run with <code>-prof gc</code> to compare the allocations per response.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class UidlWriterBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    private int elementCount;
+
+    private UI ui;
+
+    private final List<Element> elements = new ArrayList<>();
+
+    private final UidlWriter uidlWriter = new UidlWriter();
+
+    private int round;
+
+    @Setup
+    public void setup() {
+        ui = BenchmarkEnvironment.createUI();
+        Element container = ElementFactory.createDiv();
+        for (int i = 0; i < elementCount; i++) {
+            Element element = ElementFactory.createDiv("Item " + i);
+            element.setProperty("index", i);
+            elements.add(element);
+            container.appendChild(element);
+        }
+        ui.getElement().appendChild(container);
+        uidlWriter.createUidl(ui, false);
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkEnvironment.clearCurrentInstances();
+    }
+
+    /**
+     * Encodes the response as a JSON tree which is converted to a string and
+     * then to bytes, as done without streaming.
+     */
+    @Benchmark
+    public byte[] createUidl() {
+        updateElements();
+        String response = "for(;;);["
+                + uidlWriter.createUidl(ui, false).toJson() + "]";
+        return response.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Streams the response as UTF-8 into a byte buffer, as done with the
+     * <code>streamingUidl</code> parameter.
+     */
+    @Benchmark
+    public ByteArrayOutputStream writeUidl() throws IOException {
+        updateElements();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(buffer,
+                StandardCharsets.UTF_8)) {
+            writer.write("for(;;);[");
+            uidlWriter.writeUidl(ui, false, false, writer);
+            writer.write(']');
+        }
+        return buffer;
+    }
+
+    private void updateElements() {
+        round++;
+        for (Element element : elements) {
+            element.setProperty("round", round);
+        }
+    }
+}
@@ -67,6 +67,18 @@ public final class ValueMap extends JavaScriptObject {
         return this[name];
     }-*/;
 
+    /**
+     * Gets the value with the given key as an array of maps.
+     *
+     * @param name
+     *            the map key
+     * @return the value as an array of maps
+     */
+    public native JsArray<ValueMap> getJSValueMapArray(String name)
+    /*-{
+        return this[name];
+    }-*/;
+
     /**
      * Checks if the map contains the given key.
      *
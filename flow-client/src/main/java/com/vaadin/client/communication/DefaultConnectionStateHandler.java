@@ -27,7 +27,6 @@ import com.vaadin.client.Registry;
 import com.vaadin.client.UILifecycle;
 import com.vaadin.client.UILifecycle.UIState;
 import com.vaadin.client.WidgetUtil;
-import com.vaadin.client.communication.AtmospherePushConnection.AtmosphereResponse;
 
 import elemental.json.JsonObject;
 
@@ -576,8 +575,7 @@ public class DefaultConnectionStateHandler implements ConnectionStateHandler {
             JavaScriptObject response) {
         debug("pushError()");
         handleCommunicationError("Push connection using "
-                + ((AtmosphereResponse) response).getTransport() + " failed!",
-                -1);
+                + pushConnection.getTransportType() + " failed!", -1);
     }
 
     @Override
@@ -215,6 +215,17 @@ public class MessageHandler {
     }
 
     protected void handleJSON(final ValueMap valueMap) {
+        if (valueMap.containsKey(ApplicationConstants.REPLAYED_MESSAGES)) {
+            // The server sends again the messages that were missed before
+            // the response to a resynchronize request. Messages that have
+            // already been handled are ignored as old ones.
+            JsArray<ValueMap> replayed = valueMap
+                    .getJSValueMapArray(ApplicationConstants.REPLAYED_MESSAGES);
+            for (int i = 0; i < replayed.length(); i++) {
+                handleJSON(replayed.get(i));
+            }
+        }
+
         final int serverId = getServerId(valueMap);
 
         if (isResynchronize(valueMap) && !isNextExpectedMessage(serverId)) {
@@ -382,7 +393,8 @@ public class MessageHandler {
                 constantPool.importFromJson(constants);
             }
 
-            if (json.hasKey("changes")) {
+            if (json.hasKey("changes")
+                    || json.hasKey(JsonConstants.UIDL_KEY_COMPACT_CHANGES)) {
                 processChanges(json);
             }
 
@@ -469,8 +481,20 @@ public class MessageHandler {
 
     private void processChanges(JsonObject json) {
         StateTree tree = registry.getStateTree();
-        JsSet<StateNode> updatedNodes = TreeChangeProcessor.processChanges(tree,
-                json.getArray("changes"));
+        JsSet<StateNode> updatedNodes;
+        if (json.hasKey(JsonConstants.UIDL_KEY_COMPACT_CHANGES)) {
+            JsonArray keys = json
+                    .hasKey(JsonConstants.UIDL_KEY_COMPACT_CHANGE_KEYS)
+                            ? json.getArray(
+                                    JsonConstants.UIDL_KEY_COMPACT_CHANGE_KEYS)
+                            : null;
+            updatedNodes = TreeChangeProcessor.processCompactChanges(tree,
+                    json.getArray(JsonConstants.UIDL_KEY_COMPACT_CHANGES),
+                    keys);
+        } else {
+            updatedNodes = TreeChangeProcessor.processChanges(tree,
+                    json.getArray("changes"));
+        }
 
         if (!registry.getApplicationConfiguration().isProductionMode()) {
             try {
@@ -132,6 +132,7 @@ public class MessageSender {
                 registry.getMessageHandler().getLastSeenServerSyncId());
         payload.put(ApplicationConstants.CLIENT_TO_SERVER_ID,
                 clientToServerMessageId++);
+        payload.put(ApplicationConstants.COMPACT_CHANGES, true);
 
         if (extraJson != null) {
             for (String key : extraJson.keys()) {
@@ -168,7 +169,11 @@ public class MessageSender {
      */
     public void setPushEnabled(boolean enabled) {
         if (enabled && push == null) {
-            push = pushConnectionFactory.create(registry);
+            if (registry.getPushConfiguration().isSseTransport()) {
+                push = new SsePushConnection(registry);
+            } else {
+                push = pushConnectionFactory.create(registry);
+            }
         } else if (!enabled && push != null && push.isActive()) {
             push.disconnect(() -> {
                 push = null;
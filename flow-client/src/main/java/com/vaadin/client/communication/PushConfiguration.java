@@ -137,6 +137,17 @@ public class PushConfiguration {
         return parameters;
     }
 
+    /**
+     * Checks if Server-Sent Events are used as the push transport.
+     *
+     * @return true if Server-Sent Events are used, false otherwise
+     */
+    public boolean isSseTransport() {
+        // Intentionally avoiding bringing the enum to client side
+        return SsePushConnection.TRANSPORT_TYPE.equals(
+                getParameters().get(PushConfigurationMap.TRANSPORT_KEY));
+    }
+
     /**
      * Checks if push is enabled.
      *
@@ -18,9 +18,15 @@ package com.vaadin.client.communication;
 import com.google.gwt.core.client.Scheduler;
 import com.vaadin.client.Console;
 import com.vaadin.client.Registry;
+import com.vaadin.client.flow.collection.JsCollections;
+import com.vaadin.client.flow.collection.JsMap;
+import com.vaadin.client.flow.collection.JsSet;
+import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.Json;
 import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+import elemental.json.JsonType;
 import elemental.json.JsonValue;
 
 /**
@@ -38,6 +44,14 @@ public class ServerRpcQueue {
 
     private JsonArray pendingInvocations = Json.createArray();
 
+    /*
+     * Index in pendingInvocations of the property sync invocation for each
+     * node, feature and property
+     */
+    private JsMap<String, Integer> pendingPropertySyncs = JsCollections.map();
+
+    private JsSet<String> pendingDebouncedEvents = JsCollections.set();
+
     private boolean flushPending = false;
 
     private final Registry registry;
@@ -56,6 +70,13 @@ public class ServerRpcQueue {
 
     /**
      * Adds an explicit RPC method invocation to the send queue.
+     * <p>
+     * A property sync invocation replaces a queued one for the same property
+     * of the same node, since the server would only keep the last value. A
+     * debounced event is not added if an identical one is already queued.
+     * Invocations are only coalesced if no invocation of another kind has
+     * been queued in between, so that the order of e.g. events and property
+     * changes is preserved.
      *
      * @param invocation
      *            RPC method invocation
@@ -66,14 +87,52 @@ public class ServerRpcQueue {
                     "Trying to invoke method on not yet started or stopped application");
             return;
         }
+        if (invocation.getType() == JsonType.OBJECT
+                && coalesce((JsonObject) invocation)) {
+            return;
+        }
         pendingInvocations.set(pendingInvocations.length(), invocation);
     }
 
+    private boolean coalesce(JsonObject invocation) {
+        String type = invocation.getString(JsonConstants.RPC_TYPE);
+        if (JsonConstants.RPC_TYPE_MAP_SYNC.equals(type)) {
+            String key = (int) invocation.getNumber(JsonConstants.RPC_NODE)
+                    + ":"
+                    + (int) invocation.getNumber(JsonConstants.RPC_FEATURE)
+                    + ":" + invocation.getString(JsonConstants.RPC_PROPERTY);
+            if (pendingPropertySyncs.has(key)) {
+                pendingInvocations.set(pendingPropertySyncs.get(key),
+                        invocation);
+                return true;
+            }
+            pendingPropertySyncs.set(key, pendingInvocations.length());
+            pendingDebouncedEvents.clear();
+        } else if (JsonConstants.RPC_TYPE_EVENT.equals(type)
+                && invocation.hasKey(JsonConstants.RPC_EVENT_DATA)
+                && invocation.getObject(JsonConstants.RPC_EVENT_DATA)
+                        .hasKey(JsonConstants.EVENT_DATA_PHASE)) {
+            String key = invocation.toJson();
+            if (pendingDebouncedEvents.has(key)) {
+                return true;
+            }
+            pendingDebouncedEvents.add(key);
+            pendingPropertySyncs.clear();
+        } else {
+            // Later invocations must not be merged into earlier ones
+            pendingPropertySyncs.clear();
+            pendingDebouncedEvents.clear();
+        }
+        return false;
+    }
+
     /**
      * Clears the queue.
      */
     public void clear() {
         pendingInvocations = Json.createArray();
+        pendingPropertySyncs.clear();
+        pendingDebouncedEvents.clear();
         flushPending = false;
         doFlushStrategy = NO_OP;
     }
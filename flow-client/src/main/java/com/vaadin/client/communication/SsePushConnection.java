@@ -0,0 +1,242 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.client.communication;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.Scheduler;
+
+import com.vaadin.client.Command;
+import com.vaadin.client.Console;
+import com.vaadin.client.Registry;
+import com.vaadin.client.ValueMap;
+import com.vaadin.flow.shared.ApplicationConstants;
+import com.vaadin.flow.shared.util.SharedUtil;
+
+import elemental.json.JsonObject;
+
+/**
+ * A {@link PushConnection} receiving messages from the server as Server-Sent
+ * Events using the browser's <code>EventSource</code>. Messages to the server
+ * are sent using XHR.
+ * <p>
+ * Used when the push transport is <code>sse</code>. Does not need the
+ * Atmosphere JavaScript library.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+public class SsePushConnection implements PushConnection {
+
+    /**
+     * The identifier of the Server-Sent Events push transport.
+     */
+    public static final String TRANSPORT_TYPE = "sse";
+
+    /**
+     * The value of <code>EventSource.readyState</code> when the connection
+     * will not be reopened.
+     */
+    private static final int CLOSED = 2;
+
+    private enum State {
+        /**
+         * Opening the connection, or reopening it after it was lost.
+         */
+        CONNECT_PENDING,
+
+        /**
+         * The connection is open.
+         */
+        CONNECTED,
+
+        /**
+         * The connection has been closed.
+         */
+        DISCONNECTED;
+    }
+
+    private final Registry registry;
+
+    private State state = State.CONNECT_PENDING;
+
+    private JavaScriptObject eventSource;
+
+    /**
+     * Creates a new instance connected to the given registry.
+     *
+     * @param registry
+     *            the global registry
+     */
+    public SsePushConnection(Registry registry) {
+        this.registry = registry;
+        registry.getUILifecycle().addHandler(event -> {
+            if (event.getUiLifecycle().isTerminated()
+                    && state != State.DISCONNECTED) {
+                disconnect(() -> {
+                });
+            }
+        });
+        Scheduler.get().scheduleDeferred(this::connect);
+    }
+
+    private void connect() {
+        if (state == State.DISCONNECTED) {
+            // Disconnected before the deferred connect
+            return;
+        }
+        PushConfiguration pushConfiguration = registry.getPushConfiguration();
+        String url = pushConfiguration.getPushUrl();
+        if (url == null) {
+            url = registry.getApplicationConfiguration().getServiceUrl();
+        }
+        String pushUrl = registry.getURIResolver().resolveVaadinUri(url);
+        pushUrl = SharedUtil.addGetParameter(pushUrl,
+                ApplicationConstants.REQUEST_TYPE_PARAMETER,
+                ApplicationConstants.REQUEST_TYPE_PUSH);
+        pushUrl = SharedUtil.addGetParameter(pushUrl,
+                ApplicationConstants.UI_ID_PARAMETER,
+                registry.getApplicationConfiguration().getUIId());
+
+        String pushId = registry.getMessageHandler().getPushId();
+        if (pushId != null) {
+            pushUrl = SharedUtil.addGetParameter(pushUrl,
+                    ApplicationConstants.PUSH_ID_PARAMETER, pushId);
+        }
+
+        Console.log("Establishing push connection");
+        eventSource = doConnect(pushUrl);
+    }
+
+    @Override
+    public void push(JsonObject payload) {
+        throw new IllegalStateException(
+                "This server to client push connection should not be used to send client to server messages");
+    }
+
+    @Override
+    public boolean isActive() {
+        return state != State.DISCONNECTED;
+    }
+
+    @Override
+    public void disconnect(Command command) {
+        assert command != null;
+        if (state == State.DISCONNECTED) {
+            throw new IllegalStateException(
+                    "Can not disconnect more than once");
+        }
+
+        Console.log("Closing push connection");
+        state = State.DISCONNECTED;
+        if (eventSource != null) {
+            doDisconnect(eventSource);
+            eventSource = null;
+        }
+        command.execute();
+    }
+
+    @Override
+    public String getTransportType() {
+        return TRANSPORT_TYPE;
+    }
+
+    @Override
+    public boolean isBidirectional() {
+        return false;
+    }
+
+    /**
+     * Called whenever the connection is opened or reopened.
+     */
+    protected void onOpen() {
+        if (state != State.CONNECT_PENDING) {
+            return;
+        }
+        Console.log("Push connection established using "
+                + getTransportType());
+        state = State.CONNECTED;
+        getConnectionStateHandler().pushOk(this);
+    }
+
+    /**
+     * Called whenever a message is received.
+     *
+     * @param message
+     *            the data of the received event
+     */
+    protected void onMessage(String message) {
+        if (state == State.DISCONNECTED) {
+            return;
+        }
+        ValueMap json = MessageHandler.parseWrappedJson(message);
+        if (json == null) {
+            // Invalid string (not wrapped as expected)
+            getConnectionStateHandler().pushInvalidContent(this, message);
+        } else {
+            Console.log("Received push (" + getTransportType() + ") message: "
+                    + message);
+            registry.getMessageHandler().handleMessage(json);
+        }
+    }
+
+    /**
+     * Called when the connection fails. The browser reopens the connection
+     * automatically unless it has been closed for good.
+     *
+     * @param event
+     *            the error event
+     * @param readyState
+     *            the state of the event source after the error
+     */
+    protected void onError(JavaScriptObject event, int readyState) {
+        if (state == State.DISCONNECTED) {
+            return;
+        }
+        if (readyState == CLOSED) {
+            state = State.DISCONNECTED;
+            eventSource = null;
+            getConnectionStateHandler().pushError(this, event);
+        } else {
+            state = State.CONNECT_PENDING;
+            getConnectionStateHandler().pushReconnectPending(this);
+        }
+    }
+
+    private ConnectionStateHandler getConnectionStateHandler() {
+        return registry.getConnectionStateHandler();
+    }
+
+    private native JavaScriptObject doConnect(String uri)
+    /*-{
+        var self = this;
+        var eventSource = new $wnd.EventSource(uri, { withCredentials: true });
+        eventSource.onopen = $entry(function() {
+            self.@com.vaadin.client.communication.SsePushConnection::onOpen()();
+        });
+        eventSource.onmessage = $entry(function(event) {
+            self.@com.vaadin.client.communication.SsePushConnection::onMessage(*)(event.data);
+        });
+        eventSource.onerror = $entry(function(event) {
+            self.@com.vaadin.client.communication.SsePushConnection::onError(*)(event, eventSource.readyState);
+        });
+        return eventSource;
+    }-*/;
+
+    private static native void doDisconnect(JavaScriptObject eventSource)
+    /*-{
+        eventSource.close();
+    }-*/;
+}
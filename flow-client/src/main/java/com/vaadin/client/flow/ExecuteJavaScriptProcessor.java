@@ -31,6 +31,7 @@ import com.vaadin.flow.internal.nodefeature.NodeProperties;
 
 import elemental.json.JsonArray;
 import elemental.json.JsonObject;
+import elemental.json.JsonType;
 import elemental.json.JsonValue;
 
 /**
@@ -44,6 +45,13 @@ public class ExecuteJavaScriptProcessor {
 
     private final Registry registry;
 
+    /**
+     * Functions compiled from expressions that the server has sent through the
+     * constant pool, keyed by the parameter count and the constant id.
+     */
+    private final JsMap<String, NativeFunction> functionCache = JsCollections
+            .map();
+
     /**
      * Creates a new processor with the given registry.
      *
@@ -100,10 +108,18 @@ public class ExecuteJavaScriptProcessor {
         }
 
         // Set the script source as the last parameter
-        String expression = invocation.getString(invocation.length() - 1);
-        parameterNamesAndCode[parameterNamesAndCode.length - 1] = expression;
+        JsonValue script = invocation.get(invocation.length() - 1);
+        String functionKey = null;
+        if (script.getType() == JsonType.ARRAY) {
+            // A repeated script is sent as [scriptConstantId]
+            String constantId = ((JsonArray) script).getString(0);
+            script = registry.getConstantPool().get(constantId);
+            functionKey = parameterCount + ":" + constantId;
+        }
+        parameterNamesAndCode[parameterNamesAndCode.length - 1] = script
+                .asString();
 
-        invoke(parameterNamesAndCode, parameters, map);
+        invoke(parameterNamesAndCode, functionKey, parameters, map);
     }
 
     private boolean isVirtualChildAwaitingInitialization(StateNode node) {
@@ -134,6 +150,25 @@ public class ExecuteJavaScriptProcessor {
         return isBound(node.getParent());
     }
 
+    /**
+     * Executes the actual invocation without reusing the compiled function.
+     * This method is protected instead of private for testing purposes.
+     *
+     * @param parameterNamesAndCode
+     *            an array consisting of parameter names followed by the
+     *            JavaScript expression to execute
+     * @param parameters
+     *            an array of parameter values
+     * @param nodeParameters
+     *            the node parameters
+     * @see #invoke(String[], String, JsArray, JsMap)
+     */
+    protected void invoke(String[] parameterNamesAndCode,
+            JsArray<Object> parameters,
+            JsMap<Object, StateNode> nodeParameters) {
+        invoke(parameterNamesAndCode, null, parameters, nodeParameters);
+    }
+
     /**
      * Executes the actual invocation. This method is protected instead of
      * private for testing purposes.
@@ -141,18 +176,22 @@ public class ExecuteJavaScriptProcessor {
      * @param parameterNamesAndCode
      *            an array consisting of parameter names followed by the
      *            JavaScript expression to execute
+     * @param functionKey
+     *            the key for reusing the function compiled from a repeated
+     *            expression, or <code>null</code> to not reuse the function
      * @param parameters
      *            an array of parameter values
      * @param nodeParameters
      *            the node parameters
      */
-    protected void invoke(String[] parameterNamesAndCode,
+    protected void invoke(String[] parameterNamesAndCode, String functionKey,
             JsArray<Object> parameters,
             JsMap<Object, StateNode> nodeParameters) {
         assert parameterNamesAndCode.length == parameters.length() + 1;
 
         try {
-            NativeFunction function = new NativeFunction(parameterNamesAndCode);
+            NativeFunction function = getFunction(parameterNamesAndCode,
+                    functionKey);
 
             function.apply(getContextExecutionObject(nodeParameters, () -> {
                 if (!registry.getUILifecycle().isTerminated()) {
@@ -186,6 +225,19 @@ public class ExecuteJavaScriptProcessor {
         }
     }
 
+    private NativeFunction getFunction(String[] parameterNamesAndCode,
+            String functionKey) {
+        if (functionKey == null) {
+            return new NativeFunction(parameterNamesAndCode);
+        }
+        NativeFunction function = functionCache.get(functionKey);
+        if (function == null) {
+            function = new NativeFunction(parameterNamesAndCode);
+            functionCache.set(functionKey, function);
+        }
+        return function;
+    }
+
     private boolean handleRemoveExistingNode(Integer removedId, int nodeId,
             JsonArray invocation) {
         if (removedId.intValue() == nodeId) {
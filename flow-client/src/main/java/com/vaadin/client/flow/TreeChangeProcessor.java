@@ -73,6 +73,122 @@ public class TreeChangeProcessor {
         }
     }
 
+    /**
+     * Update a state tree based on a JSON array of changes encoded in the
+     * compact format.
+     *
+     * @param tree
+     *            the tree to update
+     * @param changes
+     *            the JSON array of compact changes
+     * @param keys
+     *            the map keys referenced by index from the changes, or
+     *            <code>null</code> if no keys are referenced
+     * @return a set of updated nodes addressed by the {@code changes}
+     */
+    public static JsSet<StateNode> processCompactChanges(StateTree tree,
+            JsonArray changes, JsonArray keys) {
+        assert !tree
+                .isUpdateInProgress() : "Previous tree change processing has not completed";
+        try {
+            tree.setUpdateInProgress(true);
+
+            JsSet<StateNode> nodes = JsCollections.set();
+            int length = changes.length();
+
+            // Attach all nodes before doing anything else
+            for (int i = 0; i < length; i++) {
+                JsonArray change = changes.getArray(i);
+                if (getCompactType(change) == JsonConstants.COMPACT_CHANGE_ATTACH) {
+                    int nodeId = (int) change.getNumber(0);
+                    if (nodeId != tree.getRootNode().getId()) {
+                        StateNode node = new StateNode(nodeId, tree);
+                        tree.registerNode(node);
+                        nodes.add(node);
+                    }
+                }
+            }
+
+            // Then process all non-attach changes
+            for (int i = 0; i < length; i++) {
+                JsonArray change = changes.getArray(i);
+                if (getCompactType(change) != JsonConstants.COMPACT_CHANGE_ATTACH) {
+                    nodes.add(processCompactChange(tree, change, keys));
+                }
+            }
+            return nodes;
+        } finally {
+            tree.setUpdateInProgress(false);
+        }
+    }
+
+    private static int getCompactType(JsonArray change) {
+        return (int) change.getNumber(1);
+    }
+
+    /**
+     * Update a state tree based on a JSON change encoded in the compact
+     * format. This method is public for testing purposes.
+     *
+     * @param tree
+     *            the tree to update
+     * @param change
+     *            the compact JSON change
+     * @param keys
+     *            the map keys referenced by index from the change
+     * @return the updated node addressed by the provided {@code change}
+     */
+    public static StateNode processCompactChange(StateTree tree,
+            JsonArray change, JsonArray keys) {
+        int type = getCompactType(change);
+        int nodeId = (int) change.getNumber(0);
+
+        StateNode node = tree.getNode(nodeId);
+        assert node != null;
+
+        switch (type) {
+        case JsonConstants.COMPACT_CHANGE_NOOP:
+            if (change.getNumber(3) != 0) {
+                node.getList((int) change.getNumber(2));
+            } else {
+                node.getMap((int) change.getNumber(2));
+            }
+            break;
+        case JsonConstants.COMPACT_CHANGE_SPLICE:
+        case JsonConstants.COMPACT_CHANGE_SPLICE_NODES:
+            processSplice(node, (int) change.getNumber(2),
+                    (int) change.getNumber(3), (int) change.getNumber(4),
+                    change.length() > 5 ? change.getArray(5) : null,
+                    type == JsonConstants.COMPACT_CHANGE_SPLICE_NODES);
+            break;
+        case JsonConstants.COMPACT_CHANGE_PUT:
+            getProperty(node, (int) change.getNumber(2),
+                    keys.getString((int) change.getNumber(3))).setValue(
+                            ClientJsonCodec.decodeWithoutTypeInfo(
+                                    change.get(4)));
+            break;
+        case JsonConstants.COMPACT_CHANGE_PUT_NODE:
+            processPutNode(node,
+                    getProperty(node, (int) change.getNumber(2),
+                            keys.getString((int) change.getNumber(3))),
+                    (int) change.getNumber(4));
+            break;
+        case JsonConstants.COMPACT_CHANGE_REMOVE:
+            getProperty(node, (int) change.getNumber(2),
+                    keys.getString((int) change.getNumber(3))).removeValue();
+            break;
+        case JsonConstants.COMPACT_CHANGE_DETACH:
+            processDetachChange(node);
+            break;
+        case JsonConstants.COMPACT_CHANGE_CLEAR:
+            node.getList((int) change.getNumber(2)).clear();
+            break;
+        default:
+            assert false : "Unsupported compact change type: " + type;
+        }
+        return node;
+    }
+
     private static JsSet<StateNode> processAttachChanges(StateTree tree,
             JsonArray changes) {
         JsSet<StateNode> nodes = JsCollections.set();
@@ -166,17 +282,22 @@ public class TreeChangeProcessor {
         } else if (change.hasKey(JsonConstants.CHANGE_PUT_NODE_VALUE)) {
             int childId = (int) change
                     .getNumber(JsonConstants.CHANGE_PUT_NODE_VALUE);
-            StateNode child = node.getTree().getNode(childId);
-            assert child != null;
-            child.setParent(node);
-
-            property.setValue(child);
+            processPutNode(node, property, childId);
         } else {
             assert false : "Change should have either value or nodeValue property: "
                     + WidgetUtil.stringify(change);
         }
     }
 
+    private static void processPutNode(StateNode node, MapProperty property,
+            int childId) {
+        StateNode child = node.getTree().getNode(childId);
+        assert child != null;
+        child.setParent(node);
+
+        property.setValue(child);
+    }
+
     private static void processRemoveChange(JsonObject change, StateNode node) {
         MapProperty property = findProperty(change, node);
 
@@ -185,17 +306,20 @@ public class TreeChangeProcessor {
 
     private static MapProperty findProperty(JsonObject change, StateNode node) {
         int nsId = (int) change.getNumber(JsonConstants.CHANGE_FEATURE);
-        NodeMap map = node.getMap(nsId);
         String key = change.getString(JsonConstants.CHANGE_MAP_KEY);
 
+        return getProperty(node, nsId, key);
+    }
+
+    private static MapProperty getProperty(StateNode node, int nsId,
+            String key) {
+        NodeMap map = node.getMap(nsId);
         return map.getProperty(key);
     }
 
     private static void processSpliceChange(JsonObject change, StateNode node) {
         int nsId = (int) change.getNumber(JsonConstants.CHANGE_FEATURE);
 
-        NodeList list = node.getList(nsId);
-
         int index = (int) change.getNumber(JsonConstants.CHANGE_SPLICE_INDEX);
         int remove;
         if (change.hasKey(JsonConstants.CHANGE_SPLICE_REMOVE)) {
@@ -205,22 +329,35 @@ public class TreeChangeProcessor {
         }
 
         if (change.hasKey(JsonConstants.CHANGE_SPLICE_ADD)) {
-            JsonArray addJson = change
-                    .getArray(JsonConstants.CHANGE_SPLICE_ADD);
+            processSplice(node, nsId, index, remove,
+                    change.getArray(JsonConstants.CHANGE_SPLICE_ADD), false);
+        } else if (change.hasKey(JsonConstants.CHANGE_SPLICE_ADD_NODES)) {
+            processSplice(node, nsId, index, remove,
+                    change.getArray(JsonConstants.CHANGE_SPLICE_ADD_NODES),
+                    true);
+        } else {
+            processSplice(node, nsId, index, remove, null, false);
+        }
+    }
 
+    private static void processSplice(StateNode node, int nsId, int index,
+            int remove, JsonArray addJson, boolean nodeValues) {
+        NodeList list = node.getList(nsId);
+
+        if (addJson == null) {
+            list.splice(index, remove);
+        } else if (!nodeValues) {
             JsArray<Object> add = ClientJsonCodec.jsonArrayAsJsArray(addJson);
 
             list.splice(index, remove, add);
-        } else if (change.hasKey(JsonConstants.CHANGE_SPLICE_ADD_NODES)) {
-            JsonArray addNodes = change
-                    .getArray(JsonConstants.CHANGE_SPLICE_ADD_NODES);
-            int length = addNodes.length();
+        } else {
+            int length = addJson.length();
 
             JsArray<StateNode> add = JsCollections.array();
 
             StateTree tree = node.getTree();
             for (int i = 0; i < length; i++) {
-                int childId = (int) addNodes.getNumber(i);
+                int childId = (int) addJson.getNumber(i);
                 StateNode child = tree.getNode(childId);
                 assert child != null : "No child node found with id " + childId;
                 child.setParent(node);
@@ -229,8 +366,6 @@ public class TreeChangeProcessor {
             }
 
             list.splice(index, remove, add);
-        } else {
-            list.splice(index, remove);
         }
     }
 
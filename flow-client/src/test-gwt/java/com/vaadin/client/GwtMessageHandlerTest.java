@@ -26,6 +26,7 @@ import com.vaadin.client.communication.MessageHandler;
 import com.vaadin.client.communication.MessageSender;
 import com.vaadin.client.communication.RequestResponseTracker;
 import com.vaadin.client.flow.StateTree;
+import com.vaadin.flow.shared.ApplicationConstants;
 import com.vaadin.flow.shared.ui.Dependency;
 import com.vaadin.flow.shared.ui.LoadMode;
 
@@ -261,6 +262,66 @@ public class GwtMessageHandlerTest extends ClientEngineTestBase {
         }.schedule(300);
     }
 
+    public void testReplayedMessages_handledBeforeResponse() {
+        resetInternalEvents();
+        setResyncState(false);
+        registry.getApplicationConfiguration().setMaxMessageSuspendTimeout(200);
+
+        handler.handleJSON(createMessage(0).cast());
+
+        // messages 1 and 2 were missed and are replayed with message 3
+        JsonObject response = createMessage(3);
+        JsonArray replayed = Json.createArray();
+        replayed.set(0, createMessage(1));
+        replayed.set(1, createMessage(2));
+        response.put(ApplicationConstants.REPLAYED_MESSAGES, replayed);
+        handler.handleJSON(response.cast());
+
+        delayTestFinish(500);
+        new Timer() {
+            @Override
+            public void run() {
+                assertEquals(3, handler.getLastSeenServerSyncId());
+                assertFalse(getResyncState());
+                finishTest();
+            }
+        }.schedule(300);
+    }
+
+    public void testReplayedMessages_alreadyHandledMessagesIgnored() {
+        resetInternalEvents();
+        setResyncState(false);
+        registry.getApplicationConfiguration().setMaxMessageSuspendTimeout(200);
+
+        handler.handleJSON(createMessage(0).cast());
+        handler.handleJSON(createMessage(1).cast());
+
+        // the server may replay messages that already arrived
+        JsonObject response = createMessage(3);
+        JsonArray replayed = Json.createArray();
+        replayed.set(0, createMessage(1));
+        replayed.set(1, createMessage(2));
+        response.put(ApplicationConstants.REPLAYED_MESSAGES, replayed);
+        handler.handleJSON(response.cast());
+
+        delayTestFinish(500);
+        new Timer() {
+            @Override
+            public void run() {
+                assertEquals(3, handler.getLastSeenServerSyncId());
+                assertFalse(getResyncState());
+                finishTest();
+            }
+        }.schedule(300);
+    }
+
+    private static JsonObject createMessage(int syncId) {
+        JavaScriptObject object = JavaScriptObject.createObject();
+        JsonObject message = object.cast();
+        message.put(ApplicationConstants.SERVER_SYNC_ID, syncId);
+        return message;
+    }
+
     private TestResourceLoader getResourceLoader() {
         return (TestResourceLoader) registry.getResourceLoader();
     }
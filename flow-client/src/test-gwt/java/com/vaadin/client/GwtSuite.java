@@ -7,6 +7,7 @@ import com.google.gwt.junit.tools.GWTTestSuite;
 
 import com.vaadin.client.communication.GwtAtmoshperePushConnectionTest;
 import com.vaadin.client.communication.GwtDefaultReconnectDialogTest;
+import com.vaadin.client.communication.GwtSsePushConnectionTest;
 import com.vaadin.client.flow.GwtBasicElementBinderTest;
 import com.vaadin.client.flow.GwtEventHandlerTest;
 import com.vaadin.client.flow.GwtMultipleBindingTest;
@@ -33,6 +34,7 @@ public class GwtSuite extends GWTTestSuite {
         TestSuite suite = new TestSuite("Flow GWT tests");
         suite.addTestSuite(GwtApplicationConnectionTest.class);
         suite.addTestSuite(GwtAtmoshperePushConnectionTest.class);
+        suite.addTestSuite(GwtSsePushConnectionTest.class);
         suite.addTestSuite(GwtJsArrayTest.class);
         suite.addTestSuite(GwtJsMapTest.class);
         suite.addTestSuite(GwtJsWeakMapTest.class);
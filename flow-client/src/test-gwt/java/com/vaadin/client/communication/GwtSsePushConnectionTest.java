@@ -0,0 +1,224 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.client.communication;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.impl.SchedulerImpl;
+
+import com.vaadin.client.ApplicationConfiguration;
+import com.vaadin.client.ClientEngineTestBase;
+import com.vaadin.client.CustomScheduler;
+import com.vaadin.client.Registry;
+import com.vaadin.client.UILifecycle;
+import com.vaadin.client.URIResolver;
+import com.vaadin.client.flow.ConstantPool;
+import com.vaadin.client.flow.StateTree;
+import com.vaadin.client.flow.collection.JsArray;
+import com.vaadin.client.flow.collection.JsCollections;
+import com.vaadin.client.flow.collection.JsMap;
+import com.vaadin.flow.shared.ApplicationConstants;
+
+/**
+ * @author Vaadin Ltd
+ *
+ */
+public class GwtSsePushConnectionTest extends ClientEngineTestBase {
+
+    private Registry registry;
+
+    private JsArray<String> connectionStates;
+
+    @Override
+    protected void gwtSetUp() throws Exception {
+        super.gwtSetUp();
+
+        initScheduler(new CustomScheduler());
+        setUpEventSource();
+
+        connectionStates = JsCollections.array();
+
+        registry = new Registry() {
+            {
+                set(ConstantPool.class, new ConstantPool());
+                set(StateTree.class, new StateTree(this));
+                set(URIResolver.class, new URIResolver(this));
+                set(UILifecycle.class, new UILifecycle());
+                set(ApplicationConfiguration.class,
+                        new ApplicationConfiguration());
+                set(MessageHandler.class, new MessageHandler(this) {
+                    @Override
+                    public String getPushId() {
+                        return "push-id";
+                    }
+                });
+                set(PushConfiguration.class, new PushConfiguration(this) {
+                    @Override
+                    public JsMap<String, String> getParameters() {
+                        return JsCollections.map();
+                    }
+                });
+                set(ConnectionStateHandler.class,
+                        new DefaultConnectionStateHandler(this) {
+                            @Override
+                            public void pushOk(PushConnection pushConnection) {
+                                connectionStates.push("ok");
+                            }
+
+                            @Override
+                            public void pushReconnectPending(
+                                    PushConnection pushConnection) {
+                                connectionStates.push("reconnect");
+                            }
+
+                            @Override
+                            public void pushError(
+                                    PushConnection pushConnection,
+                                    JavaScriptObject response) {
+                                connectionStates.push("error");
+                            }
+                        });
+            }
+        };
+        registry.getApplicationConfiguration().setServiceUrl("context://foo");
+        registry.getApplicationConfiguration().setContextRootUrl("bar/");
+        registry.getApplicationConfiguration().setUIId(3);
+    }
+
+    public void testConnect_eventSourceOpenedWithPushParameters() {
+        new SsePushConnection(registry);
+
+        String url = getEventSourceUrl();
+        assertTrue(url.startsWith("bar/"));
+        assertTrue(url.contains(ApplicationConstants.REQUEST_TYPE_PARAMETER
+                + "=" + ApplicationConstants.REQUEST_TYPE_PUSH));
+        assertTrue(url.contains(ApplicationConstants.UI_ID_PARAMETER + "=3"));
+        assertTrue(url
+                .contains(ApplicationConstants.PUSH_ID_PARAMETER + "=push-id"));
+    }
+
+    public void testOpen_pushOkReported() {
+        SsePushConnection connection = new SsePushConnection(registry);
+
+        fireOpen();
+
+        assertEquals(1, connectionStates.length());
+        assertEquals("ok", connectionStates.get(0));
+        assertTrue(connection.isActive());
+    }
+
+    public void testError_reconnecting_reconnectPendingReported() {
+        SsePushConnection connection = new SsePushConnection(registry);
+        fireOpen();
+
+        fireError(0);
+
+        assertEquals("reconnect", connectionStates.get(1));
+        assertTrue(connection.isActive());
+
+        // Opened again by the browser
+        fireOpen();
+        assertEquals("ok", connectionStates.get(2));
+    }
+
+    public void testError_closed_errorReported() {
+        SsePushConnection connection = new SsePushConnection(registry);
+        fireOpen();
+
+        fireError(2);
+
+        assertEquals("error", connectionStates.get(1));
+        assertFalse(connection.isActive());
+    }
+
+    public void testDisconnect_eventSourceClosed() {
+        SsePushConnection connection = new SsePushConnection(registry);
+        fireOpen();
+
+        boolean[] commandRun = new boolean[1];
+        connection.disconnect(() -> commandRun[0] = true);
+
+        assertTrue(commandRun[0]);
+        assertTrue(isEventSourceClosed());
+        assertFalse(connection.isActive());
+
+        // Events after closing are ignored
+        fireError(2);
+        assertEquals(1, connectionStates.length());
+    }
+
+    public void testDisconnect_twice_throws() {
+        SsePushConnection connection = new SsePushConnection(registry);
+        connection.disconnect(() -> {
+        });
+
+        try {
+            connection.disconnect(() -> {
+            });
+            fail("Disconnecting twice should throw");
+        } catch (IllegalStateException expected) {
+            // Expected
+        }
+    }
+
+    public void testTransportType_notBidirectional() {
+        SsePushConnection connection = new SsePushConnection(registry);
+
+        assertEquals(SsePushConnection.TRANSPORT_TYPE,
+                connection.getTransportType());
+        assertFalse(connection.isBidirectional());
+    }
+
+    private native void setUpEventSource()
+    /*-{
+        $wnd.EventSource = function(url, options) {
+            this.url = url;
+            this.readyState = 0;
+            this.closed = false;
+            this.close = function() {
+                this.closed = true;
+                this.readyState = 2;
+            };
+            $wnd.testEventSource = this;
+        };
+    }-*/;
+
+    private native String getEventSourceUrl()
+    /*-{
+        return $wnd.testEventSource.url;
+    }-*/;
+
+    private native boolean isEventSourceClosed()
+    /*-{
+        return $wnd.testEventSource.closed;
+    }-*/;
+
+    private native void fireOpen()
+    /*-{
+        $wnd.testEventSource.readyState = 1;
+        $wnd.testEventSource.onopen({});
+    }-*/;
+
+    private native void fireError(int readyState)
+    /*-{
+        $wnd.testEventSource.readyState = readyState;
+        $wnd.testEventSource.onerror({});
+    }-*/;
+
+    private native void initScheduler(SchedulerImpl scheduler)
+    /*-{
+       @com.google.gwt.core.client.impl.SchedulerImpl::INSTANCE = scheduler;
+    }-*/;
+}
@@ -445,6 +445,70 @@ public class GwtBasicElementBinderTest extends GwtPropertyElementBinderTest {
         assertEquals("second", childElement.getId());
     }
 
+    public void testBindChildren_initialChildrenInOrder() {
+        children.splice(0, 0, JsCollections.array(createChildNode("first"),
+                createChildNode("second"), createChildNode("third")));
+
+        Binder.bind(node, element);
+        Reactive.flush();
+
+        HTMLCollection children = element.getChildren();
+        assertEquals(3, children.length());
+        assertEquals("first", ((Element) children.at(0)).getId());
+        assertEquals("second", ((Element) children.at(1)).getId());
+        assertEquals("third", ((Element) children.at(2)).getId());
+    }
+
+    public void testAddChildren_betweenExistingChildren_insertedInOrder() {
+        Binder.bind(node, element);
+
+        children.splice(0, 0, JsCollections.array(createChildNode("first"),
+                createChildNode("last")));
+        Reactive.flush();
+
+        children.splice(1, 0, JsCollections.array(createChildNode("a"),
+                createChildNode("b"), createChildNode("c")));
+
+        // <span>first</span><span>a</span><span>b</span><span>c</span><span>last</span>
+        Reactive.flush();
+
+        HTMLCollection children = element.getChildren();
+        assertEquals(5, children.length());
+        assertEquals("first", ((Element) children.at(0)).getId());
+        assertEquals("a", ((Element) children.at(1)).getId());
+        assertEquals("b", ((Element) children.at(2)).getId());
+        assertEquals("c", ((Element) children.at(3)).getId());
+        assertEquals("last", ((Element) children.at(4)).getId());
+    }
+
+    public void testAddChildren_existingElementBetweenNewChildren_insertedInOrder() {
+        Binder.bind(node, element);
+
+        children.add(0, createChildNode("first"));
+        Reactive.flush();
+
+        StateNode existingNode = createChildNode("existing", "div");
+        Element existing = Browser.getDocument().createElement("div");
+        element.appendChild(existing);
+        node.getTree().getRegistry().getExistingElementMap()
+                .add(existingNode.getId(), existing);
+
+        // The pending new child must be inserted before the existing element
+        children.splice(1, 0, JsCollections.array(createChildNode("a"),
+                existingNode, createChildNode("b")));
+
+        // <span>first</span><span>a</span><div>existing</div><span>b</span>
+        Reactive.flush();
+
+        HTMLCollection children = element.getChildren();
+        assertEquals(4, children.length());
+        assertEquals("first", ((Element) children.at(0)).getId());
+        assertEquals("a", ((Element) children.at(1)).getId());
+        assertSame(existing, children.at(2));
+        assertEquals("existing", existing.getId());
+        assertEquals("b", ((Element) children.at(3)).getId());
+    }
+
     public void testRemoveChild() {
         Binder.bind(node, element);
 
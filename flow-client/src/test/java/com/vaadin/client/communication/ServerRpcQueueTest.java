@@ -0,0 +1,153 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.client.communication;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.client.Registry;
+import com.vaadin.client.UILifecycle;
+import com.vaadin.client.UILifecycle.UIState;
+import com.vaadin.flow.shared.JsonConstants;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+
+public class ServerRpcQueueTest {
+
+    private final UILifecycle lifecycle = new UILifecycle();
+
+    private final Registry registry = new Registry() {
+        {
+            set(UILifecycle.class, lifecycle);
+        }
+    };
+
+    private ServerRpcQueue queue;
+
+    @Before
+    public void setUp() {
+        lifecycle.setState(UIState.RUNNING);
+        queue = new ServerRpcQueue(registry);
+    }
+
+    @Test
+    public void add_repeatedPropertySync_onlyLastValueQueued() {
+        queue.add(createSync(1, "value", "a"));
+        queue.add(createSync(1, "value", "ab"));
+        queue.add(createSync(1, "value", "abc"));
+
+        Assert.assertEquals(1, queue.size());
+        Assert.assertEquals("abc", getValue(queue.toJson().getObject(0)));
+    }
+
+    @Test
+    public void add_syncsForDifferentProperties_allQueued() {
+        queue.add(createSync(1, "value", "a"));
+        queue.add(createSync(1, "checked", "true"));
+        queue.add(createSync(2, "value", "b"));
+
+        Assert.assertEquals(3, queue.size());
+    }
+
+    @Test
+    public void add_eventBetweenSyncs_orderPreserved() {
+        queue.add(createSync(1, "value", "a"));
+        queue.add(createEvent(1, "change", null));
+        queue.add(createSync(1, "value", "ab"));
+
+        JsonArray invocations = queue.toJson();
+        Assert.assertEquals(3, invocations.length());
+        Assert.assertEquals("a", getValue(invocations.getObject(0)));
+        Assert.assertEquals(JsonConstants.RPC_TYPE_EVENT, invocations
+                .getObject(1).getString(JsonConstants.RPC_TYPE));
+        Assert.assertEquals("ab", getValue(invocations.getObject(2)));
+    }
+
+    @Test
+    public void add_identicalDebouncedEvents_onlyFirstQueued() {
+        queue.add(createEvent(1, "input", "trailing"));
+        queue.add(createEvent(1, "input", "trailing"));
+
+        Assert.assertEquals(1, queue.size());
+    }
+
+    @Test
+    public void add_syncBetweenDebouncedEvents_orderPreserved() {
+        queue.add(createEvent(1, "input", "trailing"));
+        queue.add(createSync(1, "value", "a"));
+        queue.add(createEvent(1, "input", "trailing"));
+
+        Assert.assertEquals(3, queue.size());
+    }
+
+    @Test
+    public void add_identicalEventsWithoutPhase_allQueued() {
+        queue.add(createEvent(1, "click", null));
+        queue.add(createEvent(1, "click", null));
+
+        Assert.assertEquals(2, queue.size());
+    }
+
+    @Test
+    public void clear_propertySyncQueuedAgain() {
+        queue.add(createSync(1, "value", "a"));
+        queue.clear();
+        queue.add(createSync(1, "value", "ab"));
+
+        Assert.assertEquals(1, queue.size());
+        Assert.assertEquals("ab", getValue(queue.toJson().getObject(0)));
+    }
+
+    @Test
+    public void add_notRunning_ignored() {
+        lifecycle.setState(UIState.TERMINATED);
+        queue.add(createSync(1, "value", "a"));
+
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    private static JsonObject createSync(int node, String property,
+            String value) {
+        JsonObject sync = Json.createObject();
+        sync.put(JsonConstants.RPC_TYPE, JsonConstants.RPC_TYPE_MAP_SYNC);
+        sync.put(JsonConstants.RPC_NODE, node);
+        sync.put(JsonConstants.RPC_FEATURE, 1);
+        sync.put(JsonConstants.RPC_PROPERTY, property);
+        sync.put(JsonConstants.RPC_PROPERTY_VALUE, value);
+        return sync;
+    }
+
+    private static JsonObject createEvent(int node, String eventType,
+            String phase) {
+        JsonObject event = Json.createObject();
+        event.put(JsonConstants.RPC_TYPE, JsonConstants.RPC_TYPE_EVENT);
+        event.put(JsonConstants.RPC_NODE, node);
+        event.put(JsonConstants.RPC_EVENT_TYPE, eventType);
+        if (phase != null) {
+            JsonObject data = Json.createObject();
+            data.put(JsonConstants.EVENT_DATA_PHASE, phase);
+            event.put(JsonConstants.RPC_EVENT_DATA, data);
+        }
+        return event;
+    }
+
+    private static String getValue(JsonObject sync) {
+        return sync.getString(JsonConstants.RPC_PROPERTY_VALUE);
+    }
+}
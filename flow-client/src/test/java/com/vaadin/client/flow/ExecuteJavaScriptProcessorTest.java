@@ -43,6 +43,7 @@ public class ExecuteJavaScriptProcessorTest {
         private final List<String[]> parameterNamesAndCodeList = new ArrayList<>();
         private final List<JsArray<Object>> parametersList = new ArrayList<>();
         private final List<JsMap<Object, StateNode>> nodeParametersList = new ArrayList<>();
+        private final List<String> functionKeyList = new ArrayList<>();
 
         private final Registry registry;
 
@@ -67,9 +68,10 @@ public class ExecuteJavaScriptProcessorTest {
 
         @Override
         protected void invoke(String[] parameterNamesAndCode,
-                JsArray<Object> parameters,
+                String functionKey, JsArray<Object> parameters,
                 JsMap<Object, StateNode> nodeParameters) {
             parameterNamesAndCodeList.add(parameterNamesAndCode);
+            functionKeyList.add(functionKey);
             parametersList.add(parameters);
             nodeParametersList.add(nodeParameters);
         }
@@ -132,6 +134,36 @@ public class ExecuteJavaScriptProcessorTest {
         Assert.assertEquals(0, processor.nodeParametersList.get(1).size());
     }
 
+    @Test
+    public void execute_scriptFromConstantPool_functionKeyPassed() {
+        Registry registry = new Registry() {
+            {
+                set(StateTree.class, new StateTree(this));
+                set(ConstantPool.class, new ConstantPool());
+            }
+        };
+        JsonObject constants = Json.createObject();
+        constants.put("scriptId", "script");
+        registry.getConstantPool().importFromJson(constants);
+        CollectingExecuteJavaScriptProcessor processor = new CollectingExecuteJavaScriptProcessor(
+                registry);
+
+        JsonArray invocation1 = JsonUtils.createArray(Json.create("script"));
+        JsonArray invocation2 = JsonUtils.createArray(Json.create("param"),
+                JsonUtils.createArray(Json.create("scriptId")));
+        processor.execute(JsonUtils.createArray(invocation1, invocation2));
+
+        Assert.assertEquals(2, processor.parameterNamesAndCodeList.size());
+        Assert.assertArrayEquals(new String[] { "script" },
+                processor.parameterNamesAndCodeList.get(0));
+        Assert.assertNull(processor.functionKeyList.get(0));
+
+        Assert.assertArrayEquals(new String[] { "$0", "script" },
+                processor.parameterNamesAndCodeList.get(1));
+        Assert.assertEquals("1:scriptId", processor.functionKeyList.get(1));
+        Assert.assertEquals("param", processor.parametersList.get(1).get(0));
+    }
+
     @Test
     public void execute_nodeParametersAreCorrectlyPassed() {
         Registry registry = new Registry() {
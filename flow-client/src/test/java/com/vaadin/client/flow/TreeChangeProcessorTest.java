@@ -166,6 +166,42 @@ public class TreeChangeProcessorTest {
         Assert.assertEquals(tree.getRootNode(), node);
     }
 
+    @Test
+    public void testCompactPutChange() {
+        JsonArray change = toArray(Json.create(rootId),
+                Json.create(JsonConstants.COMPACT_CHANGE_PUT), Json.create(ns),
+                Json.create(0), Json.create(myValue));
+        JsonArray keys = toArray(Json.create(myKey));
+
+        StateNode node = TreeChangeProcessor.processCompactChange(tree, change,
+                keys);
+
+        Object value = tree.getRootNode().getMap(ns).getProperty(myKey)
+                .getValue();
+        Assert.assertEquals(myValue, value);
+        Assert.assertEquals(tree.getRootNode(), node);
+    }
+
+    @Test
+    public void testCompactAttachNodeBeforePut() {
+        int nodeId = 2;
+        JsonArray changes = toArray(
+                toArray(Json.create(nodeId),
+                        Json.create(JsonConstants.COMPACT_CHANGE_PUT),
+                        Json.create(ns), Json.create(0), Json.create(myValue)),
+                toArray(Json.create(nodeId),
+                        Json.create(JsonConstants.COMPACT_CHANGE_ATTACH)));
+
+        JsSet<StateNode> updatedNodes = TreeChangeProcessor
+                .processCompactChanges(tree, changes,
+                        toArray(Json.create(myKey)));
+
+        Object value = tree.getNode(nodeId).getMap(ns).getProperty(myKey)
+                .getValue();
+        Assert.assertEquals(myValue, value);
+        Assert.assertEquals(1, updatedNodes.size());
+    }
+
     @Test
     public void testAttachNodeBeforePut() {
         int nodeId = 2;
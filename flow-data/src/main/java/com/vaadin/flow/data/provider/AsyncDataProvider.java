@@ -0,0 +1,76 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.data.provider;
+
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Stream;
+
+/**
+ * A data provider that fetches and counts items without blocking the calling
+ * thread.
+ * <p>
+ * A {@link DataCommunicator} with
+ * {@link DataCommunicator#setAsyncFetchEnabled(boolean) asynchronous fetching}
+ * enabled uses {@link #fetchAsync(Query)} and {@link #sizeAsync(Query)}, so that
+ * the session is not locked while the back end is queried. The synchronous
+ * {@link #fetch(Query)} and {@link #size(Query)} methods wait for the
+ * asynchronous results by default.
+ *
+ * @param <T>
+ *            data provider data type
+ * @param <F>
+ *            data provider filter type
+ * @since
+ */
+public interface AsyncDataProvider<T, F> extends DataProvider<T, F> {
+
+    /**
+     * Fetches the items matching the given query. The returned stage may be
+     * completed in any thread.
+     * <p>
+     * If the stage is a {@link java.util.concurrent.CompletableFuture}, it is
+     * cancelled when the result is no longer needed, for instance when the
+     * user has scrolled past the requested range.
+     *
+     * @param query
+     *            a given query to request data with
+     * @return a completion stage of the list of requested items, not
+     *         <code>null</code>
+     */
+    CompletionStage<List<T>> fetchAsync(Query<T, F> query);
+
+    /**
+     * Gets the number of items matching the given query. The returned stage
+     * may be completed in any thread.
+     *
+     * @param query
+     *            a given query to count data with
+     * @return a completion stage of the number of available items, not
+     *         <code>null</code>
+     */
+    CompletionStage<Integer> sizeAsync(Query<T, F> query);
+
+    @Override
+    default Stream<T> fetch(Query<T, F> query) {
+        return fetchAsync(query).toCompletableFuture().join().stream();
+    }
+
+    @Override
+    default int size(Query<T, F> query) {
+        return sizeAsync(query).toCompletableFuture().join().intValue();
+    }
+}
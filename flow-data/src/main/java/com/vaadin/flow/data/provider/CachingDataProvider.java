@@ -0,0 +1,336 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.data.provider;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.vaadin.flow.data.provider.DataChangeEvent.DataRefreshEvent;
+import com.vaadin.flow.shared.Registration;
+
+/**
+ * Wrapper which caches the items and the item counts returned by a data
+ * provider, so that identical queries from different components and UIs only
+ * reach the back end once.
+ * <p>
+ * Items are cached per filter, sort orders and fetched range, and item counts
+ * per filter. The least recently used entries are evicted when there are more
+ * than the maximum number of entries, and entries older than the time to live
+ * are not used. The cache is cleared when the wrapped data provider is
+ * refreshed, and entries containing a refreshed item are evicted. Results of
+ * queries that were running during a refresh are not cached.
+ * <p>
+ * Concurrent queries missing the cache all reach the wrapped data provider.
+ * The wrapped data provider must be safe to use from multiple threads if the
+ * wrapper is shared between sessions.
+ * <p>
+ * An instance is typically shared between sessions, and then all sessions get
+ * the same cached item instances. Don't cache a data provider which returns
+ * different items depending on the user, and don't modify cached items in one
+ * session without refreshing them.
+ * <p>
+ * The wrapper listens to the wrapped data provider to notice when it is
+ * refreshed, so the wrapped data provider keeps the wrapper and its cache
+ * reachable. Call {@link #destroy()} when the wrapper is no longer used but
+ * the wrapped data provider still is.
+ *
+ * @author Vaadin Ltd
+ * @since
+ *
+ * @param <T>
+ *            data provider data type
+ * @param <F>
+ *            data provider filter type
+ */
+public class CachingDataProvider<T, F> extends DataProviderWrapper<T, F, F> {
+
+    private final int maxEntries;
+    private final long timeToLive;
+
+    // Guarded by this, recreated empty after deserialization
+    private transient Map<List<Object>, CacheEntry> cache;
+
+    // Guarded by this, null after destroy()
+    private Registration wrappedProviderListener;
+
+    // Guarded by this, changed whenever cached entries are invalidated
+    private long generation;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    private static class CacheEntry implements Serializable {
+        private final Object value;
+        private final long created = System.nanoTime();
+
+        private CacheEntry(Object value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * Constructs a caching wrapper for a data provider, with entries used
+     * until they are evicted or the cache is cleared.
+     *
+     * @param dataProvider
+     *            the wrapped data provider, not <code>null</code>
+     * @param maxEntries
+     *            the maximum number of cached item ranges and counts
+     */
+    public CachingDataProvider(DataProvider<T, F> dataProvider,
+            int maxEntries) {
+        this(dataProvider, maxEntries, null);
+    }
+
+    /**
+     * Constructs a caching wrapper for a data provider.
+     *
+     * @param dataProvider
+     *            the wrapped data provider, not <code>null</code>
+     * @param maxEntries
+     *            the maximum number of cached item ranges and counts
+     * @param timeToLive
+     *            how long a cached entry is used, or <code>null</code> to use
+     *            entries until they are evicted or the cache is cleared
+     */
+    public CachingDataProvider(DataProvider<T, F> dataProvider, int maxEntries,
+            Duration timeToLive) {
+        super(dataProvider);
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Maximum number of entries cannot be less than 1, got %d",
+                    maxEntries));
+        }
+        if (timeToLive != null
+                && (timeToLive.isNegative() || timeToLive.isZero())) {
+            throw new IllegalArgumentException(
+                    "Time to live must be positive, got " + timeToLive);
+        }
+        this.maxEntries = maxEntries;
+        this.timeToLive = timeToLive == null ? -1 : timeToLive.toNanos();
+
+        // Also clears when the wrapped provider is refreshed directly
+        wrappedProviderListener = dataProvider
+                .addDataProviderListener(event -> {
+                    if (event instanceof DataRefreshEvent) {
+                        evict(((DataRefreshEvent<T>) event).getItem());
+                    } else {
+                        clear();
+                    }
+                });
+    }
+
+    @Override
+    protected F getFilter(Query<T, F> query) {
+        return query.getFilter().orElse(null);
+    }
+
+    @Override
+    public int size(Query<T, F> query) {
+        List<Object> key = Arrays.asList(Boolean.TRUE, getFilter(query));
+        Object cached = get(key);
+        if (cached != null) {
+            return ((Integer) cached).intValue();
+        }
+        long fetchGeneration = getGeneration();
+        int size = super.size(query);
+        put(key, Integer.valueOf(size), fetchGeneration);
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream<T> fetch(Query<T, F> query) {
+        List<Object> key = Arrays.asList(Boolean.FALSE, getFilter(query),
+                query.getSortOrders().stream()
+                        .map(order -> Arrays.asList(order.getSorted(),
+                                order.getDirection()))
+                        .collect(Collectors.toList()),
+                dataProvider.isInMemory() ? query.getInMemorySorting() : null,
+                Integer.valueOf(query.getOffset()),
+                Integer.valueOf(query.getLimit()));
+        Object cached = get(key);
+        if (cached != null) {
+            return ((List<T>) cached).stream();
+        }
+        long fetchGeneration = getGeneration();
+        List<T> items = Collections.unmodifiableList(
+                super.fetch(query).collect(Collectors.toList()));
+        put(key, items, fetchGeneration);
+        return items.stream();
+    }
+
+    @Override
+    public void refreshAll() {
+        clear();
+        super.refreshAll();
+    }
+
+    @Override
+    public void refreshItem(T item) {
+        evict(item);
+        super.refreshItem(item);
+    }
+
+    /**
+     * Removes all cached items and counts.
+     */
+    public synchronized void clear() {
+        generation++;
+        getCache().clear();
+    }
+
+    /**
+     * Stops listening to the wrapped data provider and removes all cached items
+     * and counts. Queries made after this are passed directly to the wrapped
+     * data provider without caching.
+     */
+    public void destroy() {
+        Registration registration;
+        synchronized (this) {
+            registration = wrappedProviderListener;
+            wrappedProviderListener = null;
+            clear();
+        }
+        if (registration != null) {
+            registration.remove();
+        }
+    }
+
+    /**
+     * Gets the number of queries answered from the cache.
+     *
+     * @return the number of cache hits
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the number of queries passed to the wrapped data provider.
+     *
+     * @return the number of cache misses
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Gets the number of entries removed from the cache because of its size
+     * or their age.
+     *
+     * @return the number of evicted entries
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Gets the ratio of queries answered from the cache to all queries.
+     *
+     * @return the hit rate between 0 and 1, or 0 if there have been no
+     *         queries
+     */
+    public synchronized double getHitRate() {
+        long total = hitCount + missCount;
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Gets the number of cached item ranges and counts.
+     *
+     * @return the number of entries in the cache
+     */
+    public synchronized int getEntryCount() {
+        return getCache().size();
+    }
+
+    private synchronized Object get(List<Object> key) {
+        if (wrappedProviderListener == null) {
+            // Destroyed, not caching anymore
+            missCount++;
+            return null;
+        }
+        CacheEntry entry = getCache().get(key);
+        if (entry != null && timeToLive >= 0
+                && System.nanoTime() - entry.created > timeToLive) {
+            getCache().remove(key);
+            evictionCount++;
+            entry = null;
+        }
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.value;
+    }
+
+    private synchronized long getGeneration() {
+        return generation;
+    }
+
+    private synchronized void put(List<Object> key, Object value,
+            long fetchGeneration) {
+        // Drop results that may have been fetched before a refresh
+        if (wrappedProviderListener != null && fetchGeneration == generation) {
+            getCache().put(key, new CacheEntry(value));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized void evict(T item) {
+        generation++;
+        Object id = getId(item);
+        Iterator<CacheEntry> entries = getCache().values().iterator();
+        while (entries.hasNext()) {
+            Object value = entries.next().value;
+            if (value instanceof List && ((List<?>) value).stream()
+                    .anyMatch(cached -> Objects.equals(id,
+                            getId((T) cached)))) {
+                entries.remove();
+            }
+        }
+    }
+
+    private Map<List<Object>, CacheEntry> getCache() {
+        if (cache == null) {
+            cache = new LinkedHashMap<List<Object>, CacheEntry>(16, 0.75f,
+                    true) {
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<List<Object>, CacheEntry> eldest) {
+                    if (size() > maxEntries) {
+                        evictionCount++;
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+        return cache;
+    }
+}
@@ -17,6 +17,7 @@ package com.vaadin.flow.data.provider;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -25,13 +26,17 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
 import com.vaadin.flow.data.provider.ArrayUpdater.Update;
 import com.vaadin.flow.data.provider.DataChangeEvent.DataRefreshEvent;
 import com.vaadin.flow.dom.Element;
@@ -117,6 +122,24 @@ public class DataCommunicator<T> implements Serializable {
     // Paged queries are enabled by default
     private boolean pagingEnabled = true;
 
+    private boolean asyncFetchEnabled;
+
+    // The fetch in progress and the latest completed one, fetched again if
+    // needed after deserialization
+    private transient AsyncFetch<T> pendingAsyncFetch;
+    private transient AsyncFetch<T> completedAsyncFetch;
+
+    // Prefetching is disabled by default
+    private int prefetchPageCount;
+
+    // Start of the requested range minus the previous start, the latest
+    // non-zero one
+    private int scrollDelta;
+
+    // Items fetched ahead for the query identified by the key
+    private transient FetchedItems<T> prefetchedItems;
+    private transient List<Object> prefetchKey;
+
     private static class SizeVerifier<T> implements Consumer<T>, Serializable {
 
         private int size;
@@ -175,6 +198,9 @@ public class DataCommunicator<T> implements Serializable {
      *            the end of the requested range
      */
     public void setRequestedRange(int start, int length) {
+        if (start != requestedRange.getStart()) {
+            scrollDelta = start - requestedRange.getStart();
+        }
         requestedRange = Range.withLength(start, length);
 
         requestFlush();
@@ -191,6 +217,8 @@ public class DataCommunicator<T> implements Serializable {
         resendEntireRange = true;
         dataGenerator.destroyAllData();
         updatedData.clear();
+        discardAsyncFetches();
+        discardPrefetchedItems();
         requestFlush();
     }
 
@@ -204,6 +232,13 @@ public class DataCommunicator<T> implements Serializable {
         Objects.requireNonNull(data,
                 "DataCommunicator can not refresh null object");
         getKeyMapper().refresh(data);
+        if (completedAsyncFetch != null) {
+            completedAsyncFetch.getItems().refresh(data,
+                    getDataProvider()::getId);
+        }
+        if (prefetchedItems != null) {
+            prefetchedItems.refresh(data, getDataProvider()::getId);
+        }
         dataGenerator.refreshData(data);
         updatedData.add(data);
         requestFlushUpdatedData();
@@ -647,6 +682,90 @@ public class DataCommunicator<T> implements Serializable {
         this.pagingEnabled = pagingEnabled;
     }
 
+    /**
+     * Sets the maximum number of pages to fetch ahead of the requested range.
+     * Prefetching is disabled by default.
+     * <p>
+     * When enabled, more items than requested are fetched in the direction
+     * the requested range has last moved, and the following requested ranges
+     * are served from these items as long as the filter and the sorting stay
+     * the same. One page is fetched ahead when the range moves slowly, and
+     * more pages up to the given count when it moves by several pages at a
+     * time. Only the items of the latest fetch are kept, and they are
+     * discarded on {@link #reset()}.
+     * <p>
+     * Prefetched items are also used with
+     * {@link #setAsyncFetchEnabled(boolean) asynchronous fetching}, hiding the
+     * latency of the back end for continuous scrolling.
+     *
+     * @param prefetchPageCount
+     *            the maximum number of pages to fetch ahead, or {@code 0} to
+     *            disable prefetching
+     */
+    public void setPrefetchPageCount(int prefetchPageCount) {
+        if (prefetchPageCount < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Prefetch page count cannot be negative, got %d",
+                    prefetchPageCount));
+        }
+        this.prefetchPageCount = prefetchPageCount;
+        if (prefetchPageCount == 0) {
+            discardPrefetchedItems();
+        }
+    }
+
+    /**
+     * Gets the maximum number of pages to fetch ahead of the requested range.
+     *
+     * @return the maximum number of pages to fetch ahead, {@code 0} if
+     *         prefetching is disabled
+     * @see #setPrefetchPageCount(int)
+     */
+    public int getPrefetchPageCount() {
+        return prefetchPageCount;
+    }
+
+    /**
+     * Returns whether items are fetched asynchronously from an
+     * {@link AsyncDataProvider}.
+     *
+     * @return {@code true} if asynchronous fetching is enabled, {@code false}
+     *         otherwise
+     *
+     * @see #setAsyncFetchEnabled(boolean)
+     */
+    public boolean isAsyncFetchEnabled() {
+        return asyncFetchEnabled;
+    }
+
+    /**
+     * Sets whether items are fetched asynchronously when the data provider is
+     * an {@link AsyncDataProvider}. Asynchronous fetching is disabled by
+     * default.
+     * <p>
+     * When enabled, the items and the item count are queried using
+     * {@link AsyncDataProvider#fetchAsync(Query)} and
+     * {@link AsyncDataProvider#sizeAsync(Query)} without waiting for the
+     * results while the session is locked. The response to the client is sent
+     * right away, and the results are applied later using
+     * {@link com.vaadin.flow.component.UI#access(com.vaadin.flow.server.Command)}.
+     * The client therefore only gets the items with the next response, which
+     * means that server push or polling should be used. A fetch which is not
+     * yet done is cancelled if another range is requested or if the data is
+     * reset.
+     *
+     * @param asyncFetchEnabled
+     *            {@code true} to fetch items asynchronously, {@code false} to
+     *            fetch them synchronously
+     */
+    public void setAsyncFetchEnabled(boolean asyncFetchEnabled) {
+        this.asyncFetchEnabled = asyncFetchEnabled;
+        if (!asyncFetchEnabled) {
+            discardAsyncFetches();
+        }
+        requestFlush();
+    }
+
     /**
      * Getter method for determining the item count of the data. Can be
      * overridden by a subclass that uses a specific type of DataProvider and/or
@@ -659,6 +778,9 @@ public class DataCommunicator<T> implements Serializable {
         assert definedSize : "This method should never be called when using undefined size";
         if (countCallback != null) {
             return countCallback.count(new Query(getFilter()));
+        } else if (completedAsyncFetch != null
+                && completedAsyncFetch.getCount() != null) {
+            return completedAsyncFetch.getCount().intValue();
         } else {
             return getDataProvider().size(new Query(getFilter()));
         }
@@ -704,6 +826,11 @@ public class DataCommunicator<T> implements Serializable {
      */
     @SuppressWarnings({ "rawtypes", "unchecked" })
     protected Stream<T> fetchFromProvider(int offset, int limit) {
+        if (completedAsyncFetch != null
+                && completedAsyncFetch.covers(Range.withLength(offset, limit))) {
+            return completedAsyncFetch.getItems().getItems(offset, limit);
+        }
+
         Stream<T> stream = Stream.empty();
         QueryTrace query = null;
 
@@ -798,6 +925,8 @@ public class DataCommunicator<T> implements Serializable {
 
     private void handleDetach() {
         dataGenerator.destroyAllData();
+        discardAsyncFetches();
+        discardPrefetchedItems();
         if (dataProviderUpdateRegistration != null) {
             dataProviderUpdateRegistration.remove();
             dataProviderUpdateRegistration = null;
@@ -815,7 +944,9 @@ public class DataCommunicator<T> implements Serializable {
                     reset();
                     arrayUpdater.initialize();
                 }
-                flush();
+                if (!isFetchingAsync() || isAsyncFetchDone(context.getUI())) {
+                    flush();
+                }
                 flushRequest = null;
             };
             stateNode.runWhenAttached(ui -> ui.getInternals().getStateTree()
@@ -834,6 +965,122 @@ public class DataCommunicator<T> implements Serializable {
         }
     }
 
+    private boolean isFetchingAsync() {
+        return asyncFetchEnabled
+                && getDataProvider() instanceof AsyncDataProvider;
+    }
+
+    /**
+     * Checks whether the items and the item count needed for flushing have
+     * been fetched. If not, starts fetching them asynchronously unless that is
+     * already being done.
+     */
+    private boolean isAsyncFetchDone(UI ui) {
+        Integer count = completedAsyncFetch != null
+                ? completedAsyncFetch.getCount()
+                : null;
+        boolean countMissing = definedSize && countCallback == null
+                && count == null;
+        Range range = requestedRange;
+        if (count != null) {
+            range = range.restrictTo(Range.withLength(0, count.intValue()));
+        }
+
+        if (!countMissing && (range.isEmpty() || (completedAsyncFetch != null
+                && completedAsyncFetch.covers(range)))) {
+            return true;
+        }
+        if (pendingAsyncFetch != null) {
+            if (pendingAsyncFetch.covers(range)
+                    && (!countMissing || pendingAsyncFetch.isCounting())) {
+                // The items are on their way
+                return false;
+            }
+            // Superseded, e.g. because the user has scrolled further
+            AsyncFetch<T> superseded = pendingAsyncFetch;
+            pendingAsyncFetch = null;
+            superseded.cancel();
+        }
+
+        AsyncFetch<T> fetch = startAsyncFetch(getPrefetchRange(range),
+                countMissing, count);
+        if (fetch.isDone()) {
+            completedAsyncFetch = fetch.verify();
+            pendingAsyncFetch = null;
+            return true;
+        }
+        pendingAsyncFetch = fetch;
+        fetch.whenDone(() -> {
+            try {
+                ui.access(() -> applyAsyncFetch(fetch));
+            } catch (UIDetachedException e) {
+                // Nothing to show the items in
+            }
+        });
+        return false;
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private AsyncFetch<T> startAsyncFetch(Range range, boolean countMissing,
+            Integer count) {
+        AsyncDataProvider provider = (AsyncDataProvider) getDataProvider();
+        List<QuerySortOrder> sortOrders = new ArrayList<>(backEndSorting);
+
+        Range fetchRange = range;
+        List<CompletableFuture<List<T>>> pages = new ArrayList<>();
+        List<Integer> limits = new ArrayList<>();
+        if (range.isEmpty()) {
+            // Only the count is needed
+        } else if (pagingEnabled) {
+            // Same queries as when fetching synchronously
+            final int pageCount = (range.length() + pageSize - 1) / pageSize;
+            for (int page = 0; page < pageCount; page++) {
+                pages.add(provider.fetchAsync(new Query(
+                        range.getStart() + page * pageSize, pageSize,
+                        sortOrders, inMemorySorting, filter))
+                        .toCompletableFuture());
+                limits.add(pageSize);
+            }
+            fetchRange = Range.withLength(range.getStart(),
+                    pageCount * pageSize);
+        } else {
+            pages.add(provider.fetchAsync(new Query(range.getStart(),
+                    range.length(), sortOrders, inMemorySorting, filter))
+                    .toCompletableFuture());
+            limits.add(range.length());
+        }
+
+        CompletableFuture<Integer> countFuture;
+        if (countMissing) {
+            countFuture = provider.sizeAsync(new Query(getFilter()))
+                    .toCompletableFuture();
+        } else {
+            countFuture = CompletableFuture.completedFuture(count);
+        }
+        return new AsyncFetch<>(fetchRange, pages, limits, countFuture,
+                countMissing);
+    }
+
+    private void applyAsyncFetch(AsyncFetch<T> fetch) {
+        if (fetch != pendingAsyncFetch) {
+            // Superseded or reset in the meantime
+            return;
+        }
+        pendingAsyncFetch = null;
+        // Failures are handled by the error handler of the session
+        completedAsyncFetch = fetch.verify();
+        requestFlush();
+    }
+
+    private void discardAsyncFetches() {
+        AsyncFetch<T> pending = pendingAsyncFetch;
+        pendingAsyncFetch = null;
+        completedAsyncFetch = null;
+        if (pending != null) {
+            pending.cancel();
+        }
+    }
+
     private void flush() {
         Set<String> oldActive = new HashSet<>(activeKeyOrder);
 
@@ -1081,7 +1328,7 @@ public class DataCommunicator<T> implements Serializable {
 
         // XXX Explicitly refresh anything that is updated
         List<String> activeKeys = new ArrayList<>(range.length());
-        fetchFromProvider(range.getStart(), range.length()).forEach(bean -> {
+        fetchItems(range).forEach(bean -> {
             boolean mapperHasKey = keyMapper.has(bean);
             String key = keyMapper.key(bean);
             if (mapperHasKey) {
@@ -1096,6 +1343,56 @@ public class DataCommunicator<T> implements Serializable {
         return new Activation(activeKeys, needsSizeRecheck);
     }
 
+    private Stream<T> fetchItems(Range range) {
+        if (prefetchPageCount == 0 || isFetchingAsync()) {
+            return fetchFromProvider(range.getStart(), range.length());
+        }
+
+        List<Object> key = Arrays.asList(getFilter(),
+                new ArrayList<>(backEndSorting), inMemorySorting);
+        if (prefetchedItems == null || !key.equals(prefetchKey)
+                || !prefetchedItems.covers(range)) {
+            Range prefetchRange = getPrefetchRange(range);
+            if (definedSize) {
+                prefetchRange = prefetchRange
+                        .restrictTo(Range.withLength(0, assumedSize));
+            }
+            List<T> items = fetchFromProvider(prefetchRange.getStart(),
+                    prefetchRange.length()).collect(Collectors.toList());
+            // Paged queries may return more than the range, which is kept
+            // too
+            prefetchedItems = new FetchedItems<>(Range.withLength(
+                    prefetchRange.getStart(),
+                    Math.max(items.size(), prefetchRange.length())), items);
+            prefetchKey = key;
+        }
+        return prefetchedItems.getItems(range.getStart(), range.length());
+    }
+
+    /**
+     * Gets the range to fetch for the given range, including the pages to
+     * fetch ahead in the scrolling direction. The faster the requested range
+     * has moved, the more pages are fetched, up to the prefetch page count.
+     */
+    private Range getPrefetchRange(Range range) {
+        if (prefetchPageCount == 0 || range.isEmpty()) {
+            return range;
+        }
+        int pages = (Math.abs(scrollDelta) + pageSize - 1) / pageSize;
+        int ahead = Math.max(1, Math.min(pages, prefetchPageCount))
+                * pageSize;
+        if (scrollDelta < 0) {
+            return Range.between(Math.max(0, range.getStart() - ahead),
+                    range.getEnd());
+        }
+        return Range.withLength(range.getStart(), range.length() + ahead);
+    }
+
+    private void discardPrefetchedItems() {
+        prefetchedItems = null;
+        prefetchKey = null;
+    }
+
     private JsonValue generateJson(T item) {
         JsonObject json = Json.createObject();
         json.put("key", getKeyMapper().key(item));
@@ -1124,4 +1421,130 @@ public class DataCommunicator<T> implements Serializable {
             return new Activation(Collections.emptyList(), false);
         }
     }
+
+    /**
+     * Items fetched for a range, served without querying the data provider
+     * again.
+     */
+    private static class FetchedItems<T> implements Serializable {
+        private final Range range;
+        private final List<T> items;
+
+        private FetchedItems(Range range, List<T> items) {
+            this.range = range;
+            this.items = items;
+        }
+
+        /**
+         * Checks whether the given range can be served from the fetched
+         * items, either because it was fetched or because it is after the
+         * last item.
+         */
+        private boolean covers(Range requested) {
+            if (requested.isSubsetOf(range)) {
+                return true;
+            }
+            return items.size() < range.length()
+                    && requested.getStart() >= range.getStart();
+        }
+
+        private Stream<T> getItems(int offset, int limit) {
+            int start = Math.min(offset - range.getStart(), items.size());
+            int end = Math.min(start + limit, items.size());
+            return items.subList(start, end).stream();
+        }
+
+        private void refresh(T item, Function<T, Object> idGetter) {
+            Object id = idGetter.apply(item);
+            items.replaceAll(existing -> Objects.equals(id,
+                    idGetter.apply(existing)) ? item : existing);
+        }
+    }
+
+    /**
+     * Items and item count fetched asynchronously from an
+     * {@link AsyncDataProvider}.
+     */
+    private static class AsyncFetch<T> {
+        private final Range range;
+        private final List<CompletableFuture<List<T>>> pages;
+        private final List<Integer> limits;
+        private final CompletableFuture<Integer> count;
+        private final boolean counting;
+        private final CompletableFuture<Void> done;
+
+        private FetchedItems<T> items;
+
+        private AsyncFetch(Range range, List<CompletableFuture<List<T>>> pages,
+                List<Integer> limits, CompletableFuture<Integer> count,
+                boolean counting) {
+            this.range = range;
+            this.pages = pages;
+            this.limits = limits;
+            this.count = count;
+            this.counting = counting;
+            List<CompletableFuture<?>> all = new ArrayList<>(pages);
+            all.add(count);
+            done = CompletableFuture
+                    .allOf(all.toArray(new CompletableFuture[all.size()]));
+        }
+
+        private boolean isCounting() {
+            return counting;
+        }
+
+        private boolean isDone() {
+            return done.isDone();
+        }
+
+        private void whenDone(Runnable action) {
+            done.whenComplete((result, error) -> action.run());
+        }
+
+        private void cancel() {
+            pages.forEach(page -> page.cancel(false));
+            count.cancel(false);
+        }
+
+        /**
+         * Collects the fetched items, throwing if fetching failed or if the
+         * data provider has returned too many items.
+         */
+        private AsyncFetch<T> verify() {
+            done.join();
+            List<T> list = new ArrayList<>(range.length());
+            for (int i = 0; i < pages.size(); i++) {
+                List<T> page = pages.get(i).join();
+                int limit = limits.get(i).intValue();
+                if (page.size() > limit) {
+                    throw new IllegalStateException(String.format(
+                            "The number of items returned by "
+                                    + "the data provider exceeds the limit specified by the query (%d).",
+                            limit));
+                }
+                list.addAll(page);
+                if (page.size() < limit) {
+                    // No more items after a page that isn't full
+                    break;
+                }
+            }
+            items = new FetchedItems<>(range, list);
+            return this;
+        }
+
+        private Integer getCount() {
+            return count.join();
+        }
+
+        private FetchedItems<T> getItems() {
+            return items;
+        }
+
+        private boolean covers(Range requested) {
+            if (items != null) {
+                return items.covers(requested);
+            }
+            return requested.isSubsetOf(range);
+        }
+    }
 }
@@ -15,6 +15,8 @@
  */
 package com.vaadin.flow.data.provider;
 
+import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Objects;
@@ -26,6 +28,13 @@ import com.vaadin.flow.function.SerializablePredicate;
 
 /**
  * {@link DataProvider} wrapper for {@link Collection}s.
+ * <p>
+ * The filtered and sorted items of the latest query are kept for fetching the
+ * following pages with the same filter and sorting. They are discarded when
+ * {@link #refreshAll()} or {@link #refreshItem(Object)} is called. If items are
+ * added to or removed from the backing collection directly,
+ * {@link #refreshAll()} should be called, since refreshing a single item does
+ * not update the items shown by components.
  *
  * @param <T>
  *            data type
@@ -35,12 +44,48 @@ public class ListDataProvider<T>
         extends AbstractDataProvider<T, SerializablePredicate<T>>
         implements InMemoryDataProvider<T> {
 
+    // Sorting fewer items in parallel isn't worth the overhead
+    private static final int PARALLEL_SORT_THRESHOLD = 50000;
+
     private SerializableComparator<T> sortOrder = null;
 
     private SerializablePredicate<T> filter;
 
     private final Collection<T> backend;
 
+    // The latest filtered and sorted items, possibly used from many threads
+    private transient volatile FilteredItems<T> filteredItems;
+
+    /**
+     * Items of the backing collection matching some filters, in sorted order.
+     */
+    private static final class FilteredItems<T> implements Serializable {
+        private final SerializablePredicate<T> filter;
+        private final SerializablePredicate<T> queryFilter;
+        private final Comparator<T> comparator;
+        private final SerializableComparator<T> sortOrder;
+        private final int backendSize;
+        private final Object[] items;
+
+        private FilteredItems(SerializablePredicate<T> filter,
+                SerializablePredicate<T> queryFilter,
+                Comparator<T> comparator, SerializableComparator<T> sortOrder,
+                int backendSize, Object[] items) {
+            this.filter = filter;
+            this.queryFilter = queryFilter;
+            this.comparator = comparator;
+            this.sortOrder = sortOrder;
+            this.backendSize = backendSize;
+            this.items = items;
+        }
+
+        private boolean isFilteredBy(SerializablePredicate<T> filter,
+                SerializablePredicate<T> queryFilter, int backendSize) {
+            return this.filter == filter && this.queryFilter == queryFilter
+                    && this.backendSize == backendSize;
+        }
+    }
+
     /**
      * Constructs a new ListDataProvider.
      * <p>
@@ -67,26 +112,86 @@ public class ListDataProvider<T>
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public Stream<T> fetch(Query<T, SerializablePredicate<T>> query) {
-        Stream<T> stream = getFilteredStream(query);
-
-        Optional<Comparator<T>> comparing = Stream
-                .of(query.getInMemorySorting(), sortOrder)
-                .filter(Objects::nonNull)
-                .reduce((c1, c2) -> c1.thenComparing(c2));
+        Comparator<T> inMemorySorting = query.getInMemorySorting();
+        SerializablePredicate<T> queryFilter = query.getFilter().orElse(null);
+        if (filter == null && queryFilter == null && inMemorySorting == null
+                && sortOrder == null) {
+            // Nothing worth keeping
+            return backend.stream().skip(query.getOffset())
+                    .limit(query.getLimit());
+        }
 
-        if (comparing.isPresent()) {
-            stream = stream.sorted(comparing.get());
+        FilteredItems<T> current = filteredItems;
+        if (current == null
+                || !current.isFilteredBy(filter, queryFilter, backend.size())
+                || current.comparator != inMemorySorting
+                || current.sortOrder != sortOrder) {
+            current = filterAndSort(query, inMemorySorting);
+            filteredItems = current;
         }
 
-        return stream.skip(query.getOffset()).limit(query.getLimit());
+        Object[] items = current.items;
+        int start = Math.min(query.getOffset(), items.length);
+        int end = (int) Math.min(items.length,
+                (long) query.getOffset() + query.getLimit());
+        return Arrays.stream(items, start, end).map(item -> (T) item);
     }
 
     @Override
     public int size(Query<T, SerializablePredicate<T>> query) {
+        FilteredItems<T> current = filteredItems;
+        if (current != null && current.isFilteredBy(filter,
+                query.getFilter().orElse(null), backend.size())) {
+            return current.items.length;
+        }
         return (int) getFilteredStream(query).count();
     }
 
+    @Override
+    public void refreshAll() {
+        filteredItems = null;
+        super.refreshAll();
+    }
+
+    @Override
+    public void refreshItem(T item) {
+        // The item may now match other filters or be sorted differently
+        filteredItems = null;
+        super.refreshItem(item);
+    }
+
+    @Override
+    public void refreshItem(T item, boolean refreshChildren) {
+        filteredItems = null;
+        super.refreshItem(item, refreshChildren);
+    }
+
+    private FilteredItems<T> filterAndSort(
+            Query<T, SerializablePredicate<T>> query,
+            Comparator<T> inMemorySorting) {
+        int backendSize = backend.size();
+        Object[] items = getFilteredStream(query).toArray();
+
+        Optional<Comparator<T>> comparing = Stream
+                .of(inMemorySorting, sortOrder).filter(Objects::nonNull)
+                .reduce((c1, c2) -> c1.thenComparing(c2));
+
+        if (comparing.isPresent()) {
+            @SuppressWarnings("unchecked")
+            T[] sorted = (T[]) items;
+            // Both sorts are stable, like sorting a stream
+            if (sorted.length >= PARALLEL_SORT_THRESHOLD) {
+                Arrays.parallelSort(sorted, comparing.get());
+            } else {
+                Arrays.sort(sorted, comparing.get());
+            }
+        }
+        return new FilteredItems<>(filter, query.getFilter().orElse(null),
+                inMemorySorting, sortOrder, backendSize, items);
+    }
+
     private Stream<T> getFilteredStream(
             Query<T, SerializablePredicate<T>> query) {
         Stream<T> stream = backend.stream();
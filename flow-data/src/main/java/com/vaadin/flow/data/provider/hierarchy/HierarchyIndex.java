@@ -0,0 +1,290 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.data.provider.hierarchy;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.vaadin.flow.internal.Range;
+
+/**
+ * Index of the rows in an expanded hierarchy, used by {@link HierarchyMapper}
+ * to find items by row index and row indexes by item without walking the
+ * whole hierarchy.
+ * <p>
+ * Every visible node knows the number of rows in its subtree, and every node
+ * with visible children keeps a Fenwick tree over the subtree sizes of its
+ * children. Looking up an item or a row index, and updating the sizes after
+ * expanding or collapsing a node, therefore takes
+ * <code>O(depth * log(children))</code> time.
+ * <p>
+ * This class is framework internal implementation details, and can be changed
+ * / moved at any point.
+ *
+ * @author Vaadin Ltd
+ * @since
+ *
+ * @param <T>
+ *            the data type
+ */
+final class HierarchyIndex<T> implements Serializable {
+
+    private static final class Node<T> implements Serializable {
+        private final Object id;
+        private final T item;
+        private final Node<T> parent;
+        private final int position;
+
+        // Rows in the subtree, including the node itself unless it is the root
+        private int size;
+        // null while the children are not visible
+        private List<Node<T>> children;
+        private int[] childSizes;
+
+        private Node(Object id, T item, Node<T> parent, int position) {
+            this.id = id;
+            this.item = item;
+            this.parent = parent;
+            this.position = position;
+            size = parent == null ? 0 : 1;
+        }
+    }
+
+    private final Node<T> root = new Node<>(null, null, null, -1);
+    private final Map<Object, Node<T>> nodes = new HashMap<>();
+
+    /**
+     * Gets the number of rows in the hierarchy.
+     *
+     * @return the number of visible items
+     */
+    int size() {
+        return root.size;
+    }
+
+    /**
+     * Gets whether the item with the given id is visible in the hierarchy.
+     *
+     * @param id
+     *            the item id, or <code>null</code> for the root
+     * @return {@code true} if the item is visible; {@code false} if not
+     */
+    boolean contains(Object id) {
+        return id == null || nodes.containsKey(id);
+    }
+
+    /**
+     * Gets the number of visible rows under the item with the given id.
+     *
+     * @param id
+     *            the item id, or <code>null</code> for the root
+     * @return the number of visible descendants, or -1 if the item is not
+     *         visible
+     */
+    int getDescendantCount(Object id) {
+        Node<T> node = getNode(id);
+        if (node == null) {
+            return -1;
+        }
+        return node == root ? node.size : node.size - 1;
+    }
+
+    /**
+     * Gets the row index of the item with the given id.
+     *
+     * @param id
+     *            the item id
+     * @return the row index, or -1 if the item is not visible
+     */
+    int indexOf(Object id) {
+        Node<T> node = id == null ? null : nodes.get(id);
+        if (node == null) {
+            return -1;
+        }
+        int index = 0;
+        while (node.parent != null) {
+            Node<T> parent = node.parent;
+            index += prefixSum(parent.childSizes, node.position);
+            if (parent != root) {
+                index++;
+            }
+            node = parent;
+        }
+        return index;
+    }
+
+    /**
+     * Gets the items in the given range of rows.
+     *
+     * @param range
+     *            the range of rows
+     * @return the items in the range, shorter than the range if it extends
+     *         past the last row
+     */
+    List<T> getItems(Range range) {
+        int start = Math.max(0, range.getStart());
+        int end = Math.min(size(), range.getEnd());
+        if (start >= end) {
+            return Collections.emptyList();
+        }
+        List<T> items = new ArrayList<>(end - start);
+        Node<T> node = get(start);
+        while (items.size() < end - start) {
+            items.add(node.item);
+            node = next(node);
+        }
+        return items;
+    }
+
+    /**
+     * Shows the given children under the item with the given id.
+     *
+     * @param parentId
+     *            the parent item id, or <code>null</code> for the root
+     * @param ids
+     *            the child item ids
+     * @param items
+     *            the child items, in the same order as the ids
+     * @return {@code true} if the children were added; {@code false} if the
+     *         parent is not visible or its children are already visible
+     */
+    boolean setChildren(Object parentId, List<Object> ids, List<T> items) {
+        Node<T> parent = getNode(parentId);
+        if (parent == null || parent.children != null) {
+            return false;
+        }
+        List<Node<T>> children = new ArrayList<>(items.size());
+        int[] childSizes = new int[items.size() + 1];
+        for (int i = 0; i < items.size(); i++) {
+            Node<T> child = new Node<>(ids.get(i), items.get(i), parent, i);
+            children.add(child);
+            nodes.put(ids.get(i), child);
+            add(childSizes, i, 1);
+        }
+        parent.children = children;
+        parent.childSizes = childSizes;
+        addToSize(parent, items.size());
+        return true;
+    }
+
+    /**
+     * Hides the descendants of the item with the given id.
+     *
+     * @param parentId
+     *            the parent item id, or <code>null</code> for the root
+     */
+    void removeChildren(Object parentId) {
+        Node<T> parent = getNode(parentId);
+        if (parent == null || parent.children == null) {
+            return;
+        }
+        forgetDescendants(parent);
+        int removed = parent == root ? parent.size : parent.size - 1;
+        parent.children = null;
+        parent.childSizes = null;
+        addToSize(parent, -removed);
+    }
+
+    private void forgetDescendants(Node<T> parent) {
+        for (Node<T> child : parent.children) {
+            nodes.remove(child.id);
+            if (child.children != null) {
+                forgetDescendants(child);
+            }
+        }
+    }
+
+    private Node<T> getNode(Object id) {
+        return id == null ? root : nodes.get(id);
+    }
+
+    private void addToSize(Node<T> node, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        node.size += delta;
+        while (node.parent != null) {
+            add(node.parent.childSizes, node.position, delta);
+            node = node.parent;
+            node.size += delta;
+        }
+    }
+
+    private Node<T> get(int index) {
+        Node<T> node = root;
+        int remaining = index;
+        while (true) {
+            if (node != root) {
+                if (remaining == 0) {
+                    return node;
+                }
+                remaining--;
+            }
+            int position = find(node.childSizes, remaining);
+            remaining -= prefixSum(node.childSizes, position);
+            node = node.children.get(position);
+        }
+    }
+
+    private Node<T> next(Node<T> node) {
+        if (node.children != null && !node.children.isEmpty()) {
+            return node.children.get(0);
+        }
+        while (node.parent != null) {
+            List<Node<T>> siblings = node.parent.children;
+            if (node.position + 1 < siblings.size()) {
+                return siblings.get(node.position + 1);
+            }
+            node = node.parent;
+        }
+        return null;
+    }
+
+    /* Fenwick tree over child subtree sizes, tree[0] is unused. */
+
+    private static void add(int[] tree, int position, int delta) {
+        for (int i = position + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private static int prefixSum(int[] tree, int count) {
+        int sum = 0;
+        for (int i = count; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    // Position of the child whose rows contain the given row offset
+    private static int find(int[] tree, int offset) {
+        int position = 0;
+        int remaining = offset;
+        for (int step = Integer.highestOneBit(tree.length - 1); step > 0;
+                step >>= 1) {
+            int next = position + step;
+            if (next < tree.length && tree[next] <= remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        return position;
+    }
+}
@@ -65,6 +65,10 @@ public class HierarchyMapper<T, F> implements Serializable {
 
     private Set<Object> expandedItemIds = new HashSet<>();
 
+    // Row index of the expanded hierarchy, constructed when first needed and
+    // updated on expand and collapse
+    private HierarchyIndex<T> index;
+
     /**
      * Constructs a new HierarchyMapper.
      *
@@ -81,7 +85,7 @@ public class HierarchyMapper<T, F> implements Serializable {
      * @return the amount of available data
      */
     public int getTreeSize() {
-        return (int) getHierarchy(null).count();
+        return getHierarchyIndex().size();
     }
 
     /**
@@ -103,8 +107,11 @@ public class HierarchyMapper<T, F> implements Serializable {
      *
      */
     public Integer getParentIndex(T item) {
-        List<T> flatHierarchy = getHierarchy(null).collect(Collectors.toList());
-        return flatHierarchy.indexOf(getParentOfItem(item));
+        // Constructing the index registers the parents of visible items
+        HierarchyIndex<T> hierarchyIndex = getHierarchyIndex();
+        T parent = getParentOfItem(item);
+        return parent == null ? -1
+                : hierarchyIndex.indexOf(getDataProvider().getId(parent));
     }
 
     /**
@@ -116,8 +123,10 @@ public class HierarchyMapper<T, F> implements Serializable {
      *
      */
     public Integer getIndex(T item) {
-        List<T> flatHierarchy = getHierarchy(null).collect(Collectors.toList());
-        return flatHierarchy.indexOf(item);
+        if (item == null) {
+            return -1;
+        }
+        return getHierarchyIndex().indexOf(getDataProvider().getId(item));
     }
 
     /**
@@ -158,8 +167,7 @@ public class HierarchyMapper<T, F> implements Serializable {
      */
     public Range expand(T item, Integer position) {
         if (doExpand(item) && position != null) {
-            return Range.withLength(position + 1,
-                    (int) getHierarchy(item, false).count());
+            return Range.withLength(position + 1, countDescendants(item));
         }
 
         return Range.withLength(0, 0);
@@ -177,7 +185,11 @@ public class HierarchyMapper<T, F> implements Serializable {
     private boolean doExpand(T item) {
         boolean expanded = false;
         if (!isExpanded(item) && hasChildren(item)) {
-            expandedItemIds.add(getDataProvider().getId(item));
+            Object id = getDataProvider().getId(item);
+            expandedItemIds.add(id);
+            if (index != null && index.contains(id)) {
+                indexChildren(item);
+            }
             expanded = true;
         }
         return expanded;
@@ -196,7 +208,11 @@ public class HierarchyMapper<T, F> implements Serializable {
             return false;
         }
         if (isExpanded(item)) {
-            expandedItemIds.remove(getDataProvider().getId(item));
+            Object id = getDataProvider().getId(item);
+            expandedItemIds.remove(id);
+            if (index != null) {
+                index.removeChildren(id);
+            }
             return true;
         }
         return false;
@@ -217,9 +233,13 @@ public class HierarchyMapper<T, F> implements Serializable {
         if (isExpanded(item)) {
             if (position != null) {
                 removedRows = Range.withLength(position + 1,
-                        (int) getHierarchy(item, false).count());
+                        countDescendants(item));
+            }
+            Object id = getDataProvider().getId(item);
+            expandedItemIds.remove(id);
+            if (index != null) {
+                index.removeChildren(id);
             }
-            expandedItemIds.remove(getDataProvider().getId(item));
         }
         return removedRows;
     }
@@ -243,6 +263,7 @@ public class HierarchyMapper<T, F> implements Serializable {
      */
     public void setInMemorySorting(Comparator<T> inMemorySorting) {
         this.inMemorySorting = inMemorySorting;
+        index = null;
     }
 
     /**
@@ -263,6 +284,7 @@ public class HierarchyMapper<T, F> implements Serializable {
      */
     public void setBackEndSorting(List<QuerySortOrder> backEndSorting) {
         this.backEndSorting = backEndSorting;
+        index = null;
     }
 
     /**
@@ -283,6 +305,7 @@ public class HierarchyMapper<T, F> implements Serializable {
      */
     public void setFilter(Object filter) {
         this.filter = (F) filter;
+        index = null;
     }
 
     /**
@@ -317,7 +340,7 @@ public class HierarchyMapper<T, F> implements Serializable {
      * @return the stream of items
      */
     public Stream<T> fetchHierarchyItems(Range range) {
-        return getHierarchy(null).skip(range.getStart()).limit(range.length());
+        return getHierarchyIndex().getItems(range).stream();
     }
 
     /**
@@ -331,8 +354,22 @@ public class HierarchyMapper<T, F> implements Serializable {
      * @return the stream of items
      */
     public Stream<T> fetchHierarchyItems(T parent, Range range) {
-        return getHierarchy(parent, false).skip(range.getStart())
-                .limit(range.length());
+        HierarchyIndex<T> hierarchyIndex = getHierarchyIndex();
+        Object parentId = parent == null ? null
+                : getDataProvider().getId(parent);
+        if (!hierarchyIndex.contains(parentId)) {
+            // Expanded items under collapsed parents are not indexed
+            return getHierarchy(parent, false).skip(range.getStart())
+                    .limit(range.length());
+        }
+        int offset = parent == null ? 0 : hierarchyIndex.indexOf(parentId) + 1;
+        int length = Math.min(range.length(),
+                hierarchyIndex.getDescendantCount(parentId)
+                        - range.getStart());
+        return hierarchyIndex
+                .getItems(Range.withLength(offset + range.getStart(),
+                        Math.max(0, length)))
+                .stream();
     }
 
     /**
@@ -430,6 +467,10 @@ public class HierarchyMapper<T, F> implements Serializable {
      *            the item id
      */
     protected void removeChildren(Object id) {
+        // Root items stay visible even if a range of them is empty
+        if (index != null && id != null) {
+            index.removeChildren(id);
+        }
         // Clean up removed nodes from child map
         Iterator<Entry<T, Set<T>>> iterator = childMap.entrySet().iterator();
         Set<T> invalidatedChildren = new HashSet<>();
@@ -462,21 +503,67 @@ public class HierarchyMapper<T, F> implements Serializable {
             return Optional.empty();
         }
 
-        final List<Object> collect = getHierarchy(null).map(provider::getId)
-                .collect(Collectors.toList());
-        int index = collect.indexOf(getDataProvider().getId(target));
-        return Optional.ofNullable(index < 0 ? null : index);
+        int targetIndex = getHierarchyIndex()
+                .indexOf(getDataProvider().getId(target));
+        return Optional.ofNullable(targetIndex < 0 ? null : targetIndex);
+    }
+
+    /**
+     * Gets the row index of the expanded hierarchy, constructing it from the
+     * data provider if needed.
+     *
+     * @return the hierarchy index
+     */
+    private HierarchyIndex<T> getHierarchyIndex() {
+        if (index == null) {
+            index = new HierarchyIndex<>();
+            indexChildren(null);
+        }
+        return index;
     }
 
     /**
-     * Gets the full hierarchy tree starting from given node.
+     * Fetches the children of the given item and adds them to the hierarchy
+     * index, recursively for expanded children.
      *
      * @param parent
-     *            the parent node to start from
-     * @return the flattened hierarchy as a stream
+     *            the visible parent item, or <code>null</code> for the root
      */
-    private Stream<T> getHierarchy(T parent) {
-        return getHierarchy(parent, true);
+    private void indexChildren(T parent) {
+        if (!isExpanded(parent)) {
+            return;
+        }
+        List<T> childList = doFetchDirectChildren(parent)
+                .collect(Collectors.toList());
+        Object parentId = parent == null ? null
+                : getDataProvider().getId(parent);
+        if (childList.isEmpty()) {
+            removeChildren(parentId);
+        } else {
+            registerChildren(parent, childList);
+            index.setChildren(parentId,
+                    childList.stream().map(getDataProvider()::getId)
+                            .collect(Collectors.toList()),
+                    childList);
+            childList.forEach(this::indexChildren);
+        }
+    }
+
+    /**
+     * Counts the visible rows under the given expanded item.
+     *
+     * @param item
+     *            the expanded item
+     * @return the number of rows under the item
+     */
+    private int countDescendants(T item) {
+        int count = getHierarchyIndex()
+                .getDescendantCount(getDataProvider().getId(item));
+        if (count < 0) {
+            // Not visible, so not indexed
+            count = (int) getHierarchy(item, false).count();
+        }
+        return count;
     }
 
     /**
@@ -619,6 +706,16 @@ public class HierarchyMapper<T, F> implements Serializable {
         childMap.clear();
         parentIdMap.clear();
         expandedItemIds.clear();
+        index = null;
+    }
+
+    /**
+     * Discards the row index of the expanded hierarchy, so that it is
+     * constructed again from the data provider when needed. Should be called
+     * when the data in the data provider has changed.
+     */
+    public void invalidateHierarchy() {
+        index = null;
     }
 
     /**
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.data.provider;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.shared.Registration;
+
+public class CachingDataProviderTest {
+
+    private final AtomicInteger fetchCount = new AtomicInteger();
+    private final AtomicInteger sizeCount = new AtomicInteger();
+
+    private CallbackDataProvider<String, String> backEnd;
+
+    @Before
+    public void init() {
+        backEnd = new CallbackDataProvider<>(query -> {
+            fetchCount.incrementAndGet();
+            String prefix = query.getFilter().orElse("");
+            return IntStream
+                    .range(query.getOffset(),
+                            query.getOffset() + query.getLimit())
+                    .mapToObj(i -> prefix + i);
+        }, query -> {
+            sizeCount.incrementAndGet();
+            return 100;
+        });
+    }
+
+    @Test
+    public void fetch_sameQuery_fetchedOnce() {
+        CachingDataProvider<String, String> cache = new CachingDataProvider<>(
+                backEnd, 10);
+
+        List<String> first = fetch(cache, 0, 10, null);
+        List<String> second = fetch(cache, 0, 10, null);
+
+        Assert.assertEquals(first, second);
+        Assert.assertEquals(1, fetchCount.get());
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(0.5, cache.getHitRate(), 0);
+    }
+
+    @Test
+    public void fetch_differentFilterOrRange_fetchedAgain() {
+        CachingDataProvider<String, String> cache = new CachingDataProvider<>(
+                backEnd, 10);
+
+        fetch(cache, 0, 10, null);
+        fetch(cache, 10, 10, null);
+        List<String> filtered = fetch(cache, 0, 10, "a");
+
+        Assert.assertEquals("a0", filtered.get(0));
+        Assert.assertEquals(3, fetchCount.get());
+        Assert.assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    public void fetch_differentSortOrder_fetchedAgain() {
+        CachingDataProvider<String, String> cache = new CachingDataProvider<>(
+                backEnd, 10);
+
+        cache.fetch(new Query<>(0, 10, QuerySortOrder.asc("name").build(),
+                null, null));
+        cache.fetch(new Query<>(0, 10, QuerySortOrder.asc("name").build(),
+                null, null));
+        cache.fetch(new Query<>(0, 10, QuerySortOrder.desc("name").build(),
+                null, null));
+
+        Assert.assertEquals(2, fetchCount.get());
+    }
+
+    @Test
+    public void size_sameFilter_countedOnce() {
+        CachingDataProvider<String, String> cache = new CachingDataProvider<>(
+                backEnd, 10);
+
+        Assert.assertEquals(100, cache.size(new Query<>()));
+        Assert.assertEquals(100, cache.size(new Query<>()));
+        cache.size(new Query<>("a"));
+
+        Assert.assertEquals(2, sizeCount.get());
+    }
+
+    @Test
+    public void maxEntriesExceeded_leastRecentlyUsedEvicted() {
+        CachingDataProvider<String, String> cache = new CachingDataProvider<>(
+                backEnd, 2);
+
+        fetch(cache, 0, 10, null);
+        fetch(cache, 10, 10, null);
+        fetch(cache, 0, 10, null);
+        fetch(cache, 20, 10, null);
+
+        Assert.assertEquals(2, cache.getEntryCount());
+        Assert.assertEquals(1, cache.getEvictionCount());
+
+        fetch(cache, 0, 10, null);
+        Assert.assertEquals(3, fetchCount.get());
+        fetch(cache, 10, 10, null);
+        Assert.assertEquals(4, fetchCount.get());
+    }
+
+    @Test
+    public void timeToLiveExceeded_fetchedAgain() throws InterruptedException {
+        CachingDataProvider<String, String> cache = new CachingDataProvider<>(
+                backEnd, 10, Duration.ofMillis(1));
+
+        fetch(cache, 0, 10, null);
+        Thread.sleep(10);
+        fetch(cache, 0, 10, null);
+
+        Assert.assertEquals(2, fetchCount.get());
+        Assert.assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void refreshAll_cacheCleared() {
+        CachingDataProvider<String, String> cache = new CachingDataProvider<>(
+                backEnd, 10);
+
+        fetch(cache, 0, 10, null);
+        cache.size(new Query<>());
+        cache.refreshAll();
+        fetch(cache, 0, 10, null);
+        cache.size(new Query<>());
+
+        Assert.assertEquals(2, fetchCount.get());
+        Assert.assertEquals(2, sizeCount.get());
+    }
+
+    @Test
+    public void wrappedProviderRefreshed_cacheCleared() {
+        CachingDataProvider<String, String> cache = new CachingDataProvider<>(
+                backEnd, 10);
+
+        fetch(cache, 0, 10, null);
+        backEnd.refreshAll();
+        fetch(cache, 0, 10, null);
+
+        Assert.assertEquals(2, fetchCount.get());
+    }
+
+    @Test
+    public void refreshAll_duringSlowFetch_fetchedResultNotCached()
+            throws Exception {
+        CountDownLatch fetchStarted = new CountDownLatch(1);
+        CountDownLatch refreshed = new CountDownLatch(1);
+        CallbackDataProvider<String, String> slowBackEnd = new CallbackDataProvider<>(
+                query -> {
+                    fetchStarted.countDown();
+                    try {
+                        refreshed.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return backEnd.fetch(query);
+                }, backEnd::size);
+        CachingDataProvider<String, String> cache = new CachingDataProvider<>(
+                slowBackEnd, 10);
+
+        CompletableFuture<List<String>> slowFetch = CompletableFuture
+                .supplyAsync(() -> fetch(cache, 0, 10, null));
+        Assert.assertTrue(fetchStarted.await(5, TimeUnit.SECONDS));
+        cache.refreshAll();
+        refreshed.countDown();
+        slowFetch.get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(0, cache.getEntryCount());
+        fetch(cache, 0, 10, null);
+        Assert.assertEquals(2, fetchCount.get());
+    }
+
+    @Test
+    public void refreshItem_entriesWithItemEvicted() {
+        CachingDataProvider<String, String> cache = new CachingDataProvider<>(
+                backEnd, 10);
+
+        fetch(cache, 0, 10, null);
+        fetch(cache, 10, 10, null);
+        cache.refreshItem("15");
+
+        Assert.assertEquals(1, cache.getEntryCount());
+        fetch(cache, 0, 10, null);
+        Assert.assertEquals(2, fetchCount.get());
+    }
+
+    @Test
+    public void destroy_listenerRemovedAndQueriesNotCached() {
+        Registration registration = Mockito.mock(Registration.class);
+        DataProvider<String, String> wrapped = Mockito.spy(backEnd);
+        Mockito.doReturn(registration).when(wrapped)
+                .addDataProviderListener(Mockito.any());
+        CachingDataProvider<String, String> cache = new CachingDataProvider<>(
+                wrapped, 10);
+        fetch(cache, 0, 10, null);
+
+        cache.destroy();
+
+        Mockito.verify(registration).remove();
+        Assert.assertEquals(0, cache.getEntryCount());
+        fetch(cache, 0, 10, null);
+        fetch(cache, 0, 10, null);
+        Assert.assertEquals(3, fetchCount.get());
+        Assert.assertEquals(0, cache.getEntryCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroMaxEntries_throws() {
+        new CachingDataProvider<>(backEnd, 0);
+    }
+
+    private static List<String> fetch(
+            CachingDataProvider<String, String> cache, int offset, int limit,
+            String filter) {
+        return cache.fetch(new Query<>(offset, limit, Collections.emptyList(),
+                null, filter)).collect(Collectors.toList());
+    }
+}
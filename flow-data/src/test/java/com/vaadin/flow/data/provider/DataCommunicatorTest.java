@@ -17,6 +17,8 @@ package com.vaadin.flow.data.provider;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
@@ -33,6 +35,7 @@ import com.vaadin.flow.component.UI;
 import com.vaadin.flow.dom.Element;
 import com.vaadin.flow.function.SerializableConsumer;
 import com.vaadin.flow.internal.Range;
+import com.vaadin.flow.server.Command;
 import com.vaadin.flow.server.VaadinRequest;
 import com.vaadin.flow.server.VaadinService;
 import com.vaadin.flow.server.VaadinSession;
@@ -1203,6 +1206,128 @@ public class DataCommunicatorTest {
         Assert.assertEquals(123, query.getPageSize());
     }
 
+    @Test
+    public void asyncFetch_resultsAvailable_itemsSentInSameRoundtrip() {
+        dataCommunicator.setAsyncFetchEnabled(true);
+        dataCommunicator.setDataProvider(new AsyncCallbackDataProvider<>(
+                query -> CompletableFuture
+                        .completedFuture(createItems(query.getOffset(),
+                                Math.min(query.getRequestedRangeEnd(), 100))),
+                query -> CompletableFuture.completedFuture(100)), null);
+
+        dataCommunicator.setRequestedRange(0, 50);
+        fakeClientCommunication();
+
+        Assert.assertEquals(Range.withLength(0, 50), lastSet);
+        Assert.assertEquals(100, dataCommunicator.getItemCount());
+    }
+
+    @Test
+    public void asyncFetch_resultsPending_itemsSentAfterCompletion() {
+        List<CompletableFuture<List<Item>>> fetches = new ArrayList<>();
+        CompletableFuture<Integer> count = new CompletableFuture<>();
+        dataCommunicator.setAsyncFetchEnabled(true);
+        dataCommunicator
+                .setDataProvider(new AsyncCallbackDataProvider<Item, Object>(
+                        query -> createPendingFetch(fetches), query -> count),
+                        null);
+
+        dataCommunicator.setRequestedRange(0, 50);
+        fakeClientCommunication();
+
+        Assert.assertNull("No items should be sent before fetched", lastSet);
+        Assert.assertEquals(1, fetches.size());
+
+        count.complete(100);
+        fetches.get(0).complete(createItems(0, 50));
+        fakeClientCommunication();
+
+        Assert.assertEquals(Range.withLength(0, 50), lastSet);
+        Assert.assertEquals("Fetched items should be reused", 1,
+                fetches.size());
+    }
+
+    @Test
+    public void asyncFetch_otherRangeRequested_pendingFetchCancelled() {
+        List<CompletableFuture<List<Item>>> fetches = new ArrayList<>();
+        dataCommunicator.setAsyncFetchEnabled(true);
+        dataCommunicator
+                .setDataProvider(new AsyncCallbackDataProvider<Item, Object>(
+                        query -> createPendingFetch(fetches),
+                        query -> CompletableFuture.completedFuture(1000)),
+                        null);
+
+        dataCommunicator.setRequestedRange(0, 50);
+        fakeClientCommunication();
+        dataCommunicator.setRequestedRange(500, 50);
+        fakeClientCommunication();
+
+        Assert.assertEquals(2, fetches.size());
+        Assert.assertTrue(fetches.get(0).isCancelled());
+
+        fetches.get(1).complete(createItems(500, 550));
+        fakeClientCommunication();
+
+        Assert.assertEquals(Range.withLength(500, 50), lastSet);
+    }
+
+    @Test
+    public void prefetch_scrollingDown_nextRangeNotFetchedAgain() {
+        List<Query<Item, Object>> queries = new ArrayList<>();
+        dataCommunicator.setPrefetchPageCount(2);
+        dataCommunicator.setDataProvider(
+                createRecordingDataProvider(1000, queries), null);
+
+        dataCommunicator.setRequestedRange(0, 50);
+        fakeClientCommunication();
+
+        Assert.assertEquals(Range.withLength(0, 50), lastSet);
+        // The requested page and one page ahead
+        Assert.assertEquals(2, queries.size());
+
+        dataCommunicator.setRequestedRange(50, 50);
+        fakeClientCommunication();
+
+        Assert.assertEquals(Range.withLength(50, 50), lastSet);
+        Assert.assertEquals("Prefetched items should be used", 2,
+                queries.size());
+
+        dataCommunicator.setRequestedRange(100, 50);
+        fakeClientCommunication();
+
+        Assert.assertEquals(Range.withLength(100, 50), lastSet);
+        Assert.assertEquals(4, queries.size());
+        Assert.assertEquals(100, queries.get(2).getOffset());
+    }
+
+    @Test
+    public void prefetch_scrollingUp_pagesBeforeRangeFetched() {
+        List<Query<Item, Object>> queries = new ArrayList<>();
+        dataCommunicator.setPrefetchPageCount(2);
+        dataCommunicator.setDataProvider(
+                createRecordingDataProvider(1000, queries), null);
+
+        dataCommunicator.setRequestedRange(500, 50);
+        fakeClientCommunication();
+        dataCommunicator.setRequestedRange(450, 50);
+        fakeClientCommunication();
+
+        int queryCount = queries.size();
+        Assert.assertEquals(400, queries.get(queryCount - 2).getOffset());
+
+        dataCommunicator.setRequestedRange(400, 50);
+        fakeClientCommunication();
+
+        Assert.assertEquals(Range.withLength(400, 50), lastSet);
+        Assert.assertEquals("Prefetched items should be used", queryCount,
+                queries.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setPrefetchPageCount_negative_throws() {
+        dataCommunicator.setPrefetchPageCount(-1);
+    }
+
     @Tag("test-component")
     private static class TestComponent extends Component {
     }
@@ -1217,6 +1342,18 @@ public class DataCommunicatorTest {
         });
     }
 
+    private static CompletableFuture<List<Item>> createPendingFetch(
+            List<CompletableFuture<List<Item>>> fetches) {
+        CompletableFuture<List<Item>> fetch = new CompletableFuture<>();
+        fetches.add(fetch);
+        return fetch;
+    }
+
+    private static List<Item> createItems(int start, int end) {
+        return IntStream.range(start, end).mapToObj(Item::new)
+                .collect(Collectors.toList());
+    }
+
     private AbstractDataProvider<Item, Object> createDataProviderThatChangesSize(
             final int size, final int delta) {
         return new AbstractDataProvider<Item, Object>() {
@@ -1291,6 +1428,29 @@ public class DataCommunicatorTest {
         };
     }
 
+    private AbstractDataProvider<Item, Object> createRecordingDataProvider(
+            int size, List<Query<Item, Object>> queries) {
+        return new AbstractDataProvider<Item, Object>() {
+            @Override
+            public boolean isInMemory() {
+                return true;
+            }
+
+            @Override
+            public int size(Query<Item, Object> query) {
+                return size;
+            }
+
+            @Override
+            public Stream<Item> fetch(Query<Item, Object> query) {
+                queries.add(query);
+                int end = Math.min(query.getRequestedRangeEnd(), size);
+                return IntStream.range(query.getOffset(), end)
+                        .mapToObj(Item::new);
+            }
+        };
+    }
+
     public static class MockUI extends UI {
 
         public MockUI() {
@@ -1307,6 +1467,13 @@ public class DataCommunicatorTest {
             // Do nothing
         }
 
+        @Override
+        public Future<Void> access(Command command) {
+            // The session is always locked
+            command.execute();
+            return CompletableFuture.completedFuture(null);
+        }
+
         private static VaadinSession findOrcreateSession() {
             VaadinSession session = VaadinSession.getCurrent();
             if (session == null) {
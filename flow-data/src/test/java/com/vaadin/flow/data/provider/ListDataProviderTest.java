@@ -18,7 +18,9 @@ package com.vaadin.flow.data.provider;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.apache.commons.lang3.SerializationUtils;
 import org.junit.Assert;
@@ -232,6 +234,122 @@ public class ListDataProviderTest
         assertSizeWithFilter(0, filteringBy, "oo");
     }
 
+    @Test
+    public void fetch_samePagesSorting_sortedOnce() {
+        AtomicInteger comparisons = new AtomicInteger();
+        SerializableComparator<StrBean> comparator = (bean1, bean2) -> {
+            comparisons.incrementAndGet();
+            return Integer.compare(bean2.getId(), bean1.getId());
+        };
+
+        List<StrBean> firstPage = dataProvider
+                .fetch(new Query<>(0, 10, null, comparator, null))
+                .collect(Collectors.toList());
+        int sortComparisons = comparisons.get();
+        List<StrBean> secondPage = dataProvider
+                .fetch(new Query<>(10, 10, null, comparator, null))
+                .collect(Collectors.toList());
+
+        Assert.assertEquals(98, firstPage.get(0).getId());
+        Assert.assertEquals(88, secondPage.get(0).getId());
+        Assert.assertEquals("The sorted items should be reused",
+                sortComparisons, comparisons.get());
+    }
+
+    @Test
+    public void fetch_itemAddedAndRefreshed_itemIncluded() {
+        SerializableComparator<StrBean> comparator = (bean1,
+                bean2) -> Integer.compare(bean2.getId(), bean1.getId());
+        dataProvider.fetch(new Query<>(0, 10, null, comparator, null))
+                .count();
+
+        int size = dataProvider.getItems().size();
+        StrBean added = new StrBean("Added", 1000, 0);
+        dataProvider.getItems().add(added);
+        dataProvider.refreshAll();
+
+        Assert.assertEquals(added, dataProvider
+                .fetch(new Query<>(0, 10, null, comparator, null)).findFirst()
+                .get());
+        Assert.assertEquals(size + 1, dataProvider.size(new Query<>()));
+    }
+
+    @Test
+    public void fetch_itemChangedAndRefreshed_sortedAgain() {
+        SerializableComparator<StrBean> comparator = (bean1,
+                bean2) -> bean1.getValue().compareTo(bean2.getValue());
+        StrBean first = dataProvider
+                .fetch(new Query<>(0, 10, null, comparator, null)).findFirst()
+                .get();
+
+        StrBean last = dataProvider
+                .fetch(new Query<>(dataProvider.getItems().size() - 1, 1,
+                        null, comparator, null))
+                .findFirst().get();
+        last.setValue("");
+        dataProvider.refreshItem(last);
+
+        Assert.assertEquals(last, dataProvider
+                .fetch(new Query<>(0, 10, null, comparator, null)).findFirst()
+                .get());
+        Assert.assertNotEquals(first, last);
+    }
+
+    @Test
+    public void size_itemChangedAndRefreshed_filteredAgain() {
+        SerializableComparator<StrBean> comparator = (bean1,
+                bean2) -> Integer.compare(bean1.getId(), bean2.getId());
+        dataProvider.setFilter(bean -> !bean.getValue().isEmpty());
+        dataProvider.fetch(new Query<>(0, 10, null, comparator, null))
+                .count();
+        int size = dataProvider.size(new Query<>());
+
+        StrBean changed = dataProvider
+                .fetch(new Query<>(0, 1, null, comparator, null)).findFirst()
+                .get();
+        changed.setValue("");
+        dataProvider.refreshItem(changed, false);
+
+        Assert.assertEquals(size - 1, dataProvider.size(new Query<>()));
+        Assert.assertNotEquals(changed, dataProvider
+                .fetch(new Query<>(0, 1, null, comparator, null)).findFirst()
+                .get());
+    }
+
+    @Test
+    public void fetch_filterChanged_filteredAgain() {
+        SerializableComparator<StrBean> comparator = (bean1,
+                bean2) -> Integer.compare(bean1.getId(), bean2.getId());
+        dataProvider.fetch(new Query<>(0, 10, null, comparator, null))
+                .count();
+
+        dataProvider.setFilter(bean -> bean.getId() >= 50);
+
+        Assert.assertEquals(50, dataProvider
+                .fetch(new Query<>(0, 10, null, comparator, null)).findFirst()
+                .get().getId());
+        Assert.assertEquals(49, dataProvider.size(new Query<>()));
+    }
+
+    @Test
+    public void fetch_largeList_sortedInParallelLikeStream() {
+        List<StrBean> items = IntStream.range(0, 60000)
+                .mapToObj(i -> new StrBean("Value " + (i % 7), i, i % 13))
+                .collect(Collectors.toList());
+        ListDataProvider<StrBean> provider = DataProvider
+                .ofCollection(items);
+        SerializableComparator<StrBean> comparator = (bean1,
+                bean2) -> bean1.getValue().compareTo(bean2.getValue());
+
+        List<StrBean> expected = items.stream().sorted(comparator)
+                .skip(30000).limit(100).collect(Collectors.toList());
+        List<StrBean> fetched = provider
+                .fetch(new Query<>(30000, 100, null, comparator, null))
+                .collect(Collectors.toList());
+
+        Assert.assertEquals(expected, fetched);
+    }
+
     @Override
     protected void setSortOrder(List<QuerySortOrder> sortOrder,
             Comparator<StrBean> comp) {
@@ -224,6 +224,69 @@ public class HierarchyMapperWithDataTest {
         verifyFetchIsCorrect(expectedResult, range);
     }
 
+    @Test
+    public void indexesFollowExpandAndCollapse() {
+        expand(roots.get(0));
+        expand(testData.get(1));
+        expand(roots.get(2));
+        expand(testData.get(testData.indexOf(roots.get(2)) + 1));
+        collapse(roots.get(0));
+        expand(roots.get(4));
+        expand(roots.get(0));
+
+        List<Node> expectedResult = flatten(null);
+        assertEquals(expectedResult.size(), mapper.getTreeSize());
+        verifyFetchIsCorrect(expectedResult,
+                Range.between(0, mapper.getTreeSize()));
+        for (int i = 0; i < expectedResult.size(); i++) {
+            Node node = expectedResult.get(i);
+            assertEquals("Unexpected index.", Integer.valueOf(i),
+                    mapper.getIndex(node));
+            assertEquals("Unexpected parent index.",
+                    Integer.valueOf(expectedResult.indexOf(node.getParent())),
+                    mapper.getParentIndex(node));
+        }
+    }
+
+    @Test
+    public void fetchChildrenOfExpandedNode() {
+        expand(roots.get(0));
+        expand(testData.get(1));
+        expand(roots.get(1));
+
+        List<Node> expectedResult = flatten(roots.get(0));
+        List<Node> collect = mapper
+                .fetchHierarchyItems(roots.get(0), Range.withLength(1, 100))
+                .collect(Collectors.toList());
+        assertEquals(expectedResult.subList(1, expectedResult.size()),
+                collect);
+    }
+
+    @Test
+    public void invalidateHierarchy_dataChanged_treeSizeUpdated() {
+        expand(roots.get(0));
+        assertEquals(ROOT_COUNT + PARENT_COUNT, mapper.getTreeSize());
+
+        Node added = new Node(testData.size(), roots.get(0));
+        data.addItem(roots.get(0), added);
+        mapper.invalidateHierarchy();
+
+        assertEquals(ROOT_COUNT + PARENT_COUNT + 1, mapper.getTreeSize());
+        assertEquals(Integer.valueOf(PARENT_COUNT + 1),
+                mapper.getIndex(added));
+    }
+
+    private List<Node> flatten(Node parent) {
+        List<Node> nodes = new ArrayList<>();
+        for (Node child : data.getChildren(parent)) {
+            nodes.add(child);
+            if (mapper.isExpanded(child)) {
+                nodes.addAll(flatten(child));
+            }
+        }
+        return nodes;
+    }
+
     private void expand(Node node) {
         insertRows(mapper.expand(node, mapper.getIndexOf(node).orElse(null)));
     }
@@ -25,6 +25,7 @@ import com.vaadin.flow.server.VaadinSession;
 import com.vaadin.flow.server.communication.AtmospherePushConnection;
 import com.vaadin.flow.server.communication.PushConnection;
 import com.vaadin.flow.server.communication.PushConnectionFactory;
+import com.vaadin.flow.server.communication.SsePushConnection;
 import com.vaadin.flow.shared.communication.PushMode;
 import com.vaadin.flow.shared.ui.Transport;
 
@@ -78,6 +79,10 @@ public interface PushConfiguration extends Serializable {
      * <p>
      * Note that the new transport type will not be used until the push channel
      * is disconnected and reconnected if already active.
+     * <p>
+     * Unless a push connection factory has been set, {@link Transport#SSE}
+     * uses an {@link SsePushConnection} which doesn't need Atmosphere, and
+     * other transports use an {@link AtmospherePushConnection}.
      *
      * @param transport
      *            The primary transport type
@@ -181,7 +186,6 @@ class PushConfigurationImpl implements PushConfiguration {
 
     PushConfigurationImpl(UI ui) {
         this.ui = ui;
-        this.pushConnectionFactory = AtmospherePushConnection::new;
         getPushConfigurationMap().setTransport(Transport.WEBSOCKET_XHR);
         getPushConfigurationMap().setFallbackTransport(Transport.LONG_POLLING);
         getPushConfigurationMap().setPushMode(PushMode.DISABLED);
@@ -210,9 +214,10 @@ class PushConfigurationImpl implements PushConfiguration {
                     "Cannot set the push mode for a detached UI");
         }
 
-        session.checkHasLock();
+        ui.getInternals().checkHasLock();
 
-        if (pushMode.isEnabled()
+        // Server-Sent Events don't use Atmosphere
+        if (pushMode.isEnabled() && getTransport() != Transport.SSE
                 && !session.getService().ensurePushAvailable()) {
             throw new IllegalStateException(
                     "Push is not available. See previous log messages for more information.");
@@ -225,8 +230,7 @@ class PushConfigurationImpl implements PushConfiguration {
             if (!oldMode.isEnabled() && pushMode.isEnabled()) {
                 // The push connection is initially in a disconnected state;
                 // the client will establish the connection
-                ui.getInternals()
-                    .setPushConnection(pushConnectionFactory.apply(ui));
+                ui.getInternals().setPushConnection(createPushConnection());
             }
             // Nothing to do here if disabling push;
             // the client will close the connection
@@ -251,6 +255,14 @@ class PushConfigurationImpl implements PushConfiguration {
     @Override
     public void setTransport(Transport transport) {
         getPushConfigurationMap().setTransport(transport);
+
+        PushConnection pushConnection = ui.getInternals().getPushConnection();
+        if (pushConnectionFactory == null && pushConnection != null
+                && (transport == Transport.SSE) != (pushConnection
+                        instanceof SsePushConnection)) {
+            // The client will establish the connection using the new transport
+            ui.getInternals().setPushConnection(createPushConnection());
+        }
     }
 
     @Override
@@ -285,4 +297,19 @@ class PushConfigurationImpl implements PushConfiguration {
             pushConnectionFactory, "Push connection factory must not be null"
         );
     }
+
+    private PushConnection createPushConnection() {
+        if (pushConnectionFactory != null) {
+            PushConnection pushConnection = pushConnectionFactory.apply(ui);
+            if (pushConnection instanceof SsePushConnection) {
+                // The client must open an event stream for the connection
+                getPushConfigurationMap().setTransport(Transport.SSE);
+            }
+            return pushConnection;
+        } else if (getTransport() == Transport.SSE) {
+            return new SsePushConnection(ui);
+        } else {
+            return new AtmospherePushConnection(ui);
+        }
+    }
 }
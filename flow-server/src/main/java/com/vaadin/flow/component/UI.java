@@ -307,8 +307,13 @@ public class UI extends Component
             // the UI is detached and cleaned up.
 
             // Can't use UI.push() directly since it checks for a valid session
-            if (getSession() != null) {
-                getSession().getService().runPendingAccessTasks(getSession());
+            VaadinSession session = getSession();
+            if (session != null) {
+                if (session.isUILockingEnabled()) {
+                    getInternals().runPendingAccessTasks();
+                } else {
+                    session.getService().runPendingAccessTasks(session);
+                }
             }
             pushConnection.push();
         }
@@ -423,7 +428,12 @@ public class UI extends Component
 
         VaadinService.verifyNoOtherSessionLocked(session);
 
-        session.lock();
+        boolean uiLocking = session.isUILockingEnabled();
+        if (uiLocking) {
+            getInternals().lock();
+        } else {
+            session.lock();
+        }
         try {
             if (getSession() == null) {
                 // UI was detached after fetching the session but before we
@@ -434,7 +444,11 @@ public class UI extends Component
             old = CurrentInstance.setCurrent(this);
             command.execute();
         } finally {
-            session.unlock();
+            if (uiLocking) {
+                getInternals().unlock();
+            } else {
+                session.unlock();
+            }
             if (old != null) {
                 CurrentInstance.restoreInstances(old);
             }
@@ -452,6 +466,10 @@ public class UI extends Component
      * currently locked, the command will be run before that lock is released.
      * </p>
      * <p>
+     * If {@link VaadinSession#isUILockingEnabled() UI locking} is enabled, the
+     * lock of this UI is used instead of the session lock.
+     * </p>
+     * <p>
      * RPC handlers for components inside this UI do not need to use this method
      * as the session is automatically locked by the framework during RPC
      * handling.
@@ -504,7 +522,7 @@ public class UI extends Component
             return null;
         }
 
-        return session.access(new ErrorHandlingCommand() {
+        ErrorHandlingCommand accessCommand = new ErrorHandlingCommand() {
             @Override
             public void execute() {
                 accessSynchronously(command, detachHandler);
@@ -524,7 +542,12 @@ public class UI extends Component
                     getLogger().error(e.getMessage(), e);
                 }
             }
-        });
+        };
+
+        if (session.isUILockingEnabled()) {
+            return getInternals().access(accessCommand);
+        }
+        return session.access(accessCommand);
     }
 
     /**
@@ -651,7 +674,7 @@ public class UI extends Component
         if (session == null) {
             throw new UIDetachedException("Cannot push a detached UI");
         }
-        session.checkHasLock();
+        getInternals().checkHasLock();
 
         if (!getPushConfiguration().getPushMode().isEnabled()) {
             throw new IllegalStateException("Push not enabled");
@@ -663,9 +686,14 @@ public class UI extends Component
         /*
          * Purge the pending access queue as it might mark a connector as dirty
          * when the push would otherwise be ignored because there are no changes
-         * to push.
+         * to push. With UI locking, only the tasks of this UI can be run as
+         * the session might not be locked.
          */
-        session.getService().runPendingAccessTasks(session);
+        if (session.isUILockingEnabled()) {
+            getInternals().runPendingAccessTasks();
+        } else {
+            session.getService().runPendingAccessTasks(session);
+        }
 
         if (!getInternals().isDirty()) {
             // Do not push if there is nothing to push
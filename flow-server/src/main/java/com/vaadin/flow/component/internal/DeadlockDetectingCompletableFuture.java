@@ -75,7 +75,7 @@ public class DeadlockDetectingCompletableFuture<T>
             // Won't block if we're done
             return;
         }
-        if (session != null && session.hasLock()) {
+        if (session != null && session.hasUIOrSessionLock()) {
             /*
              * Disallow blocking if the current thread holds the lock for the
              * session that would need to be locked by a request thread to
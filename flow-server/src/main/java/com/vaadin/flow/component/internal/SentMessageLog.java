@@ -0,0 +1,130 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.internal;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Ring buffer of the latest encoded messages sent to the client of a UI, keyed
+ * by their server sync id. The buffer is bounded both by the number of
+ * messages and by their total size. The size of a message is approximated by
+ * its length in characters, which is its UTF-8 size for ASCII content.
+ * <p>
+ * For internal use only. May be renamed or removed in a future release.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+class SentMessageLog implements Serializable {
+
+    private final String[] messages;
+    private final long maxBytes;
+    private int lastSyncId = -1;
+    private int count;
+    private long bytes;
+
+    /**
+     * Creates a new log that keeps the given number of messages.
+     *
+     * @param size
+     *            the maximum number of messages to keep, 0 to keep none
+     * @param maxBytes
+     *            the maximum total size of the kept messages, 0 for no limit
+     */
+    SentMessageLog(int size, long maxBytes) {
+        messages = new String[Math.max(0, size)];
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Checks whether this log keeps any messages.
+     *
+     * @return <code>true</code> if messages are kept, <code>false</code>
+     *         otherwise
+     */
+    boolean isEnabled() {
+        return messages.length > 0;
+    }
+
+    /**
+     * Adds a sent message to the log, dropping the oldest messages if the log
+     * is full or if the size limit is exceeded. A message that alone exceeds
+     * the size limit is not kept.
+     *
+     * @param syncId
+     *            the server sync id of the message
+     * @param message
+     *            the encoded message
+     */
+    void add(int syncId, String message) {
+        if (syncId != lastSyncId + 1) {
+            // The older messages do not lead up to this one
+            Arrays.fill(messages, null);
+            count = 0;
+            bytes = 0;
+        } else if (count == messages.length) {
+            removeOldest();
+        }
+        messages[syncId % messages.length] = message;
+        lastSyncId = syncId;
+        count++;
+        bytes += message.length();
+        while (maxBytes > 0 && bytes > maxBytes && count > 0) {
+            removeOldest();
+        }
+    }
+
+    /**
+     * Gets the total size of the messages in this log.
+     *
+     * @return the size of the kept messages
+     */
+    long getBytes() {
+        return bytes;
+    }
+
+    private void removeOldest() {
+        int index = (lastSyncId - count + 1) % messages.length;
+        bytes -= messages[index].length();
+        // Release the message right away instead of when it is overwritten
+        messages[index] = null;
+        count--;
+    }
+
+    /**
+     * Gets all messages sent after the message with the given sync id.
+     *
+     * @param syncId
+     *            the sync id of the last message seen by the client
+     * @return the messages in the order they were sent, or an empty optional
+     *         if some of them are no longer in the log
+     */
+    Optional<List<String>> getMessagesAfter(int syncId) {
+        int missing = lastSyncId - syncId;
+        if (syncId < 0 || missing < 0 || missing > count) {
+            return Optional.empty();
+        }
+        List<String> result = new ArrayList<>(missing);
+        for (int id = syncId + 1; id <= lastSyncId; id++) {
+            result.add(messages[id % messages.length]);
+        }
+        return Optional.of(result);
+    }
+}
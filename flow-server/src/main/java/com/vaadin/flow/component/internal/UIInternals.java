@@ -15,15 +15,26 @@
  */
 package com.vaadin.flow.component.internal;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -36,6 +47,7 @@ import com.vaadin.flow.component.ComponentUtil;
 import com.vaadin.flow.component.HasElement;
 import com.vaadin.flow.component.PushConfiguration;
 import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
 import com.vaadin.flow.component.dependency.CssImport;
 import com.vaadin.flow.component.dependency.JavaScript;
 import com.vaadin.flow.component.dependency.JsModule;
@@ -48,6 +60,8 @@ import com.vaadin.flow.dom.impl.BasicElementStateProvider;
 import com.vaadin.flow.function.DeploymentConfiguration;
 import com.vaadin.flow.internal.AnnotationReader;
 import com.vaadin.flow.internal.ConstantPool;
+import com.vaadin.flow.internal.ConstantPoolKey;
+import com.vaadin.flow.internal.CurrentInstance;
 import com.vaadin.flow.internal.JsonCodec;
 import com.vaadin.flow.internal.StateTree;
 import com.vaadin.flow.internal.UrlUtil;
@@ -67,6 +81,9 @@ import com.vaadin.flow.router.RouterLayout;
 import com.vaadin.flow.router.internal.AfterNavigationHandler;
 import com.vaadin.flow.router.internal.BeforeEnterHandler;
 import com.vaadin.flow.router.internal.BeforeLeaveHandler;
+import com.vaadin.flow.server.AccessQueueMetrics;
+import com.vaadin.flow.server.Command;
+import com.vaadin.flow.server.FutureAccess;
 import com.vaadin.flow.server.VaadinContext;
 import com.vaadin.flow.server.VaadinService;
 import com.vaadin.flow.server.VaadinSession;
@@ -76,6 +93,8 @@ import com.vaadin.flow.server.frontend.FallbackChunk.CssImportData;
 import com.vaadin.flow.shared.Registration;
 import com.vaadin.flow.shared.communication.PushMode;
 
+import elemental.json.Json;
+
 /**
  * Holds UI-specific methods and data which are intended for internal use by the
  * framework.
@@ -85,6 +104,27 @@ import com.vaadin.flow.shared.communication.PushMode;
  */
 public class UIInternals implements Serializable {
 
+    /**
+     * Recently executed JavaScript expressions, with the least recently
+     * executed ones dropped when there are too many.
+     */
+    private static class ExecutedExpressions
+            extends LinkedHashMap<String, ConstantPoolKey> {
+        private static final int MAX_SIZE = 256;
+
+        private ExecutedExpressions() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(
+                Map.Entry<String, ConstantPoolKey> eldest) {
+            return size() > MAX_SIZE;
+        }
+    }
+
+    private static final String UI_NOT_LOCKED_MESSAGE = "Cannot access state in a UI without locking it. Ensure the UI is accessed through UI.access() or that the request is handled with the UI locked.";
+
     /**
      * A {@link Page#executeJs(String, Serializable...)} invocation that has not
      * yet been sent to the client.
@@ -145,6 +185,14 @@ public class UIInternals implements Serializable {
 
     private int serverSyncId = 0;
 
+    /*
+     * Recently sent messages for replaying to a client that has missed some
+     * of them. Not serialized, the client is fully resynchronized instead.
+     */
+    private transient SentMessageLog sentMessageLog;
+
+    private transient List<String> messagesToReplay;
+
     private final StateTree stateTree;
 
     private PushConnection pushConnection = null;
@@ -153,8 +201,18 @@ public class UIInternals implements Serializable {
      * Timestamp for keeping track of the last heartbeat of the related UI.
      * Updated to the current time whenever the application receives a heartbeat
      * or UIDL request from the client for the related UI.
+     * <p>
+     * Volatile since heartbeats are handled without the session lock.
+     */
+    private volatile long lastHeartbeatTimestamp = System.currentTimeMillis();
+
+    /*
+     * Number of heartbeat listeners, so that heartbeats handled without the
+     * session lock don't have to look at the listeners
      */
-    private long lastHeartbeatTimestamp = System.currentTimeMillis();
+    private volatile int heartbeatListenerCount;
+
+    private final AtomicBoolean heartbeatEventPending = new AtomicBoolean();
 
     private List<PendingJavaScriptInvocation> pendingJsInvocations = new ArrayList<>();
 
@@ -183,10 +241,35 @@ public class UIInternals implements Serializable {
      */
     private volatile VaadinSession session;
 
+    /**
+     * The lock protecting the related UI when UI locking is enabled for the
+     * session.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /*
+     * Pending tasks can't be serialized and the queue should be empty when the
+     * UI is serialized as long as it doesn't happen while some other thread
+     * has the lock.
+     */
+    private transient ConcurrentLinkedQueue<FutureAccess> pendingAccessQueue = new ConcurrentLinkedQueue<>();
+
+    /*
+     * Kept after the UI is detached so that tasks enqueued while attached are
+     * still accounted for when they are run.
+     */
+    private transient AccessQueueMetrics accessQueueMetrics;
+
     private final DependencyList dependencyList = new DependencyList();
 
     private final ConstantPool constantPool = new ConstantPool();
 
+    /**
+     * Recently executed JavaScript expressions, mapped to their constant pool
+     * key once they have been executed more than once.
+     */
+    private final Map<String, ConstantPoolKey> executedExpressions = new ExecutedExpressions();
+
     private byte[] lastProcessedMessageHash = null;
 
     private String contextRootRelativePath;
@@ -199,6 +282,8 @@ public class UIInternals implements Serializable {
 
     private boolean isFallbackChunkLoaded;
 
+    private boolean compactChangesSupported;
+
     /**
      * Creates a new instance for the given UI.
      *
@@ -306,6 +391,88 @@ public class UIInternals implements Serializable {
         serverSyncId++;
     }
 
+    /**
+     * Checks whether sent messages should be stored using
+     * {@link #addSentMessage(int, String)}.
+     * <p>
+     * Used internally for communication tracking.
+     *
+     * @return <code>true</code> if sent messages are stored,
+     *         <code>false</code> otherwise
+     * @see com.vaadin.flow.function.DeploymentConfiguration#getResyncBufferSize()
+     */
+    public boolean isSentMessageLogEnabled() {
+        return getSentMessageLog().isEnabled();
+    }
+
+    /**
+     * Stores a message sent to the client so that it can be sent again if the
+     * client reports that it has missed the message. Only the latest messages
+     * within the resync buffer size and byte limit are kept.
+     * <p>
+     * Used internally for communication tracking.
+     *
+     * @param syncId
+     *            the server sync id of the message
+     * @param message
+     *            the encoded message, not <code>null</code>
+     */
+    public void addSentMessage(int syncId, String message) {
+        SentMessageLog log = getSentMessageLog();
+        if (log.isEnabled() && syncId >= 0) {
+            log.add(syncId, message);
+        }
+    }
+
+    /**
+     * Prepares the stored messages sent after the given sync id to be sent
+     * again to the client along with the next message.
+     * <p>
+     * Used internally for communication tracking.
+     *
+     * @param lastSeenSyncId
+     *            the sync id of the last message the client has seen
+     * @return <code>true</code> if all messages after the given sync id are
+     *         still stored and will be sent again, <code>false</code> if the
+     *         client needs a full resynchronization
+     * @see #dumpMessagesToReplay()
+     */
+    public boolean replayMessagesAfter(int lastSeenSyncId) {
+        Optional<List<String>> messages = getSentMessageLog()
+                .getMessagesAfter(lastSeenSyncId);
+        messages.ifPresent(list -> messagesToReplay = list);
+        return messages.isPresent();
+    }
+
+    /**
+     * Gets the messages to send again to the client and clears them.
+     * <p>
+     * Used internally for communication tracking.
+     *
+     * @return the encoded messages to send again, in the order they were
+     *         originally sent, not <code>null</code>
+     * @see #replayMessagesAfter(int)
+     */
+    public List<String> dumpMessagesToReplay() {
+        if (messagesToReplay == null) {
+            return Collections.emptyList();
+        }
+        List<String> messages = messagesToReplay;
+        messagesToReplay = null;
+        return messages;
+    }
+
+    private SentMessageLog getSentMessageLog() {
+        if (sentMessageLog == null) {
+            DeploymentConfiguration configuration = session == null ? null
+                    : session.getConfiguration();
+            sentMessageLog = configuration == null ? new SentMessageLog(0, 0)
+                    : new SentMessageLog(configuration.getResyncBufferSize(),
+                            configuration.getResyncBufferBytes());
+        }
+        return sentMessageLog;
+    }
+
     /**
      * Returns the timestamp of the last received heartbeat for the related UI.
      * <p>
@@ -342,6 +509,40 @@ public class UIInternals implements Serializable {
                 .forEach(listener -> listener.heartbeat(heartbeatEvent));
     }
 
+    /**
+     * Sets the last heartbeat request timestamp for the related UI without
+     * requiring the session lock. Called by the framework whenever the
+     * application receives a valid heartbeat request for the UI.
+     * <p>
+     * Heartbeat listeners are notified later, using {@link UI#access(Command)}.
+     * Several heartbeats received before the listeners have been notified
+     * result in only one event, with the latest timestamp.
+     *
+     * @param lastHeartbeat
+     *            The time the last heartbeat request occurred, in milliseconds
+     *            since the epoch.
+     */
+    public void receiveHeartbeat(long lastHeartbeat) {
+        lastHeartbeatTimestamp = lastHeartbeat;
+        if (heartbeatListenerCount > 0
+                && heartbeatEventPending.compareAndSet(false, true)) {
+            try {
+                ui.access(this::fireHeartbeatEvent);
+            } catch (UIDetachedException e) {
+                // Nobody to notify when the UI has been removed
+                heartbeatEventPending.set(false);
+            }
+        }
+    }
+
+    private void fireHeartbeatEvent() {
+        heartbeatEventPending.set(false);
+        HeartbeatEvent heartbeatEvent = new HeartbeatEvent(ui,
+                lastHeartbeatTimestamp);
+        getListeners(HeartbeatListener.class)
+                .forEach(listener -> listener.heartbeat(heartbeatEvent));
+    }
+
     @SuppressWarnings("unchecked")
     private static Class<? extends NodeFeature>[] getRootNodeFeatures() {
         // Start with all element features
@@ -490,11 +691,17 @@ public class UIInternals implements Serializable {
     }
 
     public Registration addHeartbeatListener(HeartbeatListener listener) {
-        return addListener(HeartbeatListener.class, listener);
+        Registration registration = addListener(HeartbeatListener.class,
+                listener);
+        heartbeatListenerCount++;
+        return Registration.once(() -> {
+            registration.remove();
+            heartbeatListenerCount--;
+        });
     }
 
     private <E> Registration addListener(Class<E> handler, E listener) {
-        session.checkHasLock();
+        checkHasLock();
         List<E> list = (List<E>) listeners.computeIfAbsent(handler,
                 key -> new ArrayList<>());
         list.add(listener);
@@ -547,7 +754,7 @@ public class UIInternals implements Serializable {
      */
     public void addJavaScriptInvocation(
             PendingJavaScriptInvocation invocation) {
-        session.checkHasLock();
+        checkHasLock();
         pendingJsInvocations.add(invocation);
     }
 
@@ -763,6 +970,261 @@ public class UIInternals implements Serializable {
         return session;
     }
 
+    /**
+     * Gets the lock that protects the related UI from concurrent access when
+     * UI locking is enabled for the session.
+     * <p>
+     * This method is for internal use by the framework.
+     *
+     * @return the UI lock, not <code>null</code>
+     * @see VaadinSession#isUILockingEnabled()
+     */
+    public Lock getLockInstance() {
+        return lock;
+    }
+
+    /**
+     * Checks whether the current thread holds the lock of the related UI.
+     *
+     * @return <code>true</code> if the UI lock is held by the current thread,
+     *         <code>false</code> otherwise
+     */
+    public boolean hasLock() {
+        return lock.isHeldByCurrentThread();
+    }
+
+    /**
+     * Locks the related UI when UI locking is enabled for the session. UI
+     * locks are reentrant, but a thread that holds the lock of another UI in
+     * the same session without holding the session lock cannot acquire a
+     * second UI lock.
+     * <p>
+     * This method is for internal use by the framework. Use
+     * {@link UI#access(Command)} or {@link UI#accessSynchronously(Command)} to
+     * access a UI.
+     *
+     * @throws IllegalStateException
+     *             if the current thread holds the lock of another UI in the
+     *             same session
+     */
+    public void lock() {
+        if (!lock.isHeldByCurrentThread()) {
+            UI current = UI.getCurrent();
+            VaadinSession currentSession = session;
+            if (current != null && current != ui && currentSession != null
+                    && current.getSession() == currentSession
+                    && current.getInternals().hasLock()
+                    && !((ReentrantLock) currentSession.getLockInstance())
+                            .isHeldByCurrentThread()) {
+                throw new IllegalStateException(
+                        "Can't lock a UI while holding the lock of another UI in the same session. This restriction is intended to avoid deadlocks.");
+            }
+        }
+        lock.lock();
+    }
+
+    /**
+     * Unlocks the related UI. If the lock is actually released, pending access
+     * tasks of the UI are run and changes are pushed if the push mode is
+     * {@link PushMode#AUTOMATIC automatic}.
+     * <p>
+     * This method is for internal use by the framework.
+     */
+    public void unlock() {
+        boolean ultimateRelease = false;
+        try {
+            if (lock.getHoldCount() == 1) {
+                ultimateRelease = true;
+                runPendingAccessTasks();
+                if (session != null && ui.getPushConfiguration()
+                        .getPushMode() == PushMode.AUTOMATIC) {
+                    Map<Class<?>, CurrentInstance> oldCurrent = CurrentInstance
+                            .setCurrent(ui);
+                    try {
+                        ui.push();
+                    } finally {
+                        CurrentInstance.restoreInstances(oldCurrent);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // Tasks may have been enqueued after the queue was purged
+        if (ultimateRelease) {
+            ensureAccessQueuePurged();
+        }
+    }
+
+    /**
+     * Checks that the current thread holds the lock that protects the related
+     * UI, and fails if not. Without UI locking, this is the lock of the
+     * session. With UI locking, this is the UI lock, or the session lock while
+     * the UI has not yet been added to the session.
+     * <p>
+     * When production mode is enabled, the check is only done if assertions are
+     * also enabled.
+     */
+    public void checkHasLock() {
+        VaadinSession currentSession = session;
+        if (currentSession == null) {
+            return;
+        }
+        if (!currentSession.isUILockingEnabled()) {
+            currentSession.checkHasLock();
+            return;
+        }
+        DeploymentConfiguration configuration = currentSession
+                .getConfiguration();
+        if (configuration == null || configuration.isProductionMode()) {
+            assert isLocked(currentSession) : UI_NOT_LOCKED_MESSAGE;
+        } else if (!isLocked(currentSession)) {
+            throw new IllegalStateException(UI_NOT_LOCKED_MESSAGE);
+        }
+    }
+
+    private boolean isLocked(VaadinSession currentSession) {
+        return lock.isHeldByCurrentThread()
+                || (((ReentrantLock) currentSession.getLockInstance())
+                        .isHeldByCurrentThread()
+                        && currentSession.getUIById(ui.getUIId()) != ui);
+    }
+
+    /**
+     * Enqueues a command to be run with the related UI locked, when UI locking
+     * is enabled for the session. If the UI is not locked, the lock is
+     * acquired and the command is run right away. Otherwise the command is run
+     * before the lock is released.
+     * <p>
+     * This method is for internal use by the framework.
+     *
+     * @param command
+     *            the command to run with the UI locked
+     * @return a future that can be used to check for task completion and to
+     *         cancel the task
+     * @see UI#access(Command)
+     */
+    public Future<Void> access(Command command) {
+        FutureAccess future = new FutureAccess(session, command);
+        AccessQueueMetrics metrics = getAccessQueueMetrics();
+        if (metrics != null) {
+            metrics.taskEnqueued();
+        }
+        pendingAccessQueue.add(future);
+
+        ensureAccessQueuePurged();
+
+        return future;
+    }
+
+    /**
+     * Runs the pending tasks enqueued with {@link #access(Command)} if the UI
+     * lock is not held by any other thread, or submits them to the access
+     * executor of the service if there is one.
+     * <p>
+     * This method is for internal use by the framework.
+     *
+     * @see VaadinService#getAccessExecutor()
+     */
+    public void ensureAccessQueuePurged() {
+        if (pendingAccessQueue.isEmpty()) {
+            return;
+        }
+        VaadinService service = getService();
+        Executor executor = service == null ? null
+                : service.getAccessExecutor();
+        if (executor != null) {
+            // If this thread holds the lock, the queue is purged on release
+            if (!lock.isHeldByCurrentThread()) {
+                service.scheduleAccessQueuePurge(ui);
+            }
+            return;
+        }
+        try {
+            // tryLock() would be shorter, but it does not guarantee fairness
+            if (lock.tryLock(0, TimeUnit.SECONDS)) {
+                // unlock runs the pending tasks
+                unlock();
+            }
+        } catch (InterruptedException e) {
+            // Just ignore
+        }
+    }
+
+    /**
+     * Runs the pending tasks enqueued with {@link #access(Command)}. The UI
+     * lock must be held by the current thread.
+     * <p>
+     * This method is for internal use by the framework.
+     */
+    public void runPendingAccessTasks() {
+        assert lock.isHeldByCurrentThread();
+
+        if (pendingAccessQueue.isEmpty()) {
+            return;
+        }
+
+        FutureAccess pendingAccess;
+        AccessQueueMetrics metrics = getAccessQueueMetrics();
+
+        // Dump all current instances, not only the ones dumped by setCurrent
+        Map<Class<?>, CurrentInstance> oldInstances = CurrentInstance
+                .getInstances();
+        CurrentInstance.setCurrent(ui);
+        try {
+            while ((pendingAccess = pendingAccessQueue.poll()) != null) {
+                if (metrics != null) {
+                    metrics.taskDequeued(pendingAccess);
+                }
+                if (!pendingAccess.isCancelled()) {
+                    pendingAccess.run();
+
+                    try {
+                        pendingAccess.get();
+                    } catch (Exception exception) {
+                        pendingAccess.handleError(exception);
+                    }
+                }
+            }
+        } finally {
+            CurrentInstance.clearAll();
+            CurrentInstance.restoreInstances(oldInstances);
+        }
+    }
+
+    private VaadinService getService() {
+        VaadinSession currentSession = session;
+        return currentSession == null ? null : currentSession.getService();
+    }
+
+    private AccessQueueMetrics getAccessQueueMetrics() {
+        VaadinService service = getService();
+        if (service != null) {
+            accessQueueMetrics = service.getAccessQueueMetrics();
+        }
+        return accessQueueMetrics;
+    }
+
+    /**
+     * Gets the queue of tasks submitted using {@link #access(Command)}. It is
+     * safe to call this method and access the returned queue without holding
+     * the UI lock.
+     * <p>
+     * This method is for internal use by the framework.
+     *
+     * @return the queue of pending access tasks
+     */
+    public Queue<FutureAccess> getPendingAccessQueue() {
+        return pendingAccessQueue;
+    }
+
+    private void readObject(ObjectInputStream stream)
+            throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        pendingAccessQueue = new ConcurrentLinkedQueue<>();
+    }
+
     private static Logger getLogger() {
         return LoggerFactory.getLogger(UIInternals.class.getName());
     }
@@ -879,6 +1341,31 @@ public class UIInternals implements Serializable {
         return constantPool;
     }
 
+    /**
+     * Gets the constant pool key to use for sending a JavaScript expression
+     * that is executed repeatedly in this UI, so that the client only needs to
+     * receive and compile the expression once.
+     * <p>
+     * An expression is only shared through the constant pool once it has been
+     * executed more than once, so that expressions that are only executed once
+     * don't stay in the constant pool.
+     *
+     * @param expression
+     *            the expression to execute, not <code>null</code>
+     * @return the constant pool key for the expression, or <code>null</code>
+     *         if the expression should be sent as is
+     */
+    public ConstantPoolKey getExpressionConstant(String expression) {
+        assert expression != null;
+
+        if (!executedExpressions.containsKey(expression)) {
+            executedExpressions.put(expression, null);
+            return null;
+        }
+        return executedExpressions.computeIfAbsent(expression,
+                key -> new ConstantPoolKey(Json.create(key)));
+    }
+
     /**
      * Get the latest handled location or empty optional if no active
      * navigation.
@@ -1050,6 +1537,29 @@ public class UIInternals implements Serializable {
         this.extendedClientDetails = details;
     }
 
+    /**
+     * Checks whether the client side of this UI has told that it can process
+     * state changes encoded in the compact format.
+     *
+     * @return <code>true</code> if the client supports compact changes,
+     *         <code>false</code> otherwise
+     */
+    public boolean isCompactChangesSupported() {
+        return compactChangesSupported;
+    }
+
+    /**
+     * Sets whether the client side of this UI can process state changes
+     * encoded in the compact format.
+     *
+     * @param compactChangesSupported
+     *            <code>true</code> if the client supports compact changes,
+     *            <code>false</code> otherwise
+     */
+    public void setCompactChangesSupported(boolean compactChangesSupported) {
+        this.compactChangesSupported = compactChangesSupported;
+    }
+
     private void configurePush(HasElement root) {
         DeploymentConfiguration deploymentConfiguration = getSession()
                 .getService().getDeploymentConfiguration();
@@ -286,6 +286,154 @@ public interface DeploymentConfiguration extends Serializable {
         return getBooleanProperty(InitParameters.SERVLET_PARAMETER_BROTLI, false);
     }
 
+    /**
+     * Checks whether UIDL responses and push messages should be streamed
+     * directly to the output without building an intermediate JSON tree.
+     *
+     * @return <code>true</code> to stream UIDL messages, <code>false</code>
+     *         to build each message as a JSON object before writing it
+     */
+    default boolean isStreamingUidl() {
+        return getBooleanProperty(
+                InitParameters.SERVLET_PARAMETER_STREAMING_UIDL, false);
+    }
+
+    /**
+     * Checks whether state changes should be sent in the compact positional
+     * format to clients that have told that they support it. Other clients
+     * always receive the regular JSON format.
+     *
+     * @return <code>true</code> to use compact changes when supported,
+     *         <code>false</code> to always use the regular format
+     */
+    default boolean isCompactChanges() {
+        return getBooleanProperty(
+                InitParameters.SERVLET_PARAMETER_COMPACT_CHANGES, false);
+    }
+
+    /**
+     * Checks whether the state tree memory usage of the service should be
+     * registered as a JMX MXBean.
+     *
+     * @return <code>true</code> to register the MXBean, <code>false</code>
+     *         otherwise
+     */
+    default boolean isStateTreeMemoryMXBeanEnabled() {
+        return getBooleanProperty(
+                InitParameters.SERVLET_PARAMETER_STATE_TREE_MEMORY_MXBEAN,
+                false);
+    }
+
+    /**
+     * Checks whether each UI should be locked separately instead of locking
+     * the whole session when a UI is accessed.
+     *
+     * @return <code>true</code> to use a separate lock for each UI,
+     *         <code>false</code> to only use the session lock
+     */
+    default boolean isUILockingEnabled() {
+        return getBooleanProperty(InitParameters.SERVLET_PARAMETER_UI_LOCKING,
+                false);
+    }
+
+    /**
+     * Gets the type of executor that runs the tasks enqueued with
+     * {@code access()}.
+     *
+     * @return <code>caller</code>, <code>pool</code> or <code>virtual</code>
+     * @see InitParameters#SERVLET_PARAMETER_ACCESS_EXECUTOR
+     */
+    default String getAccessExecutor() {
+        return getStringProperty(
+                InitParameters.SERVLET_PARAMETER_ACCESS_EXECUTOR, "caller");
+    }
+
+    /**
+     * Gets the minimum interval between two server initiated push messages
+     * of a UI.
+     *
+     * @return the minimum push interval in milliseconds, or 0 to push every
+     *         change right away
+     * @see InitParameters#SERVLET_PARAMETER_MIN_PUSH_INTERVAL
+     */
+    default int getMinPushInterval() {
+        return getApplicationOrSystemProperty(
+                InitParameters.SERVLET_PARAMETER_MIN_PUSH_INTERVAL, 0,
+                Integer::parseInt);
+    }
+
+    /**
+     * Gets the maximum number of push messages of a UI that may be waiting to
+     * be written to the client before further changes are held back.
+     *
+     * @return the maximum number of pending push messages, or 0 for no limit
+     * @see InitParameters#SERVLET_PARAMETER_MAX_PENDING_PUSH_MESSAGES
+     */
+    default int getMaxPendingPushMessages() {
+        return getApplicationOrSystemProperty(
+                InitParameters.SERVLET_PARAMETER_MAX_PENDING_PUSH_MESSAGES, 0,
+                Integer::parseInt);
+    }
+
+    /**
+     * Gets the maximum total size of the push messages of a UI that may be
+     * waiting to be written to the client before further changes are held
+     * back.
+     *
+     * @return the maximum size of pending push messages in bytes, or 0 for no
+     *         limit
+     * @see InitParameters#SERVLET_PARAMETER_MAX_PENDING_PUSH_BYTES
+     */
+    default long getMaxPendingPushBytes() {
+        return getApplicationOrSystemProperty(
+                InitParameters.SERVLET_PARAMETER_MAX_PENDING_PUSH_BYTES, 0L,
+                Long::parseLong);
+    }
+
+    /**
+     * Gets the number of latest messages sent to the client of a UI to keep
+     * for resending them to a client that has missed them.
+     *
+     * @return the number of messages to keep, or 0 to always fully
+     *         resynchronize a client that has missed messages
+     * @see InitParameters#SERVLET_PARAMETER_RESYNC_BUFFER_SIZE
+     */
+    default int getResyncBufferSize() {
+        return getApplicationOrSystemProperty(
+                InitParameters.SERVLET_PARAMETER_RESYNC_BUFFER_SIZE, 0,
+                Integer::parseInt);
+    }
+
+    /**
+     * Gets the maximum total size of the latest messages sent to the client of
+     * a UI that are kept for resending them to a client that has missed them.
+     *
+     * @return the maximum size of the kept messages in bytes, or 0 for no
+     *         limit other than {@link #getResyncBufferSize()}
+     * @see InitParameters#SERVLET_PARAMETER_RESYNC_BUFFER_BYTES
+     */
+    default long getResyncBufferBytes() {
+        return getApplicationOrSystemProperty(
+                InitParameters.SERVLET_PARAMETER_RESYNC_BUFFER_BYTES,
+                1024L * 1024L, Long::parseLong);
+    }
+
+    /**
+     * Gets the minimum size of UIDL responses to compress.
+     * <p>
+     * Messages sent through a push websocket are not affected. Their
+     * compression is negotiated by the servlet container.
+     *
+     * @return the minimum size in bytes of UIDL responses to gzip compress, or
+     *         0 to not compress responses
+     * @see InitParameters#SERVLET_PARAMETER_UIDL_COMPRESSION_THRESHOLD
+     */
+    default int getUidlCompressionThreshold() {
+        return getApplicationOrSystemProperty(
+                InitParameters.SERVLET_PARAMETER_UIDL_COMPRESSION_THRESHOLD, 0,
+                Integer::parseInt);
+    }
+
     default String getCompiledWebComponentsPath() {
         return getStringProperty(InitParameters.COMPILED_WEB_COMPONENTS_PATH,
                 "vaadin-web-components");
@@ -68,6 +68,15 @@ public class ConstantPool implements Serializable {
         return !newKeys.isEmpty();
     }
 
+    /**
+     * Gets the number of constants known by this constant pool.
+     *
+     * @return the number of constants
+     */
+    public int size() {
+        return knownValues.size();
+    }
+
     /**
      * Encodes all new constants to a JSON object and marks those constants as
      * non-new.
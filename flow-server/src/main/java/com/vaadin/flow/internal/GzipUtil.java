@@ -0,0 +1,110 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Utility class for gzip compressing dynamically generated responses.
+ * <p>
+ * The {@link Deflater} instances, which allocate native memory, are pooled
+ * and reused instead of creating a new one for each response as
+ * {@link java.util.zip.GZIPOutputStream} does.
+ * <p>
+ * For internal use only. May be renamed or removed in a future release.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+public final class GzipUtil {
+
+    private static final byte[] HEADER = { 0x1f, (byte) 0x8b,
+            Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private static final BlockingQueue<Deflater> DEFLATERS = new ArrayBlockingQueue<>(
+            2 * Runtime.getRuntime().availableProcessors());
+
+    private GzipUtil() {
+        // Static helpers only
+    }
+
+    /**
+     * Writes the contents of the given buffer gzip compressed to the given
+     * output stream. The output stream is not closed.
+     *
+     * @param data
+     *            the data to compress, not <code>null</code>
+     * @param out
+     *            the output stream to write the compressed data to, not
+     *            <code>null</code>
+     * @throws IOException
+     *             if writing to the output stream fails
+     */
+    public static void gzip(ByteArrayOutputStream data, OutputStream out)
+            throws IOException {
+        out.write(HEADER);
+
+        CRC32 crc = new CRC32();
+        Deflater deflater = acquireDeflater();
+        try {
+            DeflaterOutputStream deflaterStream = new DeflaterOutputStream(out,
+                    deflater, BUFFER_SIZE);
+            data.writeTo(new CheckedOutputStream(deflaterStream, crc));
+            deflaterStream.finish();
+        } finally {
+            releaseDeflater(deflater);
+        }
+
+        writeInt((int) crc.getValue(), out);
+        writeInt(data.size(), out);
+    }
+
+    private static Deflater acquireDeflater() {
+        Deflater deflater = DEFLATERS.poll();
+        if (deflater == null) {
+            // Raw deflate data, the gzip header and trailer are written
+            // separately
+            deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        }
+        return deflater;
+    }
+
+    private static void releaseDeflater(Deflater deflater) {
+        deflater.reset();
+        if (!DEFLATERS.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    private static void writeInt(int value, OutputStream out)
+            throws IOException {
+        // gzip uses little endian byte order
+        out.write(value & 0xff);
+        out.write((value >> 8) & 0xff);
+        out.write((value >> 16) & 0xff);
+        out.write((value >> 24) & 0xff);
+    }
+}
@@ -44,7 +44,13 @@ public class MessageDigestUtil {
         return getSha256().digest(string.getBytes(StandardCharsets.UTF_16));
     }
 
-    private static MessageDigest getSha256() {
+    /**
+     * Creates a new SHA-256 message digest, e.g. for hashing data that is not
+     * available all at once.
+     *
+     * @return a new SHA-256 message digest, not <code>null</code>
+     */
+    public static MessageDigest getSha256() {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
             assert digest.getDigestLength() == 32;
@@ -230,12 +230,29 @@ public class ResponseWriter implements Serializable {
 
     private static boolean acceptsEncoding(HttpServletRequest request,
             String encodingName) {
-        String accept = request.getHeader("Accept-Encoding");
-        if (accept == null) {
+        return acceptsEncoding(request.getHeader("Accept-Encoding"),
+                encodingName);
+    }
+
+    /**
+     * Checks whether the given {@code Accept-Encoding} header value allows
+     * using the given content encoding.
+     *
+     * @param acceptEncoding
+     *            the value of the {@code Accept-Encoding} header, or
+     *            <code>null</code> if the header is missing
+     * @param encodingName
+     *            the name of the encoding, e.g. {@code gzip}
+     * @return <code>true</code> if the encoding is accepted,
+     *         <code>false</code> otherwise
+     */
+    public static boolean acceptsEncoding(String acceptEncoding,
+            String encodingName) {
+        if (acceptEncoding == null) {
             return false;
         }
 
-        accept = accept.replace(" ", "");
+        String accept = acceptEncoding.replace(" ", "");
         // Browser denies gzip compression if it reports
         // gzip;q=0
         //
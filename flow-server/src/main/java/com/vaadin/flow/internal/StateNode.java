@@ -111,19 +111,43 @@ public class StateNode implements Serializable {
         private final Set<Class<? extends NodeFeature>> reportedFeatures;
 
         /**
-         * Maps from a node feature type to its index in the {@link #features}
-         * array. This instance is cached per unique set of used node feature
-         * types in {@link #featureSetCache}.
+         * The node feature types in this set, ordered by their index in the
+         * {@link #features} array.
          */
-        private final Map<Class<? extends NodeFeature>, Integer> mappings = new HashMap<>();
+        private final List<Class<? extends NodeFeature>> types = new ArrayList<>();
+
+        /**
+         * Maps from the {@link NodeFeatureRegistry#getIndex(Class) registry
+         * index} of a node feature type to its index in the {@link #features}
+         * array, or <code>-1</code> if the type is not in this set. The table
+         * only covers indices up to the highest one used by this set. This
+         * instance is cached per unique set of used node feature types in
+         * {@link #featureSetCache}.
+         */
+        private final int[] slots;
 
         public FeatureSet(FeatureSetKey featureSetKey) {
             reportedFeatures = featureSetKey.reportedFeatures;
 
             featureSetKey.getAllFeatures()
                     .sorted(NodeFeatureRegistry.PRIORITY_COMPARATOR)
-                    .forEach(key -> mappings.put(key,
-                            Integer.valueOf(mappings.size())));
+                    .forEach(types::add);
+
+            int maxIndex = types.stream()
+                    .mapToInt(NodeFeatureRegistry::getIndex).max().orElse(-1);
+            slots = new int[maxIndex + 1];
+            Arrays.fill(slots, -1);
+            for (int i = 0; i < types.size(); i++) {
+                slots[NodeFeatureRegistry.getIndex(types.get(i))] = i;
+            }
+        }
+
+        private int getSlot(Class<? extends NodeFeature> featureType) {
+            int index = NodeFeatureRegistry.getIndex(featureType);
+            if (index < 0 || index >= slots.length) {
+                return -1;
+            }
+            return slots[index];
         }
     }
 
@@ -166,6 +190,12 @@ public class StateNode implements Serializable {
 
     private boolean isInitialChanges = true;
 
+    // Whether this node is accounted for in the memory counter of its tree
+    private boolean memoryTracked;
+
+    // Whether this node is in the dirty node queue of its owner
+    private boolean queuedAsDirty;
+
     private ArrayList<StateTree.BeforeClientResponseEntry> beforeClientResponseEntries;
     private boolean enabled = true;
 
@@ -345,7 +375,8 @@ public class StateNode implements Serializable {
         forEachFeature(n -> n.forEachChild(action));
     }
 
-    private void forEachFeature(Consumer<NodeFeature> action) {
+    // package-private for StateTreeMemoryCounter
+    void forEachFeature(Consumer<NodeFeature> action) {
         getInitializedFeatures().forEach(action::accept);
     }
 
@@ -388,6 +419,8 @@ public class StateNode implements Serializable {
      * tree.
      */
     private void reset() {
+        untrackMemory();
+        queuedAsDirty = false;
         owner = NullOwner.get();
         id = -1;
         wasAttached = false;
@@ -441,6 +474,7 @@ public class StateNode implements Serializable {
         } else if (featureIndex == 0 && features == null) {
             feature = NodeFeatureRegistry.create(featureType, this);
             features = feature;
+            onFeatureInitialized(featureType);
         } else {
             NodeFeature[] featuresArray;
             if (features instanceof NodeFeature[]) {
@@ -466,6 +500,7 @@ public class StateNode implements Serializable {
             if (feature == null) {
                 feature = NodeFeatureRegistry.create(featureType, this);
                 featuresArray[featureIndex] = feature;
+                onFeatureInitialized(featureType);
             }
         }
 
@@ -475,13 +510,13 @@ public class StateNode implements Serializable {
     private <T extends NodeFeature> int getFeatureIndex(Class<T> featureType) {
         assert featureType != null;
 
-        Integer featureIndex = featureSet.mappings.get(featureType);
-        if (featureIndex == null) {
+        int featureIndex = featureSet.getSlot(featureType);
+        if (featureIndex < 0) {
             throw new IllegalStateException(
                     "Node does not have the feature " + featureType);
         }
 
-        return featureIndex.intValue();
+        return featureIndex;
     }
 
     /**
@@ -533,7 +568,7 @@ public class StateNode implements Serializable {
     public boolean hasFeature(Class<? extends NodeFeature> featureType) {
         assert featureType != null;
 
-        return featureSet.mappings.containsKey(featureType);
+        return featureSet.getSlot(featureType) >= 0;
     }
 
     /**
@@ -558,6 +593,28 @@ public class StateNode implements Serializable {
         owner.markAsDirty(this);
     }
 
+    /**
+     * Checks whether this node is queued as dirty in its owner. Maintained by
+     * {@link StateTree} so that marking an already dirty node doesn't need a
+     * set lookup.
+     *
+     * @return <code>true</code> if the node is queued as dirty
+     */
+    final boolean isQueuedAsDirty() {
+        return queuedAsDirty;
+    }
+
+    /**
+     * Sets whether this node is queued as dirty in its owner.
+     *
+     * @param queuedAsDirty
+     *            <code>true</code> if the node has been queued as dirty,
+     *            <code>false</code> if it has been removed from the queue
+     */
+    final void setQueuedAsDirty(boolean queuedAsDirty) {
+        this.queuedAsDirty = queuedAsDirty;
+    }
+
     /**
      * Checks whether this node is attached to a state tree.
      *
@@ -618,7 +675,7 @@ public class StateNode implements Serializable {
             if (isInitialChanges) {
                 // send only required (reported) features updates
                 Stream<NodeFeature> initialFeatures = Stream
-                        .concat(featureSet.mappings.keySet().stream()
+                        .concat(featureSet.types.stream()
                                 .filter(this::isReportedFeature)
                                 .map(this::getFeature), getDisalowFeatures());
                 doCollectChanges(collector, initialFeatures);
@@ -634,7 +691,9 @@ public class StateNode implements Serializable {
             Stream<NodeFeature> features) {
         features.filter(this::hasChangeTracker).forEach(feature -> {
             feature.collectChanges(collector);
-            changes.remove(feature.getClass());
+            if (changes.remove(feature.getClass()) != null) {
+                updateChangeTrackerCount(-1);
+            }
         });
         isInitialChanges = false;
         if (changes != null && changes.isEmpty()) {
@@ -651,6 +710,9 @@ public class StateNode implements Serializable {
      * testing purposes.
      */
     public void clearChanges() {
+        if (changes != null) {
+            updateChangeTrackerCount(-changes.size());
+        }
         changes = null;
     }
 
@@ -723,6 +785,8 @@ public class StateNode implements Serializable {
                 id = -1;
             }
         }
+        untrackMemory();
+        queuedAsDirty = false;
         owner = tree;
     }
 
@@ -732,6 +796,12 @@ public class StateNode implements Serializable {
 
         int newId = owner.register(this);
 
+        if (owner instanceof StateTree && !memoryTracked) {
+            memoryTracked = true;
+            ((StateTree) owner).getMemoryCounter().nodeRegistered(this,
+                    changes == null ? 0 : changes.size());
+        }
+
         if (newId != -1) {
             if (id == -1) {
                 // Didn't have an id previously, set one now
@@ -754,6 +824,7 @@ public class StateNode implements Serializable {
         // Ensure detach change is sent
         markAsDirty();
 
+        untrackMemory();
         owner.unregister(this);
     }
 
@@ -854,8 +925,10 @@ public class StateNode implements Serializable {
             changes = new HashMap<>();
         }
 
-        return (T) changes.computeIfAbsent(feature.getClass(),
-                k -> factory.get());
+        return (T) changes.computeIfAbsent(feature.getClass(), k -> {
+            updateChangeTrackerCount(1);
+            return factory.get();
+        });
     }
 
     /**
@@ -984,11 +1057,10 @@ public class StateNode implements Serializable {
     @SuppressWarnings("rawtypes")
     private static Class[] getNonRepeatebleFeatures(StateNode node) {
         if (node.featureSet.reportedFeatures.isEmpty()) {
-            Set<Class<? extends NodeFeature>> set = node.featureSet.mappings
-                    .keySet();
-            return set.toArray(new Class[set.size()]);
+            List<Class<? extends NodeFeature>> types = node.featureSet.types;
+            return types.toArray(new Class[types.size()]);
         }
-        return node.featureSet.mappings.keySet().stream().filter(
+        return node.featureSet.types.stream().filter(
                 clazz -> !node.featureSet.reportedFeatures.contains(clazz))
                 .toArray(Class[]::new);
     }
@@ -1098,6 +1170,42 @@ public class StateNode implements Serializable {
         return enabled;
     }
 
+    /**
+     * Gets the memory counter of the state tree that this node is registered
+     * to. Node features use the counter to report changes in their size.
+     * <p>
+     * For internal use only. May be renamed or removed in a future release.
+     *
+     * @return the memory counter, or <code>null</code> if this node is not
+     *         registered to a state tree
+     */
+    public StateTreeMemoryCounter getMemoryCounter() {
+        if (memoryTracked) {
+            return ((StateTree) owner).getMemoryCounter();
+        }
+        return null;
+    }
+
+    private void untrackMemory() {
+        if (memoryTracked) {
+            ((StateTree) owner).getMemoryCounter().nodeUnregistered(this,
+                    changes == null ? 0 : changes.size());
+            memoryTracked = false;
+        }
+    }
+
+    private void onFeatureInitialized(Class<? extends NodeFeature> type) {
+        if (memoryTracked) {
+            ((StateTree) owner).getMemoryCounter().featureInitialized(type);
+        }
+    }
+
+    private void updateChangeTrackerCount(int delta) {
+        if (memoryTracked) {
+            ((StateTree) owner).getMemoryCounter().changeTrackersChanged(delta);
+        }
+    }
+
     /**
      * This is internal method which may differ from {@link #isAttached()} only
      * during attach/detach event dispatching (inside listeners) when some node
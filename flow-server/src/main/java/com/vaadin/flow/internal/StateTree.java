@@ -17,6 +17,7 @@
 package com.vaadin.flow.internal;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -33,7 +34,7 @@ import com.vaadin.flow.component.internal.UIInternals;
 import com.vaadin.flow.function.SerializableConsumer;
 import com.vaadin.flow.internal.change.NodeChange;
 import com.vaadin.flow.internal.nodefeature.NodeFeature;
-import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.server.StateTreeMemoryUsage;
 import com.vaadin.flow.server.communication.UidlWriter;
 import com.vaadin.flow.shared.Registration;
 
@@ -131,7 +132,19 @@ public class StateTree implements NodeOwner {
         void remove();
     }
 
-    private Set<StateNode> dirtyNodes = new LinkedHashSet<>();
+    private static final int INITIAL_DIRTY_QUEUE_CAPACITY = 16;
+
+    /*
+     * Dirty nodes in the order they were marked dirty. Nodes are flagged via
+     * StateNode.setQueuedAsDirty so that each node is queued only once. The
+     * spare array is swapped in while the queued nodes are being collected so
+     * that neither marking nor collecting allocates per round trip.
+     */
+    private StateNode[] dirtyNodes = new StateNode[INITIAL_DIRTY_QUEUE_CAPACITY];
+
+    private int dirtyNodeCount;
+
+    private StateNode[] spareDirtyNodes = new StateNode[INITIAL_DIRTY_QUEUE_CAPACITY];
 
     private final Map<Integer, StateNode> idToNode = new HashMap<>();
 
@@ -145,6 +158,8 @@ public class StateTree implements NodeOwner {
 
     private final UIInternals uiInternals;
 
+    private final StateTreeMemoryCounter memoryCounter = new StateTreeMemoryCounter();
+
     // This field actually belongs to RootNode class but it can'be moved there
     // because its method isAttached() is called before the RootNode class is
     // initialization is done.
@@ -230,6 +245,28 @@ public class StateTree implements NodeOwner {
         return idToNode.containsKey(node.getId());
     }
 
+    /**
+     * Gets the incrementally maintained memory counter of this tree.
+     * <p>
+     * For internal use only. May be renamed or removed in a future release.
+     *
+     * @return the memory counter, not <code>null</code>
+     */
+    public StateTreeMemoryCounter getMemoryCounter() {
+        return memoryCounter;
+    }
+
+    /**
+     * Gets a snapshot of the current memory usage of this tree, including the
+     * constant pool of the UI.
+     *
+     * @return the memory usage, not <code>null</code>
+     */
+    public StateTreeMemoryUsage getMemoryUsage() {
+        return memoryCounter.toMemoryUsage(
+                uiInternals.getConstantPool().size());
+    }
+
     /**
      * Finds a node with the given id.
      *
@@ -257,20 +294,33 @@ public class StateTree implements NodeOwner {
      *            a consumer accepting node changes
      */
     public void collectChanges(Consumer<NodeChange> collector) {
-        Set<StateNode> allDirtyNodes = new LinkedHashSet<>();
-        boolean evaluateNewDirtyNodes = true;
-
         // The updateActiveState method can create new dirty nodes, so they need
-        // to be collected as well
-        while (evaluateNewDirtyNodes) {
-            Set<StateNode> dirtyNodesSet = doCollectDirtyNodes(true);
-            dirtyNodesSet.forEach(StateNode::updateActiveState);
-            evaluateNewDirtyNodes = allDirtyNodes.addAll(dirtyNodesSet);
+        // to be collected as well. Those are appended to the queue and thus
+        // handled by the same loop.
+        for (int i = 0; i < dirtyNodeCount; i++) {
+            StateNode node = dirtyNodes[i];
+            if (isQueuedHere(node)) {
+                node.updateActiveState();
+            }
         }
 
+        // Nodes marked dirty while collecting go to a fresh queue
+        StateNode[] collectedNodes = dirtyNodes;
+        int collectedCount = dirtyNodeCount;
+        dirtyNodes = spareDirtyNodes;
+        dirtyNodeCount = 0;
+
         // TODO fire preCollect events
 
-        allDirtyNodes.forEach(node -> node.collectChanges(collector));
+        for (int i = 0; i < collectedCount; i++) {
+            StateNode node = collectedNodes[i];
+            if (isQueuedHere(node)) {
+                node.setQueuedAsDirty(false);
+                node.collectChanges(collector);
+            }
+        }
+
+        spareDirtyNodes = clearQueue(collectedNodes, collectedCount);
     }
 
     @Override
@@ -278,7 +328,32 @@ public class StateTree implements NodeOwner {
         assert node.getOwner() == this;
         checkHasLock();
 
-        dirtyNodes.add(node);
+        if (!node.isQueuedAsDirty()) {
+            if (dirtyNodeCount == dirtyNodes.length) {
+                dirtyNodes = Arrays.copyOf(dirtyNodes, dirtyNodeCount * 2);
+            }
+            dirtyNodes[dirtyNodeCount++] = node;
+            node.setQueuedAsDirty(true);
+        }
+    }
+
+    /*
+     * A node that has been removed from this tree after being queued may have
+     * been queued again by some other owner.
+     */
+    private boolean isQueuedHere(StateNode node) {
+        return node.isQueuedAsDirty() && node.getOwner() == this;
+    }
+
+    private static StateNode[] clearQueue(StateNode[] queue, int count) {
+        // Don't hold on to the capacity needed by an exceptionally large update
+        if (queue.length > INITIAL_DIRTY_QUEUE_CAPACITY
+                && count < queue.length / 4) {
+            return new StateNode[Math.max(INITIAL_DIRTY_QUEUE_CAPACITY,
+                    queue.length / 2)];
+        }
+        Arrays.fill(queue, 0, count, null);
+        return queue;
     }
 
     /**
@@ -287,7 +362,13 @@ public class StateTree implements NodeOwner {
      * @return a set of dirty nodes, in the order they were marked dirty
      */
     public Set<StateNode> collectDirtyNodes() {
-        return doCollectDirtyNodes(false);
+        Set<StateNode> nodes = new LinkedHashSet<>();
+        for (int i = 0; i < dirtyNodeCount; i++) {
+            if (isQueuedHere(dirtyNodes[i])) {
+                nodes.add(dirtyNodes[i]);
+            }
+        }
+        return Collections.unmodifiableSet(nodes);
     }
 
     /**
@@ -297,7 +378,7 @@ public class StateTree implements NodeOwner {
      * @return true if there are dirty nodes, false otherwise
      */
     public boolean hasDirtyNodes() {
-        return !dirtyNodes.isEmpty();
+        return dirtyNodeCount > 0;
     }
 
     /**
@@ -403,28 +484,7 @@ public class StateTree implements NodeOwner {
     }
 
     private void checkHasLock() {
-        VaadinSession session = uiInternals.getSession();
-        if (session != null) {
-            session.checkHasLock();
-        }
-    }
-
-    /**
-     * Gets all the nodes that have been marked as dirty.
-     * <p>
-     * If {@code reset} is {@code true} then dirty nodes collection is reset.
-     *
-     * @return a set of dirty nodes, in the order they were marked dirty
-     */
-    private Set<StateNode> doCollectDirtyNodes(boolean reset) {
-        if (reset) {
-            Set<StateNode> collectedNodes = dirtyNodes;
-            dirtyNodes = new LinkedHashSet<>();
-            return collectedNodes;
-        } else {
-            return Collections.unmodifiableSet(dirtyNodes);
-        }
-
+        uiInternals.checkHasLock();
     }
 
     /**
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.vaadin.flow.internal;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.vaadin.flow.internal.nodefeature.ElementListenerMap;
+import com.vaadin.flow.internal.nodefeature.NodeFeature;
+import com.vaadin.flow.server.StateTreeMemoryUsage;
+
+/**
+ * Incrementally maintained memory usage counters of a {@link StateTree}.
+ * <p>
+ * The counters are updated as nodes are registered to or unregistered from the
+ * tree and as the registered nodes are modified, so reading them never
+ * requires walking the tree.
+ * <p>
+ * For internal use only. May be renamed or removed in a future release.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+public class StateTreeMemoryCounter implements Serializable {
+
+    private int nodeCount;
+
+    private final Map<Class<? extends NodeFeature>, Integer> featureCounts = new HashMap<>();
+
+    private int mapValueCount;
+
+    private int changeTrackerCount;
+
+    private int listenerCount;
+
+    /**
+     * Adds the current contents of a node that has been registered to the
+     * tree.
+     *
+     * @param node
+     *            the registered node, not <code>null</code>
+     * @param trackerCount
+     *            the number of change trackers the node currently has
+     */
+    void nodeRegistered(StateNode node, int trackerCount) {
+        nodeCount++;
+        changeTrackerCount += trackerCount;
+        node.forEachFeature(feature -> addFeature(feature, 1));
+    }
+
+    /**
+     * Removes the current contents of a node that has been unregistered from
+     * the tree.
+     *
+     * @param node
+     *            the unregistered node, not <code>null</code>
+     * @param trackerCount
+     *            the number of change trackers the node currently has
+     */
+    void nodeUnregistered(StateNode node, int trackerCount) {
+        nodeCount--;
+        changeTrackerCount -= trackerCount;
+        node.forEachFeature(feature -> addFeature(feature, -1));
+    }
+
+    private void addFeature(NodeFeature feature, int sign) {
+        featureCreated(feature.getClass(), sign);
+        mapValueCount += sign * feature.getValueCount();
+        if (feature instanceof ElementListenerMap) {
+            listenerCount += sign
+                    * ((ElementListenerMap) feature).getListenerCount();
+        }
+    }
+
+    /**
+     * Records that a feature has been initialized for a registered node.
+     *
+     * @param featureType
+     *            the type of the feature, not <code>null</code>
+     */
+    void featureInitialized(Class<? extends NodeFeature> featureType) {
+        featureCreated(featureType, 1);
+    }
+
+    private void featureCreated(Class<? extends NodeFeature> featureType,
+            int delta) {
+        featureCounts.merge(featureType, delta,
+                (count, value) -> count + value == 0 ? null : count + value);
+    }
+
+    /**
+     * Updates the number of change trackers of registered nodes.
+     *
+     * @param delta
+     *            the change in the number of trackers
+     */
+    void changeTrackersChanged(int delta) {
+        changeTrackerCount += delta;
+    }
+
+    /**
+     * Updates the number of values stored in the maps of registered nodes.
+     *
+     * @param delta
+     *            the change in the number of values
+     */
+    public void mapValuesChanged(int delta) {
+        mapValueCount += delta;
+    }
+
+    /**
+     * Updates the number of DOM event listeners of registered nodes.
+     *
+     * @param delta
+     *            the change in the number of listeners
+     */
+    public void listenersChanged(int delta) {
+        listenerCount += delta;
+    }
+
+    /**
+     * Creates a snapshot of the current counter values.
+     *
+     * @param constantPoolSize
+     *            the number of constants known by the constant pool of the UI
+     * @return the current memory usage, not <code>null</code>
+     */
+    public StateTreeMemoryUsage toMemoryUsage(int constantPoolSize) {
+        return new StateTreeMemoryUsage(nodeCount, featureCounts,
+                mapValueCount, changeTrackerCount, constantPoolSize,
+                listenerCount);
+    }
+}
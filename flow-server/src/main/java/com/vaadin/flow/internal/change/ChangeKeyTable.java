@@ -0,0 +1,77 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.vaadin.flow.internal.change;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+
+/**
+ * Assigns indices to map keys referenced by changes encoded in the compact
+ * format so that each key is sent only once per message.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+public class ChangeKeyTable implements Serializable {
+
+    private final Map<String, Integer> indices = new HashMap<>();
+
+    private final JsonArray keys = Json.createArray();
+
+    /**
+     * Gets the index of the given key, assigning a new index if the key hasn't
+     * been encountered before.
+     *
+     * @param key
+     *            the key to get an index for, not <code>null</code>
+     * @return the index of the key
+     */
+    public int getIndex(String key) {
+        assert key != null;
+
+        Integer index = indices.get(key);
+        if (index == null) {
+            index = Integer.valueOf(keys.length());
+            indices.put(key, index);
+            keys.set(index.intValue(), key);
+        }
+        return index.intValue();
+    }
+
+    /**
+     * Checks whether any keys have been registered.
+     *
+     * @return <code>true</code> if no keys have been registered,
+     *         <code>false</code> otherwise
+     */
+    public boolean isEmpty() {
+        return keys.length() == 0;
+    }
+
+    /**
+     * Gets all registered keys in the order of their indices.
+     *
+     * @return a JSON array of keys, not <code>null</code>
+     */
+    public JsonArray toJson() {
+        return keys;
+    }
+}
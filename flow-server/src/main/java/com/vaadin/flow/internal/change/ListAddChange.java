@@ -127,4 +127,24 @@ public class ListAddChange<T extends Serializable>
         json.put(addKey, newItemsJson);
     }
 
+    @Override
+    protected void populateCompactJson(JsonArray json,
+            ConstantPool constantPool, ChangeKeyTable keyTable) {
+        Function<Object, JsonValue> mapper;
+        if (nodeValues) {
+            populateCompactHeader(json,
+                    JsonConstants.COMPACT_CHANGE_SPLICE_NODES);
+            mapper = item -> Json.create(((StateNode) item).getId());
+        } else {
+            populateCompactHeader(json, JsonConstants.COMPACT_CHANGE_SPLICE);
+            mapper = item -> JsonCodec.encodeWithConstantPool(item,
+                    constantPool);
+        }
+        json.set(json.length(), getIndex());
+        // Nothing is removed by an add change
+        json.set(json.length(), 0);
+        json.set(json.length(), newItems.stream().map(mapper)
+                .collect(JsonUtils.asArray()));
+    }
+
 }
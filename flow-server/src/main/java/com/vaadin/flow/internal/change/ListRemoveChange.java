@@ -16,11 +16,14 @@
 package com.vaadin.flow.internal.change;
 
 import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
 
 import com.vaadin.flow.internal.ConstantPool;
 import com.vaadin.flow.internal.nodefeature.NodeList;
 import com.vaadin.flow.shared.JsonConstants;
 
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 
 /**
@@ -35,7 +38,7 @@ import elemental.json.JsonObject;
 public class ListRemoveChange<T extends Serializable>
         extends AbstractListChange<T> {
 
-    private final T removedItem;
+    private final List<? extends T> removedItems;
 
     /**
      * Creates a new list remove change.
@@ -49,24 +52,58 @@ public class ListRemoveChange<T extends Serializable>
      *            a removed item
      */
     public ListRemoveChange(NodeList<T> list, int index, T removedItem) {
+        this(list, index, Collections.singletonList(removedItem));
+    }
+
+    /**
+     * Creates a new list remove change for a range of consecutive items.
+     *
+     * @param list
+     *            the changed list
+     * @param index
+     *            the index of the first removed item
+     * @param removedItems
+     *            the removed items in list order, not empty
+     */
+    public ListRemoveChange(NodeList<T> list, int index,
+            List<? extends T> removedItems) {
         super(list, index);
-        this.removedItem = removedItem;
+        assert !removedItems.isEmpty();
+        this.removedItems = removedItems;
     }
 
     /**
-     * Gets the removed item.
+     * Gets the (first) removed item.
      * <p>
      * This method is public only for testing reasons.
      *
      * @return the removed item
      */
     public T getRemovedItem() {
-        return removedItem;
+        return removedItems.get(0);
+    }
+
+    /**
+     * Gets all the items removed by this change in list order.
+     *
+     * @return the removed items
+     */
+    public List<T> getRemovedItems() {
+        return Collections.unmodifiableList(removedItems);
+    }
+
+    /**
+     * Gets the number of consecutive items removed by this change.
+     *
+     * @return the number of removed items
+     */
+    public int getRemoveCount() {
+        return removedItems.size();
     }
 
     @Override
     public AbstractListChange<T> copy(int indx) {
-        return new ListRemoveChange<>(getNodeList(), indx, getRemovedItem());
+        return new ListRemoveChange<>(getNodeList(), indx, removedItems);
     }
 
     @Override
@@ -76,6 +113,14 @@ public class ListRemoveChange<T extends Serializable>
         super.populateJson(json, constantPool);
 
         json.put(JsonConstants.CHANGE_SPLICE_INDEX, getIndex());
-        json.put(JsonConstants.CHANGE_SPLICE_REMOVE, 1);
+        json.put(JsonConstants.CHANGE_SPLICE_REMOVE, getRemoveCount());
+    }
+
+    @Override
+    protected void populateCompactJson(JsonArray json,
+            ConstantPool constantPool, ChangeKeyTable keyTable) {
+        populateCompactHeader(json, JsonConstants.COMPACT_CHANGE_SPLICE);
+        json.set(json.length(), getIndex());
+        json.set(json.length(), getRemoveCount());
     }
 }
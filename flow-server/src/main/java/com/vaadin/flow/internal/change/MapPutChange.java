@@ -23,6 +23,7 @@ import com.vaadin.flow.internal.nodefeature.NodeFeature;
 import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.Json;
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 
 /**
@@ -91,4 +92,19 @@ public class MapPutChange extends NodeFeatureChange {
                     JsonCodec.encodeWithConstantPool(value, constantPool));
         }
     }
+
+    @Override
+    protected void populateCompactJson(JsonArray json,
+            ConstantPool constantPool, ChangeKeyTable keyTable) {
+        if (value instanceof StateNode) {
+            populateCompactHeader(json, JsonConstants.COMPACT_CHANGE_PUT_NODE);
+            json.set(json.length(), keyTable.getIndex(key));
+            json.set(json.length(), ((StateNode) value).getId());
+        } else {
+            populateCompactHeader(json, JsonConstants.COMPACT_CHANGE_PUT);
+            json.set(json.length(), keyTable.getIndex(key));
+            json.set(json.length(),
+                    JsonCodec.encodeWithConstantPool(value, constantPool));
+        }
+    }
 }
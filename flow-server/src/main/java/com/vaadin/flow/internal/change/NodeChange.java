@@ -23,6 +23,7 @@ import com.vaadin.flow.internal.StateNode;
 import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.Json;
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 
 /**
@@ -72,6 +73,30 @@ public abstract class NodeChange implements Serializable {
         return json;
     }
 
+    /**
+     * Serializes this change to a JSON array in the compact format. The first
+     * item is the node id and the second item is one of the
+     * {@code JsonConstants.COMPACT_CHANGE_*} types. The rest of the items
+     * depend on the type.
+     *
+     * @param constantPool
+     *            the constant pool to use for serializing constant pool
+     *            references
+     * @param keyTable
+     *            the key table to use for referencing map keys
+     * @return a compact json representation of this change
+     */
+    public JsonArray toCompactJson(ConstantPool constantPool,
+            ChangeKeyTable keyTable) {
+        JsonArray json = Json.createArray();
+
+        json.set(0, node.getId());
+
+        populateCompactJson(json, constantPool, keyTable);
+
+        return json;
+    }
+
     /**
      * Overridden by subclasses to populate a JSON object when serializing.
      *
@@ -83,4 +108,19 @@ public abstract class NodeChange implements Serializable {
      */
     protected abstract void populateJson(JsonObject json,
             ConstantPool constantPool);
+
+    /**
+     * Overridden by subclasses to append the items following the node id to a
+     * JSON array when serializing in the compact format.
+     *
+     * @param json
+     *            the json array to append to
+     * @param constantPool
+     *            the constant pool to use for serializing constant pool
+     *            references
+     * @param keyTable
+     *            the key table to use for referencing map keys
+     */
+    protected abstract void populateCompactJson(JsonArray json,
+            ConstantPool constantPool, ChangeKeyTable keyTable);
 }
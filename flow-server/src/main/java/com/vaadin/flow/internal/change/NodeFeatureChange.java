@@ -22,6 +22,7 @@ import com.vaadin.flow.internal.nodefeature.NodeFeatureRegistry;
 import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.Json;
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 
 /**
@@ -60,4 +61,18 @@ public abstract class NodeFeatureChange extends NodeChange {
         json.put(JsonConstants.CHANGE_FEATURE,
                 Json.create(NodeFeatureRegistry.getId(feature)));
     }
+
+    /**
+     * Appends the change type and the feature id to the given compact JSON
+     * array.
+     *
+     * @param json
+     *            the json array to append to
+     * @param type
+     *            the compact change type
+     */
+    protected void populateCompactHeader(JsonArray json, int type) {
+        json.set(json.length(), type);
+        json.set(json.length(), NodeFeatureRegistry.getId(feature));
+    }
 }
@@ -38,6 +38,7 @@ import com.vaadin.flow.function.SerializableRunnable;
 import com.vaadin.flow.internal.ConstantPoolKey;
 import com.vaadin.flow.internal.JsonUtils;
 import com.vaadin.flow.internal.StateNode;
+import com.vaadin.flow.internal.StateTreeMemoryCounter;
 import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.Json;
@@ -308,6 +309,7 @@ public class ElementListenerMap extends NodeMap {
                 this, eventType, listener);
 
         listeners.get(eventType).add(listenerWrapper);
+        updateListenerCount(1);
 
         updateEventSettings(eventType);
 
@@ -394,7 +396,9 @@ public class ElementListenerMap extends NodeMap {
         Collection<DomEventListenerWrapper> listenerList = listeners
                 .get(eventType);
         if (listenerList != null) {
-            listenerList.remove(wrapper);
+            if (listenerList.remove(wrapper)) {
+                updateListenerCount(-1);
+            }
 
             // No more listeners of this type?
             if (listenerList.isEmpty()) {
@@ -411,6 +415,25 @@ public class ElementListenerMap extends NodeMap {
         }
     }
 
+    /**
+     * Gets the number of registered DOM event listeners.
+     *
+     * @return the number of listeners
+     */
+    public int getListenerCount() {
+        if (listeners == null) {
+            return 0;
+        }
+        return listeners.values().stream().mapToInt(List::size).sum();
+    }
+
+    private void updateListenerCount(int delta) {
+        StateTreeMemoryCounter counter = getNode().getMemoryCounter();
+        if (counter != null) {
+            counter.listenersChanged(delta);
+        }
+    }
+
     /**
      * Fires an event to all listeners registered for the given type.
      *
@@ -66,6 +66,16 @@ public abstract class NodeFeature implements Serializable {
      */
     public abstract void generateChangesFromEmpty();
 
+    /**
+     * Gets the number of values stored in this feature. Used for memory usage
+     * accounting.
+     *
+     * @return the number of stored values
+     */
+    public int getValueCount() {
+        return 0;
+    }
+
     /**
      * Attaches an object if it is a {@link StateNode}.
      *
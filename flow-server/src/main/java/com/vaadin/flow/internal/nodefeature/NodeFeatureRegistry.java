@@ -39,6 +39,18 @@ public class NodeFeatureRegistry {
     static final Map<Class<? extends NodeFeature>, NodeFeatureData> nodeFeatures = new HashMap<>();
     private static final Map<Integer, Class<? extends NodeFeature>> idToFeature = new HashMap<>();
 
+    /**
+     * Per-class cache of the registered feature data. Resolving the data
+     * through the class itself avoids hashing the class and boxing the index
+     * on every feature lookup.
+     */
+    private static final ClassValue<NodeFeatureData> featureData = new ClassValue<NodeFeatureData>() {
+        @Override
+        protected NodeFeatureData computeValue(Class<?> type) {
+            return nodeFeatures.get(type);
+        }
+    };
+
     /**
      * Comparator for finding the priority order between node feature types.
      */
@@ -48,6 +60,10 @@ public class NodeFeatureRegistry {
     private static class NodeFeatureData implements Serializable {
         private final SerializableFunction<StateNode, ? extends NodeFeature> factory;
         private final int id;
+        /*
+         * Features are registered in priority order, which also makes the
+         * priority a dense index that can be used for array lookups.
+         */
         private final int priority;
 
         private <T extends NodeFeature> NodeFeatureData(
@@ -170,6 +186,33 @@ public class NodeFeatureRegistry {
         return getData(nodeFeature).id;
     }
 
+    /**
+     * Gets the dense index of a node feature. Indices are assigned in
+     * registration order starting from <code>0</code> and are always smaller
+     * than {@link #getFeatureCount()}, which makes them suitable for indexing
+     * arrays that hold per-feature data.
+     *
+     * @param nodeFeature
+     *            the node feature type, not <code>null</code>
+     * @return the index of the node feature, or <code>-1</code> if the type
+     *         has not been registered
+     */
+    public static int getIndex(Class<? extends NodeFeature> nodeFeature) {
+        assert nodeFeature != null;
+
+        NodeFeatureData data = featureData.get(nodeFeature);
+        return data == null ? -1 : data.priority;
+    }
+
+    /**
+     * Gets the number of registered feature types.
+     *
+     * @return the number of registered feature types
+     */
+    public static int getFeatureCount() {
+        return nodeFeatures.size();
+    }
+
     /**
      * Gets all registered feature types.
      *
@@ -184,7 +227,7 @@ public class NodeFeatureRegistry {
             Class<? extends NodeFeature> nodeFeature) {
         assert nodeFeature != null;
 
-        NodeFeatureData data = nodeFeatures.get(nodeFeature);
+        NodeFeatureData data = featureData.get(nodeFeature);
 
         assert data != null : "Feature " + nodeFeature.getName()
                 + " has not been registered in NodeFeatureRegistry";
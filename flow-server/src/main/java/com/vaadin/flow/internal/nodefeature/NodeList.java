@@ -339,6 +339,8 @@ public abstract class NodeList<T extends Serializable> extends NodeFeature {
                     .collect(Collectors.toList());
         }
 
+        changes = coalesceChanges(changes);
+
         isRemoveAllCalled = false;
 
         if (isPopulated) {
@@ -353,6 +355,73 @@ public abstract class NodeList<T extends Serializable> extends NodeFeature {
         }
     }
 
+    /**
+     * Merges adjacent splices into as few changes as possible: consecutive
+     * adds into one add and consecutive removes of a contiguous range into
+     * one remove. The changes are expected to be already adjusted by
+     * {@link #adjustChanges(int, ListRemoveChange, Map, List)}.
+     */
+    private List<AbstractListChange<T>> coalesceChanges(
+            List<AbstractListChange<T>> changes) {
+        if (changes.size() < 2) {
+            return changes;
+        }
+        List<AbstractListChange<T>> result = new ArrayList<>(changes.size());
+        // Items of the last change in result, owned by this method once a
+        // merge has happened
+        List<T> pendingItems = null;
+        for (AbstractListChange<T> change : changes) {
+            AbstractListChange<T> previous = result.isEmpty() ? null
+                    : result.get(result.size() - 1);
+            AbstractListChange<T> merged = null;
+            if (previous instanceof ListAddChange<?>
+                    && change instanceof ListAddChange<?>) {
+                ListAddChange<T> add = (ListAddChange<T>) previous;
+                int offset = change.getIndex() - add.getIndex();
+                if (offset >= 0 && offset <= add.getNewItems().size()) {
+                    if (pendingItems == null) {
+                        pendingItems = new ArrayList<>(add.getNewItems());
+                    }
+                    pendingItems.addAll(offset,
+                            ((ListAddChange<T>) change).getNewItems());
+                    merged = add.copy(pendingItems);
+                }
+            } else if (previous instanceof ListRemoveChange<?>
+                    && change instanceof ListRemoveChange<?>) {
+                ListRemoveChange<T> remove = (ListRemoveChange<T>) previous;
+                ListRemoveChange<T> next = (ListRemoveChange<T>) change;
+                if (next.getIndex() == remove.getIndex()) {
+                    // Removes the items directly after the previous range
+                    if (pendingItems == null) {
+                        pendingItems = new ArrayList<>(
+                                remove.getRemovedItems());
+                    }
+                    pendingItems.addAll(next.getRemovedItems());
+                    merged = new ListRemoveChange<>(this, remove.getIndex(),
+                            pendingItems);
+                } else if (next.getIndex() + next.getRemoveCount() == remove
+                        .getIndex()) {
+                    // Removes the items directly before the previous range
+                    if (pendingItems == null) {
+                        pendingItems = new ArrayList<>(
+                                remove.getRemovedItems());
+                    }
+                    pendingItems.addAll(0, next.getRemovedItems());
+                    merged = new ListRemoveChange<>(this, next.getIndex(),
+                            pendingItems);
+                }
+            }
+
+            if (merged == null) {
+                result.add(change);
+                pendingItems = null;
+            } else {
+                result.set(result.size() - 1, merged);
+            }
+        }
+        return result;
+    }
+
     private boolean acceptChange(AbstractListChange<T> change) {
         if (change == null) {
             return false;
@@ -17,17 +17,23 @@
 package com.vaadin.flow.internal.nodefeature;
 
 import java.io.Serializable;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import com.vaadin.flow.internal.StateNode;
+import com.vaadin.flow.internal.StateTreeMemoryCounter;
 import com.vaadin.flow.internal.change.EmptyChange;
 import com.vaadin.flow.internal.change.MapPutChange;
 import com.vaadin.flow.internal.change.MapRemoveChange;
@@ -44,6 +50,32 @@ public abstract class NodeMap extends NodeFeature {
     private static final Serializable REMOVED_MARKER = new UniqueSerializable() {
     };
 
+    /**
+     * Pools of the keys used by each map feature type, so that the many maps
+     * of the same type share key instances instead of each holding their own
+     * copy, e.g. of property names parsed from client messages.
+     */
+    private static final Map<Class<?>, KeyPool> KEY_POOLS = new ConcurrentHashMap<>();
+
+    private static class KeyPool implements Serializable {
+        // Limits the size of the pool for maps with arbitrary keys
+        private static final int MAX_KEYS = 1024;
+
+        private final Map<String, String> keys = new ConcurrentHashMap<>();
+
+        private String intern(String key) {
+            String pooled = keys.get(key);
+            if (pooled != null) {
+                return pooled;
+            }
+            if (keys.size() >= MAX_KEYS) {
+                return key;
+            }
+            pooled = keys.putIfAbsent(key, key);
+            return pooled == null ? key : pooled;
+        }
+    }
+
     private interface Values extends Serializable {
         int size();
 
@@ -112,6 +144,176 @@ public abstract class NodeMap extends NodeFeature {
         }
     }
 
+    /**
+     * Small map representation using a flat array of alternating keys and
+     * values in insertion order, with a linear probing table of entry
+     * positions for lookups. Used until the map grows beyond {@link #MAX_SIZE}
+     * keys, which covers the typical attribute, property and style maps of an
+     * element with a fraction of the footprint of a {@link HashMap}.
+     */
+    private static class CompactValues implements Values {
+
+        private static final int MAX_SIZE = 12;
+
+        private class KeySet extends AbstractSet<String>
+                implements Serializable {
+            @Override
+            public Iterator<String> iterator() {
+                return IntStream.range(0, size)
+                        .mapToObj(CompactValues.this::getKey).iterator();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof String && containsKey((String) o);
+            }
+
+            @Override
+            public int size() {
+                return CompactValues.this.size;
+            }
+        }
+
+        /**
+         * Keys at even indices, each followed by its value.
+         */
+        private Object[] entries;
+
+        /**
+         * Linear probing table holding the position of each entry plus one, or
+         * <code>0</code> for an empty slot. The length is a power of two at
+         * least 4/3 of the entry capacity.
+         */
+        private byte[] table;
+
+        private int size;
+
+        public CompactValues(Values previousValues) {
+            entries = new Object[4];
+            table = new byte[4];
+            previousValues.keySet()
+                    .forEach(key -> set(key, previousValues.get(key)));
+        }
+
+        /**
+         * Finds the table slot of the given key.
+         *
+         * @return the slot of the key, or <code>-1 - slot</code> where
+         *         <code>slot</code> is the empty slot at which the key would be
+         *         inserted
+         */
+        private int findSlot(String key) {
+            int mask = table.length - 1;
+            int slot = key.hashCode() & mask;
+            int position;
+            while ((position = table[slot]) != 0) {
+                Object candidate = entries[2 * (position - 1)];
+                if (candidate == key || candidate.equals(key)) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1 - slot;
+        }
+
+        private void rebuildTable(int tableLength) {
+            table = new byte[tableLength];
+            for (int i = 0; i < size; i++) {
+                table[-1 - findSlot(getKey(i))] = (byte) (i + 1);
+            }
+        }
+
+        private String getKey(int position) {
+            return (String) entries[2 * position];
+        }
+
+        private Serializable getValue(int position) {
+            return (Serializable) entries[2 * position + 1];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Serializable get(String key) {
+            int slot = findSlot(key);
+            return slot < 0 ? null : getValue(table[slot] - 1);
+        }
+
+        @Override
+        public Set<String> keySet() {
+            return new KeySet();
+        }
+
+        @Override
+        public boolean containsKey(String key) {
+            return findSlot(key) >= 0;
+        }
+
+        @Override
+        public Stream<Serializable> streamValues() {
+            return IntStream.range(0, size).mapToObj(this::getValue);
+        }
+
+        /**
+         * Checks whether another key can be added without exceeding the
+         * maximum size of this representation.
+         *
+         * @return <code>true</code> if there is room for another key
+         */
+        public boolean canAdd() {
+            return size < MAX_SIZE;
+        }
+
+        @Override
+        public void set(String key, Serializable value) {
+            int slot = findSlot(key);
+            if (slot >= 0) {
+                entries[2 * (table[slot] - 1) + 1] = value;
+                return;
+            }
+            assert canAdd();
+            if (2 * size == entries.length) {
+                int capacity = Math.min(size * 2, MAX_SIZE);
+                entries = Arrays.copyOf(entries, 2 * capacity);
+                int tableLength = table.length;
+                while (tableLength * 3 < capacity * 4) {
+                    tableLength *= 2;
+                }
+                if (tableLength != table.length) {
+                    rebuildTable(tableLength);
+                    slot = findSlot(key);
+                }
+            }
+            entries[2 * size] = key;
+            entries[2 * size + 1] = value;
+            size++;
+            table[-1 - slot] = (byte) size;
+        }
+
+        public Serializable remove(String key) {
+            int slot = findSlot(key);
+            if (slot < 0) {
+                return null;
+            }
+            int position = table[slot] - 1;
+            Serializable oldValue = getValue(position);
+
+            System.arraycopy(entries, 2 * position + 2, entries, 2 * position,
+                    2 * (size - position - 1));
+            size--;
+            entries[2 * size] = null;
+            entries[2 * size + 1] = null;
+
+            // Positions have shifted, the table is small enough to rebuild
+            rebuildTable(table.length);
+
+            return oldValue;
+        }
+    }
+
     private static class HashMapValues extends HashMap<String, Serializable>
             implements Values {
 
@@ -199,12 +401,20 @@ public abstract class NodeMap extends NodeFeature {
 
         // Optimize memory use when there's only one key
         if (values == null) {
-            values = new SingleValue(key, value);
+            values = new SingleValue(internKey(key), value);
+            updateValueCount(1);
+        } else if (values.containsKey(key)) {
+            values.set(key, value);
         } else {
-            if (values instanceof SingleValue && !values.containsKey(key)) {
+            // Use a more general representation only when needed
+            if (values instanceof SingleValue) {
+                values = new CompactValues(values);
+            } else if (values instanceof CompactValues
+                    && !((CompactValues) values).canAdd()) {
                 values = new HashMapValues(values);
             }
-            values.set(key, value);
+            values.set(internKey(key), value);
+            updateValueCount(1);
         }
 
         detatchPotentialChild(oldValue);
@@ -347,10 +557,24 @@ public abstract class NodeMap extends NodeFeature {
             oldValue = values.get(key);
             if (values.containsKey(key)) {
                 values = null;
+                updateValueCount(-1);
+            }
+        } else if (values instanceof CompactValues) {
+            CompactValues compactValues = (CompactValues) values;
+            if (compactValues.containsKey(key)) {
+                updateValueCount(-1);
+            }
+            oldValue = compactValues.remove(key);
+
+            if (compactValues.isEmpty()) {
+                values = null;
             }
         } else {
             assert values instanceof HashMapValues;
             HashMapValues hashMapValues = (HashMapValues) values;
+            if (hashMapValues.containsKey(key)) {
+                updateValueCount(-1);
+            }
             oldValue = hashMapValues.remove(key);
 
             if (hashMapValues.isEmpty()) {
@@ -372,6 +596,26 @@ public abstract class NodeMap extends NodeFeature {
         }
     }
 
+    @Override
+    public int getValueCount() {
+        return values == null ? 0 : values.size();
+    }
+
+    private String internKey(String key) {
+        KeyPool pool = KEY_POOLS.get(getClass());
+        if (pool == null) {
+            pool = KEY_POOLS.computeIfAbsent(getClass(), type -> new KeyPool());
+        }
+        return pool.intern(key);
+    }
+
+    private void updateValueCount(int delta) {
+        StateTreeMemoryCounter counter = getNode().getMemoryCounter();
+        if (counter != null) {
+            counter.mapValuesChanged(delta);
+        }
+    }
+
     private void setUnChanged(String key) {
         assert key != null;
         getChangeTracker().remove(key);
@@ -521,4 +765,9 @@ public abstract class NodeMap extends NodeFeature {
         return values instanceof SingleValue;
     }
 
+    // Exposed for testing purposes
+    boolean usesCompactMap() {
+        return values instanceof CompactValues;
+    }
+
 }
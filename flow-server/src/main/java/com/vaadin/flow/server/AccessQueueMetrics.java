@@ -0,0 +1,161 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of the access tasks enqueued using
+ * {@link VaadinSession#access(Command)} and
+ * {@link com.vaadin.flow.component.UI#access(Command)} for all sessions of a
+ * service.
+ * <p>
+ * A task is counted as enqueued when it is added to an access queue. It
+ * leaves the queue either when it is dequeued to be run, or when it is removed
+ * without being run, e.g. because it was cancelled or because the access queue
+ * can no longer be purged. The queue depth is the number of tasks that have
+ * been enqueued but have not yet left the queue.
+ * <p>
+ * The latency of a task is the time from enqueuing the task until it is
+ * dequeued. Removed tasks are not included in the latency.
+ * <p>
+ * All methods of this class are thread safe. The values are not read
+ * atomically together, so e.g. the queue depth may be slightly off while tasks
+ * are being enqueued concurrently.
+ *
+ * @author Vaadin Ltd
+ * @since
+ * @see VaadinService#getAccessQueueMetrics()
+ */
+public class AccessQueueMetrics implements Serializable {
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dequeued = new LongAdder();
+    private final LongAdder removed = new LongAdder();
+    private final LongAdder totalLatency = new LongAdder();
+    private final AtomicLong maxLatency = new AtomicLong();
+
+    /**
+     * Records that a task has been added to an access queue.
+     * <p>
+     * This method is for internal use by the framework.
+     */
+    public void taskEnqueued() {
+        enqueued.increment();
+    }
+
+    /**
+     * Records that a task has been taken from an access queue to be run. Does
+     * nothing if the task has already left the queue, e.g. because it was
+     * cancelled.
+     * <p>
+     * This method is for internal use by the framework.
+     *
+     * @param task
+     *            the dequeued task, not <code>null</code>
+     */
+    public void taskDequeued(FutureAccess task) {
+        if (!task.leaveQueue()) {
+            return;
+        }
+        long latency = System.nanoTime() - task.getCreationTime();
+        dequeued.increment();
+        totalLatency.add(latency);
+        maxLatency.accumulateAndGet(latency, Math::max);
+    }
+
+    /**
+     * Records that a task has left an access queue without being run, because
+     * it was cancelled or because the queue will not be purged. Does nothing
+     * if the task has already left the queue.
+     * <p>
+     * This method is for internal use by the framework.
+     *
+     * @param task
+     *            the removed task, not <code>null</code>
+     */
+    public void taskRemoved(FutureAccess task) {
+        if (task.leaveQueue()) {
+            removed.increment();
+        }
+    }
+
+    /**
+     * Gets the number of tasks that are currently waiting in access queues.
+     *
+     * @return the number of waiting tasks
+     */
+    public long getQueueDepth() {
+        return Math.max(0, enqueued.sum() - dequeued.sum() - removed.sum());
+    }
+
+    /**
+     * Gets the number of tasks that have been enqueued.
+     *
+     * @return the number of enqueued tasks
+     */
+    public long getEnqueuedTaskCount() {
+        return enqueued.sum();
+    }
+
+    /**
+     * Gets the number of tasks that have been taken from the queues to be run.
+     *
+     * @return the number of dequeued tasks
+     */
+    public long getDequeuedTaskCount() {
+        return dequeued.sum();
+    }
+
+    /**
+     * Gets the number of tasks that have left the queues without being run,
+     * e.g. because they were cancelled while waiting.
+     *
+     * @return the number of removed tasks
+     */
+    public long getRemovedTaskCount() {
+        return removed.sum();
+    }
+
+    /**
+     * Gets the average time that the dequeued tasks have waited in the queue.
+     *
+     * @param unit
+     *            the time unit of the returned value, not <code>null</code>
+     * @return the average latency, or 0 if no tasks have been dequeued
+     */
+    public long getAverageLatency(TimeUnit unit) {
+        long count = dequeued.sum();
+        if (count == 0) {
+            return 0;
+        }
+        return unit.convert(totalLatency.sum() / count, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the longest time that a dequeued task has waited in the queue.
+     *
+     * @param unit
+     *            the time unit of the returned value, not <code>null</code>
+     * @return the maximum latency, or 0 if no tasks have been dequeued
+     */
+    public long getMaxLatency(TimeUnit unit) {
+        return unit.convert(maxLatency.get(), TimeUnit.NANOSECONDS);
+    }
+}
@@ -1219,9 +1219,10 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
         PushMode pushMode = push.map(Push::value)
                 .orElseGet(deploymentConfiguration::getPushMode);
         setupPushConnectionFactory(pushConfiguration, context);
+        // The transport decides which push connection is used
+        push.map(Push::transport).ifPresent(pushConfiguration::setTransport);
         pushConfiguration.setPushMode(pushMode);
         pushConfiguration.setPushUrl(deploymentConfiguration.getPushURL());
-        push.map(Push::transport).ifPresent(pushConfiguration::setTransport);
 
         // Set thread local here so it is available in init
         UI.setCurrent(ui);
@@ -17,6 +17,8 @@ package com.vaadin.flow.server;
 
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,6 +33,8 @@ import org.slf4j.LoggerFactory;
 public class FutureAccess extends FutureTask<Void> {
     private final VaadinSession session;
     private final Command command;
+    private final long creationTime = System.nanoTime();
+    private final AtomicBoolean queued = new AtomicBoolean(true);
 
     /**
      * Creates an instance for the given command.
@@ -62,6 +66,35 @@ public class FutureAccess extends FutureTask<Void> {
         return super.get();
     }
 
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        if (cancelled && session != null && session.getService() != null) {
+            // A cancelled task is skipped when the queue is purged
+            session.getService().getAccessQueueMetrics().taskRemoved(this);
+        }
+        return cancelled;
+    }
+
+    /**
+     * Gets the {@link System#nanoTime()} when this task was created.
+     *
+     * @return the creation time in nanoseconds
+     */
+    long getCreationTime() {
+        return creationTime;
+    }
+
+    /**
+     * Marks this task as no longer waiting in an access queue.
+     *
+     * @return <code>true</code> if the task was waiting in the queue,
+     *         <code>false</code> if it had already left it
+     */
+    boolean leaveQueue() {
+        return queued.compareAndSet(true, false);
+    }
+
     /**
      * Handles exceptions thrown during the execution of this task.
      *
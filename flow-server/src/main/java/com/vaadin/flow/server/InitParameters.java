@@ -71,6 +71,91 @@ public class InitParameters implements Serializable {
      */
     public static final String SERVLET_PARAMETER_BROTLI = "brotli";
 
+    /**
+     * Configuration name for the parameter that determines whether UIDL
+     * responses and push messages should be written directly to the output
+     * instead of being built as a complete JSON tree first.
+     */
+    public static final String SERVLET_PARAMETER_STREAMING_UIDL = "streamingUidl";
+
+    /**
+     * Configuration name for the parameter that determines whether state
+     * changes should be sent in the compact positional format to clients that
+     * support it.
+     */
+    public static final String SERVLET_PARAMETER_COMPACT_CHANGES = "compactChanges";
+
+    /**
+     * Configuration name for the parameter that determines whether the state
+     * tree memory usage of the service should be exposed as a JMX MXBean.
+     */
+    public static final String SERVLET_PARAMETER_STATE_TREE_MEMORY_MXBEAN = "stateTreeMemoryMXBean";
+
+    /**
+     * Configuration name for the parameter that determines whether each UI
+     * should have its own lock so that different UIs of the same session can
+     * be accessed concurrently.
+     */
+    public static final String SERVLET_PARAMETER_UI_LOCKING = "uiLocking";
+
+    /**
+     * Configuration name for the parameter that determines which threads run
+     * the tasks enqueued with {@code access()}: <code>caller</code> (the
+     * default) runs them in the thread that enqueues them or releases the
+     * lock, <code>pool</code> uses a dedicated thread pool and
+     * <code>virtual</code> uses a virtual thread per purge on Java runtimes
+     * that support it.
+     */
+    public static final String SERVLET_PARAMETER_ACCESS_EXECUTOR = "accessExecutor";
+
+    /**
+     * Configuration name for the parameter that sets the minimum interval in
+     * milliseconds between two server initiated push messages of a UI. Changes
+     * made during the interval are coalesced into one message. The default 0
+     * pushes every change right away.
+     */
+    public static final String SERVLET_PARAMETER_MIN_PUSH_INTERVAL = "minPushInterval";
+
+    /**
+     * Configuration name for the parameter that sets the maximum number of
+     * push messages of a UI that may be waiting to be written to the client.
+     * When the limit is reached, changes are held back and sent as one message
+     * once the client has caught up. The default 0 means no limit.
+     */
+    public static final String SERVLET_PARAMETER_MAX_PENDING_PUSH_MESSAGES = "maxPendingPushMessages";
+
+    /**
+     * Configuration name for the parameter that sets the maximum total size in
+     * bytes of the push messages of a UI that may be waiting to be written to
+     * the client. When the limit is reached, changes are held back and sent as
+     * one message once the client has caught up. The default 0 means no limit.
+     */
+    public static final String SERVLET_PARAMETER_MAX_PENDING_PUSH_BYTES = "maxPendingPushBytes";
+
+    /**
+     * Configuration name for the parameter that sets how many of the latest
+     * messages sent to the client of a UI are kept on the server. A client
+     * that has missed some of them gets only the missed messages instead of a
+     * full resynchronization. The default 0 keeps no messages.
+     */
+    public static final String SERVLET_PARAMETER_RESYNC_BUFFER_SIZE = "resyncBufferSize";
+
+    /**
+     * Configuration name for the parameter that sets the maximum total size in
+     * bytes of the messages kept for a UI because of
+     * {@link #SERVLET_PARAMETER_RESYNC_BUFFER_SIZE}. The oldest messages are
+     * dropped when the limit is exceeded. The default is 1 MB, and 0 means no
+     * limit.
+     */
+    public static final String SERVLET_PARAMETER_RESYNC_BUFFER_BYTES = "resyncBufferBytes";
+
+    /**
+     * Configuration name for the parameter that sets the minimum size in bytes
+     * of UIDL responses that are gzip compressed for browsers that accept it.
+     * The default 0 disables compression.
+     */
+    public static final String SERVLET_PARAMETER_UIDL_COMPRESSION_THRESHOLD = "uidlCompressionThreshold";
+
     /**
      * Configuration name for the WebPack profile statistics json file to use to
      * determine template contents.
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.vaadin.flow.server;
+
+import java.util.Map;
+
+/**
+ * JMX management interface exposing the state tree memory usage of all the
+ * sessions of a {@link VaadinService}.
+ * <p>
+ * The bean is registered when the
+ * {@link InitParameters#SERVLET_PARAMETER_STATE_TREE_MEMORY_MXBEAN} parameter
+ * is enabled.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+public interface StateTreeMemoryMXBean {
+
+    /**
+     * Gets the number of tracked sessions.
+     *
+     * @return the number of sessions
+     */
+    int getSessionCount();
+
+    /**
+     * Gets the number of UIs in all the tracked sessions.
+     *
+     * @return the number of UIs
+     */
+    int getUICount();
+
+    /**
+     * Gets the total number of registered state nodes.
+     *
+     * @return the number of state nodes
+     */
+    long getNodeCount();
+
+    /**
+     * Gets the total number of initialized node features.
+     *
+     * @return the number of node features
+     */
+    long getFeatureCount();
+
+    /**
+     * Gets the total number of values stored in node maps.
+     *
+     * @return the number of map values
+     */
+    long getMapValueCount();
+
+    /**
+     * Gets the total number of pending change trackers.
+     *
+     * @return the number of change trackers
+     */
+    long getChangeTrackerCount();
+
+    /**
+     * Gets the total number of constants in the constant pools of all UIs.
+     *
+     * @return the number of constants
+     */
+    long getConstantPoolSize();
+
+    /**
+     * Gets the total number of DOM event listener registrations.
+     *
+     * @return the number of listener registrations
+     */
+    long getListenerCount();
+
+    /**
+     * Gets the number of initialized node features by feature class name.
+     *
+     * @return a map from feature class name to feature count
+     */
+    Map<String, Long> getFeatureCountsByType();
+
+    /**
+     * Gets the number of registered state nodes by the class name of the view
+     * currently shown in each UI, or the UI class name if there is no view.
+     *
+     * @return a map from view class name to node count
+     */
+    Map<String, Long> getNodeCountsByView();
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.vaadin.flow.server;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.component.HasElement;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.shared.Registration;
+
+/**
+ * Tracks the sessions of a {@link VaadinService} and exposes their aggregated
+ * state tree memory usage through JMX.
+ * <p>
+ * The sessions are locked one at a time while reading the counters of their
+ * UIs. The counters themselves are maintained incrementally, so reading them
+ * does not walk the state trees.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+class StateTreeMemoryMonitor implements StateTreeMemoryMXBean {
+
+    private final VaadinService service;
+
+    private final Set<VaadinSession> sessions = Collections
+            .synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    private final List<Registration> registrations = new ArrayList<>();
+
+    private ObjectName objectName;
+
+    /**
+     * Creates a new monitor for the given service.
+     *
+     * @param service
+     *            the service to monitor, not <code>null</code>
+     */
+    StateTreeMemoryMonitor(VaadinService service) {
+        this.service = service;
+    }
+
+    /**
+     * Starts tracking sessions and registers this bean to the platform MBean
+     * server.
+     */
+    void register() {
+        registrations.add(service.addSessionInitListener(
+                event -> sessions.add(event.getSession())));
+        registrations.add(service.addSessionDestroyListener(
+                event -> sessions.remove(event.getSession())));
+        try {
+            objectName = new ObjectName("com.vaadin.flow:type=StateTreeMemory,"
+                    + "service=" + ObjectName.quote(service.getServiceName()));
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(this, objectName);
+        } catch (JMException e) {
+            objectName = null;
+            getLogger().warn(
+                    "Unable to register the state tree memory MXBean for {}",
+                    service.getServiceName(), e);
+        }
+    }
+
+    /**
+     * Stops tracking sessions and unregisters this bean.
+     */
+    void unregister() {
+        registrations.forEach(Registration::remove);
+        registrations.clear();
+        sessions.clear();
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer()
+                        .unregisterMBean(objectName);
+            } catch (JMException e) {
+                getLogger().debug(
+                        "Unable to unregister the state tree memory MXBean",
+                        e);
+            }
+            objectName = null;
+        }
+    }
+
+    @Override
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    @Override
+    public int getUICount() {
+        int[] count = new int[1];
+        forEachUI(ui -> count[0]++);
+        return count[0];
+    }
+
+    @Override
+    public long getNodeCount() {
+        return sum(StateTreeMemoryUsage::getNodeCount);
+    }
+
+    @Override
+    public long getFeatureCount() {
+        return sum(StateTreeMemoryUsage::getFeatureCount);
+    }
+
+    @Override
+    public long getMapValueCount() {
+        return sum(StateTreeMemoryUsage::getMapValueCount);
+    }
+
+    @Override
+    public long getChangeTrackerCount() {
+        return sum(StateTreeMemoryUsage::getChangeTrackerCount);
+    }
+
+    @Override
+    public long getConstantPoolSize() {
+        return sum(StateTreeMemoryUsage::getConstantPoolSize);
+    }
+
+    @Override
+    public long getListenerCount() {
+        return sum(StateTreeMemoryUsage::getListenerCount);
+    }
+
+    @Override
+    public Map<String, Long> getFeatureCountsByType() {
+        Map<String, Long> counts = new TreeMap<>();
+        forEachUI(ui -> service.getStateTreeMemoryUsage(ui).getFeatureCounts()
+                .forEach((type, count) -> counts.merge(type.getName(), count,
+                        Long::sum)));
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getNodeCountsByView() {
+        Map<String, Long> counts = new TreeMap<>();
+        forEachUI(ui -> counts.merge(getViewName(ui),
+                service.getStateTreeMemoryUsage(ui).getNodeCount(),
+                Long::sum));
+        return counts;
+    }
+
+    private long sum(ToLongFunction<StateTreeMemoryUsage> counter) {
+        long[] sum = new long[1];
+        forEachUI(ui -> sum[0] += counter
+                .applyAsLong(service.getStateTreeMemoryUsage(ui)));
+        return sum[0];
+    }
+
+    private void forEachUI(Consumer<UI> action) {
+        List<VaadinSession> snapshot;
+        synchronized (sessions) {
+            snapshot = new ArrayList<>(sessions);
+        }
+        for (VaadinSession session : snapshot) {
+            Lock lock = session.getLockInstance();
+            if (lock == null) {
+                continue;
+            }
+            // Use the lock directly: unlocking the session would run pending
+            // access tasks in the JMX thread
+            lock.lock();
+            try {
+                for (UI ui : session.getUIs()) {
+                    forUI(session, ui, action);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static void forUI(VaadinSession session, UI ui,
+            Consumer<UI> action) {
+        if (!session.isUILockingEnabled()) {
+            action.accept(ui);
+            return;
+        }
+        Lock uiLock = ui.getInternals().getLockInstance();
+        uiLock.lock();
+        try {
+            action.accept(ui);
+        } finally {
+            uiLock.unlock();
+        }
+    }
+
+    private static String getViewName(UI ui) {
+        List<HasElement> chain = ui.getInternals()
+                .getActiveRouterTargetsChain();
+        if (chain.isEmpty()) {
+            return ui.getClass().getName();
+        }
+        return chain.get(0).getClass().getName();
+    }
+
+    private static Logger getLogger() {
+        return LoggerFactory.getLogger(StateTreeMemoryMonitor.class);
+    }
+}
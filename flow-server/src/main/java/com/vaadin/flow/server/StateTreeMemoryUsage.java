@@ -0,0 +1,177 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.vaadin.flow.server;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.vaadin.flow.internal.nodefeature.NodeFeature;
+
+/**
+ * An immutable snapshot of the state tree memory usage of a UI or, when
+ * aggregated, of a session or a whole service.
+ *
+ * @see VaadinService#getStateTreeMemoryUsage(com.vaadin.flow.component.UI)
+ * @see VaadinService#getStateTreeMemoryUsage(VaadinSession)
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+public final class StateTreeMemoryUsage implements Serializable {
+
+    /**
+     * Memory usage with all counters at zero.
+     */
+    public static final StateTreeMemoryUsage EMPTY = new StateTreeMemoryUsage(
+            0, Collections.emptyMap(), 0, 0, 0, 0);
+
+    private final long nodeCount;
+    private final Map<Class<? extends NodeFeature>, Long> featureCounts;
+    private final long mapValueCount;
+    private final long changeTrackerCount;
+    private final long constantPoolSize;
+    private final long listenerCount;
+
+    /**
+     * Creates a new memory usage snapshot.
+     *
+     * @param nodeCount
+     *            the number of registered state nodes
+     * @param featureCounts
+     *            the number of initialized node features by type, not
+     *            <code>null</code>
+     * @param mapValueCount
+     *            the number of values stored in node maps
+     * @param changeTrackerCount
+     *            the number of pending change trackers
+     * @param constantPoolSize
+     *            the number of constants in the constant pools
+     * @param listenerCount
+     *            the number of DOM event listener registrations
+     */
+    public StateTreeMemoryUsage(long nodeCount,
+            Map<Class<? extends NodeFeature>, ? extends Number> featureCounts,
+            long mapValueCount, long changeTrackerCount,
+            long constantPoolSize, long listenerCount) {
+        this.nodeCount = nodeCount;
+        Map<Class<? extends NodeFeature>, Long> counts = new HashMap<>();
+        featureCounts.forEach(
+                (type, count) -> counts.put(type, count.longValue()));
+        this.featureCounts = Collections.unmodifiableMap(counts);
+        this.mapValueCount = mapValueCount;
+        this.changeTrackerCount = changeTrackerCount;
+        this.constantPoolSize = constantPoolSize;
+        this.listenerCount = listenerCount;
+    }
+
+    /**
+     * Gets the number of state nodes registered to the state tree.
+     *
+     * @return the number of state nodes
+     */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Gets the number of initialized node features by feature type.
+     *
+     * @return an unmodifiable map from feature type to feature count, not
+     *         <code>null</code>
+     */
+    public Map<Class<? extends NodeFeature>, Long> getFeatureCounts() {
+        return featureCounts;
+    }
+
+    /**
+     * Gets the total number of initialized node features.
+     *
+     * @return the number of node features
+     */
+    public long getFeatureCount() {
+        return featureCounts.values().stream().mapToLong(Long::longValue)
+                .sum();
+    }
+
+    /**
+     * Gets the number of values stored in node maps.
+     *
+     * @return the number of map values
+     */
+    public long getMapValueCount() {
+        return mapValueCount;
+    }
+
+    /**
+     * Gets the number of change trackers with changes not yet sent to the
+     * client.
+     *
+     * @return the number of pending change trackers
+     */
+    public long getChangeTrackerCount() {
+        return changeTrackerCount;
+    }
+
+    /**
+     * Gets the number of constants known by the constant pool.
+     *
+     * @return the constant pool size
+     */
+    public long getConstantPoolSize() {
+        return constantPoolSize;
+    }
+
+    /**
+     * Gets the number of DOM event listener registrations.
+     *
+     * @return the number of listener registrations
+     */
+    public long getListenerCount() {
+        return listenerCount;
+    }
+
+    /**
+     * Creates a new snapshot by summing the counters of this snapshot and the
+     * given one.
+     *
+     * @param other
+     *            the memory usage to add, not <code>null</code>
+     * @return the combined memory usage, not <code>null</code>
+     */
+    public StateTreeMemoryUsage add(StateTreeMemoryUsage other) {
+        Map<Class<? extends NodeFeature>, Long> counts = new HashMap<>(
+                featureCounts);
+        other.featureCounts.forEach(
+                (type, count) -> counts.merge(type, count, Long::sum));
+        return new StateTreeMemoryUsage(nodeCount + other.nodeCount, counts,
+                mapValueCount + other.mapValueCount,
+                changeTrackerCount + other.changeTrackerCount,
+                constantPoolSize + other.constantPoolSize,
+                listenerCount + other.listenerCount);
+    }
+
+    @Override
+    public String toString() {
+        return "StateTreeMemoryUsage[nodes=" + nodeCount + ", features="
+                + getFeatureCount() + ", mapValues=" + mapValueCount
+                + ", changeTrackers=" + changeTrackerCount
+                + ", constants=" + constantPoolSize + ", listeners="
+                + listenerCount + "]";
+    }
+}
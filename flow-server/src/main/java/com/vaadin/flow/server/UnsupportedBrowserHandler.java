@@ -18,6 +18,8 @@ package com.vaadin.flow.server;
 import java.io.IOException;
 import java.io.Writer;
 
+import com.vaadin.flow.server.HandlerHelper.RequestType;
+
 /**
  * A {@link RequestHandler} that presents an informative page if the browser in
  * use is unsupported.
@@ -71,6 +73,30 @@ public class UnsupportedBrowserHandler extends SynchronizedRequestHandler {
             + "</head>";
     // @formatter:on
 
+    @Override
+    protected boolean canHandleRequest(VaadinRequest request) {
+        // Heartbeats come from a running client and must not lock the session
+        return !HandlerHelper.isRequestType(request, RequestType.HEARTBEAT);
+    }
+
+    @Override
+    public boolean handleRequest(VaadinSession session, VaadinRequest request,
+            VaadinResponse response) throws IOException {
+        if (!canHandleRequest(request)) {
+            return false;
+        }
+        if (!session.isUILockingEnabled()) {
+            return super.handleRequest(session, request, response);
+        }
+        // Only session state is used, so there is no need to lock the UIs
+        session.getLockInstance().lock();
+        try {
+            return synchronizedHandleRequest(session, request, response);
+        } finally {
+            session.unlock();
+        }
+    }
+
     @Override
     public boolean synchronizedHandleRequest(VaadinSession session,
             VaadinRequest request, VaadinResponse response) throws IOException {
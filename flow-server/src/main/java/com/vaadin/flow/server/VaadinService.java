@@ -28,6 +28,7 @@ import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.Serializable;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -37,12 +38,21 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
@@ -52,6 +62,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.internal.UIInternals;
 import com.vaadin.flow.di.DefaultInstantiator;
 import com.vaadin.flow.di.Instantiator;
 import com.vaadin.flow.function.DeploymentConfiguration;
@@ -189,6 +200,21 @@ public abstract class VaadinService implements Serializable {
 
     private VaadinContext vaadinContext;
 
+    private StateTreeMemoryMonitor stateTreeMemoryMonitor;
+
+    private transient Executor accessExecutor;
+
+    private transient ScheduledExecutorService pushExecutor;
+
+    /*
+     * Sessions and UIs for which a purge of the access queue has been
+     * submitted to the access executor but not yet started.
+     */
+    private final Set<Object> scheduledAccessQueuePurges = ConcurrentHashMap
+            .newKeySet();
+
+    private final AccessQueueMetrics accessQueueMetrics = new AccessQueueMetrics();
+
     /**
      * Creates a new vaadin service based on a deployment configuration.
      *
@@ -290,6 +316,12 @@ public abstract class VaadinService implements Serializable {
         if (getDeploymentConfiguration().isPnpmEnabled()) {
             UsageStatistics.markAsUsed("flow/pnpm",null);
         }
+        if (configuration.isStateTreeMemoryMXBeanEnabled()) {
+            stateTreeMemoryMonitor = new StateTreeMemoryMonitor(this);
+            stateTreeMemoryMonitor.register();
+        }
+        accessExecutor = createAccessExecutor();
+        pushExecutor = createPushExecutor();
 
         initialized = true;
     }
@@ -826,6 +858,14 @@ public abstract class VaadinService implements Serializable {
         WrappedSession wrappedSession = getWrappedSession(request,
                 requestCanCreateSession);
 
+        if (HandlerHelper.isRequestType(request, RequestType.HEARTBEAT)) {
+            // Heartbeats are handled without waiting for the session lock
+            VaadinSession session = findLoadedSession(wrappedSession);
+            if (session != null) {
+                return session;
+            }
+        }
+
         try {
             lockSession(wrappedSession);
         } catch (IllegalStateException e) {
@@ -841,6 +881,32 @@ public abstract class VaadinService implements Serializable {
 
     }
 
+    /**
+     * Gets the open Vaadin session stored in the given wrapped session without
+     * locking it, if it has already been loaded by this service.
+     *
+     * @param wrappedSession
+     *            the wrapped session
+     * @return the loaded Vaadin session, or <code>null</code> if the session
+     *         needs to be loaded with the lock held
+     * @throws SessionExpiredException
+     *             if the wrapped session has been invalidated
+     */
+    private VaadinSession findLoadedSession(WrappedSession wrappedSession)
+            throws SessionExpiredException {
+        VaadinSession session;
+        try {
+            session = readFromHttpSession(wrappedSession);
+        } catch (IllegalStateException e) {
+            throw new SessionExpiredException();
+        }
+        if (session != null && session.getService() == this
+                && session.getState() == VaadinSessionState.OPEN) {
+            return session;
+        }
+        return null;
+    }
+
     /**
      * Finds or creates a Vaadin session. Assumes necessary synchronization has
      * been done by the caller to ensure this is not called simultaneously by
@@ -1170,6 +1236,45 @@ public abstract class VaadinService implements Serializable {
         return ui;
     }
 
+    /**
+     * Finds the {@link UI} that belongs to the provided request and locks it.
+     * This is used instead of {@link #findUI(VaadinRequest)} when
+     * {@link VaadinSession#isUILockingEnabled() UI locking} is enabled, so that
+     * the session does not need to be locked. The returned UI is also set as
+     * the current UI ({@link UI#setCurrent(UI)}).
+     * <p>
+     * The caller is responsible for unlocking the UI using
+     * {@link UIInternals#unlock()}.
+     *
+     * @param session
+     *            the session of the request
+     * @param request
+     *            the request for which a UI is desired
+     * @return the locked UI belonging to the request or null if no UI is
+     *         found, in which case nothing is locked
+     */
+    public UI lockUI(VaadinSession session, VaadinRequest request) {
+        String uiIdString = request
+                .getParameter(ApplicationConstants.UI_ID_PARAMETER);
+        UI ui = null;
+        if (uiIdString != null) {
+            ui = session.getUIById(Integer.parseInt(uiIdString));
+        }
+
+        if (ui != null) {
+            UIInternals internals = ui.getInternals();
+            internals.lock();
+            if (ui.getSession() != session) {
+                // The UI was removed while waiting for the lock
+                internals.unlock();
+                ui = null;
+            }
+        }
+
+        UI.setCurrent(ui);
+        return ui;
+    }
+
     /**
      * Discards the current session and creates a new session with the same
      * contents. The purpose of this is to introduce a new session key in order
@@ -1268,10 +1373,14 @@ public abstract class VaadinService implements Serializable {
      * @param session
      */
     void cleanupSession(VaadinSession session) {
-        if (isSessionActive(session)) {
+        if (isSessionActive(session) && session.isUILockingEnabled()) {
+            cleanupIdleUIs(session);
+        } else if (isSessionActive(session)) {
             closeInactiveUIs(session);
             removeClosedUIs(session);
         } else {
+            // Closing the session touches all its UIs
+            session.lockUIs();
             if (session.getState() == VaadinSessionState.OPEN) {
                 closeSession(session);
                 if (session.getSession() != null) {
@@ -1296,6 +1405,39 @@ public abstract class VaadinService implements Serializable {
         }
     }
 
+    /**
+     * Closes inactive UIs and removes closed UIs from the given session when UI
+     * locking is enabled. UIs that are locked by some other thread are skipped
+     * and cleaned up at the end of some later request instead.
+     */
+    private void cleanupIdleUIs(VaadinSession session) {
+        for (final UI ui : new ArrayList<>(session.getUIs())) {
+            UIInternals internals = ui.getInternals();
+            if (!internals.getLockInstance().tryLock()) {
+                continue;
+            }
+            try {
+                if (!isUIActive(ui) && !ui.isClosing()) {
+                    ui.accessSynchronously(() -> {
+                        getLogger().debug(
+                                "Closing inactive UI #{} in session {}",
+                                ui.getUIId(), session.getSession().getId());
+                        ui.close();
+                    });
+                }
+                if (ui.isClosing()) {
+                    ui.accessSynchronously(() -> {
+                        getLogger().debug("Removing closed UI {}",
+                                ui.getUIId());
+                        session.removeUI(ui);
+                    });
+                }
+            } finally {
+                internals.unlock();
+            }
+        }
+    }
+
     /**
      * Removes those UIs from the given session for which {@link UI#isClosing()
      * isClosing} yields true.
@@ -1399,6 +1541,11 @@ public abstract class VaadinService implements Serializable {
              */
             return true;
         }
+        if (ui.getSession().isUILockingEnabled() && ((ReentrantLock) ui
+                .getInternals().getLockInstance()).hasQueuedThreads()) {
+            // Someone is waiting to access the UI
+            return true;
+        }
 
         // Check timeout
         long now = System.currentTimeMillis();
@@ -1468,7 +1615,24 @@ public abstract class VaadinService implements Serializable {
             VaadinSession session) {
         if (session != null) {
             assert VaadinSession.getCurrent() == session;
-            session.lock();
+            if (HandlerHelper.isRequestType(request, RequestType.HEARTBEAT)) {
+                /*
+                 * Heartbeats don't wait for the session. If it is busy, the
+                 * request holding the lock cleans it up when it ends.
+                 */
+                if (!session.getLockInstance().tryLock()) {
+                    CurrentInstance.clearAll();
+                    return;
+                }
+            } else if (session.isUILockingEnabled()) {
+                /*
+                 * Only take the session lock here, since locking all UIs would
+                 * wait for the requests of all other UIs in the session.
+                 */
+                session.getLockInstance().lock();
+            } else {
+                session.lock();
+            }
             try {
                 cleanupSession(session);
                 final long duration = (System.nanoTime() - (Long) request
@@ -1899,7 +2063,7 @@ public abstract class VaadinService implements Serializable {
         if (otherSession == null || otherSession == session) {
             return false;
         }
-        return otherSession.hasLock();
+        return otherSession.hasUIOrSessionLock();
     }
 
     /**
@@ -1949,6 +2113,7 @@ public abstract class VaadinService implements Serializable {
      */
     public Future<Void> accessSession(VaadinSession session, Command command) {
         FutureAccess future = new FutureAccess(session, command);
+        accessQueueMetrics.taskEnqueued();
         session.getPendingAccessQueue().add(future);
 
         ensureAccessQueuePurged(session);
@@ -1979,7 +2144,20 @@ public abstract class VaadinService implements Serializable {
          * the lock is ultimately released. If the lock is not held by any
          * thread and we acquire it, we just release it again to purge the queue
          * right away.
+         *
+         * With an access executor, the lock is instead acquired in the
+         * executor, unless the current thread holds it.
          */
+        if (accessExecutor != null) {
+            if (!((ReentrantLock) session.getLockInstance())
+                    .isHeldByCurrentThread()) {
+                schedulePurge(session, session.getPendingAccessQueue(), () -> {
+                    session.lock();
+                    session.unlock();
+                });
+            }
+            return;
+        }
         try {
             // tryLock() would be shorter, but it does not guarantee fairness
             if (session.getLockInstance().tryLock(0, TimeUnit.SECONDS)) {
@@ -1991,6 +2169,179 @@ public abstract class VaadinService implements Serializable {
         }
     }
 
+    /**
+     * Submits a purge of the access queue of the given UI to the
+     * {@link #getAccessExecutor() access executor}. This is used when
+     * {@link VaadinSession#isUILockingEnabled() UI locking} is enabled.
+     * <p>
+     * This method is for internal use by the framework.
+     *
+     * @param ui
+     *            the UI for which the access queue should be purged
+     */
+    public void scheduleAccessQueuePurge(UI ui) {
+        UIInternals internals = ui.getInternals();
+        schedulePurge(ui, internals.getPendingAccessQueue(), () -> {
+            internals.lock();
+            internals.unlock();
+        });
+    }
+
+    /*
+     * All tasks in the queue are run with one lock acquisition and the
+     * changes are pushed once when the lock is released.
+     */
+    private void schedulePurge(Object owner, Queue<FutureAccess> queue,
+            Runnable purge) {
+        if (!scheduledAccessQueuePurges.add(owner)) {
+            // Already scheduled and not yet started
+            return;
+        }
+        try {
+            accessExecutor.execute(() -> {
+                // Tasks enqueued after this point schedule a new purge
+                scheduledAccessQueuePurges.remove(owner);
+                try {
+                    purge.run();
+                } catch (RuntimeException e) {
+                    getLogger().error("Error while purging the access queue",
+                            e);
+                } finally {
+                    CurrentInstance.clearAll();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            scheduledAccessQueuePurges.remove(owner);
+            getLogger().debug(
+                    "Access executor rejected the purge of an access queue",
+                    e);
+            // The queue will not be purged, e.g. after destroy()
+            FutureAccess pendingAccess;
+            while ((pendingAccess = queue.poll()) != null) {
+                pendingAccess.cancel(false);
+                accessQueueMetrics.taskRemoved(pendingAccess);
+            }
+        }
+    }
+
+    /**
+     * Creates the executor that runs the tasks enqueued with
+     * {@link VaadinSession#access(Command)} and {@link UI#access(Command)}.
+     * The executor acquires the lock and runs all tasks in the queue, so that
+     * threads enqueuing tasks never wait for the lock or run the tasks
+     * themselves.
+     * <p>
+     * The default implementation creates an executor based on
+     * {@link DeploymentConfiguration#getAccessExecutor()}. Returning
+     * <code>null</code> runs the tasks in the thread that enqueues them if the
+     * lock is free, or in the thread that releases the lock otherwise.
+     *
+     * @return the access executor, or <code>null</code> to run the tasks in
+     *         the calling threads
+     */
+    protected Executor createAccessExecutor() {
+        String type = getDeploymentConfiguration().getAccessExecutor();
+        switch (type) {
+        case "caller":
+            return null;
+        case "pool":
+            return createAccessThreadPool();
+        case "virtual":
+            try {
+                Method factory = Executors.class
+                        .getMethod("newVirtualThreadPerTaskExecutor");
+                return (Executor) factory.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                getLogger().warn(
+                        "Virtual threads are not supported by this Java runtime, using a thread pool for access tasks");
+                return createAccessThreadPool();
+            }
+        default:
+            getLogger().warn(
+                    "Unknown {} '{}', running access tasks in the calling threads",
+                    InitParameters.SERVLET_PARAMETER_ACCESS_EXECUTOR, type);
+            return null;
+        }
+    }
+
+    private static ExecutorService createAccessThreadPool() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable,
+                    "vaadin-access-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newCachedThreadPool(threadFactory);
+    }
+
+    /**
+     * Gets the executor that runs the tasks enqueued with
+     * {@link VaadinSession#access(Command)} and {@link UI#access(Command)}.
+     *
+     * @return the access executor, or <code>null</code> if the tasks are run
+     *         in the calling threads
+     * @see #createAccessExecutor()
+     */
+    public Executor getAccessExecutor() {
+        return accessExecutor;
+    }
+
+    /**
+     * Creates the executor that runs deferred pushes, e.g. for UIs whose push
+     * rate is limited by {@link DeploymentConfiguration#getMinPushInterval()},
+     * and other delayed push tasks such as keepalive messages. The executor
+     * is created when the service is initialized and shut down when the
+     * service is {@link #destroy() destroyed}.
+     * <p>
+     * The default implementation creates a scheduled thread pool of daemon
+     * threads that are only started when the first task is scheduled and that
+     * time out when idle.
+     *
+     * @return the push executor, not <code>null</code>
+     */
+    protected ScheduledExecutorService createPushExecutor() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(
+                Runtime.getRuntime().availableProcessors(), runnable -> {
+                    Thread thread = new Thread(runnable,
+                            "vaadin-push-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.setKeepAliveTime(1, TimeUnit.MINUTES);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Gets the executor that runs deferred push tasks.
+     *
+     * @return the push executor, or <code>null</code> if the service has not
+     *         been initialized
+     * @see #createPushExecutor()
+     */
+    public ScheduledExecutorService getPushExecutor() {
+        return pushExecutor;
+    }
+
+    /**
+     * Gets the queue depth and latency metrics of the access tasks of all
+     * sessions of this service. The metrics are updated by the framework when
+     * tasks are enqueued with {@link VaadinSession#access(Command)} or
+     * {@link UI#access(Command)}, when they are taken from the queue to be run
+     * and when they are cancelled or discarded without being run.
+     * <p>
+     * The same instance is returned for the whole lifetime of the service, so
+     * it can e.g. be registered once with a monitoring system.
+     *
+     * @return the access queue metrics, not <code>null</code>
+     * @see AccessQueueMetrics
+     */
+    public AccessQueueMetrics getAccessQueueMetrics() {
+        return accessQueueMetrics;
+    }
+
     /**
      * Purges the queue of pending access invocations enqueued with
      * {@link VaadinSession#access(Command)}.
@@ -2017,6 +2368,7 @@ public abstract class VaadinService implements Serializable {
         try {
             while ((pendingAccess = session.getPendingAccessQueue()
                     .poll()) != null) {
+                accessQueueMetrics.taskDequeued(pendingAccess);
                 if (!pendingAccess.isCancelled()) {
                     pendingAccess.run();
 
@@ -2065,6 +2417,56 @@ public abstract class VaadinService implements Serializable {
         ServiceDestroyEvent event = new ServiceDestroyEvent(this);
         serviceDestroyListeners
                 .forEach(listener -> listener.serviceDestroy(event));
+        if (stateTreeMemoryMonitor != null) {
+            stateTreeMemoryMonitor.unregister();
+            stateTreeMemoryMonitor = null;
+        }
+        if (accessExecutor instanceof ExecutorService) {
+            ((ExecutorService) accessExecutor).shutdown();
+        }
+        if (pushExecutor != null) {
+            // Deferred pushes are pointless once the service is gone
+            pushExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Gets the current state tree memory usage of a UI. The usage is
+     * maintained incrementally while the UI is modified, so this method does
+     * not walk the state tree.
+     * <p>
+     * The session of the UI must be locked when calling this method.
+     *
+     * @param ui
+     *            the UI to get the memory usage for, not <code>null</code>
+     * @return the memory usage of the UI, not <code>null</code>
+     */
+    public StateTreeMemoryUsage getStateTreeMemoryUsage(UI ui) {
+        assert ui != null;
+        ui.getInternals().checkHasLock();
+        return ui.getInternals().getStateTree().getMemoryUsage();
+    }
+
+    /**
+     * Gets the current state tree memory usage of all the UIs in a session.
+     * <p>
+     * The session must be locked when calling this method.
+     *
+     * @param session
+     *            the session to get the memory usage for, not
+     *            <code>null</code>
+     * @return the aggregated memory usage of the session, not
+     *         <code>null</code>
+     */
+    public StateTreeMemoryUsage getStateTreeMemoryUsage(
+            VaadinSession session) {
+        assert session != null;
+        session.checkHasLock();
+        StateTreeMemoryUsage usage = StateTreeMemoryUsage.EMPTY;
+        for (UI ui : session.getUIs()) {
+            usage = usage.add(getStateTreeMemoryUsage(ui));
+        }
+        return usage;
     }
 
     /**
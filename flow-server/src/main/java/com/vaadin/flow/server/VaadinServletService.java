@@ -36,6 +36,7 @@ import com.vaadin.flow.internal.UsageStatistics;
 import com.vaadin.flow.server.communication.FaviconHandler;
 import com.vaadin.flow.server.communication.IndexHtmlRequestHandler;
 import com.vaadin.flow.server.communication.PushRequestHandler;
+import com.vaadin.flow.server.communication.SsePushRequestHandler;
 import com.vaadin.flow.server.frontend.FallbackChunk;
 import com.vaadin.flow.server.startup.ApplicationRouteRegistry;
 import com.vaadin.flow.shared.ApplicationConstants;
@@ -95,6 +96,9 @@ public class VaadinServletService extends VaadinService {
                         e);
             }
         }
+        // Added after the Atmosphere handler so that it gets the first chance
+        // to handle Server-Sent Events push requests
+        handlers.add(new SsePushRequestHandler());
         if (getDeploymentConfiguration().enableDevServer()) {
             DevModeHandler handler = DevModeHandler.getDevModeHandler();
             if (handler != null) {
@@ -19,19 +19,21 @@ package com.vaadin.flow.server;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Future;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -79,32 +81,32 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     /**
      * Configuration for the session.
      */
-    private DeploymentConfiguration configuration;
+    private volatile DeploymentConfiguration configuration;
 
     /**
      * Default locale of the session.
      */
-    private Locale locale = Locale.getDefault();
+    private volatile Locale locale = Locale.getDefault();
 
     /**
      * Session wide error handler which is used by default if an error is left
      * unhandled.
      */
-    private ErrorHandler errorHandler = new DefaultErrorHandler();
-    private LinkedList<RequestHandler> requestHandlers = new LinkedList<>();
+    private volatile ErrorHandler errorHandler = new DefaultErrorHandler();
+    private List<RequestHandler> requestHandlers = new CopyOnWriteArrayList<>();
 
     private int nextUIId = 0;
-    private Map<Integer, UI> uIs = new HashMap<>();
+    private Map<Integer, UI> uIs = new ConcurrentHashMap<>();
 
     protected WebBrowser browser = new WebBrowser();
 
-    private long cumulativeRequestDuration = 0;
+    private volatile long cumulativeRequestDuration = 0;
 
-    private long lastRequestDuration = -1;
+    private volatile long lastRequestDuration = -1;
 
-    private long lastRequestTimestamp = System.currentTimeMillis();
+    private volatile long lastRequestTimestamp = System.currentTimeMillis();
 
-    private VaadinSessionState state = VaadinSessionState.OPEN;
+    private volatile VaadinSessionState state = VaadinSessionState.OPEN;
 
     private transient WrappedSession session;
 
@@ -112,6 +114,16 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
 
     private transient Lock lock;
 
+    private boolean uiLocking;
+
+    /*
+     * The UI locks acquired together with the session lock when UI locking is
+     * enabled, in the order they were acquired.
+     */
+    private transient List<UI> lockedUIs;
+
+    private transient int lockedUIsHoldCount;
+
     /*
      * Pending tasks can't be serialized and the queue should be empty when the
      * session is serialized as long as it doesn't happen while some other
@@ -203,7 +215,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @return the web browser object
      */
     public WebBrowser getBrowser() {
-        checkHasLock();
+        checkHasUIOrSessionLock();
         return browser;
     }
 
@@ -212,7 +224,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      *         milliseconds.
      */
     public long getCumulativeRequestDuration() {
-        checkHasLock();
+        checkHasUIOrSessionLock();
         return cumulativeRequestDuration;
     }
 
@@ -234,7 +246,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      *         milliseconds.
      */
     public long getLastRequestDuration() {
-        checkHasLock();
+        checkHasUIOrSessionLock();
         return lastRequestDuration;
     }
 
@@ -246,7 +258,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      *            since the epoch.
      */
     public void setLastRequestTimestamp(long timestamp) {
-        checkHasLock();
+        checkHasUIOrSessionLock();
         lastRequestTimestamp = timestamp;
     }
 
@@ -257,7 +269,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      *         the epoch.
      */
     public long getLastRequestTimestamp() {
-        checkHasLock();
+        checkHasUIOrSessionLock();
         return lastRequestTimestamp;
     }
 
@@ -318,6 +330,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         }
         assert this.configuration == null : "Configuration can only be set once";
         this.configuration = configuration;
+        uiLocking = configuration.isUILockingEnabled();
     }
 
     /**
@@ -326,7 +339,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @return the deployment configuration
      */
     public DeploymentConfiguration getConfiguration() {
-        checkHasLock();
+        checkHasUIOrSessionLock();
         return configuration;
     }
 
@@ -350,7 +363,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @return the locale of this session.
      */
     public Locale getLocale() {
-        checkHasLock();
+        checkHasUIOrSessionLock();
         return locale;
     }
 
@@ -358,7 +371,8 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * Sets the default locale for this session.
      * <p>
      * Setting the locale of a session will also override any custom locale
-     * configured for all UIs in this session.
+     * configured for all UIs in this session. The session lock must be held,
+     * also when {@link #isUILockingEnabled() UI locking} is enabled.
      *
      * @param locale
      *            the locale to set, not <code>null</code>
@@ -378,7 +392,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @return the current error handler
      */
     public ErrorHandler getErrorHandler() {
-        checkHasLock();
+        checkHasUIOrSessionLock();
         return errorHandler;
     }
 
@@ -409,7 +423,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     public void addRequestHandler(RequestHandler handler) {
         checkHasLock();
-        requestHandlers.addFirst(handler);
+        requestHandlers.add(0, handler);
     }
 
     /**
@@ -427,6 +441,10 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * Gets the request handlers that are registered to the session. The
      * iteration order of the returned collection is the same as the order in
      * which the request handlers will be invoked when a request is handled.
+     * <p>
+     * This method can be called without holding the session lock. The returned
+     * collection is backed by a copy-on-write list, so iterating it is safe
+     * even if handlers are added or removed concurrently.
      *
      * @return a collection of request handlers, with the iteration order
      *         according to the order they would be invoked
@@ -434,7 +452,6 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @see #removeRequestHandler(RequestHandler)
      */
     public Collection<RequestHandler> getRequestHandlers() {
-        checkHasLock();
         return Collections.unmodifiableCollection(requestHandlers);
     }
 
@@ -485,21 +502,22 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @return a collection of UIs belonging to this application
      */
     public Collection<UI> getUIs() {
-        checkHasLock();
+        checkHasUIOrSessionLock();
         return Collections.unmodifiableCollection(uIs.values());
     }
 
     /**
      * Returns a UI with the given id.
      * <p>
-     * This is meant for framework internal use.
+     * This is meant for framework internal use. The session does not need to
+     * be locked, since the UI is e.g. looked up before locking it with UI
+     * locking enabled, and when handling heartbeats.
      *
      * @param uiId
      *            The UI id
      * @return The UI with the given id or null if not found
      */
     public UI getUIById(int uiId) {
-        checkHasLock();
         return uIs.get(uiId);
     }
 
@@ -514,6 +532,53 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         return l.isHeldByCurrentThread();
     }
 
+    /**
+     * Checks if the current thread holds the lock of this session, or the lock
+     * of one of its UIs when {@link #isUILockingEnabled() UI locking} is
+     * enabled. Holding a UI lock is enough for accessing that UI and for
+     * reading the session state, but not for changing session wide state.
+     *
+     * @return true if the thread holds the session lock or a UI lock in this
+     *         session, false otherwise
+     * @see #hasLock()
+     */
+    public boolean hasUIOrSessionLock() {
+        return hasLock() || (uiLocking && hasUILock());
+    }
+
+    /**
+     * Checks whether UI locking is enabled for this session. When UI locking is
+     * enabled, each UI is protected by its own lock instead of the session
+     * lock so that different UIs of the same session can be accessed
+     * concurrently. The session lock is then only used for session wide state,
+     * and locking the session also locks all its UIs.
+     *
+     * @return <code>true</code> if each UI is locked separately,
+     *         <code>false</code> if the session lock protects all UIs
+     * @see DeploymentConfiguration#isUILockingEnabled()
+     */
+    public boolean isUILockingEnabled() {
+        return uiLocking;
+    }
+
+    /*
+     * Checks whether the current thread holds the lock of any UI in this
+     * session.
+     */
+    private boolean hasUILock() {
+        UI current = UI.getCurrent();
+        if (current != null && current.getSession() == this
+                && current.getInternals().hasLock()) {
+            return true;
+        }
+        for (UI ui : uIs.values()) {
+            if (ui.getInternals().hasLock()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Potentially checks whether this session is currently locked by the
      * current thread, and fails with the given message if not.
@@ -548,6 +613,39 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         checkHasLock(SESSION_NOT_LOCKED_MESSAGE);
     }
 
+    /**
+     * Potentially checks whether the current thread holds the lock of this
+     * session or of one of its UIs, and fails with the given message if not.
+     * <p>
+     * The check is done in the same situations as for
+     * {@link #checkHasLock(String)}.
+     *
+     * @param message
+     *            the error message to include when failing if the check is done
+     *            and neither the session nor one of its UIs is locked
+     * @see #hasUIOrSessionLock()
+     */
+    public void checkHasUIOrSessionLock(String message) {
+        if (configuration == null || configuration.isProductionMode()) {
+            assert hasUIOrSessionLock() : message;
+        } else if (!hasUIOrSessionLock()) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    /**
+     * Potentially checks whether the current thread holds the lock of this
+     * session or of one of its UIs, and fails with a standard error message if
+     * not.
+     * <p>
+     * The check is done in the same situations as for {@link #checkHasLock()}.
+     *
+     * @see #hasUIOrSessionLock()
+     */
+    public void checkHasUIOrSessionLock() {
+        checkHasUIOrSessionLock(SESSION_NOT_LOCKED_MESSAGE);
+    }
+
     /**
      * Checks if the current thread has exclusive access to the given
      * WrappedSession.
@@ -634,13 +732,64 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * <p>
      * {@link #getLockInstance()} can be used if more control over the locking
      * is required.
+     * <p>
+     * If {@link #isUILockingEnabled() UI locking} is enabled, the locks of all
+     * UIs in this session are also acquired, so that the session cannot be
+     * locked by a thread that already holds the lock of one of its UIs.
      *
+     * @throws IllegalStateException
+     *             if UI locking is enabled and the current thread holds the
+     *             lock of a UI in this session but not the session lock
      * @see #unlock()
      * @see #getLockInstance()
      * @see #hasLock()
      */
     public void lock() {
+        if (uiLocking && !((ReentrantLock) getLockInstance())
+                .isHeldByCurrentThread() && hasUILock()) {
+            throw new IllegalStateException(
+                    "Can't lock the session while holding the lock of one of its UIs. This restriction is intended to avoid deadlocks.");
+        }
         getLockInstance().lock();
+        if (uiLocking) {
+            lockUIs();
+        }
+    }
+
+    /**
+     * Locks all UIs of this session after the session lock has been acquired,
+     * if UI locking is enabled. The UIs are locked in the order of their ids.
+     * <p>
+     * This method is for internal use by the framework.
+     */
+    void lockUIs() {
+        if (!uiLocking || lockedUIs != null) {
+            return;
+        }
+        List<UI> uis = new ArrayList<>(uIs.values());
+        uis.sort((ui1, ui2) -> Integer.compare(ui1.getUIId(), ui2.getUIId()));
+        lockedUIs = new ArrayList<>(uis.size());
+        lockedUIsHoldCount = ((ReentrantLock) getLockInstance())
+                .getHoldCount();
+        try {
+            for (UI ui : uis) {
+                ui.getInternals().getLockInstance().lock();
+                lockedUIs.add(ui);
+            }
+        } catch (RuntimeException e) {
+            unlockUIs();
+            throw e;
+        }
+    }
+
+    private void unlockUIs() {
+        if (lockedUIs == null) {
+            return;
+        }
+        for (int i = lockedUIs.size() - 1; i >= 0; i--) {
+            lockedUIs.get(i).getInternals().getLockInstance().unlock();
+        }
+        lockedUIs = null;
     }
 
     /**
@@ -656,30 +805,47 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     public void unlock() {
         checkHasLock();
-        boolean ultimateRelease = false;
+        int holdCount = ((ReentrantLock) getLockInstance()).getHoldCount();
+        /*
+         * Run pending tasks and push if the reentrant lock will actually be
+         * released by this unlock() invocation.
+         */
+        boolean ultimateRelease = holdCount == 1;
+        if (ultimateRelease && uiLocking && !getPendingAccessQueue().isEmpty()) {
+            // Session access tasks may touch any UI of the session
+            lockUIs();
+        }
+        /*
+         * UI locks are released together with the session lock acquisition
+         * that took them, which is not the ultimate release if the session was
+         * already locked without locking its UIs.
+         */
+        boolean releaseUIs = lockedUIs != null
+                && holdCount == lockedUIsHoldCount;
         try {
-            /*
-             * Run pending tasks and push if the reentrant lock will actually be
-             * released by this unlock() invocation.
-             */
-            if (((ReentrantLock) getLockInstance()).getHoldCount() == 1) {
-                ultimateRelease = true;
+            if (ultimateRelease) {
                 getService().runPendingAccessTasks(this);
-
-                for (UI ui : getUIs()) {
-                    if (ui.getPushConfiguration()
-                            .getPushMode() == PushMode.AUTOMATIC) {
-                        Map<Class<?>, CurrentInstance> oldCurrent = CurrentInstance
-                                .setCurrent(ui);
-                        try {
-                            ui.push();
-                        } finally {
-                            CurrentInstance.restoreInstances(oldCurrent);
-                        }
+            }
+            if (releaseUIs) {
+                for (UI ui : lockedUIs) {
+                    ui.getInternals().runPendingAccessTasks();
+                }
+            }
+            if (releaseUIs) {
+                for (UI ui : lockedUIs) {
+                    if (ui.getSession() == this) {
+                        pushIfAutomatic(ui);
                     }
                 }
+            } else if (ultimateRelease && !uiLocking) {
+                for (UI ui : getUIs()) {
+                    pushIfAutomatic(ui);
+                }
             }
         } finally {
+            if (releaseUIs) {
+                unlockUIs();
+            }
             getLockInstance().unlock();
         }
 
@@ -694,6 +860,23 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         if (ultimateRelease && !getPendingAccessQueue().isEmpty()) {
             getService().ensureAccessQueuePurged(this);
         }
+        if (releaseUIs) {
+            for (UI ui : uIs.values()) {
+                ui.getInternals().ensureAccessQueuePurged();
+            }
+        }
+    }
+
+    private static void pushIfAutomatic(UI ui) {
+        if (ui.getPushConfiguration().getPushMode() == PushMode.AUTOMATIC) {
+            Map<Class<?>, CurrentInstance> oldCurrent = CurrentInstance
+                    .setCurrent(ui);
+            try {
+                ui.push();
+            } finally {
+                CurrentInstance.restoreInstances(oldCurrent);
+            }
+        }
     }
 
     /**
@@ -701,6 +884,10 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * data with the current user so that it can be retrieved at a later point
      * from some other part of the application. Setting the value to
      * <code>null</code> clears the stored value.
+     * <p>
+     * Attributes are stored in a synchronized map, so they can also be set
+     * while only holding the lock of a UI in this session when
+     * {@link #isUILockingEnabled() UI locking} is enabled.
      *
      * @param name
      *            the name to associate the value with, can not be
@@ -711,8 +898,10 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @see #getAttribute(String)
      */
     public void setAttribute(String name, Object value) {
-        checkHasLock();
-        attributes.setAttribute(name, value);
+        checkHasUIOrSessionLock();
+        synchronized (attributes) {
+            attributes.setAttribute(name, value);
+        }
     }
 
     /**
@@ -737,8 +926,10 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @see #setAttribute(String, Object)
      */
     public <T> void setAttribute(Class<T> type, T value) {
-        checkHasLock();
-        attributes.setAttribute(type, value);
+        checkHasUIOrSessionLock();
+        synchronized (attributes) {
+            attributes.setAttribute(type, value);
+        }
     }
 
     /**
@@ -753,8 +944,10 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @see #setAttribute(String, Object)
      */
     public Object getAttribute(String name) {
-        checkHasLock();
-        return attributes.getAttribute(name);
+        checkHasUIOrSessionLock();
+        synchronized (attributes) {
+            return attributes.getAttribute(name);
+        }
     }
 
     /**
@@ -778,8 +971,10 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @see #getAttribute(String)
      */
     public <T> T getAttribute(Class<T> type) {
-        checkHasLock();
-        return attributes.getAttribute(type);
+        checkHasUIOrSessionLock();
+        synchronized (attributes) {
+            return attributes.getAttribute(type);
+        }
     }
 
     /**
@@ -810,6 +1005,11 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         }
 
         uIs.put(ui.getUIId(), ui);
+        if (lockedUIs != null && !lockedUIs.contains(ui)) {
+            // Keep the invariant that the session lock covers all UIs
+            ui.getInternals().getLockInstance().lock();
+            lockedUIs.add(ui);
+        }
     }
 
     public VaadinService getService() {
@@ -834,11 +1034,13 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
 
     /**
      * Returns the lifecycle state of this session.
+     * <p>
+     * This method can be called without holding the session lock, e.g. to find
+     * the session for a heartbeat request.
      *
      * @return the current state
      */
     public VaadinSessionState getState() {
-        checkHasLock();
         return state;
     }
 
@@ -973,7 +1175,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @return the push connection identifier string
      */
     public String getPushId() {
-        checkHasLock();
+        checkHasUIOrSessionLock();
         return pushId;
     }
 
@@ -16,11 +16,17 @@
 
 package com.vaadin.flow.server.communication;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Serializable;
 import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -32,6 +38,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import com.vaadin.flow.function.DeploymentConfiguration;
 import com.vaadin.flow.internal.UsageStatistics;
 import com.vaadin.flow.shared.communication.PushConstants;
 
@@ -52,6 +60,34 @@ public class AtmospherePushConnection implements PushConnection {
     private transient FragmentedMessage incomingMessage;
     private transient Future<Object> outgoingMessage;
 
+    private static final long DRAIN_CHECK_INTERVAL = TimeUnit.MILLISECONDS
+            .toNanos(20);
+
+    private transient boolean configurationRead;
+    // Minimum time between asynchronous messages in nanoseconds
+    private transient long minPushInterval;
+    private transient int maxPendingMessages;
+    private transient long maxPendingBytes;
+
+    private transient long lastPushTime;
+    private transient boolean pushScheduled;
+    private transient boolean drainCheckScheduled;
+
+    // Messages handed to Atmosphere but not yet written to the client, only
+    // tracked if a limit is configured
+    private transient Deque<PendingMessage> pendingMessages = new ArrayDeque<>();
+    private transient long pendingMessageBytes;
+
+    private static class PendingMessage implements Serializable {
+        private final Future<Object> future;
+        private final int size;
+
+        private PendingMessage(Future<Object> future, int size) {
+            this.future = future;
+            this.size = size;
+        }
+    }
+
     /**
      * Represents a message that can arrive as multiple fragments.
      */
@@ -177,10 +213,23 @@ public class AtmospherePushConnection implements PushConnection {
      * Pushes pending state changes and client RPC calls to the client. If
      * {@code isConnected()} is false, defers the push until a connection is
      * established.
+     * <p>
+     * If a minimum push interval is configured, an asynchronous push that
+     * happens sooner than the interval after the previous message is deferred
+     * until the interval has passed, and all changes made in the meantime are
+     * sent in one message. A push to an idle connection is sent right away.
+     * <p>
+     * If a limit for pending messages is configured and the client has not
+     * yet received the previously sent messages up to the limit, an
+     * asynchronous push is held back. The changes stay in the state tree and
+     * are sent in one message once the client has caught up.
      *
      * @param async
      *            True if this push asynchronously originates from the server,
      *            false if it is a response to a client request.
+     * @see com.vaadin.flow.function.DeploymentConfiguration#getMinPushInterval()
+     * @see com.vaadin.flow.function.DeploymentConfiguration#getMaxPendingPushMessages()
+     * @see com.vaadin.flow.function.DeploymentConfiguration#getMaxPendingPushBytes()
      */
     public void push(boolean async) {
         if (!isConnected()) {
@@ -189,14 +238,134 @@ public class AtmospherePushConnection implements PushConnection {
             } else {
                 state = State.RESPONSE_PENDING;
             }
-        } else {
+        } else if (!async || !(holdUntilDrained() || deferPush())) {
+            sendPush(async);
+        }
+    }
+
+    private void readConfiguration() {
+        if (configurationRead) {
+            return;
+        }
+        DeploymentConfiguration configuration = getUI().getSession()
+                .getConfiguration();
+        minPushInterval = TimeUnit.MILLISECONDS
+                .toNanos(configuration.getMinPushInterval());
+        maxPendingMessages = configuration.getMaxPendingPushMessages();
+        maxPendingBytes = configuration.getMaxPendingPushBytes();
+        configurationRead = true;
+    }
+
+    private boolean holdUntilDrained() {
+        readConfiguration();
+        if (drainCheckScheduled) {
+            // The push after draining will include these changes
+            return true;
+        }
+        if (!isBacklogFull()) {
+            return false;
+        }
+        drainCheckScheduled = true;
+        scheduleDrainCheck();
+        return true;
+    }
+
+    private boolean hasPendingMessageLimit() {
+        readConfiguration();
+        return maxPendingMessages > 0 || maxPendingBytes > 0;
+    }
+
+    private boolean isBacklogFull() {
+        if (!hasPendingMessageLimit()) {
+            return false;
+        }
+        return (maxPendingMessages > 0
+                && getPendingMessageCount() >= maxPendingMessages)
+                || (maxPendingBytes > 0
+                        && getPendingMessageBytes() >= maxPendingBytes);
+    }
+
+    private void scheduleDrainCheck() {
+        UI pushUI = getUI();
+        PushScheduler.schedule(pushUI, () -> {
+            if (isBacklogFull()) {
+                scheduleDrainCheck();
+                return;
+            }
+            try {
+                pushUI.access(this::sendHeldPush);
+            } catch (UIDetachedException e) {
+                // Nothing to push to
+            }
+        }, DRAIN_CHECK_INTERVAL);
+    }
+
+    private void sendHeldPush() {
+        if (!drainCheckScheduled) {
+            return;
+        }
+        drainCheckScheduled = false;
+        if (getUI().getInternals().isDirty()) {
+            // Also marks the push as pending if the connection was lost
+            push(true);
+        }
+    }
+
+    private boolean deferPush() {
+        if (minPushInterval <= 0) {
+            return false;
+        }
+        if (pushScheduled) {
+            // The scheduled push will include these changes
+            return true;
+        }
+        long delay = lastPushTime + minPushInterval - System.nanoTime();
+        if (lastPushTime == 0 || delay <= 0) {
+            return false;
+        }
+
+        pushScheduled = true;
+        UI pushUI = getUI();
+        PushScheduler.schedule(pushUI, () -> {
             try {
-                JsonObject response = new UidlWriter().createUidl(getUI(),
-                        async);
+                pushUI.access(this::sendScheduledPush);
+            } catch (UIDetachedException e) {
+                // Nothing to push to
+            }
+        }, delay);
+        return true;
+    }
+
+    private void sendScheduledPush() {
+        if (!pushScheduled) {
+            return;
+        }
+        pushScheduled = false;
+        if (isConnected() && getUI().getInternals().isDirty()) {
+            sendPush(true);
+        }
+    }
+
+    private void sendPush(boolean async) {
+        // 0 is reserved for "nothing pushed yet"
+        lastPushTime = Math.max(1, System.nanoTime());
+        try {
+            UI ui = getUI();
+            if (ui.getSession().getConfiguration().isStreamingUidl()) {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                try (Writer writer = new OutputStreamWriter(buffer,
+                        StandardCharsets.UTF_8)) {
+                    writer.write("for(;;);[");
+                    new UidlWriter().writeUidl(ui, async, false, writer);
+                    writer.write(']');
+                }
+                sendMessage(buffer.toByteArray());
+            } else {
+                JsonObject response = new UidlWriter().createUidl(ui, async);
                 sendMessage("for(;;);[" + response.toJson() + "]");
-            } catch (Exception e) {
-                throw new RuntimeException("Push failed", e);
             }
+        } catch (Exception e) {
+            throw new RuntimeException("Push failed", e);
         }
     }
 
@@ -212,6 +381,84 @@ public class AtmospherePushConnection implements PushConnection {
         // "Broadcast" the changes to the single client only
         outgoingMessage = getResource().getBroadcaster().broadcast(message,
                 getResource());
+        if (outgoingMessage != null && hasPendingMessageLimit()) {
+            addPendingMessage(new PendingMessage(outgoingMessage,
+                    message.length()));
+        }
+    }
+
+    /**
+     * Sends the given UTF-8 encoded message to the current client. Cannot be
+     * called if {@link #isConnected()} returns false.
+     *
+     * @param message
+     *            The UTF-8 encoded message to send
+     */
+    protected void sendMessage(byte[] message) {
+        assert (isConnected());
+        // "Broadcast" the changes to the single client only
+        outgoingMessage = getResource().getBroadcaster().broadcast(message,
+                getResource());
+        if (outgoingMessage != null && hasPendingMessageLimit()) {
+            addPendingMessage(
+                    new PendingMessage(outgoingMessage, message.length));
+        }
+    }
+
+    private synchronized void addPendingMessage(PendingMessage message) {
+        // Don't keep written messages around until the backlog is checked
+        removeWrittenMessages();
+        pendingMessages.add(message);
+        pendingMessageBytes += message.size;
+    }
+
+    private synchronized void removeWrittenMessages() {
+        pendingMessages.removeIf(message -> {
+            if (message.future.isDone()) {
+                pendingMessageBytes -= message.size;
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private synchronized void clearPendingMessages() {
+        pendingMessages.clear();
+        pendingMessageBytes = 0;
+    }
+
+    /**
+     * Gets the number of messages that have been sent using this connection
+     * but not yet written to the client. A growing number indicates that the
+     * client cannot keep up with the pushed changes.
+     * <p>
+     * Pending messages are only tracked if a limit for them is configured,
+     * otherwise this method returns 0.
+     * <p>
+     * This method can be called from any thread.
+     *
+     * @return the number of pending messages
+     */
+    public synchronized int getPendingMessageCount() {
+        removeWrittenMessages();
+        return pendingMessages.size();
+    }
+
+    /**
+     * Gets the total size of the messages that have been sent using this
+     * connection but not yet written to the client. The size is estimated
+     * from the length of the messages.
+     * <p>
+     * Pending messages are only tracked if a limit for them is configured,
+     * otherwise this method returns 0.
+     * <p>
+     * This method can be called from any thread.
+     *
+     * @return the size of the pending messages in bytes
+     */
+    public synchronized long getPendingMessageBytes() {
+        removeWrittenMessages();
+        return pendingMessageBytes;
     }
 
     /**
@@ -353,6 +600,7 @@ public class AtmospherePushConnection implements PushConnection {
      */
     public void connectionLost() {
         resource = null;
+        clearPendingMessages();
         if (state == State.CONNECTED) {
             // Guard against connectionLost being (incorrectly) called when
             // state is PUSH_PENDING or RESPONSE_PENDING
@@ -387,6 +635,7 @@ public class AtmospherePushConnection implements PushConnection {
             throws IOException, ClassNotFoundException {
         stream.defaultReadObject();
         state = State.DISCONNECTED;
+        pendingMessages = new ArrayDeque<>();
     }
 
     private static Logger getLogger() {
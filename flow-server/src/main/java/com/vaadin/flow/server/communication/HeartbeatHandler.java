@@ -24,8 +24,8 @@ import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.internal.UIInternals;
 import com.vaadin.flow.server.HandlerHelper;
 import com.vaadin.flow.server.HandlerHelper.RequestType;
+import com.vaadin.flow.server.RequestHandler;
 import com.vaadin.flow.server.SessionExpiredHandler;
-import com.vaadin.flow.server.SynchronizedRequestHandler;
 import com.vaadin.flow.server.VaadinRequest;
 import com.vaadin.flow.server.VaadinResponse;
 import com.vaadin.flow.server.VaadinSession;
@@ -38,17 +38,16 @@ import com.vaadin.flow.shared.ApplicationConstants;
  * no UIDL requests for a prolonged period of time. UIs that do not receive
  * either heartbeat or UIDL requests are eventually removed from the session and
  * garbage collected.
+ * <p>
+ * Heartbeat requests are handled without locking the session, so that they are
+ * not delayed by other requests to the same session. Heartbeat listeners are
+ * notified later, when the session is available.
  *
  * @author Vaadin Ltd
  * @since 1.0
  */
-public class HeartbeatHandler extends SynchronizedRequestHandler
-        implements SessionExpiredHandler {
-
-    @Override
-    protected boolean canHandleRequest(VaadinRequest request) {
-        return HandlerHelper.isRequestType(request, RequestType.HEARTBEAT);
-    }
+public class HeartbeatHandler
+        implements RequestHandler, SessionExpiredHandler {
 
     /**
      * Handles a heartbeat request for the given session. Reads the GET
@@ -57,14 +56,19 @@ public class HeartbeatHandler extends SynchronizedRequestHandler
      * {@link UIInternals#getLastHeartbeatTimestamp() heartbeat timestamp} to
      * the current time. Otherwise, writes a HTTP Not Found error to the
      * response.
+     * <p>
+     * The session is not locked while handling the request.
      */
     @Override
-    public boolean synchronizedHandleRequest(VaadinSession session,
-            VaadinRequest request, VaadinResponse response) throws IOException {
-        UI ui = session.getService().findUI(request);
+    public boolean handleRequest(VaadinSession session, VaadinRequest request,
+            VaadinResponse response) throws IOException {
+        if (!HandlerHelper.isRequestType(request, RequestType.HEARTBEAT)) {
+            return false;
+        }
+
+        UI ui = findUI(session, request);
         if (ui != null) {
-            ui.getInternals()
-                    .setLastHeartbeatTimestamp(System.currentTimeMillis());
+            ui.getInternals().receiveHeartbeat(System.currentTimeMillis());
             // Ensure that the browser does not cache heartbeat responses.
             // iOS 6 Safari requires this (#10370)
             response.setHeader("Cache-Control", "no-cache");
@@ -79,6 +83,19 @@ public class HeartbeatHandler extends SynchronizedRequestHandler
         return true;
     }
 
+    private static UI findUI(VaadinSession session, VaadinRequest request) {
+        String uiIdString = request
+                .getParameter(ApplicationConstants.UI_ID_PARAMETER);
+        if (uiIdString == null) {
+            return null;
+        }
+        try {
+            return session.getUIById(Integer.parseInt(uiIdString));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     /*
      * (non-Javadoc)
      *
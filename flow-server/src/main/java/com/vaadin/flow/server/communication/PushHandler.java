@@ -204,9 +204,17 @@ public class PushHandler {
             }
 
             UI ui = null;
-            session.lock();
+            // With UI locking, only the UI of the request is locked
+            boolean uiLocking = session.isUILockingEnabled();
+            if (!uiLocking) {
+                session.lock();
+            }
             try {
-                ui = service.findUI(vaadinRequest);
+                if (uiLocking) {
+                    ui = service.lockUI(session, vaadinRequest);
+                } else {
+                    ui = service.findUI(vaadinRequest);
+                }
                 assert UI.getCurrent() == ui;
 
                 if (ui == null) {
@@ -241,7 +249,11 @@ public class PushHandler {
                 callErrorHandler(session, e);
             } finally {
                 try {
-                    session.unlock();
+                    if (!uiLocking) {
+                        session.unlock();
+                    } else if (ui != null) {
+                        ui.getInternals().unlock();
+                    }
                 } catch (Exception e) {
                     getLogger().warn("Error while unlocking session", e);
                     // can't call ErrorHandler, we (hopefully) don't have a lock
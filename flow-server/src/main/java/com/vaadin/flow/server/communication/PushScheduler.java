@@ -0,0 +1,79 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.io.Serializable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.function.DeploymentConfiguration;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.VaadinSession;
+
+/**
+ * Runs the deferred pushes of UIs whose push rate is limited by
+ * {@link DeploymentConfiguration#getMinPushInterval()}, using the
+ * {@link VaadinService#getPushExecutor() push executor} of the service of the
+ * UI.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+final class PushScheduler implements Serializable {
+
+    private PushScheduler() {
+        // Only static methods
+    }
+
+    /**
+     * Runs the given task after the given delay. The task is not run if the UI
+     * has been detached or if the service has been destroyed.
+     *
+     * @param ui
+     *            the UI for which the task is run, not <code>null</code>
+     * @param task
+     *            the task to run, not <code>null</code>
+     * @param delayNanos
+     *            the delay in nanoseconds
+     */
+    static void schedule(UI ui, Runnable task, long delayNanos) {
+        VaadinSession session = ui.getSession();
+        VaadinService service = session == null ? null : session.getService();
+        ScheduledExecutorService executor = service == null ? null
+                : service.getPushExecutor();
+        if (executor == null) {
+            getLogger().debug(
+                    "No push executor available, ignoring a scheduled push task");
+            return;
+        }
+        try {
+            executor.schedule(task, delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            getLogger().debug(
+                    "Push executor rejected a scheduled push task, the service has been destroyed",
+                    e);
+        }
+    }
+
+    private static Logger getLogger() {
+        return LoggerFactory.getLogger(PushScheduler.class.getName());
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.security.MessageDigest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+
+import com.vaadin.flow.internal.MessageDigestUtil;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonException;
+import elemental.json.JsonObject;
+import elemental.json.JsonValue;
+
+/**
+ * Reads a client-to-server RPC message directly from the request body into
+ * JSON values, without first buffering the whole body into a string.
+ * <p>
+ * The hash of the beginning of the message, which is used for recognizing a
+ * message that the client sent again, is computed while reading. It is the same
+ * as {@link MessageDigestUtil#sha256(String)} of the first
+ * {@value #HASHED_LENGTH} characters of the message.
+ * <p>
+ * For internal use only. May be renamed or removed in a future release.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+class RpcMessageReader extends FilterReader {
+
+    static final int HASHED_LENGTH = 64 * 1024;
+
+    private static final int MESSAGE_START_LENGTH = 1000;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory()
+            .disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+
+    private final MessageDigest digest = MessageDigestUtil.getSha256();
+
+    private final StringBuilder messageStart = new StringBuilder();
+
+    private int hashedLength;
+
+    /**
+     * Creates a new message reader reading from the given reader.
+     *
+     * @param reader
+     *            the reader to read the message from, not <code>null</code>
+     */
+    RpcMessageReader(Reader reader) {
+        super(reader);
+    }
+
+    /**
+     * Reads the whole message.
+     *
+     * @return the message, or <code>null</code> if the message is empty
+     * @throws IOException
+     *             if reading fails
+     * @throws JsonException
+     *             if the message is not a valid JSON object
+     */
+    JsonObject readMessage() throws IOException {
+        JsonObject message = null;
+        try (JsonParser parser = JSON_FACTORY.createParser(this)) {
+            JsonToken token = parser.nextToken();
+            if (token != null) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new JsonException(
+                            "The RPC message is not a JSON object");
+                }
+                message = readObject(parser);
+            }
+        } catch (JsonProcessingException e) {
+            // Report like the elemental parser so that the client is refreshed
+            JsonException exception = new JsonException(
+                    "Invalid RPC message: " + e.getOriginalMessage());
+            exception.initCause(e);
+            throw exception;
+        }
+        // Include anything after the message in the hash, like before
+        char[] buffer = new char[256];
+        while (read(buffer, 0, buffer.length) != -1) {
+            // Only hashing
+        }
+        return message;
+    }
+
+    /**
+     * Gets the hash of the message read by {@link #readMessage()}.
+     *
+     * @return 32 bytes making up the hash
+     */
+    byte[] getMessageHash() {
+        return digest.digest();
+    }
+
+    /**
+     * Gets the beginning of the message read by {@link #readMessage()}, for
+     * error messages.
+     *
+     * @return the first characters of the message
+     */
+    String getMessageStart() {
+        return messageStart.toString();
+    }
+
+    @Override
+    public int read() throws IOException {
+        int read = super.read();
+        if (read != -1) {
+            update(new char[] { (char) read }, 0, 1);
+        }
+        return read;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        int read = super.read(cbuf, off, len);
+        if (read > 0) {
+            update(cbuf, off, read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        throw new IOException("Skipping is not supported");
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void mark(int readAheadLimit) throws IOException {
+        throw new IOException("Mark is not supported");
+    }
+
+    private void update(char[] chars, int offset, int length) {
+        int start = MESSAGE_START_LENGTH - messageStart.length();
+        if (start > 0) {
+            messageStart.append(chars, offset, Math.min(start, length));
+        }
+
+        int count = Math.min(HASHED_LENGTH - hashedLength, length);
+        if (count <= 0) {
+            return;
+        }
+        if (hashedLength == 0) {
+            // Byte order mark written by the UTF-16 charset
+            digest.update((byte) 0xFE);
+            digest.update((byte) 0xFF);
+        }
+        for (int i = offset; i < offset + count; i++) {
+            char c = chars[i];
+            digest.update((byte) (c >> 8));
+            digest.update((byte) c);
+        }
+        hashedLength += count;
+    }
+
+    private static JsonObject readObject(JsonParser parser) throws IOException {
+        JsonObject object = Json.createObject();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            object.put(name, readValue(parser, parser.nextToken()));
+        }
+        return object;
+    }
+
+    private static JsonArray readArray(JsonParser parser) throws IOException {
+        JsonArray array = Json.createArray();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            array.set(array.length(), readValue(parser, token));
+        }
+        return array;
+    }
+
+    private static JsonValue readValue(JsonParser parser, JsonToken token)
+            throws IOException {
+        if (token == null) {
+            throw new JsonException("Unexpected end of the RPC message");
+        }
+        switch (token) {
+        case START_OBJECT:
+            return readObject(parser);
+        case START_ARRAY:
+            return readArray(parser);
+        case VALUE_STRING:
+            return Json.create(parser.getText());
+        case VALUE_NUMBER_INT:
+        case VALUE_NUMBER_FLOAT:
+            return Json.create(parser.getDoubleValue());
+        case VALUE_TRUE:
+            return Json.create(true);
+        case VALUE_FALSE:
+            return Json.create(false);
+        case VALUE_NULL:
+            return Json.createNull();
+        default:
+            throw new JsonException(
+                    "Unexpected token in the RPC message: " + token);
+        }
+    }
+}
@@ -19,6 +19,7 @@ package com.vaadin.flow.server.communication;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Serializable;
+import java.io.StringReader;
 import java.security.GeneralSecurityException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -34,7 +35,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.vaadin.flow.component.UI;
-import com.vaadin.flow.internal.MessageDigestUtil;
 import com.vaadin.flow.server.ErrorEvent;
 import com.vaadin.flow.server.VaadinRequest;
 import com.vaadin.flow.server.VaadinService;
@@ -49,6 +49,7 @@ import com.vaadin.flow.shared.ApplicationConstants;
 import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.JsonArray;
+import elemental.json.JsonException;
 import elemental.json.JsonObject;
 import elemental.json.JsonValue;
 import elemental.json.impl.JsonUtil;
@@ -76,6 +77,7 @@ public class ServerRpcHandler implements Serializable {
         private final JsonObject json;
         private final boolean resynchronize;
         private final int clientToServerMessageId;
+        private final boolean compactChanges;
 
         /**
          * Creates an instance based on the given JSON received through the
@@ -87,7 +89,20 @@ public class ServerRpcHandler implements Serializable {
          *            the request through which the JSON was received
          */
         public RpcRequest(String jsonString, VaadinRequest request) {
-            json = JsonUtil.parse(jsonString);
+            this((JsonObject) JsonUtil.parse(jsonString), request);
+        }
+
+        /**
+         * Creates an instance based on the given already parsed JSON received
+         * through the given request.
+         *
+         * @param json
+         *            the JSON object containing the RPC invocations
+         * @param request
+         *            the request through which the JSON was received
+         */
+        public RpcRequest(JsonObject json, VaadinRequest request) {
+            this.json = json;
 
             JsonValue token = json.get(ApplicationConstants.CSRF_TOKEN);
             if (token == null) {
@@ -122,6 +137,8 @@ public class ServerRpcHandler implements Serializable {
                 getLogger().warn("Server message without client id received");
                 clientToServerMessageId = -1;
             }
+            compactChanges = json.hasKey(ApplicationConstants.COMPACT_CHANGES)
+                    && json.getBoolean(ApplicationConstants.COMPACT_CHANGES);
             invocations = json.getArray(ApplicationConstants.RPC_INVOCATIONS);
         }
 
@@ -172,6 +189,16 @@ public class ServerRpcHandler implements Serializable {
             return clientToServerMessageId;
         }
 
+        /**
+         * Checks whether the client is able to process state changes encoded
+         * in the compact format.
+         *
+         * @return true if the client supports compact changes, false otherwise
+         */
+        public boolean isCompactChangesSupported() {
+            return compactChanges;
+        }
+
         /**
          * Gets the entire request in JSON format, as it was received from the
          * client.
@@ -190,6 +217,9 @@ public class ServerRpcHandler implements Serializable {
 
     private static final int MAX_BUFFER_SIZE = 64 * 1024;
 
+    private final boolean getMessageOverridden = overridesGetMessage(
+            getClass());
+
     /**
      * Exception thrown then the security key sent by the client does not match
      * the expected one.
@@ -234,6 +264,8 @@ public class ServerRpcHandler implements Serializable {
      *            The request through which the RPC was received
      * @throws IOException
      *             If reading the message fails.
+     * @throws JsonException
+     *             If the message is not valid JSON.
      * @throws InvalidUIDLSecurityKeyException
      *             If the received security key does not match the one stored in
      *             the session.
@@ -242,9 +274,18 @@ public class ServerRpcHandler implements Serializable {
             throws IOException, InvalidUIDLSecurityKeyException {
         ui.getSession().setLastRequestTimestamp(System.currentTimeMillis());
 
-        String changeMessage = getMessage(reader);
+        Reader messageSource = reader;
+        if (getMessageOverridden) {
+            String message = getMessage(reader);
+            if (message == null) {
+                return;
+            }
+            messageSource = new StringReader(message);
+        }
+        RpcMessageReader messageReader = new RpcMessageReader(messageSource);
+        JsonObject changeMessage = messageReader.readMessage();
 
-        if (changeMessage == null || changeMessage.equals("")) {
+        if (changeMessage == null) {
             // The client sometimes sends empty messages, this is probably a bug
             return;
         }
@@ -257,11 +298,11 @@ public class ServerRpcHandler implements Serializable {
             throw new InvalidUIDLSecurityKeyException();
         }
 
-        String hashMessage = changeMessage;
-        if (hashMessage.length() > 64 * 1024) {
-            hashMessage = changeMessage.substring(0, 64 * 1024);
+        byte[] messageHash = messageReader.getMessageHash();
+
+        if (rpcRequest.isCompactChangesSupported()) {
+            ui.getInternals().setCompactChangesSupported(true);
         }
-        byte[] messageHash = MessageDigestUtil.sha256(hashMessage);
 
         int expectedId = ui.getInternals().getLastProcessedClientToServerId()
                 + 1;
@@ -300,10 +341,7 @@ public class ServerRpcHandler implements Serializable {
                  * implementing the resync that would thus hide most symptoms of
                  * the actual root cause bugs.
                  */
-                String messageStart = changeMessage;
-                if (messageStart.length() > 1000) {
-                    messageStart = messageStart.substring(0, 1000);
-                }
+                String messageStart = messageReader.getMessageStart();
                 throw new UnsupportedOperationException(
                         "Unexpected message id from the client."
                                 + " Expected sync id: " + expectedId + ", got "
@@ -318,6 +356,14 @@ public class ServerRpcHandler implements Serializable {
         }
 
         if (rpcRequest.isResynchronize()) {
+            if (ui.getInternals().replayMessagesAfter(rpcRequest.getSyncId())) {
+                // The response will contain the messages the client missed
+                getLogger().debug(
+                        "Sending again the messages after sync id {} by client's request",
+                        rpcRequest.getSyncId());
+                return;
+            }
+
             getLogger().warn("Resynchronizing UI by client's request. Under "
                     + "normal operations this should not happen and may "
                     + "indicate a bug in Vaadin platform. If you see this "
@@ -415,6 +461,24 @@ public class ServerRpcHandler implements Serializable {
         }
     }
 
+    /**
+     * Reads the whole message into a string.
+     * <p>
+     * The message is by default parsed directly from the reader in
+     * {@link #handleRpc} without reading it into a string first. This method is
+     * only called if a subclass overrides it, in which case the returned string
+     * is parsed instead.
+     *
+     * @param reader
+     *            the reader to read the message from
+     * @return the message
+     * @throws IOException
+     *             if reading fails
+     * @deprecated override {@link #handleRpc} to process the message in
+     *             another way, reading the message into a string is slower
+     *             and allocates more memory
+     */
+    @Deprecated
     protected String getMessage(Reader reader) throws IOException {
 
         StringBuilder sb = new StringBuilder(MAX_BUFFER_SIZE);
@@ -431,6 +495,19 @@ public class ServerRpcHandler implements Serializable {
         return sb.toString();
     }
 
+    private static boolean overridesGetMessage(Class<?> type) {
+        for (Class<?> current = type; current != ServerRpcHandler.class;
+                current = current.getSuperclass()) {
+            try {
+                current.getDeclaredMethod("getMessage", Reader.class);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // Not overridden in this class, check the superclass
+            }
+        }
+        return false;
+    }
+
     private static Logger getLogger() {
         return LoggerFactory.getLogger(ServerRpcHandler.class.getName());
     }
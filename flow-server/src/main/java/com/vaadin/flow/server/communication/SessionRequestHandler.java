@@ -16,8 +16,6 @@
 package com.vaadin.flow.server.communication;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 
 import com.vaadin.flow.server.RequestHandler;
 import com.vaadin.flow.server.VaadinRequest;
@@ -50,15 +48,10 @@ public class SessionRequestHandler implements RequestHandler {
     @Override
     public boolean handleRequest(VaadinSession session, VaadinRequest request,
             VaadinResponse response) throws IOException {
-        // Use a copy to avoid ConcurrentModificationException
-        session.lock();
-        List<RequestHandler> requestHandlers;
-        try {
-            requestHandlers = new ArrayList<>(session.getRequestHandlers());
-        } finally {
-            session.unlock();
-        }
-        for (RequestHandler handler : requestHandlers) {
+        // The handlers are kept in a copy-on-write list, so iterating does
+        // not need the session lock. This keeps requests such as heartbeats
+        // from waiting for a request that holds the lock.
+        for (RequestHandler handler : session.getRequestHandlers()) {
             if (handler.handleRequest(session, request, response)) {
                 return true;
             }
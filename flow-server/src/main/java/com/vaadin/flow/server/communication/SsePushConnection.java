@@ -0,0 +1,384 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import com.vaadin.flow.function.DeploymentConfiguration;
+import com.vaadin.flow.shared.ui.Transport;
+
+/**
+ * A {@link PushConnection} implementation sending messages to the client as
+ * Server-Sent Events, using Servlet 3.1 asynchronous non-blocking I/O instead
+ * of Atmosphere. Messages from the client are sent as regular XHR requests.
+ * <p>
+ * An open connection only holds its {@link AsyncContext} and the messages not
+ * yet written to the client, and no thread is used while it is idle.
+ * <p>
+ * This connection is used when the push transport is {@link Transport#SSE}.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+public class SsePushConnection implements PushConnection {
+
+    /**
+     * The content type of a Server-Sent Events stream.
+     */
+    public static final String CONTENT_TYPE = "text/event-stream";
+
+    // Keeps proxies from closing an idle connection
+    private static final long KEEPALIVE_INTERVAL = TimeUnit.SECONDS
+            .toNanos(30);
+
+    private static final byte[] KEEPALIVE = ":\n\n"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] RETRY = "retry: 5000\n\n"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final UI ui;
+
+    // Guarded by this, since writes continue in container threads
+    private transient AsyncContext asyncContext;
+    private transient ServletOutputStream output;
+    private transient Deque<byte[]> pendingMessages;
+    private transient long pendingMessageBytes;
+    private transient boolean flushNeeded;
+    private transient boolean drainCheckScheduled;
+
+    // Guarded by the session lock
+    private transient boolean pushPending;
+
+    /**
+     * Creates an instance connected to the given UI. The push transport of
+     * the UI should be {@link Transport#SSE} for the client to open a
+     * connection, which is the case when the connection is created by
+     * {@link com.vaadin.flow.component.PushConfiguration}.
+     *
+     * @param ui
+     *            the UI to which this connection belongs
+     */
+    public SsePushConnection(UI ui) {
+        this.ui = ui;
+    }
+
+    /**
+     * Pushes pending state changes and client RPC calls to the client. If
+     * {@code isConnected()} is false, defers the push until a connection is
+     * established.
+     * <p>
+     * If the client has not yet received the previously sent messages up to
+     * the configured limits, the push is held back. The changes stay in the
+     * state tree and are sent in one message once the client has caught up.
+     *
+     * @see DeploymentConfiguration#getMaxPendingPushMessages()
+     * @see DeploymentConfiguration#getMaxPendingPushBytes()
+     */
+    @Override
+    public void push() {
+        if (!isConnected() || isBacklogFull()) {
+            pushPending = true;
+            return;
+        }
+        pushPending = false;
+
+        String message;
+        try {
+            UI pushUI = getUI();
+            if (pushUI.getSession().getConfiguration().isStreamingUidl()) {
+                StringWriter writer = new StringWriter();
+                writer.write("for(;;);[");
+                new UidlWriter().writeUidl(pushUI, true, false, writer);
+                writer.write(']');
+                message = writer.toString();
+            } else {
+                message = "for(;;);["
+                        + new UidlWriter().createUidl(pushUI, true).toJson()
+                        + "]";
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Push failed", e);
+        }
+        sendMessage(message);
+    }
+
+    /**
+     * Sends the given message to the client as one event. Does nothing if
+     * there is no connection.
+     *
+     * @param message
+     *            the message to send
+     */
+    protected void sendMessage(String message) {
+        StringBuilder event = new StringBuilder(message.length() + 16);
+        // An event can't contain line breaks, but it can have many data lines
+        for (String line : message.split("\n", -1)) {
+            event.append("data: ").append(line).append('\n');
+        }
+        event.append('\n');
+        write(event.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public synchronized boolean isConnected() {
+        return asyncContext != null;
+    }
+
+    /**
+     * Associates this connection with the given asynchronous request, which
+     * has been opened by the client for receiving events. If already
+     * connected, calls {@link #disconnect()} first. If there is a deferred
+     * push, carries it out via the new connection.
+     * <p>
+     * Must be called with the session locked.
+     *
+     * @param context
+     *            the asynchronous context of the request, not
+     *            <code>null</code>
+     * @throws IOException
+     *             if the response can't be written to
+     */
+    public void connect(AsyncContext context) throws IOException {
+        assert context != null;
+
+        if (isConnected()) {
+            disconnect();
+        }
+
+        ServletOutputStream stream = context.getResponse().getOutputStream();
+        // The listeners ignore events until the context has been published
+        context.addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                connectionLost(context);
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                connectionLost(context);
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                connectionLost(context);
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+                // Not restarted
+            }
+        });
+        stream.setWriteListener(new WriteListener() {
+            @Override
+            public void onWritePossible() {
+                writePending(context);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                getLogger().debug("Error writing to push connection", t);
+                context.complete();
+                connectionLost(context);
+            }
+        });
+        synchronized (this) {
+            asyncContext = context;
+            output = stream;
+            pendingMessages = new ArrayDeque<>();
+            // Makes the client notice the connection has been opened
+            pendingMessages.add(RETRY);
+            pendingMessageBytes = RETRY.length;
+        }
+        writePending(context);
+        scheduleKeepalive(context);
+
+        if (pushPending && getUI().getInternals().isDirty()) {
+            push();
+        }
+    }
+
+    @Override
+    public void disconnect() {
+        AsyncContext context;
+        synchronized (this) {
+            context = asyncContext;
+        }
+        if (context == null) {
+            getLogger().debug(
+                    "SsePushConnection.disconnect() called when not connected");
+            return;
+        }
+        try {
+            context.complete();
+        } catch (IllegalStateException e) {
+            getLogger().debug("Push connection was already closed", e);
+        }
+        connectionLost(context);
+    }
+
+    /**
+     * Gets the number of messages that have been sent using this connection
+     * but not yet written to the client.
+     * <p>
+     * This method can be called from any thread.
+     *
+     * @return the number of pending messages
+     */
+    public synchronized int getPendingMessageCount() {
+        return pendingMessages == null ? 0 : pendingMessages.size();
+    }
+
+    /**
+     * Gets the total size of the messages that have been sent using this
+     * connection but not yet written to the client.
+     * <p>
+     * This method can be called from any thread.
+     *
+     * @return the size of the pending messages in bytes
+     */
+    public synchronized long getPendingMessageBytes() {
+        return pendingMessageBytes;
+    }
+
+    /**
+     * Gets the UI this connection belongs to.
+     *
+     * @return the UI associated with this connection.
+     */
+    protected UI getUI() {
+        return ui;
+    }
+
+    private boolean isBacklogFull() {
+        DeploymentConfiguration configuration = getUI().getSession()
+                .getConfiguration();
+        int maxPendingMessages = configuration.getMaxPendingPushMessages();
+        long maxPendingBytes = configuration.getMaxPendingPushBytes();
+        synchronized (this) {
+            boolean full = (maxPendingMessages > 0
+                    && getPendingMessageCount() >= maxPendingMessages)
+                    || (maxPendingBytes > 0
+                            && pendingMessageBytes >= maxPendingBytes);
+            if (full) {
+                // Push again once the backlog has been written
+                drainCheckScheduled = true;
+            }
+            return full;
+        }
+    }
+
+    private synchronized void write(byte[] bytes) {
+        if (asyncContext == null) {
+            return;
+        }
+        pendingMessages.add(bytes);
+        pendingMessageBytes += bytes.length;
+        writePending(asyncContext);
+    }
+
+    private void writePending(AsyncContext context) {
+        synchronized (this) {
+            if (asyncContext != context) {
+                // The connection has been lost or replaced
+                return;
+            }
+            try {
+                while (output.isReady()) {
+                    byte[] bytes = pendingMessages.poll();
+                    if (bytes != null) {
+                        pendingMessageBytes -= bytes.length;
+                        output.write(bytes);
+                        flushNeeded = true;
+                    } else if (flushNeeded) {
+                        flushNeeded = false;
+                        output.flush();
+                    } else {
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                getLogger().debug("Error writing to push connection", e);
+                context.complete();
+                return;
+            }
+            if (!pendingMessages.isEmpty() || !drainCheckScheduled) {
+                return;
+            }
+            drainCheckScheduled = false;
+        }
+        // Not holding the monitor while a push may run in this thread
+        pushHeld();
+    }
+
+    private void pushHeld() {
+        try {
+            getUI().access(() -> {
+                if (pushPending && getUI().getInternals().isDirty()) {
+                    push();
+                }
+            });
+        } catch (UIDetachedException e) {
+            // Nothing to push to
+        }
+    }
+
+    private void scheduleKeepalive(AsyncContext context) {
+        PushScheduler.schedule(getUI(), () -> {
+            synchronized (this) {
+                if (asyncContext != context) {
+                    return;
+                }
+                if (pendingMessages.isEmpty()) {
+                    write(KEEPALIVE);
+                }
+            }
+            scheduleKeepalive(context);
+        }, KEEPALIVE_INTERVAL);
+    }
+
+    private synchronized void connectionLost(AsyncContext context) {
+        if (asyncContext != context) {
+            return;
+        }
+        asyncContext = null;
+        output = null;
+        pendingMessages = null;
+        pendingMessageBytes = 0;
+        flushNeeded = false;
+        drainCheckScheduled = false;
+    }
+
+    private static Logger getLogger() {
+        return LoggerFactory.getLogger(SsePushConnection.class.getName());
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import javax.servlet.AsyncContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.HandlerHelper;
+import com.vaadin.flow.server.HandlerHelper.RequestType;
+import com.vaadin.flow.server.SessionExpiredHandler;
+import com.vaadin.flow.server.SynchronizedRequestHandler;
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.VaadinResponse;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.VaadinServletRequest;
+import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.shared.ApplicationConstants;
+
+/**
+ * Handles requests opening a Server-Sent Events push connection for a UI using
+ * an {@link SsePushConnection}. The request is left open as an asynchronous
+ * request for sending messages to the client.
+ * <p>
+ * Push requests for UIs using other push connections are left for
+ * {@link PushRequestHandler}.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+public class SsePushRequestHandler extends SynchronizedRequestHandler
+        implements SessionExpiredHandler {
+
+    @Override
+    protected boolean canHandleRequest(VaadinRequest request) {
+        String accept = request.getHeader("Accept");
+        return request instanceof VaadinServletRequest
+                && HandlerHelper.isRequestType(request, RequestType.PUSH)
+                && accept != null
+                && accept.contains(SsePushConnection.CONTENT_TYPE);
+    }
+
+    @Override
+    public boolean handleRequest(VaadinSession session, VaadinRequest request,
+            VaadinResponse response) throws IOException {
+        if (!session.isUILockingEnabled()) {
+            return super.handleRequest(session, request, response);
+        }
+        if (!canHandleRequest(request)) {
+            return false;
+        }
+
+        // Only lock the UI so that other UIs of the session can be handled
+        // at the same time
+        UI ui = session.getService().lockUI(session, request);
+        if (ui == null) {
+            sendMessage(response, VaadinService.createUINotFoundJSON(true));
+            return true;
+        }
+        try {
+            return handlePushRequest(session, ui, request, response);
+        } finally {
+            ui.getInternals().unlock();
+        }
+    }
+
+    @Override
+    public boolean synchronizedHandleRequest(VaadinSession session,
+            VaadinRequest request, VaadinResponse response) throws IOException {
+        UI ui = session.getService().findUI(request);
+        if (ui == null) {
+            sendMessage(response, VaadinService.createUINotFoundJSON(true));
+            return true;
+        }
+        return handlePushRequest(session, ui, request, response);
+    }
+
+    @Override
+    public boolean handleSessionExpired(VaadinRequest request,
+            VaadinResponse response) throws IOException {
+        if (!canHandleRequest(request)) {
+            return false;
+        }
+        sendMessage(response, VaadinService.createSessionExpiredJSON(true));
+        return true;
+    }
+
+    private boolean handlePushRequest(VaadinSession session, UI ui,
+            VaadinRequest request, VaadinResponse response) throws IOException {
+        PushConnection pushConnection = ui.getInternals().getPushConnection();
+        if (!(pushConnection instanceof SsePushConnection)) {
+            return false;
+        }
+
+        String pushId = request
+                .getParameter(ApplicationConstants.PUSH_ID_PARAMETER);
+        if (pushId == null || !pushId.equals(session.getPushId())) {
+            getLogger().warn(
+                    "Invalid identifier in new connection received from {}",
+                    request.getRemoteHost());
+            // Refresh on client side
+            sendMessage(response, VaadinService
+                    .createCriticalNotificationJSON(null, null, null, null));
+            return true;
+        }
+
+        getLogger().debug("New Server-Sent Events push connection for UI {}",
+                ui.getUIId());
+        setEventStreamHeaders(response);
+        AsyncContext context = ((VaadinServletRequest) request).startAsync();
+        // Kept open until the client or the connection goes away
+        context.setTimeout(0);
+        ((SsePushConnection) pushConnection).connect(context);
+        return true;
+    }
+
+    /**
+     * Sends a single message as an event and ends the response.
+     */
+    private static void sendMessage(VaadinResponse response, String message)
+            throws IOException {
+        setEventStreamHeaders(response);
+        try (OutputStream stream = response.getOutputStream()) {
+            stream.write(("data: " + message + "\n\n")
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void setEventStreamHeaders(VaadinResponse response) {
+        response.setContentType(
+                SsePushConnection.CONTENT_TYPE + "; charset=UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+    }
+
+    private static Logger getLogger() {
+        return LoggerFactory.getLogger(SsePushRequestHandler.class.getName());
+    }
+}
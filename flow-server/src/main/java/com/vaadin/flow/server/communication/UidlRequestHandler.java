@@ -16,8 +16,10 @@
 
 package com.vaadin.flow.server.communication;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.regex.Matcher;
@@ -28,6 +30,9 @@ import org.slf4j.LoggerFactory;
 
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.internal.JavaScriptBootstrapUI;
+import com.vaadin.flow.function.SerializableConsumer;
+import com.vaadin.flow.internal.GzipUtil;
+import com.vaadin.flow.internal.ResponseWriter;
 import com.vaadin.flow.server.HandlerHelper;
 import com.vaadin.flow.server.HandlerHelper.RequestType;
 import com.vaadin.flow.server.SessionExpiredHandler;
@@ -96,6 +101,31 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
         return new ServerRpcHandler();
     }
 
+    @Override
+    public boolean handleRequest(VaadinSession session, VaadinRequest request,
+            VaadinResponse response) throws IOException {
+        if (!session.isUILockingEnabled()) {
+            return super.handleRequest(session, request, response);
+        }
+        if (!canHandleRequest(request)) {
+            return false;
+        }
+
+        // Only lock the UI so that other UIs of the session can be handled
+        // at the same time
+        UI uI = session.getService().lockUI(session, request);
+        if (uI == null) {
+            commitJsonResponse(response,
+                    VaadinService.createUINotFoundJSON(false));
+            return true;
+        }
+        try {
+            return handleUidlRequest(session, uI, request, response);
+        } finally {
+            uI.getInternals().unlock();
+        }
+    }
+
     @Override
     public boolean synchronizedHandleRequest(VaadinSession session,
             VaadinRequest request, VaadinResponse response) throws IOException {
@@ -108,11 +138,20 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
             return true;
         }
 
-        StringWriter stringWriter = new StringWriter();
+        return handleUidlRequest(session, uI, request, response);
+    }
+
+    private boolean handleUidlRequest(VaadinSession session, UI uI,
+            VaadinRequest request, VaadinResponse response) throws IOException {
+        boolean streaming = session.getConfiguration().isStreamingUidl();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        Writer stringWriter = streaming
+                ? new OutputStreamWriter(buffer, UTF_8)
+                : new StringWriter();
 
         try {
             getRpcHandler(session).handleRpc(uI, request.getReader(), request);
-            writeUidl(uI, stringWriter, false);
+            writeUidl(uI, stringWriter, false, streaming);
         } catch (JsonException e) {
             getLogger().error("Error writing JSON to response", e);
             // Refresh on client side
@@ -126,15 +165,65 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
             return true;
         } catch (ResynchronizationRequiredException e) { // NOSONAR
             // Resync on the client side
-            writeUidl(uI, stringWriter, true);
+            writeUidl(uI, stringWriter, true, streaming);
         } finally {
             stringWriter.close();
         }
 
-        commitJsonResponse(response, stringWriter.toString());
+        int compressionThreshold = session.getConfiguration()
+                .getUidlCompressionThreshold();
+        if (streaming) {
+            commitJsonResponse(request, response, buffer,
+                    compressionThreshold);
+        } else if (compressionThreshold > 0) {
+            buffer.write(stringWriter.toString().getBytes(UTF_8));
+            commitJsonResponse(request, response, buffer,
+                    compressionThreshold);
+        } else {
+            commitJsonResponse(response, stringWriter.toString());
+        }
         return true;
     }
 
+    private void writeUidl(UI ui, Writer writer, boolean resync,
+            boolean streaming) throws IOException {
+        if (streaming) {
+            streamUidl(ui, writer, resync);
+        } else {
+            writeUidl(ui, writer, resync);
+        }
+    }
+
+    /**
+     * Writes the UIDL response for the given UI directly to the writer without
+     * building an intermediate JSON tree or string.
+     *
+     * @param ui
+     *            the UI whose changes to write
+     * @param writer
+     *            the writer to write to
+     * @param resync
+     *            true iff the client should be asked to resynchronize
+     * @throws IOException
+     *             if writing fails
+     */
+    void streamUidl(UI ui, Writer writer, boolean resync) throws IOException {
+        // The MPR hash fragment handling only needs the invocations
+        SerializableConsumer<JsonArray> executeFilter = null;
+        if (ui instanceof JavaScriptBootstrapUI) {
+            executeFilter = this::removeOffendingMprHashFragment;
+        }
+        // some dirt to prevent cross site scripting
+        writer.write("for(;;);[");
+        createUidlWriter().writeUidl(ui, false, resync, writer, executeFilter);
+        writer.write(']');
+    }
+
+    // non-private for testing purposes
+    UidlWriter createUidlWriter() {
+        return new UidlWriter();
+    }
+
     private void writeRefresh(VaadinResponse response) throws IOException {
         String json = VaadinService.createCriticalNotificationJSON(null, null,
                 null, null);
@@ -155,7 +244,7 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
     }
 
     JsonObject createUidl(UI ui, boolean resync) {
-        return new UidlWriter().createUidl(ui, false, resync);
+        return createUidlWriter().createUidl(ui, false, resync);
     }
 
     private static final Logger getLogger() {
@@ -184,7 +273,7 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
     }
 
     private ServerRpcHandler getRpcHandler(VaadinSession session) {
-        session.checkHasLock();
+        session.checkHasUIOrSessionLock();
         if (rpcHandler == null) {
             rpcHandler = createRpcHandler();
         }
@@ -220,12 +309,78 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
         outputStream.flush();
     }
 
-    private void removeOffendingMprHashFragment(JsonObject uidl) {
-        if (!uidl.hasKey(EXECUTE)) {
+    /**
+     * Commit the JSON response which has already been encoded as UTF-8 into
+     * the given buffer. The buffer is written to the output stream without
+     * copying it.
+     *
+     * @param response
+     *            The response to write to
+     * @param json
+     *            The buffer containing the UTF-8 encoded JSON to write
+     * @throws IOException
+     *             If there was an exception while writing to the output
+     */
+    public static void commitJsonResponse(VaadinResponse response,
+            ByteArrayOutputStream json) throws IOException {
+        response.setContentType(JsonConstants.JSON_CONTENT_TYPE);
+
+        // Ensure that the browser does not cache UIDL responses.
+        // iOS 6 Safari requires this (#9732)
+        response.setHeader("Cache-Control", "no-cache");
+        response.setContentLength(json.size());
+
+        OutputStream outputStream = response.getOutputStream();
+        json.writeTo(outputStream);
+        // NOTE GateIn requires the buffers to be flushed to work
+        outputStream.flush();
+    }
+
+    /**
+     * Commits the JSON response, gzip compressing it if it is at least the
+     * given size and the browser accepts gzip.
+     *
+     * @param request
+     *            the request to respond to
+     * @param response
+     *            the response to write to
+     * @param json
+     *            the buffer containing the UTF-8 encoded JSON to write
+     * @param compressionThreshold
+     *            the minimum size in bytes of a response to compress, or 0 to
+     *            not compress
+     * @throws IOException
+     *             if there was an exception while writing to the output
+     */
+    static void commitJsonResponse(VaadinRequest request,
+            VaadinResponse response, ByteArrayOutputStream json,
+            int compressionThreshold) throws IOException {
+        if (compressionThreshold <= 0) {
+            commitJsonResponse(response, json);
             return;
         }
 
-        JsonArray exec = uidl.getArray(EXECUTE);
+        // Caches must not serve a compressed response to other browsers
+        response.setHeader("Vary", "Accept-Encoding");
+        if (json.size() >= compressionThreshold && ResponseWriter
+                .acceptsEncoding(request.getHeader("Accept-Encoding"), "gzip")) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(
+                    json.size() / 4);
+            GzipUtil.gzip(json, compressed);
+            response.setHeader("Content-Encoding", "gzip");
+            commitJsonResponse(response, compressed);
+        } else {
+            commitJsonResponse(response, json);
+        }
+    }
+
+    private void removeOffendingMprHashFragment(JsonObject uidl) {
+        if (uidl.hasKey(EXECUTE)) {
+            removeOffendingMprHashFragment(uidl.getArray(EXECUTE));
+        }
+    }
+
+    private void removeOffendingMprHashFragment(JsonArray exec) {
         String location = null;
         int idx = -1;
         for (int i = 0; i < exec.length(); i++) {
@@ -19,6 +19,8 @@ package com.vaadin.flow.server.communication;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
@@ -40,13 +42,16 @@ import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.Composite;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.internal.DependencyList;
+import com.vaadin.flow.component.internal.JavaScriptBootstrapUI;
 import com.vaadin.flow.component.internal.PendingJavaScriptInvocation;
 import com.vaadin.flow.component.internal.UIInternals;
 import com.vaadin.flow.function.SerializableConsumer;
+import com.vaadin.flow.internal.ConstantPoolKey;
 import com.vaadin.flow.internal.JsonCodec;
 import com.vaadin.flow.internal.JsonUtils;
 import com.vaadin.flow.internal.StateNode;
 import com.vaadin.flow.internal.StateTree;
+import com.vaadin.flow.internal.change.ChangeKeyTable;
 import com.vaadin.flow.internal.change.NodeAttachChange;
 import com.vaadin.flow.internal.change.NodeChange;
 import com.vaadin.flow.internal.nodefeature.ComponentMapping;
@@ -66,6 +71,7 @@ import elemental.json.Json;
 import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 import elemental.json.JsonValue;
+import elemental.json.impl.JsonUtil;
 
 /**
  * Serializes pending server-side changes to UI state to JSON. This includes
@@ -140,7 +146,7 @@ public class UidlWriter implements Serializable {
 
         // Purge pending access calls as they might produce additional changes
         // to write out
-        service.runPendingAccessTasks(session);
+        runPendingAccessTasks(ui);
 
         // Paints components
         getLogger().debug("* Creating response to client");
@@ -168,34 +174,71 @@ public class UidlWriter implements Serializable {
         }
 
         JsonArray stateChanges = Json.createArray();
+        ChangeKeyTable keyTable = isCompactChanges(ui) ? new ChangeKeyTable()
+                : null;
 
-        encodeChanges(ui, stateChanges);
+        encodeChanges(ui, keyTable, change -> stateChanges
+                .set(stateChanges.length(), change));
 
         populateDependencies(response, uiInternals.getDependencyList(),
                 new ResolveContext(service, session.getBrowser()));
 
+        // Encoded before the constants since it may add expression constants
+        List<PendingJavaScriptInvocation> executeJavaScriptList = uiInternals
+                .dumpPendingJavaScriptInvocations();
+        JsonArray executeJavaScript = encodeExecuteJavaScriptList(
+                executeJavaScriptList, uiInternals);
+
         if (uiInternals.getConstantPool().hasNewConstants()) {
             response.put("constants",
                     uiInternals.getConstantPool().dumpConstants());
         }
         if (stateChanges.length() != 0) {
-            response.put("changes", stateChanges);
+            if (keyTable == null) {
+                response.put("changes", stateChanges);
+            } else {
+                response.put(JsonConstants.UIDL_KEY_COMPACT_CHANGES,
+                        stateChanges);
+            }
+        }
+        if (keyTable != null && !keyTable.isEmpty()) {
+            response.put(JsonConstants.UIDL_KEY_COMPACT_CHANGE_KEYS,
+                    keyTable.toJson());
         }
 
-        List<PendingJavaScriptInvocation> executeJavaScriptList = uiInternals
-                .dumpPendingJavaScriptInvocations();
         if (!executeJavaScriptList.isEmpty()) {
-            response.put(JsonConstants.UIDL_KEY_EXECUTE,
-                    encodeExecuteJavaScriptList(executeJavaScriptList));
+            response.put(JsonConstants.UIDL_KEY_EXECUTE, executeJavaScript);
         }
         if (ui.getSession().getService().getDeploymentConfiguration()
                 .isRequestTiming()) {
             response.put("timings", createPerformanceData(ui));
         }
+        if (uiInternals.isSentMessageLogEnabled()) {
+            uiInternals.addSentMessage(syncId, response.toJson());
+        }
+        List<String> replay = uiInternals.dumpMessagesToReplay();
+        if (!replay.isEmpty()) {
+            response.put(ApplicationConstants.REPLAYED_MESSAGES,
+                    encodeReplayedMessages(replay));
+        }
         uiInternals.incrementServerId();
         return response;
     }
 
+    private static JsonArray encodeReplayedMessages(List<String> messages) {
+        JsonArray array = Json.createArray();
+        for (String message : messages) {
+            JsonObject json = Json.parse(message);
+            // Replayed responses must not end the current request
+            JsonObject meta = json.hasKey("meta") ? json.getObject("meta")
+                    : Json.createObject();
+            meta.put(JsonConstants.META_ASYNC, true);
+            json.put("meta", meta);
+            array.set(array.length(), json);
+        }
+        return array;
+    }
+
     /**
      * Creates a JSON object containing all pending changes to the given UI.
      *
@@ -210,6 +253,159 @@ public class UidlWriter implements Serializable {
         return createUidl(ui, async, false);
     }
 
+    /**
+     * Writes all pending changes to the given UI as a JSON object directly to
+     * the given writer.
+     * <p>
+     * The produced JSON contains the same data as
+     * {@link #createUidl(UI, boolean, boolean)}, but the encoded state changes
+     * are written one by one as they are collected instead of first being
+     * gathered into a single JSON tree and then serialized as one string. The
+     * order of the top level keys may differ from the one produced by
+     * {@link #createUidl(UI, boolean, boolean)}.
+     * <p>
+     * If the UI keeps sent messages for resynchronization, the message is
+     * created using {@link #createUidl(UI, boolean, boolean)} since it has to
+     * be stored as a string anyway.
+     *
+     * @param ui
+     *            The {@link UI} whose changes to write
+     * @param async
+     *            True if this message is sent by the server asynchronously,
+     *            false if it is a response to a client message
+     * @param resync
+     *            True iff the client should be asked to resynchronize
+     * @param writer
+     *            the writer to write the UIDL response to, not {@code null}
+     * @throws IOException
+     *             if writing to the writer fails
+     */
+    public void writeUidl(UI ui, boolean async, boolean resync, Writer writer)
+            throws IOException {
+        writeUidl(ui, async, resync, writer, null);
+    }
+
+    /**
+     * Writes all pending changes to the given UI as a JSON object directly to
+     * the given writer, letting the given callback modify the encoded
+     * JavaScript invocations before they are written.
+     *
+     * @param ui
+     *            The {@link UI} whose changes to write
+     * @param async
+     *            True if this message is sent by the server asynchronously,
+     *            false if it is a response to a client message
+     * @param resync
+     *            True iff the client should be asked to resynchronize
+     * @param writer
+     *            the writer to write the UIDL response to, not {@code null}
+     * @param executeFilter
+     *            callback receiving the encoded JavaScript invocations, or
+     *            {@code null} to write them as is
+     * @throws IOException
+     *             if writing to the writer fails
+     */
+    void writeUidl(UI ui, boolean async, boolean resync, Writer writer,
+            SerializableConsumer<JsonArray> executeFilter) throws IOException {
+        UIInternals uiInternals = ui.getInternals();
+        if (uiInternals.isSentMessageLogEnabled()) {
+            JsonObject response = createUidl(ui, async, resync);
+            if (executeFilter != null
+                    && response.hasKey(JsonConstants.UIDL_KEY_EXECUTE)) {
+                executeFilter.accept(
+                        response.getArray(JsonConstants.UIDL_KEY_EXECUTE));
+            }
+            writer.write(response.toJson());
+            return;
+        }
+
+        VaadinSession session = ui.getSession();
+        VaadinService service = session.getService();
+
+        // Purge pending access calls as they might produce additional changes
+        // to write out
+        runPendingAccessTasks(ui);
+
+        getLogger().debug("* Streaming response to client");
+
+        int syncId = service.getDeploymentConfiguration().isSyncIdCheckEnabled()
+                ? uiInternals.getServerSyncId()
+                : -1;
+
+        JsonObjectStream response = new JsonObjectStream(writer);
+        response.put(ApplicationConstants.SERVER_SYNC_ID, Json.create(syncId));
+        if (resync) {
+            response.put(ApplicationConstants.RESYNCHRONIZE_ID,
+                    Json.create(true));
+        }
+        response.put(ApplicationConstants.CLIENT_TO_SERVER_ID, Json.create(
+                uiInternals.getLastProcessedClientToServerId() + 1));
+
+        SystemMessages messages = service.getSystemMessages(ui.getLocale(),
+                null);
+        JsonObject meta = new MetadataWriter().createMetadata(ui, false, async,
+                messages);
+        if (meta.keys().length > 0) {
+            response.put("meta", meta);
+        }
+
+        ChangeKeyTable keyTable = isCompactChanges(ui) ? new ChangeKeyTable()
+                : null;
+        try {
+            encodeChanges(ui, keyTable,
+                    response.arrayWriter(keyTable == null ? "changes"
+                            : JsonConstants.UIDL_KEY_COMPACT_CHANGES));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        response.closeArray();
+        if (keyTable != null && !keyTable.isEmpty()) {
+            response.put(JsonConstants.UIDL_KEY_COMPACT_CHANGE_KEYS,
+                    keyTable.toJson());
+        }
+
+        JsonObject dependencies = Json.createObject();
+        populateDependencies(dependencies, uiInternals.getDependencyList(),
+                new ResolveContext(service, session.getBrowser()));
+        for (String loadMode : dependencies.keys()) {
+            response.put(loadMode, dependencies.get(loadMode));
+        }
+
+        // Encoded before the constants since it may add expression constants
+        List<PendingJavaScriptInvocation> executeJavaScriptList = uiInternals
+                .dumpPendingJavaScriptInvocations();
+        JsonArray executeJavaScript = encodeExecuteJavaScriptList(
+                executeJavaScriptList, uiInternals);
+
+        if (uiInternals.getConstantPool().hasNewConstants()) {
+            response.put("constants",
+                    uiInternals.getConstantPool().dumpConstants());
+        }
+
+        if (!executeJavaScriptList.isEmpty()) {
+            if (executeFilter != null) {
+                executeFilter.accept(executeJavaScript);
+            }
+            response.put(JsonConstants.UIDL_KEY_EXECUTE, executeJavaScript);
+        }
+        if (service.getDeploymentConfiguration().isRequestTiming()) {
+            response.put("timings", createPerformanceData(ui));
+        }
+        response.close();
+
+        uiInternals.incrementServerId();
+    }
+
+    private static void runPendingAccessTasks(UI ui) {
+        VaadinSession session = ui.getSession();
+        // With UI locking, only the lock of the UI is held while writing
+        if (session.isUILockingEnabled()) {
+            ui.getInternals().runPendingAccessTasks();
+        } else {
+            session.getService().runPendingAccessTasks(session);
+        }
+    }
+
     private static void populateDependencies(JsonObject response,
             DependencyList dependencyList, ResolveContext context) {
         Collection<Dependency> pendingSendToClient = dependencyList
@@ -299,8 +495,16 @@ public class UidlWriter implements Serializable {
     // non-private for testing purposes
     static JsonArray encodeExecuteJavaScriptList(
             List<PendingJavaScriptInvocation> executeJavaScriptList) {
+        return encodeExecuteJavaScriptList(executeJavaScriptList, null);
+    }
+
+    // non-private for testing purposes
+    static JsonArray encodeExecuteJavaScriptList(
+            List<PendingJavaScriptInvocation> executeJavaScriptList,
+            UIInternals uiInternals) {
         return executeJavaScriptList.stream()
-                .map(UidlWriter::encodeExecuteJavaScript)
+                .map(invocation -> encodeExecuteJavaScript(invocation,
+                        uiInternals))
                 .collect(JsonUtils.asArray());
     }
 
@@ -321,7 +525,7 @@ public class UidlWriter implements Serializable {
     }
 
     private static JsonArray encodeExecuteJavaScript(
-            PendingJavaScriptInvocation invocation) {
+            PendingJavaScriptInvocation invocation, UIInternals uiInternals) {
         List<Object> parametersList = invocation.getInvocation()
                 .getParameters();
 
@@ -363,10 +567,22 @@ public class UidlWriter implements Serializable {
             //@formatter:on
         }
 
+        ConstantPoolKey expressionConstant = isCachingExpression(uiInternals,
+                expression) ? uiInternals.getExpressionConstant(expression)
+                        : null;
+        JsonValue script;
+        if (expressionConstant == null) {
+            script = Json.create(expression);
+        } else {
+            // A repeated script is sent as [scriptConstantId]
+            script = JsonUtils.createArray(Json.create(uiInternals
+                    .getConstantPool().getConstantId(expressionConstant)));
+        }
+
         // [argument1, argument2, ..., script]
         return Stream
                 .concat(parameters.map(JsonCodec::encodeWithTypeInfo),
-                        Stream.of(Json.create(expression)))
+                        Stream.of(script))
                 .collect(JsonUtils.asArray());
     }
 
@@ -378,11 +594,15 @@ public class UidlWriter implements Serializable {
      *
      * @param ui
      *            the UI
+     * @param keyTable
+     *            the key table to use for encoding the changes in the compact
+     *            format, or <code>null</code> to use the regular format
      * @param stateChanges
-     *            a JSON array to put state changes into
+     *            a consumer receiving the encoded state changes in order
      * @see StateTree#runExecutionsBeforeClientResponse()
      */
-    private void encodeChanges(UI ui, JsonArray stateChanges) {
+    private void encodeChanges(UI ui, ChangeKeyTable keyTable,
+            SerializableConsumer<JsonValue> stateChanges) {
         UIInternals uiInternals = ui.getInternals();
         StateTree stateTree = uiInternals.getStateTree();
 
@@ -397,14 +617,34 @@ public class UidlWriter implements Serializable {
             }
 
             // Encode the actual change
-            stateChanges.set(stateChanges.length(),
-                    change.toJson(uiInternals.getConstantPool()));
+            if (keyTable == null) {
+                stateChanges
+                        .accept(change.toJson(uiInternals.getConstantPool()));
+            } else {
+                stateChanges.accept(change.toCompactJson(
+                        uiInternals.getConstantPool(), keyTable));
+            }
         });
 
         componentsWithDependencies
                 .forEach(uiInternals::addComponentDependencies);
     }
 
+    private static boolean isCachingExpression(UIInternals uiInternals,
+            String expression) {
+        if (uiInternals == null) {
+            return false;
+        }
+        // The MPR hash fragment handling needs to see the pushState scripts
+        return !(uiInternals.getUI() instanceof JavaScriptBootstrapUI
+                && expression.contains("history.pushState"));
+    }
+
+    private static boolean isCompactChanges(UI ui) {
+        return ui.getInternals().isCompactChangesSupported()
+                && ui.getSession().getConfiguration().isCompactChanges();
+    }
+
     private static boolean attachesComponent(NodeChange change) {
         return change instanceof NodeAttachChange
                 && change.getNode().hasFeature(ComponentMapping.class);
@@ -434,4 +674,66 @@ public class UidlWriter implements Serializable {
     private static final Logger getLogger() {
         return LoggerFactory.getLogger(UidlWriter.class.getName());
     }
+
+    /**
+     * Writes the members of a JSON object one by one to a writer, taking care
+     * of the separators between them.
+     */
+    private static class JsonObjectStream implements Serializable {
+        private final Writer writer;
+        private boolean empty = true;
+        private boolean arrayOpen;
+        private boolean arrayEmpty;
+
+        private JsonObjectStream(Writer writer) {
+            this.writer = Objects.requireNonNull(writer);
+        }
+
+        private void put(String key, JsonValue value) throws IOException {
+            writeKey(key);
+            writer.write(value.toJson());
+        }
+
+        private void writeKey(String key) throws IOException {
+            writer.write(empty ? '{' : ',');
+            empty = false;
+            writer.write(JsonUtil.quote(key));
+            writer.write(':');
+        }
+
+        /**
+         * Gets a consumer which writes each accepted value as an item of an
+         * array with the given key. The key is written only if at least one
+         * item is accepted.
+         */
+        private SerializableConsumer<JsonValue> arrayWriter(String key) {
+            arrayEmpty = true;
+            return value -> {
+                try {
+                    if (arrayEmpty) {
+                        writeKey(key);
+                        writer.write('[');
+                        arrayOpen = true;
+                        arrayEmpty = false;
+                    } else {
+                        writer.write(',');
+                    }
+                    writer.write(value.toJson());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            };
+        }
+
+        private void closeArray() throws IOException {
+            if (arrayOpen) {
+                writer.write(']');
+                arrayOpen = false;
+            }
+        }
+
+        private void close() throws IOException {
+            writer.write(empty ? "{}" : "}");
+        }
+    }
 }
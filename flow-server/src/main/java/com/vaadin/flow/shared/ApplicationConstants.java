@@ -97,6 +97,12 @@ public class ApplicationConstants implements Serializable {
      */
     public static final String RPC_INVOCATIONS = "rpc";
 
+    /**
+     * The name of the parameter used by the client to tell that it is able to
+     * process state changes in the compact format.
+     */
+    public static final String COMPACT_CHANGES = "compactChanges";
+
     /**
      * The name of the parameter used to transmit the CSRF token.
      */
@@ -128,6 +134,12 @@ public class ApplicationConstants implements Serializable {
      */
     public static final String RESYNCHRONIZE_ID = "resynchronize";
 
+    /**
+     * The name of the parameter used for sending again the messages that the
+     * client has missed.
+     */
+    public static final String REPLAYED_MESSAGES = "replay";
+
     /**
      * Content type to use for text/html responses (should always be UTF-8).
      */
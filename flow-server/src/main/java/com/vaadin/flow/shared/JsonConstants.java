@@ -165,6 +165,71 @@ public class JsonConstants implements Serializable {
      */
     public static final String UIDL_KEY_EXECUTE = "execute";
 
+    /**
+     * Key used for state changes encoded in the compact format in UIDL
+     * messages.
+     */
+    public static final String UIDL_KEY_COMPACT_CHANGES = "cchanges";
+
+    /**
+     * Key used for the map keys referenced by index from compact changes in
+     * UIDL messages.
+     */
+    public static final String UIDL_KEY_COMPACT_CHANGE_KEYS = "ckeys";
+
+    /**
+     * Compact change type for node attach changes. A compact change is an
+     * array with the node id at index 0 and the change type at index 1.
+     */
+    public static final int COMPACT_CHANGE_ATTACH = 0;
+
+    /**
+     * Compact change type for node detach changes.
+     */
+    public static final int COMPACT_CHANGE_DETACH = 1;
+
+    /**
+     * Compact change type for map put changes with a regular value:
+     * <code>[node, type, feature, keyIndex, value]</code>.
+     */
+    public static final int COMPACT_CHANGE_PUT = 2;
+
+    /**
+     * Compact change type for map put changes with a node value:
+     * <code>[node, type, feature, keyIndex, nodeId]</code>.
+     */
+    public static final int COMPACT_CHANGE_PUT_NODE = 3;
+
+    /**
+     * Compact change type for map remove changes:
+     * <code>[node, type, feature, keyIndex]</code>.
+     */
+    public static final int COMPACT_CHANGE_REMOVE = 4;
+
+    /**
+     * Compact change type for list splice changes with regular values:
+     * <code>[node, type, feature, index, removeCount, [values]?]</code>.
+     */
+    public static final int COMPACT_CHANGE_SPLICE = 5;
+
+    /**
+     * Compact change type for list splice changes with node values:
+     * <code>[node, type, feature, index, removeCount, [nodeIds]]</code>.
+     */
+    public static final int COMPACT_CHANGE_SPLICE_NODES = 6;
+
+    /**
+     * Compact change type for list clear changes:
+     * <code>[node, type, feature]</code>.
+     */
+    public static final int COMPACT_CHANGE_CLEAR = 7;
+
+    /**
+     * Compact change type for populating an empty feature:
+     * <code>[node, type, feature, isList]</code>.
+     */
+    public static final int COMPACT_CHANGE_NOOP = 8;
+
     /**
      * Key used to hold the feature id when synchronizing node values.
      */
@@ -35,7 +35,12 @@ public enum Transport {
     /**
      * HTTP long polling.
      */
-    LONG_POLLING("long-polling");
+    LONG_POLLING("long-polling"),
+    /**
+     * Server-Sent Events for server to client, XHR for client to server. Does
+     * not use Atmosphere.
+     */
+    SSE("sse");
 
     private String identifier;
 
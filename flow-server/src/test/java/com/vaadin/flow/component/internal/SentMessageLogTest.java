@@ -0,0 +1,120 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.internal;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SentMessageLogTest {
+
+    private final SentMessageLog log = new SentMessageLog(3, 0);
+
+    @Test
+    public void disabled_whenSizeIsZero() {
+        Assert.assertFalse(new SentMessageLog(0, 0).isEnabled());
+        Assert.assertTrue(log.isEnabled());
+    }
+
+    @Test
+    public void getMessagesAfter_messagesInLog_returnsMissedMessagesInOrder() {
+        addMessages(0, 3);
+
+        Assert.assertEquals(Arrays.asList("m1", "m2"),
+                log.getMessagesAfter(0).get());
+        Assert.assertEquals(Collections.singletonList("m2"),
+                log.getMessagesAfter(1).get());
+        Assert.assertEquals(Collections.emptyList(),
+                log.getMessagesAfter(2).get());
+    }
+
+    @Test
+    public void getMessagesAfter_oldMessagesOverwritten_empty() {
+        addMessages(0, 5);
+
+        Assert.assertEquals(Arrays.asList("m2", "m3", "m4"),
+                log.getMessagesAfter(1).get());
+        Assert.assertFalse(log.getMessagesAfter(0).isPresent());
+    }
+
+    @Test
+    public void getMessagesAfter_unknownSyncId_empty() {
+        addMessages(0, 2);
+
+        Assert.assertFalse(log.getMessagesAfter(-1).isPresent());
+        Assert.assertFalse(log.getMessagesAfter(5).isPresent());
+    }
+
+    @Test
+    public void getMessagesAfter_gapInSyncIds_olderMessagesNotUsed() {
+        addMessages(0, 2);
+        addMessages(5, 7);
+
+        Assert.assertEquals(Collections.singletonList("m6"),
+                log.getMessagesAfter(5).get());
+        Assert.assertEquals(Arrays.asList("m5", "m6"),
+                log.getMessagesAfter(4).get());
+        Assert.assertFalse(log.getMessagesAfter(3).isPresent());
+        Assert.assertFalse(log.getMessagesAfter(1).isPresent());
+    }
+
+    @Test
+    public void getMessagesAfter_byteLimitExceeded_oldestMessagesDropped() {
+        SentMessageLog limited = new SentMessageLog(10, 10);
+        limited.add(0, "1234");
+        limited.add(1, "5678");
+        Assert.assertEquals(8, limited.getBytes());
+
+        limited.add(2, "9012");
+
+        Assert.assertEquals(8, limited.getBytes());
+        Assert.assertEquals(Arrays.asList("5678", "9012"),
+                limited.getMessagesAfter(0).get());
+        Assert.assertFalse(limited.getMessagesAfter(-1).isPresent());
+    }
+
+    @Test
+    public void getMessagesAfter_messageLargerThanByteLimit_notKept() {
+        SentMessageLog limited = new SentMessageLog(10, 10);
+        limited.add(0, "1234");
+        limited.add(1, "12345678901");
+
+        Assert.assertEquals(0, limited.getBytes());
+        Assert.assertEquals(Collections.emptyList(),
+                limited.getMessagesAfter(1).get());
+        Assert.assertFalse(limited.getMessagesAfter(0).isPresent());
+
+        limited.add(2, "1234");
+        Assert.assertEquals(Collections.singletonList("1234"),
+                limited.getMessagesAfter(1).get());
+    }
+
+    @Test
+    public void add_logFull_bytesOfDroppedMessageReleased() {
+        addMessages(0, 5);
+
+        // m2, m3 and m4 are kept
+        Assert.assertEquals(6, log.getBytes());
+    }
+
+    private void addMessages(int fromSyncId, int toSyncId) {
+        for (int syncId = fromSyncId; syncId < toSyncId; syncId++) {
+            log.add(syncId, "m" + syncId);
+        }
+    }
+}
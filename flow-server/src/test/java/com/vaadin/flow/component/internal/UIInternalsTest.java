@@ -10,6 +10,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
@@ -26,6 +27,7 @@ import com.vaadin.flow.function.DeploymentConfiguration;
 import com.vaadin.flow.router.Location;
 import com.vaadin.flow.router.Route;
 import com.vaadin.flow.router.RouterLayout;
+import com.vaadin.flow.server.Command;
 import com.vaadin.flow.server.VaadinService;
 import com.vaadin.flow.shared.Registration;
 import com.vaadin.flow.shared.communication.PushMode;
@@ -91,6 +93,36 @@ public class UIInternalsTest {
                 1, heartbeats.size());
     }
 
+    @Test
+    public void receiveHeartbeat_noListeners_timestampSetWithoutAccess() {
+        internals.receiveHeartbeat(42);
+
+        Assert.assertEquals(42, internals.getLastHeartbeatTimestamp());
+        Mockito.verify(ui, Mockito.never()).access(Mockito.any());
+    }
+
+    @Test
+    public void receiveHeartbeat_listenersCalledOnceInAccessWithLatestTimestamp() {
+        List<Long> heartbeats = new ArrayList<>();
+        internals.addHeartbeatListener(
+                event -> heartbeats.add(event.getHeartbeatTime()));
+        ArgumentCaptor<Command> command = ArgumentCaptor
+                .forClass(Command.class);
+
+        internals.receiveHeartbeat(1);
+        internals.receiveHeartbeat(2);
+
+        Mockito.verify(ui).access(command.capture());
+        Assert.assertTrue("Listeners should be called in access",
+                heartbeats.isEmpty());
+
+        command.getValue().execute();
+        Assert.assertEquals(Collections.singletonList(2L), heartbeats);
+
+        internals.receiveHeartbeat(3);
+        Mockito.verify(ui, Mockito.times(2)).access(command.capture());
+    }
+
     @Test
     public void heartbeatListenerRemovedFromHeartbeatEvent_noExplosion() {
         AtomicReference<Registration> reference = new AtomicReference<>();
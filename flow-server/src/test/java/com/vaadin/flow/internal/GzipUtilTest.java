@@ -0,0 +1,72 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GzipUtilTest {
+
+    @Test
+    public void gzip_readableAsGzipStream() throws IOException {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 1000; i++) {
+            json.append("{\"node\":").append(i)
+                    .append(",\"type\":\"put\",\"key\":\"value\"},");
+        }
+        json.append("{}]");
+
+        byte[] compressed = gzip(json.toString());
+
+        Assert.assertTrue(compressed.length < json.length() / 5);
+        Assert.assertEquals(json.toString(), gunzip(compressed));
+    }
+
+    @Test
+    public void gzip_repeatedly_deflaterReused() throws IOException {
+        for (int i = 0; i < 100; i++) {
+            String data = "message " + i;
+            Assert.assertEquals(data, gunzip(gzip(data)));
+        }
+    }
+
+    @Test
+    public void gzip_emptyData() throws IOException {
+        Assert.assertEquals("", gunzip(gzip("")));
+    }
+
+    private static byte[] gzip(String data) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        buffer.write(data.getBytes(StandardCharsets.UTF_8));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GzipUtil.gzip(buffer, out);
+        return out.toByteArray();
+    }
+
+    private static String gunzip(byte[] data) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(
+                new ByteArrayInputStream(data))) {
+            return IOUtils.toString(in, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.vaadin.flow.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.dom.ElementFactory;
+import com.vaadin.flow.internal.nodefeature.ElementListenerMap;
+import com.vaadin.flow.internal.nodefeature.NodeFeature;
+import com.vaadin.flow.server.StateTreeMemoryUsage;
+import com.vaadin.flow.shared.Registration;
+
+public class StateTreeMemoryCounterTest {
+
+    private UI ui = new UI();
+
+    private StateTree tree = ui.getInternals().getStateTree();
+
+    @Test
+    public void attachDetachElements_countersMatchTreeContents() {
+        StateTreeMemoryUsage initial = tree.getMemoryUsage();
+        assertMatchesTree(initial);
+
+        Element div = ElementFactory.createDiv();
+        div.setAttribute("foo", "bar");
+        div.setProperty("baz", 1);
+        div.addEventListener("click", event -> {
+        });
+        div.appendChild(ElementFactory.createSpan("text"));
+
+        // Detached elements are not accounted for
+        Assert.assertEquals(initial.getNodeCount(),
+                tree.getMemoryUsage().getNodeCount());
+
+        ui.getElement().appendChild(div);
+        StateTreeMemoryUsage attached = tree.getMemoryUsage();
+        Assert.assertEquals(initial.getNodeCount() + 3,
+                attached.getNodeCount());
+        Assert.assertEquals(initial.getListenerCount() + 1,
+                attached.getListenerCount());
+        assertMatchesTree(attached);
+
+        // Modifications of attached elements are counted incrementally
+        div.setAttribute("other", "value");
+        Registration registration = div.addEventListener("dblclick",
+                event -> {
+                });
+        assertMatchesTree(tree.getMemoryUsage());
+        Assert.assertEquals(initial.getListenerCount() + 2,
+                tree.getMemoryUsage().getListenerCount());
+
+        div.removeAttribute("foo");
+        registration.remove();
+        assertMatchesTree(tree.getMemoryUsage());
+
+        ui.getElement().removeChild(div);
+        StateTreeMemoryUsage detached = tree.getMemoryUsage();
+        Assert.assertEquals(initial.getNodeCount(), detached.getNodeCount());
+        Assert.assertEquals(initial.getListenerCount(),
+                detached.getListenerCount());
+        assertMatchesTree(detached);
+    }
+
+    @Test
+    public void collectChanges_changeTrackersReleased() {
+        ui.getElement().appendChild(ElementFactory.createDiv("text"));
+        Assert.assertTrue(tree.getMemoryUsage().getChangeTrackerCount() > 0);
+
+        tree.collectChanges(change -> {
+        });
+
+        Assert.assertEquals(0, tree.getMemoryUsage().getChangeTrackerCount());
+    }
+
+    @Test
+    public void add_countersAreSummed() {
+        ui.getElement().appendChild(ElementFactory.createDiv());
+        StateTreeMemoryUsage usage = tree.getMemoryUsage();
+
+        StateTreeMemoryUsage sum = usage.add(usage);
+
+        Assert.assertEquals(usage.getNodeCount() * 2, sum.getNodeCount());
+        Assert.assertEquals(usage.getFeatureCount() * 2,
+                sum.getFeatureCount());
+        Assert.assertEquals(usage.getMapValueCount() * 2,
+                sum.getMapValueCount());
+    }
+
+    private void assertMatchesTree(StateTreeMemoryUsage usage) {
+        int[] nodes = new int[1];
+        long[] values = new long[1];
+        long[] listeners = new long[1];
+        Map<Class<? extends NodeFeature>, Long> features = new HashMap<>();
+        tree.getRootNode().visitNodeTree(node -> {
+            nodes[0]++;
+            node.forEachFeature(feature -> {
+                features.merge(feature.getClass(), 1L, Long::sum);
+                values[0] += feature.getValueCount();
+                if (feature instanceof ElementListenerMap) {
+                    listeners[0] += ((ElementListenerMap) feature)
+                            .getListenerCount();
+                }
+            });
+        });
+
+        Assert.assertEquals(nodes[0], usage.getNodeCount());
+        Assert.assertEquals(features, usage.getFeatureCounts());
+        Assert.assertEquals(values[0], usage.getMapValueCount());
+        Assert.assertEquals(listeners[0], usage.getListenerCount());
+    }
+}
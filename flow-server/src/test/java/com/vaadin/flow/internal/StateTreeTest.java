@@ -35,6 +35,7 @@ import org.mockito.Mockito;
 import com.vaadin.flow.component.Tag;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.function.SerializableConsumer;
+import com.vaadin.flow.internal.change.ChangeKeyTable;
 import com.vaadin.flow.internal.change.ListAddChange;
 import com.vaadin.flow.internal.change.ListRemoveChange;
 import com.vaadin.flow.internal.change.MapPutChange;
@@ -49,6 +50,7 @@ import com.vaadin.flow.internal.nodefeature.ElementPropertyMap;
 import com.vaadin.flow.internal.nodefeature.NodeFeature;
 import com.vaadin.tests.util.TestUtil;
 
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 
 public class StateTreeTest {
@@ -89,6 +91,11 @@ public class StateTreeTest {
                 protected void populateJson(JsonObject json,
                         ConstantPool constantPool) {
                 }
+
+                @Override
+                protected void populateCompactJson(JsonArray json,
+                        ConstantPool constantPool, ChangeKeyTable keyTable) {
+                }
             });
         }
     }
@@ -231,6 +238,74 @@ public class StateTreeTest {
                 tree.collectDirtyNodes().toArray());
     }
 
+    @Test
+    public void markAsDirty_sameNodeSeveralTimes_collectedOnce() {
+        StateNode node = StateNodeTest.createEmptyNode("node");
+        StateNodeTest.setParent(node, tree.getRootNode());
+        tree.collectChanges(change -> {
+        });
+
+        node.markAsDirty();
+        node.markAsDirty();
+        node.markAsDirty();
+
+        Assert.assertArrayEquals(new Object[] { node },
+                tree.collectDirtyNodes().toArray());
+
+        tree.collectChanges(change -> {
+        });
+
+        Assert.assertFalse(tree.hasDirtyNodes());
+
+        node.markAsDirty();
+        Assert.assertArrayEquals(new Object[] { node },
+                tree.collectDirtyNodes().toArray());
+    }
+
+    @Test
+    public void markAsDirty_manyNodes_allCollectedInOrder() {
+        List<StateNode> nodes = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            StateNode node = StateNodeTest.createEmptyNode("node" + i);
+            nodes.add(node);
+            StateNodeTest.setParent(node, tree.getRootNode());
+        }
+        tree.collectChanges(change -> {
+        });
+
+        for (int round = 0; round < 3; round++) {
+            nodes.forEach(StateNode::markAsDirty);
+
+            Assert.assertArrayEquals(nodes.toArray(),
+                    tree.collectDirtyNodes().toArray());
+
+            tree.collectChanges(change -> {
+            });
+            Assert.assertFalse(tree.hasDirtyNodes());
+        }
+    }
+
+    @Test
+    public void removeFromTree_nodeQueuedAsDirty_dirtyInNewTree() {
+        StateNode node = StateNodeTest.createEmptyNode("node");
+        StateNodeTest.setParent(node, tree.getRootNode());
+
+        node.removeFromTree();
+
+        StateTree anotherTree = new StateTree(new UI().getInternals(),
+                ElementChildrenList.class);
+        StateNodeTest.setParent(node, anotherTree.getRootNode());
+        node.markAsDirty();
+
+        Assert.assertFalse(tree.collectDirtyNodes().contains(node));
+        Assert.assertTrue(anotherTree.collectDirtyNodes().contains(node));
+
+        tree.collectChanges(change -> {
+        });
+
+        Assert.assertTrue(anotherTree.collectDirtyNodes().contains(node));
+    }
+
     @Test
     public void testDetachInChanges() {
         StateNode node1 = tree.getRootNode();
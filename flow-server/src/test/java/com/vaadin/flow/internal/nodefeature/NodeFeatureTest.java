@@ -123,6 +123,27 @@ public class NodeFeatureTest {
         });
     }
 
+    @Test
+    public void getIndex_indicesAreDenseAndFollowPriority() {
+        List<Class<? extends NodeFeature>> priorityOrder = buildExpectedIdMap()
+                .keySet().stream()
+                .sorted(NodeFeatureRegistry.PRIORITY_COMPARATOR)
+                .collect(Collectors.toList());
+
+        Assert.assertEquals(priorityOrder.size(),
+                NodeFeatureRegistry.getFeatureCount());
+        for (int i = 0; i < priorityOrder.size(); i++) {
+            Assert.assertEquals(i,
+                    NodeFeatureRegistry.getIndex(priorityOrder.get(i)));
+        }
+    }
+
+    @Test
+    public void getIndex_unregisteredFeature_returnsMinusOne() {
+        Assert.assertEquals(-1,
+                NodeFeatureRegistry.getIndex(UnregisteredNodeFeature.class));
+    }
+
     @Test
     public void priorityOrder() {
         List<Class<? extends NodeFeature>> priorityOrder = buildExpectedIdMap()
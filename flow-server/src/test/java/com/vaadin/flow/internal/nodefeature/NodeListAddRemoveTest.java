@@ -119,8 +119,58 @@ public class NodeListAddRemoveTest
         List<NodeChange> changes = collectChanges(nodeList);
 
         // remove is discarded, the fist add is discarded, others are adjusted
+        // and merged into one splice
+        Assert.assertEquals(1, changes.size());
+        ListAddChange<?> add = (ListAddChange<?>) changes.get(0);
+        Assert.assertEquals(index, add.getIndex());
+        Assert.assertEquals(Arrays.asList("bar", "bar1"), add.getNewItems());
+    }
+
+    @Test
+    public void addOneByOneAndRemoveRange_changesAreMerged() {
+        nodeList.add("a");
+        collectChanges(nodeList);
+
+        for (int i = 0; i < 5; i++) {
+            nodeList.add("b" + i);
+        }
+
+        List<NodeChange> changes = collectChanges(nodeList);
+        Assert.assertEquals(1, changes.size());
+        ListAddChange<?> add = (ListAddChange<?>) changes.get(0);
+        Assert.assertEquals(1, add.getIndex());
+        Assert.assertEquals(Arrays.asList("b0", "b1", "b2", "b3", "b4"),
+                add.getNewItems());
+
+        // remove b4, b3, b2, b1 going backwards
+        for (int i = 5; i > 1; i--) {
+            nodeList.remove(i);
+        }
+
+        changes = collectChanges(nodeList);
+        Assert.assertEquals(1, changes.size());
+        ListRemoveChange<?> remove = (ListRemoveChange<?>) changes.get(0);
+        Assert.assertEquals(2, remove.getIndex());
+        Assert.assertEquals(4, remove.getRemoveCount());
+        Assert.assertEquals(Arrays.asList("b1", "b2", "b3", "b4"),
+                remove.getRemovedItems());
+        verifyNodeListContent("a", "b0");
+    }
+
+    @Test
+    public void removeNonAdjacent_changesAreNotMerged() {
+        nodeList.add("a");
+        nodeList.add("b");
+        nodeList.add("c");
+        nodeList.add("d");
+        collectChanges(nodeList);
+
+        nodeList.remove(3);
+        nodeList.remove(0);
+
+        List<NodeChange> changes = collectChanges(nodeList);
+        verifyRemoved(changes, Arrays.asList("d", "a"), 3, 0);
         Assert.assertEquals(2, changes.size());
-        verifyAdded(changes, Arrays.asList("bar", "bar1"), index, index + 1);
     }
 
     @Test
@@ -157,22 +207,16 @@ public class NodeListAddRemoveTest
         nodeList.remove(index - 2);
 
         // As a result: "remove" change is discarded and the "add" are adjusted
+        // and merged into one splice
         List<NodeChange> changes = collectChanges(nodeList);
-        Assert.assertEquals(2, changes.size());
+        Assert.assertEquals(1, changes.size());
 
         Assert.assertTrue(changes.get(0) instanceof ListAddChange<?>);
-        Assert.assertTrue(changes.get(1) instanceof ListAddChange<?>);
 
         ListAddChange<?> add = (ListAddChange<?>) changes.get(0);
         Assert.assertEquals(index - 2, add.getIndex());
-        Assert.assertEquals(2, add.getNewItems().size());
-        items.remove(0);
-        Assert.assertEquals(items, add.getNewItems());
-
-        add = (ListAddChange<?>) changes.get(1);
-        Assert.assertEquals(index - 1, add.getIndex());
-        Assert.assertEquals(1, add.getNewItems().size());
-        Assert.assertEquals("bar", add.getNewItems().get(0));
+        Assert.assertEquals(Arrays.asList(items.get(1), "bar", items.get(2)),
+                add.getNewItems());
     }
 
     @Test
@@ -392,6 +392,80 @@ public class NodeMapTest
         Assert.assertTrue(nodeMap.usesSingleMap());
     }
 
+    @Test
+    public void put_fewKeys_usesCompactMap() {
+        nodeMap.put("foo", "bar");
+        nodeMap.put("bar", "baz");
+
+        Assert.assertTrue(nodeMap.usesCompactMap());
+        Assert.assertEquals("bar", nodeMap.get("foo"));
+        Assert.assertEquals("baz", nodeMap.get("bar"));
+        Assert.assertEquals(2, nodeMap.keySet().size());
+
+        nodeMap.remove("foo");
+
+        Assert.assertTrue(nodeMap.usesCompactMap());
+        Assert.assertFalse(nodeMap.contains("foo"));
+        Assert.assertEquals("baz", nodeMap.get("bar"));
+
+        nodeMap.remove("bar");
+        Assert.assertEquals(0, nodeMap.getValueCount());
+        Assert.assertTrue(nodeMap.keySet().isEmpty());
+    }
+
+    @Test
+    public void put_manyKeys_switchesFromCompactMap_valuesPreserved() {
+        for (int i = 0; i < 20; i++) {
+            nodeMap.put("key" + i, "value" + i);
+            if (i > 0 && i < 12) {
+                Assert.assertTrue(nodeMap.usesCompactMap());
+            }
+        }
+
+        Assert.assertFalse(nodeMap.usesCompactMap());
+        Assert.assertEquals(20, nodeMap.getValueCount());
+        for (int i = 0; i < 20; i++) {
+            Assert.assertEquals("value" + i, nodeMap.get("key" + i));
+        }
+    }
+
+    @Test
+    public void remove_collidingKeysInCompactMap_otherKeysStillFound() {
+        // All these keys have the same hash code
+        String[] keys = { "AaAa", "BBBB", "AaBB", "BBAa" };
+        for (String key : keys) {
+            nodeMap.put(key, key.toLowerCase());
+        }
+        Assert.assertTrue(nodeMap.usesCompactMap());
+
+        nodeMap.remove("BBBB");
+
+        Assert.assertFalse(nodeMap.contains("BBBB"));
+        Assert.assertEquals("aaaa", nodeMap.get("AaAa"));
+        Assert.assertEquals("aabb", nodeMap.get("AaBB"));
+        Assert.assertEquals("bbaa", nodeMap.get("BBAa"));
+
+        nodeMap.remove("AaAa");
+        nodeMap.put("BBBB", "new");
+
+        Assert.assertEquals("new", nodeMap.get("BBBB"));
+        Assert.assertEquals("aabb", nodeMap.get("AaBB"));
+        Assert.assertEquals("bbaa", nodeMap.get("BBAa"));
+        Assert.assertEquals(3, nodeMap.keySet().size());
+    }
+
+    @Test
+    public void compactMap_serializable() {
+        nodeMap.put("foo", "bar");
+        nodeMap.put("bar", "baz");
+
+        ElementStylePropertyMap copy = SerializationUtils
+                .deserialize(SerializationUtils.serialize(nodeMap));
+
+        Assert.assertEquals("bar", copy.get("foo"));
+        Assert.assertEquals("baz", copy.get("bar"));
+    }
+
     @Test
     public void streamSingleNullValue() {
         nodeMap.put("foo", null);
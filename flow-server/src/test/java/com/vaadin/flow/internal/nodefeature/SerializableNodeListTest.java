@@ -109,11 +109,10 @@ public class SerializableNodeListTest
         i.remove();
 
         List<NodeChange> changes = collectChanges(nodeList);
-        Assert.assertEquals(2, changes.size());
-        Assert.assertEquals(0,
-                ((ListRemoveChange<?>) changes.get(0)).getIndex());
-        Assert.assertEquals(0,
-                ((ListRemoveChange<?>) changes.get(1)).getIndex());
+        Assert.assertEquals(1, changes.size());
+        ListRemoveChange<?> remove = (ListRemoveChange<?>) changes.get(0);
+        Assert.assertEquals(0, remove.getIndex());
+        Assert.assertEquals(2, remove.getRemoveCount());
         Assert.assertEquals(0, nodeList.size());
     }
 }
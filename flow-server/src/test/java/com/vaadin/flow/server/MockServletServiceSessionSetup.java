@@ -304,6 +304,7 @@ public class MockServletServiceSessionSetup {
 
             Mockito.when(session.getService()).thenAnswer(i -> service);
             Mockito.when(session.hasLock()).thenReturn(true);
+            Mockito.when(session.hasUIOrSessionLock()).thenReturn(true);
             Mockito.when(session.getPendingAccessQueue())
                     .thenReturn(new LinkedBlockingDeque<>());
             Mockito.when(request.getWrappedSession())
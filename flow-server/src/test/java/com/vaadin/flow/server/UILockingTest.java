@@ -0,0 +1,235 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import javax.servlet.http.HttpServletRequest;
+
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import net.jcip.annotations.NotThreadSafe;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+
+@NotThreadSafe
+public class UILockingTest {
+
+    private MockVaadinSession session;
+    private UI ui1;
+    private UI ui2;
+    private ExecutorService executor;
+
+    @Before
+    public void setup() {
+        MockDeploymentConfiguration configuration = new MockDeploymentConfiguration();
+        configuration.setApplicationOrSystemProperty(
+                InitParameters.SERVLET_PARAMETER_UI_LOCKING, "true");
+        session = new MockVaadinSession(
+                new MockVaadinServletService(configuration));
+
+        session.lock();
+        try {
+            session.setConfiguration(configuration);
+            ui1 = createUI();
+            ui2 = createUI();
+        } finally {
+            session.unlock();
+        }
+
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        CurrentInstance.clearAll();
+    }
+
+    @Test
+    public void uiLockingEnabled() {
+        Assert.assertTrue(session.isUILockingEnabled());
+        Assert.assertFalse(ui1.getInternals().hasLock());
+        Assert.assertFalse(ui2.getInternals().hasLock());
+    }
+
+    @Test
+    public void accessSynchronously_otherUILocked_runsConcurrently()
+            throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> holder = holdLock(ui1, release);
+
+        AtomicBoolean ran = new AtomicBoolean();
+        ui2.accessSynchronously(() -> {
+            Assert.assertFalse(ui1.getInternals().hasLock());
+            ui2.getElement().setAttribute("foo", "bar");
+            ran.set(true);
+        });
+        Assert.assertTrue(ran.get());
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void access_uiLockedByOtherThread_runWhenUnlocked()
+            throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> holder = holdLock(ui1, release);
+
+        Future<Void> access = ui1.access(
+                () -> ui1.getElement().setAttribute("foo", "bar"));
+        Assert.assertFalse(access.isDone());
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        access.get(5, TimeUnit.SECONDS);
+        Assert.assertEquals("bar", ui1.getElement().getAttribute("foo"));
+    }
+
+    @Test
+    public void lockSession_uiLockedByOtherThread_waitsForUI()
+            throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> holder = holdLock(ui1, release);
+
+        CountDownLatch sessionLocked = new CountDownLatch(1);
+        CountDownLatch releaseSession = new CountDownLatch(1);
+        Future<?> sessionHolder = executor.submit(() -> {
+            session.lock();
+            try {
+                Assert.assertTrue(ui1.getInternals().hasLock());
+                Assert.assertTrue(ui2.getInternals().hasLock());
+                sessionLocked.countDown();
+                releaseSession.await(5, TimeUnit.SECONDS);
+            } finally {
+                session.unlock();
+            }
+            return null;
+        });
+
+        Assert.assertFalse(sessionLocked.await(200, TimeUnit.MILLISECONDS));
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        Assert.assertTrue(sessionLocked.await(5, TimeUnit.SECONDS));
+        Assert.assertFalse(ui2.getInternals().getLockInstance().tryLock());
+
+        releaseSession.countDown();
+        sessionHolder.get(5, TimeUnit.SECONDS);
+        Assert.assertTrue(ui1.getInternals().getLockInstance().tryLock());
+        ui1.getInternals().getLockInstance().unlock();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void lockSession_whileHoldingUILock_throws() {
+        ui1.accessSynchronously(() -> session.lock());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void lockOtherUI_whileHoldingUILock_throws() {
+        ui1.accessSynchronously(() -> ui2.accessSynchronously(() -> {
+        }));
+    }
+
+    @Test
+    public void hasLock_onlyUILocked_sessionNotLocked() {
+        ui1.accessSynchronously(() -> {
+            Assert.assertFalse(session.hasLock());
+            Assert.assertTrue(session.hasUIOrSessionLock());
+        });
+        Assert.assertFalse(session.hasUIOrSessionLock());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void setLocale_onlyUILocked_throws() {
+        ui1.accessSynchronously(() -> session.setLocale(Locale.FRENCH));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void setErrorHandler_onlyUILocked_throws() {
+        ui1.accessSynchronously(
+                () -> session.setErrorHandler(new DefaultErrorHandler()));
+    }
+
+    @Test
+    public void attributes_onlyUILocked_allowed() {
+        ui1.accessSynchronously(() -> {
+            session.setAttribute("foo", "bar");
+            Assert.assertEquals("bar", session.getAttribute("foo"));
+            Assert.assertNotNull(session.getLocale());
+        });
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void modifyUI_withoutLock_throws() {
+        ui1.getElement().setAttribute("foo", "bar");
+    }
+
+    @Test
+    public void modifyUI_sessionLocked_allowed() {
+        session.lock();
+        try {
+            ui1.getElement().setAttribute("foo", "bar");
+            ui2.getElement().setAttribute("foo", "baz");
+        } finally {
+            session.unlock();
+        }
+        Assert.assertFalse(ui1.getInternals().hasLock());
+        Assert.assertFalse(ui2.getInternals().hasLock());
+    }
+
+    private Future<?> holdLock(UI ui, CountDownLatch release)
+            throws InterruptedException {
+        CountDownLatch locked = new CountDownLatch(1);
+        Future<?> holder = executor.submit(() -> {
+            ui.accessSynchronously(() -> {
+                locked.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        });
+        Assert.assertTrue(locked.await(5, TimeUnit.SECONDS));
+        return holder;
+    }
+
+    private UI createUI() {
+        VaadinServletRequest request = Mockito
+                .mock(VaadinServletRequest.class);
+        Mockito.when(request.getHttpServletRequest())
+                .thenReturn(Mockito.mock(HttpServletRequest.class));
+
+        UI ui = new UI();
+        ui.getInternals().setSession(session);
+        ui.doInit(request, session.getNextUIid());
+        session.addUI(ui);
+        return ui;
+    }
+}
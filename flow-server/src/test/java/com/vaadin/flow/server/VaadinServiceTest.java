@@ -22,7 +22,11 @@ import javax.servlet.http.HttpSessionBindingEvent;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -42,6 +46,7 @@ import com.vaadin.flow.server.communication.StreamRequestHandler;
 import com.vaadin.tests.util.MockDeploymentConfiguration;
 
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.startsWith;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
 
@@ -324,6 +329,133 @@ public class VaadinServiceTest {
         Assert.assertSame(applicationFilter, filters.get(0));
     }
 
+    @Test
+    public void accessExecutor_default_accessRunsInCallingThread()
+            throws Exception {
+        MockVaadinServletService service = new MockVaadinServletService();
+        service.init();
+        Assert.assertNull(service.getAccessExecutor());
+
+        MockVaadinSession session = new MockVaadinSession(service);
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        session.access(() -> thread.set(Thread.currentThread()));
+
+        Assert.assertSame(Thread.currentThread(), thread.get());
+    }
+
+    @Test
+    public void accessExecutor_pool_accessRunsInExecutor() throws Exception {
+        MockDeploymentConfiguration configuration = new MockDeploymentConfiguration();
+        configuration.setApplicationOrSystemProperty(
+                InitParameters.SERVLET_PARAMETER_ACCESS_EXECUTOR, "pool");
+        MockVaadinServletService service = new MockVaadinServletService(
+                configuration);
+        service.init();
+        try {
+            Assert.assertNotNull(service.getAccessExecutor());
+
+            MockVaadinSession session = new MockVaadinSession(service);
+            AtomicReference<String> threadName = new AtomicReference<>();
+            session.access(
+                    () -> threadName.set(Thread.currentThread().getName()))
+                    .get(5, TimeUnit.SECONDS);
+
+            assertThat(threadName.get(), startsWith("vaadin-access-"));
+            AccessQueueMetrics metrics = service.getAccessQueueMetrics();
+            Assert.assertEquals(1, metrics.getEnqueuedTaskCount());
+            Assert.assertEquals(1, metrics.getDequeuedTaskCount());
+            Assert.assertEquals(0, metrics.getQueueDepth());
+        } finally {
+            service.destroy();
+        }
+    }
+
+    @Test
+    public void accessQueueMetrics_taskWaitsForLock_latencyRecorded()
+            throws Exception {
+        MockVaadinServletService service = new MockVaadinServletService();
+        service.init();
+        MockVaadinSession session = new MockVaadinSession(service);
+        AccessQueueMetrics metrics = service.getAccessQueueMetrics();
+
+        session.lock();
+        try {
+            session.access(() -> {
+            });
+            Assert.assertEquals(1, metrics.getQueueDepth());
+            Thread.sleep(20);
+        } finally {
+            session.unlock();
+        }
+
+        Assert.assertEquals(0, metrics.getQueueDepth());
+        Assert.assertTrue(metrics.getMaxLatency(TimeUnit.MILLISECONDS) >= 20);
+        Assert.assertEquals(metrics.getMaxLatency(TimeUnit.NANOSECONDS),
+                metrics.getAverageLatency(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    public void accessQueueMetrics_taskCancelled_removedFromQueueDepth()
+            throws Exception {
+        MockVaadinServletService service = new MockVaadinServletService();
+        service.init();
+        MockVaadinSession session = new MockVaadinSession(service);
+        AccessQueueMetrics metrics = service.getAccessQueueMetrics();
+
+        session.lock();
+        try {
+            Future<Void> future = session.access(() -> {
+            });
+            Assert.assertEquals(1, metrics.getQueueDepth());
+
+            future.cancel(false);
+            Assert.assertEquals(0, metrics.getQueueDepth());
+            Assert.assertEquals(1, metrics.getRemovedTaskCount());
+        } finally {
+            session.unlock();
+        }
+
+        Assert.assertEquals(0, metrics.getQueueDepth());
+        Assert.assertEquals(0, metrics.getDequeuedTaskCount());
+        Assert.assertEquals(1, metrics.getRemovedTaskCount());
+    }
+
+    @Test
+    public void accessQueueMetrics_serviceDestroyed_pendingTasksRemoved()
+            throws Exception {
+        MockDeploymentConfiguration configuration = new MockDeploymentConfiguration();
+        configuration.setApplicationOrSystemProperty(
+                InitParameters.SERVLET_PARAMETER_ACCESS_EXECUTOR, "pool");
+        MockVaadinServletService service = new MockVaadinServletService(
+                configuration);
+        service.init();
+        service.destroy();
+
+        MockVaadinSession session = new MockVaadinSession(service);
+        Future<Void> future = session.access(() -> {
+        });
+
+        Assert.assertTrue(future.isCancelled());
+        Assert.assertTrue(session.getPendingAccessQueue().isEmpty());
+        AccessQueueMetrics metrics = service.getAccessQueueMetrics();
+        Assert.assertEquals(0, metrics.getQueueDepth());
+        Assert.assertEquals(1, metrics.getRemovedTaskCount());
+    }
+
+    @Test
+    public void pushExecutor_createdOnInit_shutDownOnDestroy() {
+        MockVaadinServletService service = new MockVaadinServletService();
+        Assert.assertNull(service.getPushExecutor());
+
+        service.init();
+        ScheduledExecutorService executor = service.getPushExecutor();
+        Assert.assertNotNull(executor);
+        Assert.assertFalse(executor.isShutdown());
+
+        service.destroy();
+        Assert.assertTrue(executor.isShutdown());
+    }
+
     private static VaadinService createService() {
         ServletConfig servletConfig = new MockServletConfig();
         VaadinServlet servlet = new VaadinServlet();
@@ -15,25 +15,69 @@
  */
 package com.vaadin.flow.server.communication;
 
+import javax.servlet.http.HttpServletRequest;
+
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
+import net.jcip.annotations.NotThreadSafe;
 import org.atmosphere.cpr.AtmosphereResource;
+import org.atmosphere.cpr.Broadcaster;
 import org.easymock.EasyMock;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.Mockito;
 
 import com.vaadin.flow.component.UI;
-import com.vaadin.flow.server.communication.AtmospherePushConnection;
+import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.flow.server.DependencyFilter;
+import com.vaadin.flow.server.InitParameters;
+import com.vaadin.flow.server.MockVaadinServletService;
+import com.vaadin.flow.server.MockVaadinSession;
+import com.vaadin.flow.server.VaadinServletRequest;
 import com.vaadin.flow.server.communication.AtmospherePushConnection.State;
+import com.vaadin.flow.shared.communication.PushMode;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
 
 /**
  * @author Vaadin Ltd
  * @since 1.0
  */
+@NotThreadSafe
 public class AtmospherePushConnectionTest {
+
+    private static class RecordingPushConnection
+            extends AtmospherePushConnection {
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+
+        private RecordingPushConnection(UI ui) {
+            super(ui);
+        }
+
+        @Override
+        protected void sendMessage(String message) {
+            messages.add(message);
+        }
+    }
+
+    private MockVaadinSession session;
+
+    @After
+    public void tearDown() {
+        if (session != null) {
+            session.getService().destroy();
+        }
+        CurrentInstance.clearAll();
+    }
+
     @Test
     public void testSerialization() throws Exception {
 
@@ -55,4 +99,227 @@ public class AtmospherePushConnectionTest {
 
         Assert.assertEquals(State.DISCONNECTED, connection.getState());
     }
+
+    @Test
+    public void push_noMinPushInterval_everyPushSent() {
+        UI ui = createUI(null, null);
+        RecordingPushConnection connection = new RecordingPushConnection(ui);
+        connection.connect(EasyMock.createNiceMock(AtmosphereResource.class));
+
+        session.lock();
+        try {
+            for (int i = 0; i < 3; i++) {
+                ui.getElement().setAttribute("foo", String.valueOf(i));
+                connection.push();
+            }
+        } finally {
+            session.unlock();
+        }
+
+        Assert.assertEquals(3, connection.messages.size());
+    }
+
+    @Test
+    public void push_withinMinPushInterval_pushesCoalesced()
+            throws InterruptedException {
+        UI ui = createUI(InitParameters.SERVLET_PARAMETER_MIN_PUSH_INTERVAL, "200");
+        RecordingPushConnection connection = new RecordingPushConnection(ui);
+        connection.connect(EasyMock.createNiceMock(AtmosphereResource.class));
+
+        session.lock();
+        try {
+            for (int i = 0; i < 3; i++) {
+                ui.getElement().setAttribute("foo", String.valueOf(i));
+                connection.push();
+            }
+            // The first push of an idle connection is sent right away
+            Assert.assertEquals(1, connection.messages.size());
+        } finally {
+            session.unlock();
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (connection.messages.size() < 2
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(2, connection.messages.size());
+        Assert.assertTrue(connection.messages.get(1).contains("\"2\""));
+
+        // Give a possible extra push a chance to arrive
+        Thread.sleep(300);
+        Assert.assertEquals(2, connection.messages.size());
+    }
+
+    @Test
+    public void push_responseWithinMinPushInterval_sentImmediately() {
+        UI ui = createUI(InitParameters.SERVLET_PARAMETER_MIN_PUSH_INTERVAL,
+                "10000");
+        RecordingPushConnection connection = new RecordingPushConnection(ui);
+        connection.connect(EasyMock.createNiceMock(AtmosphereResource.class));
+
+        session.lock();
+        try {
+            connection.push();
+            ui.getElement().setAttribute("foo", "bar");
+            connection.push(false);
+        } finally {
+            session.unlock();
+        }
+
+        Assert.assertEquals(2, connection.messages.size());
+    }
+
+    @Test
+    public void push_uiLockingEnabled_onlyUILocked_pushSent() {
+        UI ui = createUI(InitParameters.SERVLET_PARAMETER_UI_LOCKING, "true");
+        RecordingPushConnection connection = new RecordingPushConnection(ui);
+        connection.connect(EasyMock.createNiceMock(AtmosphereResource.class));
+
+        ui.accessSynchronously(() -> {
+            Assert.assertFalse(session.hasLock());
+            // Queued as the UI is locked by the current thread
+            ui.access(() -> ui.getElement().setAttribute("foo", "bar"));
+            connection.push();
+        });
+
+        Assert.assertEquals(1, connection.messages.size());
+        Assert.assertTrue(connection.messages.get(0).contains("\"bar\""));
+    }
+
+    @Test
+    public void close_uiLockingEnabled_onlyUILocked_pushSent() {
+        UI ui = createUI(InitParameters.SERVLET_PARAMETER_UI_LOCKING, "true");
+        RecordingPushConnection connection = new RecordingPushConnection(ui);
+        connection.connect(EasyMock.createNiceMock(AtmosphereResource.class));
+
+        ui.accessSynchronously(() -> {
+            ui.getPushConfiguration().setPushMode(PushMode.MANUAL);
+            ui.getInternals().setPushConnection(connection);
+            ui.access(() -> ui.getElement().setAttribute("foo", "bar"));
+            ui.close();
+        });
+
+        Assert.assertEquals(1, connection.messages.size());
+        Assert.assertTrue(connection.messages.get(0).contains("\"bar\""));
+    }
+
+    @Test
+    public void push_pendingMessageLimitReached_pushesHeldUntilDrained()
+            throws InterruptedException {
+        UI ui = createUI(
+                InitParameters.SERVLET_PARAMETER_MAX_PENDING_PUSH_MESSAGES,
+                "2");
+        List<String> messages = new CopyOnWriteArrayList<>();
+        List<CompletableFuture<Object>> futures = new CopyOnWriteArrayList<>();
+        AtmosphereResource resource = Mockito.mock(AtmosphereResource.class);
+        Broadcaster broadcaster = Mockito.mock(Broadcaster.class);
+        Mockito.when(resource.getBroadcaster()).thenReturn(broadcaster);
+        Mockito.when(broadcaster.broadcast(Mockito.anyObject(),
+                Mockito.eq(resource))).thenAnswer(invocation -> {
+                    messages.add((String) invocation.getArguments()[0]);
+                    CompletableFuture<Object> future = new CompletableFuture<>();
+                    futures.add(future);
+                    return future;
+                });
+
+        AtmospherePushConnection connection = new AtmospherePushConnection(
+                ui);
+        connection.connect(resource);
+
+        session.lock();
+        try {
+            for (int i = 0; i < 4; i++) {
+                ui.getElement().setAttribute("foo", String.valueOf(i));
+                connection.push();
+            }
+        } finally {
+            session.unlock();
+        }
+
+        Assert.assertEquals(2, messages.size());
+        Assert.assertEquals(2, connection.getPendingMessageCount());
+        Assert.assertTrue(connection.getPendingMessageBytes() > 0);
+
+        futures.get(0).complete(null);
+        Assert.assertEquals(1, connection.getPendingMessageCount());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (messages.size() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(3, messages.size());
+        Assert.assertTrue(messages.get(2).contains("\"3\""));
+        Assert.assertEquals(2, connection.getPendingMessageCount());
+
+        futures.forEach(future -> future.complete(null));
+        Assert.assertEquals(0, connection.getPendingMessageCount());
+        Assert.assertEquals(0, connection.getPendingMessageBytes());
+    }
+
+    @Test
+    public void push_noPendingMessageLimit_messagesNotRetained() {
+        UI ui = createUI(null, null);
+        List<CompletableFuture<Object>> futures = new CopyOnWriteArrayList<>();
+        AtmosphereResource resource = Mockito.mock(AtmosphereResource.class);
+        Broadcaster broadcaster = Mockito.mock(Broadcaster.class);
+        Mockito.when(resource.getBroadcaster()).thenReturn(broadcaster);
+        Mockito.when(broadcaster.broadcast(Mockito.anyObject(),
+                Mockito.eq(resource))).thenAnswer(invocation -> {
+                    CompletableFuture<Object> future = new CompletableFuture<>();
+                    futures.add(future);
+                    return future;
+                });
+
+        AtmospherePushConnection connection = new AtmospherePushConnection(
+                ui);
+        connection.connect(resource);
+
+        session.lock();
+        try {
+            for (int i = 0; i < 100; i++) {
+                ui.getElement().setAttribute("foo", String.valueOf(i));
+                connection.push();
+            }
+        } finally {
+            session.unlock();
+        }
+
+        Assert.assertEquals(100, futures.size());
+        Assert.assertEquals(0, connection.getPendingMessageCount());
+        Assert.assertEquals(0, connection.getPendingMessageBytes());
+    }
+
+    private UI createUI(String parameter, String value) {
+        MockDeploymentConfiguration configuration = new MockDeploymentConfiguration();
+        if (parameter != null) {
+            configuration.setApplicationOrSystemProperty(parameter, value);
+        }
+        MockVaadinServletService service = new MockVaadinServletService(
+                configuration) {
+            @Override
+            public Iterable<DependencyFilter> getDependencyFilters() {
+                return Collections.emptyList();
+            }
+        };
+        // Deferred pushes run in the push executor of the service
+        service.init();
+        session = new MockVaadinSession(service);
+
+        session.lock();
+        try {
+            session.setConfiguration(configuration);
+            UI ui = new UI();
+            ui.getInternals().setSession(session);
+            VaadinServletRequest request = Mockito
+                    .mock(VaadinServletRequest.class);
+            Mockito.when(request.getHttpServletRequest())
+                    .thenReturn(Mockito.mock(HttpServletRequest.class));
+            ui.doInit(request, session.getNextUIid());
+            session.addUI(ui);
+            return ui;
+        } finally {
+            session.unlock();
+        }
+    }
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import javax.servlet.http.HttpServletRequest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import net.jcip.annotations.NotThreadSafe;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.flow.server.HandlerHelper.RequestType;
+import com.vaadin.flow.server.MockVaadinServletService;
+import com.vaadin.flow.server.MockVaadinSession;
+import com.vaadin.flow.server.RequestHandler;
+import com.vaadin.flow.server.VaadinResponse;
+import com.vaadin.flow.server.VaadinServletRequest;
+import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.server.WrappedSession;
+import com.vaadin.flow.shared.ApplicationConstants;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+
+@NotThreadSafe
+public class HeartbeatHandlerTest {
+
+    private MockVaadinServletService service;
+    private MockVaadinSession session;
+    private UI ui;
+
+    @Before
+    public void setUp() {
+        MockDeploymentConfiguration configuration = new MockDeploymentConfiguration();
+        service = new MockVaadinServletService(configuration) {
+            @Override
+            protected List<RequestHandler> createRequestHandlers() {
+                return Arrays.asList(new SessionRequestHandler(),
+                        new HeartbeatHandler());
+            }
+        };
+        service.init();
+        session = new MockVaadinSession(service);
+
+        session.lock();
+        try {
+            session.setConfiguration(configuration);
+            ui = new UI();
+            ui.getInternals().setSession(session);
+            VaadinServletRequest request = Mockito
+                    .mock(VaadinServletRequest.class);
+            Mockito.when(request.getHttpServletRequest())
+                    .thenReturn(Mockito.mock(HttpServletRequest.class));
+            ui.doInit(request, session.getNextUIid());
+            session.addUI(ui);
+        } finally {
+            session.unlock();
+        }
+        CurrentInstance.clearAll();
+    }
+
+    @After
+    public void tearDown() {
+        service.destroy();
+        CurrentInstance.clearAll();
+    }
+
+    @Test
+    public void handleRequest_sessionLockedByOtherThread_heartbeatCompletes()
+            throws Exception {
+        VaadinServletRequest request = createHeartbeatRequest();
+        VaadinResponse response = Mockito.mock(VaadinResponse.class);
+
+        session.lock();
+        try {
+            ui.getInternals().setLastHeartbeatTimestamp(0);
+            CompletableFuture<Void> heartbeat = CompletableFuture
+                    .runAsync(() -> {
+                        try {
+                            service.handleRequest(request, response);
+                        } catch (Exception e) {
+                            throw new RuntimeException(e);
+                        }
+                    });
+            heartbeat.get(5, TimeUnit.SECONDS);
+        } finally {
+            session.unlock();
+        }
+
+        Assert.assertTrue(ui.getInternals().getLastHeartbeatTimestamp() > 0);
+        Mockito.verify(response).setHeader("Cache-Control", "no-cache");
+    }
+
+    private VaadinServletRequest createHeartbeatRequest() {
+        WrappedSession wrappedSession = Mockito.mock(WrappedSession.class);
+        Mockito.when(wrappedSession.getAttribute(
+                VaadinSession.class.getName() + "." + service.getServiceName()))
+                .thenReturn(session);
+
+        VaadinServletRequest request = Mockito
+                .mock(VaadinServletRequest.class);
+        Mockito.when(request.getService()).thenReturn(service);
+        Mockito.when(request.getWrappedSession(Mockito.anyBoolean()))
+                .thenReturn(wrappedSession);
+        Mockito.when(request
+                .getParameter(ApplicationConstants.REQUEST_TYPE_PARAMETER))
+                .thenReturn(RequestType.HEARTBEAT.getIdentifier());
+        Mockito.when(
+                request.getParameter(ApplicationConstants.UI_ID_PARAMETER))
+                .thenReturn(String.valueOf(ui.getUIId()));
+        return request;
+    }
+}
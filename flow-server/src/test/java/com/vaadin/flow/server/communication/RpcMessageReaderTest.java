@@ -0,0 +1,115 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.flow.internal.MessageDigestUtil;
+
+import elemental.json.JsonException;
+import elemental.json.JsonObject;
+import elemental.json.JsonType;
+import elemental.json.impl.JsonUtil;
+
+public class RpcMessageReaderTest {
+
+    @Test
+    public void readMessage_sameAsParsedString() throws IOException {
+        String message = "{\"csrfToken\":\"foo\",\"clientId\":3,"
+                + "\"rpc\":[{\"type\":\"mSync\",\"node\":2,\"feature\":1,"
+                + "\"property\":\"value\",\"value\":\"b\\u00e4r\"},"
+                + "{\"type\":\"event\",\"node\":2,\"event\":\"click\","
+                + "\"data\":{\"event.button\":0.5,\"event.shiftKey\":false,"
+                + "\"x\":null}}]}";
+        RpcMessageReader reader = new RpcMessageReader(
+                new StringReader(message));
+
+        JsonObject json = reader.readMessage();
+
+        Assert.assertEquals(JsonUtil.parse(message).toJson(), json.toJson());
+        Assert.assertEquals(JsonType.NULL, json.getArray("rpc").getObject(1)
+                .getObject("data").get("x").getType());
+        Assert.assertArrayEquals(MessageDigestUtil.sha256(message),
+                reader.getMessageHash());
+        Assert.assertEquals(message, reader.getMessageStart());
+    }
+
+    @Test
+    public void readMessage_largeMessage_hashOfMessageStart()
+            throws IOException {
+        StringBuilder builder = new StringBuilder("{\"rpc\":[");
+        for (int i = 0; builder.length() < 3
+                * RpcMessageReader.HASHED_LENGTH; i++) {
+            builder.append("{\"type\":\"mSync\",\"node\":").append(i)
+                    .append(",\"feature\":1,\"property\":\"value\","
+                            + "\"value\":\"\u20ac\"},");
+        }
+        builder.setLength(builder.length() - 1);
+        builder.append("]}");
+        String message = builder.toString();
+        RpcMessageReader reader = new RpcMessageReader(
+                new StringReader(message));
+
+        JsonObject json = reader.readMessage();
+
+        Assert.assertEquals(JsonUtil.parse(message).toJson(), json.toJson());
+        Assert.assertArrayEquals(
+                MessageDigestUtil.sha256(message.substring(0,
+                        RpcMessageReader.HASHED_LENGTH)),
+                reader.getMessageHash());
+        Assert.assertEquals(message.substring(0, 1000),
+                reader.getMessageStart());
+    }
+
+    @Test
+    public void readMessage_trailingWhitespace_includedInHash()
+            throws IOException {
+        String message = "{\"clientId\":1}\n";
+        RpcMessageReader reader = new RpcMessageReader(
+                new StringReader(message));
+
+        reader.readMessage();
+
+        Assert.assertArrayEquals(MessageDigestUtil.sha256(message),
+                reader.getMessageHash());
+    }
+
+    @Test
+    public void readMessage_emptyMessage_null() throws IOException {
+        Assert.assertNull(
+                new RpcMessageReader(new StringReader("")).readMessage());
+    }
+
+    @Test(expected = JsonException.class)
+    public void readMessage_notAnObject_throws() throws IOException {
+        new RpcMessageReader(new StringReader("[1, 2]")).readMessage();
+    }
+
+    @Test(expected = JsonException.class)
+    public void readMessage_truncatedMessage_throws() throws IOException {
+        new RpcMessageReader(new StringReader("{\"rpc\":[{\"node\":1}"))
+                .readMessage();
+    }
+
+    @Test(expected = JsonException.class)
+    public void readMessage_invalidJson_throws() throws IOException {
+        new RpcMessageReader(new StringReader("{\"rpc\":[}")).readMessage();
+    }
+}
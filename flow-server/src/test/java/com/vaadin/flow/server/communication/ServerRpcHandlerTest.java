@@ -3,6 +3,11 @@ package com.vaadin.flow.server.communication;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -21,7 +26,12 @@ import com.vaadin.flow.server.VaadinRequest;
 import com.vaadin.flow.server.VaadinService;
 import com.vaadin.flow.server.VaadinSession;
 import com.vaadin.flow.server.communication.ServerRpcHandler.InvalidUIDLSecurityKeyException;
+import com.vaadin.flow.server.communication.rpc.RpcInvocationHandler;
 import com.vaadin.flow.shared.ApplicationConstants;
+import com.vaadin.flow.shared.JsonConstants;
+
+import elemental.json.JsonException;
+import elemental.json.JsonObject;
 
 public class ServerRpcHandlerTest {
     private VaadinRequest request;
@@ -90,16 +100,32 @@ public class ServerRpcHandlerTest {
         Mockito.verify(dependencyList).clearPendingSendToClient();
     }
 
+    @Test
+    public void handleRpc_resynchronize_missedMessagesLogged_replaysMessages()
+            throws IOException,
+            ServerRpcHandler.InvalidUIDLSecurityKeyException {
+        Mockito.when(service.getDeploymentConfiguration()
+                .isSyncIdCheckEnabled()).thenReturn(true);
+        Mockito.when(uiInternals.replayMessagesAfter(3)).thenReturn(true);
+        StringReader reader = new StringReader("{\"csrfToken\": \"" + csrfToken
+                + "\", \"rpc\":[], \"resynchronize\": true, \"clientId\":1,"
+                + " \"syncId\": 3}");
+        uiTree.collectChanges(c -> { // clean tree
+        });
+
+        // does not throw ResynchronizationRequiredException
+        serverRpcHandler.handleRpc(ui, reader, request);
+
+        Mockito.verify(uiInternals).replayMessagesAfter(3);
+        Assert.assertFalse(uiTree.hasDirtyNodes());
+        Mockito.verify(dependencyList, Mockito.never())
+                .clearPendingSendToClient();
+    }
+
     @Test
     public void handleRpc_duplicateMessage_doNotThrow()
             throws InvalidUIDLSecurityKeyException, IOException {
         String msg = "{\"" + ApplicationConstants.CLIENT_TO_SERVER_ID + "\":1}";
-        ServerRpcHandler handler = new ServerRpcHandler() {
-            @Override
-            protected String getMessage(Reader reader) throws IOException {
-                return msg;
-            };
-        };
 
         ui = new UI();
         ui.getInternals().setSession(session);
@@ -107,23 +133,113 @@ public class ServerRpcHandlerTest {
                 MessageDigestUtil.sha256(msg));
 
         // This invocation shouldn't throw. No other checks
-        handler.handleRpc(ui, Mockito.mock(Reader.class), request);
+        serverRpcHandler.handleRpc(ui, new StringReader(msg), request);
     }
 
     @Test(expected = UnsupportedOperationException.class)
     public void handleRpc_unexpectedMessage_throw()
             throws InvalidUIDLSecurityKeyException, IOException {
+        ui = new UI();
+        ui.getInternals().setSession(session);
+
+        serverRpcHandler.handleRpc(ui, new StringReader(
+                "{\"" + ApplicationConstants.CLIENT_TO_SERVER_ID + "\":1}"),
+                request);
+    }
+
+    @Test
+    public void handleRpc_sameMapPropertySyncedTwice_allValuesHandledInOrder()
+            throws IOException,
+            ServerRpcHandler.InvalidUIDLSecurityKeyException {
+        List<JsonObject> handled = new ArrayList<>();
+        RpcInvocationHandler mapSyncHandler = new RpcInvocationHandler() {
+            @Override
+            public String getRpcType() {
+                return JsonConstants.RPC_TYPE_MAP_SYNC;
+            }
+
+            @Override
+            public Optional<Runnable> handle(UI ui, JsonObject invocationJson) {
+                handled.add(invocationJson);
+                return Optional.empty();
+            }
+        };
+        ServerRpcHandler handler = new ServerRpcHandler() {
+            @Override
+            protected Map<String, RpcInvocationHandler> getInvocationHandlers() {
+                return Collections.singletonMap(
+                        JsonConstants.RPC_TYPE_MAP_SYNC, mapSyncHandler);
+            }
+        };
+        StringReader reader = new StringReader("{\"csrfToken\": \"" + csrfToken
+                + "\", \"clientId\":1, \"rpc\":["
+                + mapSync(1, "value", "a") + "," + mapSync(2, "value", "b")
+                + "," + mapSync(1, "value", "c") + "]}");
+
+        handler.handleRpc(ui, reader, request);
+
+        // Coalescing is done by the client, every value is handled here
+        Assert.assertEquals(3, handled.size());
+        Assert.assertEquals("a", handled.get(0)
+                .getString(JsonConstants.RPC_PROPERTY_VALUE));
+        Assert.assertEquals("b", handled.get(1)
+                .getString(JsonConstants.RPC_PROPERTY_VALUE));
+        Assert.assertEquals("c", handled.get(2)
+                .getString(JsonConstants.RPC_PROPERTY_VALUE));
+    }
+
+    @Test(expected = JsonException.class)
+    public void handleRpc_invalidJson_throwsJsonException()
+            throws InvalidUIDLSecurityKeyException, IOException {
+        serverRpcHandler.handleRpc(ui,
+                new StringReader("{\"csrfToken\": \"" + csrfToken + "\","),
+                request);
+    }
+
+    @Test
+    public void handleRpc_getMessageOverridden_overriddenMessageHandled()
+            throws InvalidUIDLSecurityKeyException, IOException {
+        List<JsonObject> handled = new ArrayList<>();
+        RpcInvocationHandler mapSyncHandler = new RpcInvocationHandler() {
+            @Override
+            public String getRpcType() {
+                return JsonConstants.RPC_TYPE_MAP_SYNC;
+            }
+
+            @Override
+            public Optional<Runnable> handle(UI ui, JsonObject invocationJson) {
+                handled.add(invocationJson);
+                return Optional.empty();
+            }
+        };
         ServerRpcHandler handler = new ServerRpcHandler() {
             @Override
-            protected String getMessage(Reader reader) throws IOException {
-                return "{\"" + ApplicationConstants.CLIENT_TO_SERVER_ID
-                        + "\":1}";
-            };
+            protected Map<String, RpcInvocationHandler> getInvocationHandlers() {
+                return Collections.singletonMap(
+                        JsonConstants.RPC_TYPE_MAP_SYNC, mapSyncHandler);
+            }
+
+            @Override
+            protected String getMessage(Reader reader) {
+                return "{\"csrfToken\": \"" + csrfToken
+                        + "\", \"clientId\":1, \"rpc\":["
+                        + mapSync(1, "value", "overridden") + "]}";
+            }
         };
 
-        ui = new UI();
-        ui.getInternals().setSession(session);
+        handler.handleRpc(ui, new StringReader("not read"), request);
+
+        Assert.assertEquals(1, handled.size());
+        Assert.assertEquals("overridden", handled.get(0)
+                .getString(JsonConstants.RPC_PROPERTY_VALUE));
+    }
 
-        handler.handleRpc(ui, Mockito.mock(Reader.class), request);
+    private static String mapSync(int node, String property, String value) {
+        return "{\"" + JsonConstants.RPC_TYPE + "\":\""
+                + JsonConstants.RPC_TYPE_MAP_SYNC + "\",\""
+                + JsonConstants.RPC_NODE + "\":" + node + ",\""
+                + JsonConstants.RPC_FEATURE + "\":1,\""
+                + JsonConstants.RPC_PROPERTY + "\":\"" + property + "\",\""
+                + JsonConstants.RPC_PROPERTY_VALUE + "\":\"" + value + "\"}";
     }
 }
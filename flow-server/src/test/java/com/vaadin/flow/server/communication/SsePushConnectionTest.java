@@ -0,0 +1,271 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletResponse;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import net.jcip.annotations.NotThreadSafe;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.flow.server.DependencyFilter;
+import com.vaadin.flow.server.InitParameters;
+import com.vaadin.flow.server.MockVaadinServletService;
+import com.vaadin.flow.server.MockVaadinSession;
+import com.vaadin.flow.server.VaadinServletRequest;
+import com.vaadin.flow.shared.communication.PushMode;
+import com.vaadin.flow.shared.ui.Transport;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+
+@NotThreadSafe
+public class SsePushConnectionTest {
+
+    private static class TestOutputStream extends ServletOutputStream {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private boolean ready = true;
+        private WriteListener writeListener;
+
+        @Override
+        public boolean isReady() {
+            if (writeListener == null) {
+                throw new IllegalStateException(
+                        "isReady() called before setWriteListener()");
+            }
+            return ready;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            this.writeListener = writeListener;
+        }
+
+        @Override
+        public void write(int b) {
+            bytes.write(b);
+        }
+
+        private String getWritten() {
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private MockVaadinSession session;
+
+    @After
+    public void tearDown() {
+        if (session != null) {
+            session.getService().destroy();
+        }
+        CurrentInstance.clearAll();
+    }
+
+    @Test
+    public void create_withoutLock_transportNotChanged() {
+        UI ui = createUI(null, null);
+
+        new SsePushConnection(ui);
+
+        session.lock();
+        try {
+            Assert.assertEquals(Transport.WEBSOCKET_XHR,
+                    ui.getPushConfiguration().getTransport());
+        } finally {
+            session.unlock();
+        }
+    }
+
+    @Test
+    public void setPushMode_sseTransport_ssePushConnectionUsed() {
+        UI ui = createUI(null, null);
+
+        session.lock();
+        try {
+            ui.getPushConfiguration().setTransport(Transport.SSE);
+            ui.getPushConfiguration().setPushMode(PushMode.AUTOMATIC);
+
+            Assert.assertTrue(ui.getInternals()
+                    .getPushConnection() instanceof SsePushConnection);
+        } finally {
+            session.unlock();
+        }
+    }
+
+    @Test
+    public void setPushMode_factoryCreatesSseConnection_transportSetToSse() {
+        UI ui = createUI(null, null);
+
+        session.lock();
+        try {
+            ui.getPushConfiguration()
+                    .setPushConnectionFactory(SsePushConnection::new);
+            ui.getPushConfiguration().setPushMode(PushMode.AUTOMATIC);
+
+            Assert.assertEquals(Transport.SSE,
+                    ui.getPushConfiguration().getTransport());
+        } finally {
+            session.unlock();
+        }
+    }
+
+    @Test
+    public void push_connected_writesEvent() throws IOException {
+        UI ui = createUI(null, null);
+        SsePushConnection connection = new SsePushConnection(ui);
+        TestOutputStream output = new TestOutputStream();
+
+        session.lock();
+        try {
+            connection.connect(createAsyncContext(output));
+            ui.getElement().setAttribute("foo", "bar");
+            connection.push();
+        } finally {
+            session.unlock();
+        }
+
+        String written = output.getWritten();
+        Assert.assertTrue(written.startsWith("retry: "));
+        Assert.assertTrue(written.contains("\n\ndata: for(;;);["));
+        Assert.assertTrue(written.contains("\"bar\""));
+        Assert.assertTrue(written.endsWith("]\n\n"));
+        Assert.assertEquals(0, connection.getPendingMessageCount());
+    }
+
+    @Test
+    public void push_notConnected_pushedWhenConnected() throws IOException {
+        UI ui = createUI(null, null);
+        SsePushConnection connection = new SsePushConnection(ui);
+        TestOutputStream output = new TestOutputStream();
+
+        session.lock();
+        try {
+            ui.getElement().setAttribute("foo", "bar");
+            connection.push();
+            connection.connect(createAsyncContext(output));
+        } finally {
+            session.unlock();
+        }
+
+        Assert.assertTrue(output.getWritten().contains("\"bar\""));
+    }
+
+    @Test
+    public void push_pendingMessageLimitReached_pushHeldUntilWritten()
+            throws IOException {
+        UI ui = createUI(
+                InitParameters.SERVLET_PARAMETER_MAX_PENDING_PUSH_MESSAGES,
+                "2");
+        SsePushConnection connection = new SsePushConnection(ui);
+        TestOutputStream output = new TestOutputStream();
+        output.ready = false;
+
+        session.lock();
+        try {
+            connection.connect(createAsyncContext(output));
+            for (int i = 0; i < 3; i++) {
+                ui.getElement().setAttribute("foo", String.valueOf(i));
+                connection.push();
+            }
+        } finally {
+            session.unlock();
+        }
+        // The opening event and the first push
+        Assert.assertEquals(2, connection.getPendingMessageCount());
+        Assert.assertTrue(connection.getPendingMessageBytes() > 0);
+
+        output.ready = true;
+        output.writeListener.onWritePossible();
+
+        String written = output.getWritten();
+        Assert.assertTrue(written.contains("\"0\""));
+        Assert.assertFalse(written.contains("\"1\""));
+        Assert.assertTrue(written.contains("\"2\""));
+        Assert.assertEquals(0, connection.getPendingMessageCount());
+        Assert.assertEquals(0, connection.getPendingMessageBytes());
+    }
+
+    @Test
+    public void disconnect_asyncContextCompleted() throws IOException {
+        UI ui = createUI(null, null);
+        SsePushConnection connection = new SsePushConnection(ui);
+        AsyncContext context = createAsyncContext(new TestOutputStream());
+        session.lock();
+        try {
+            connection.connect(context);
+        } finally {
+            session.unlock();
+        }
+
+        connection.disconnect();
+
+        Mockito.verify(context).complete();
+        Assert.assertFalse(connection.isConnected());
+    }
+
+    private static AsyncContext createAsyncContext(ServletOutputStream output)
+            throws IOException {
+        AsyncContext context = Mockito.mock(AsyncContext.class);
+        ServletResponse response = Mockito.mock(ServletResponse.class);
+        Mockito.when(context.getResponse()).thenReturn(response);
+        Mockito.when(response.getOutputStream()).thenReturn(output);
+        return context;
+    }
+
+    private UI createUI(String parameter, String value) {
+        MockDeploymentConfiguration configuration = new MockDeploymentConfiguration();
+        if (parameter != null) {
+            configuration.setApplicationOrSystemProperty(parameter, value);
+        }
+        MockVaadinServletService service = new MockVaadinServletService(
+                configuration) {
+            @Override
+            public Iterable<DependencyFilter> getDependencyFilters() {
+                return Collections.emptyList();
+            }
+        };
+        // Keepalives are scheduled in the push executor of the service
+        service.init();
+        session = new MockVaadinSession(service);
+
+        session.lock();
+        try {
+            session.setConfiguration(configuration);
+            UI ui = new UI();
+            ui.getInternals().setSession(session);
+            VaadinServletRequest request = Mockito
+                    .mock(VaadinServletRequest.class);
+            Mockito.when(request.getHttpServletRequest())
+                    .thenReturn(Mockito.mock(HttpServletRequest.class));
+            ui.doInit(request, session.getNextUIid());
+            session.addUI(ui);
+            return ui;
+        } finally {
+            session.unlock();
+        }
+    }
+}
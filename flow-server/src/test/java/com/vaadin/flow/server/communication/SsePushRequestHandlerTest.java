@@ -0,0 +1,220 @@
+/*
+ * Copyright 2000-2020 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletResponse;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import net.jcip.annotations.NotThreadSafe;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.flow.server.DependencyFilter;
+import com.vaadin.flow.server.HandlerHelper.RequestType;
+import com.vaadin.flow.server.MockVaadinServletService;
+import com.vaadin.flow.server.MockVaadinSession;
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.VaadinResponse;
+import com.vaadin.flow.server.VaadinServletRequest;
+import com.vaadin.flow.shared.ApplicationConstants;
+import com.vaadin.flow.shared.communication.PushMode;
+import com.vaadin.flow.shared.ui.Transport;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+
+@NotThreadSafe
+public class SsePushRequestHandlerTest {
+
+    private final SsePushRequestHandler handler = new SsePushRequestHandler();
+
+    private MockVaadinSession session;
+    private UI ui;
+    private String pushId;
+
+    private AsyncContext asyncContext;
+    private VaadinResponse response;
+    private ByteArrayOutputStream responseOutput;
+
+    @Before
+    public void setUp() throws IOException {
+        MockDeploymentConfiguration configuration = new MockDeploymentConfiguration();
+        MockVaadinServletService service = new MockVaadinServletService(
+                configuration) {
+            @Override
+            public Iterable<DependencyFilter> getDependencyFilters() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public UI findUI(VaadinRequest request) {
+                return ui;
+            }
+        };
+        service.init();
+        session = new MockVaadinSession(service);
+
+        session.lock();
+        try {
+            session.setConfiguration(configuration);
+            ui = new UI();
+            ui.getInternals().setSession(session);
+            VaadinServletRequest request = Mockito
+                    .mock(VaadinServletRequest.class);
+            Mockito.when(request.getHttpServletRequest())
+                    .thenReturn(Mockito.mock(HttpServletRequest.class));
+            ui.doInit(request, session.getNextUIid());
+            session.addUI(ui);
+            pushId = session.getPushId();
+        } finally {
+            session.unlock();
+        }
+
+        asyncContext = Mockito.mock(AsyncContext.class);
+        ServletResponse servletResponse = Mockito.mock(ServletResponse.class);
+        Mockito.when(asyncContext.getResponse()).thenReturn(servletResponse);
+        Mockito.when(servletResponse.getOutputStream())
+                .thenReturn(new ServletOutputStream() {
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        // Always ready
+                    }
+
+                    @Override
+                    public void write(int b) {
+                        // Not checked
+                    }
+                });
+
+        response = Mockito.mock(VaadinResponse.class);
+        responseOutput = new ByteArrayOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(responseOutput);
+    }
+
+    @After
+    public void tearDown() {
+        session.getService().destroy();
+        CurrentInstance.clearAll();
+    }
+
+    @Test
+    public void handleRequest_ssePushConnection_connected()
+            throws IOException {
+        enablePush(Transport.SSE);
+        VaadinServletRequest request = createPushRequest(pushId);
+
+        Assert.assertTrue(handler.handleRequest(session, request, response));
+
+        Mockito.verify(request).startAsync();
+        Mockito.verify(asyncContext).setTimeout(0);
+        Mockito.verify(response).setContentType(
+                SsePushConnection.CONTENT_TYPE + "; charset=UTF-8");
+        Assert.assertTrue(ui.getInternals().getPushConnection().isConnected());
+    }
+
+    @Test
+    public void handleRequest_invalidPushId_notConnected() throws IOException {
+        enablePush(Transport.SSE);
+        VaadinServletRequest request = createPushRequest("invalid");
+
+        Assert.assertTrue(handler.handleRequest(session, request, response));
+
+        Mockito.verify(request, Mockito.never()).startAsync();
+        Assert.assertFalse(
+                ui.getInternals().getPushConnection().isConnected());
+        Assert.assertTrue(getWritten().startsWith("data: "));
+    }
+
+    @Test
+    public void handleRequest_atmospherePushConnection_notHandled()
+            throws IOException {
+        enablePush(Transport.WEBSOCKET_XHR);
+        VaadinServletRequest request = createPushRequest(pushId);
+
+        Assert.assertFalse(handler.handleRequest(session, request, response));
+
+        Mockito.verify(request, Mockito.never()).startAsync();
+    }
+
+    @Test
+    public void handleRequest_notEventStream_notHandled() throws IOException {
+        enablePush(Transport.SSE);
+        VaadinServletRequest request = createPushRequest(pushId);
+        Mockito.when(request.getHeader("Accept"))
+                .thenReturn("application/json");
+
+        Assert.assertFalse(handler.handleRequest(session, request, response));
+
+        Mockito.verify(request, Mockito.never()).startAsync();
+    }
+
+    @Test
+    public void handleSessionExpired_pushRequest_sessionExpiredSent()
+            throws IOException {
+        VaadinServletRequest request = createPushRequest(null);
+
+        Assert.assertTrue(handler.handleSessionExpired(request, response));
+
+        Assert.assertTrue(getWritten().startsWith("data: "));
+        Assert.assertTrue(getWritten().endsWith("\n\n"));
+    }
+
+    private void enablePush(Transport transport) {
+        session.lock();
+        try {
+            ui.getPushConfiguration().setTransport(transport);
+            ui.getPushConfiguration().setPushMode(PushMode.AUTOMATIC);
+        } finally {
+            session.unlock();
+        }
+    }
+
+    private VaadinServletRequest createPushRequest(String pushId) {
+        VaadinServletRequest request = Mockito
+                .mock(VaadinServletRequest.class);
+        Mockito.when(request
+                .getParameter(ApplicationConstants.REQUEST_TYPE_PARAMETER))
+                .thenReturn(RequestType.PUSH.getIdentifier());
+        Mockito.when(
+                request.getParameter(ApplicationConstants.PUSH_ID_PARAMETER))
+                .thenReturn(pushId);
+        Mockito.when(request.getHeader("Accept"))
+                .thenReturn(SsePushConnection.CONTENT_TYPE);
+        Mockito.when(request.startAsync()).thenReturn(asyncContext);
+        return request;
+    }
+
+    private String getWritten() {
+        return new String(responseOutput.toByteArray(),
+                StandardCharsets.UTF_8);
+    }
+}
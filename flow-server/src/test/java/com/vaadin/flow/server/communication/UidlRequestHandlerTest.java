@@ -17,32 +17,58 @@
 
 package com.vaadin.flow.server.communication;
 
+import javax.servlet.http.HttpServletRequest;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.Properties;
+import java.util.zip.GZIPInputStream;
 
+import org.apache.commons.io.IOUtils;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.internal.JavaScriptBootstrapUI;
+import com.vaadin.flow.function.SerializableConsumer;
+import com.vaadin.flow.internal.CurrentInstance;
 import com.vaadin.flow.server.DefaultDeploymentConfiguration;
+import com.vaadin.flow.server.DependencyFilter;
 import com.vaadin.flow.server.HandlerHelper.RequestType;
+import com.vaadin.flow.server.InitParameters;
+import com.vaadin.flow.server.MockVaadinServletService;
+import com.vaadin.flow.server.MockVaadinSession;
 import com.vaadin.flow.server.VaadinRequest;
 import com.vaadin.flow.server.VaadinResponse;
 import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.VaadinServletRequest;
 import com.vaadin.flow.server.VaadinServletService;
 import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.server.communication.ServerRpcHandler.InvalidUIDLSecurityKeyException;
 import com.vaadin.flow.shared.ApplicationConstants;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
 
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 import elemental.json.impl.JsonUtil;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
@@ -112,6 +138,60 @@ public class UidlRequestHandlerTest {
                 responseContent);
     }
 
+    @Test
+    public void commitJsonResponse_aboveCompressionThreshold_gzipped()
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+        Mockito.when(request.getHeader("Accept-Encoding"))
+                .thenReturn("gzip, deflate, br");
+
+        String json = "for(;;);[{\"syncId\":1}]";
+        UidlRequestHandler.commitJsonResponse(request, response,
+                utf8(json), 10);
+
+        Mockito.verify(response).setHeader("Content-Encoding", "gzip");
+        Mockito.verify(response).setHeader("Vary", "Accept-Encoding");
+        Mockito.verify(response).setContentLength(out.size());
+        try (GZIPInputStream in = new GZIPInputStream(
+                new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(json, IOUtils.toString(in, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void commitJsonResponse_belowCompressionThreshold_notGzipped()
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+        Mockito.when(request.getHeader("Accept-Encoding")).thenReturn("gzip");
+
+        String json = "for(;;);[{\"syncId\":1}]";
+        UidlRequestHandler.commitJsonResponse(request, response,
+                utf8(json), 1000);
+
+        Mockito.verify(response, Mockito.never())
+                .setHeader(Mockito.eq("Content-Encoding"), Mockito.anyString());
+        assertEquals(json, new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void commitJsonResponse_gzipNotAccepted_notGzipped()
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+        Mockito.when(request.getHeader("Accept-Encoding"))
+                .thenReturn("gzip;q=0, br");
+
+        String json = "for(;;);[{\"syncId\":1}]";
+        UidlRequestHandler.commitJsonResponse(request, response,
+                utf8(json), 10);
+
+        Mockito.verify(response, Mockito.never())
+                .setHeader(Mockito.eq("Content-Encoding"), Mockito.anyString());
+        assertEquals(json, new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
     @Test
     public void should_not_modifyUidl_when_MPR_nonJavaScriptBootstrapUI() throws Exception {
         JavaScriptBootstrapUI ui = null;
@@ -226,6 +306,136 @@ public class UidlRequestHandlerTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    public void streamUidl_MPR_JavaScriptBootstrapUI_uidlModified()
+            throws Exception {
+        JavaScriptBootstrapUI ui = mock(JavaScriptBootstrapUI.class);
+
+        UidlRequestHandler handler = spy(new UidlRequestHandler());
+        doReturn(streamingUidlWriter(generateUidl(true, true))).when(handler)
+                .createUidlWriter();
+        StringWriter writer = new StringWriter();
+
+        handler.streamUidl(ui, writer, false);
+
+        String out = writer.toString();
+        assertTrue(out.startsWith("for(;;);[{"));
+        assertTrue(out.endsWith("}]"));
+        JsonObject uidl = JsonUtil.parse(out.substring(9, out.length() - 1));
+
+        assertEquals(
+                "setTimeout(() => history.pushState(null, null, 'http://localhost:9998/#!away'));",
+                uidl.getArray("execute").getArray(1).getString(1));
+        String v7Uidl = uidl.getArray("execute").getArray(2).getString(1);
+        assertFalse(v7Uidl.contains("window.location.hash = '!away';"));
+    }
+
+    @Test
+    public void streamUidl_MPR_nonJavaScriptBootstrapUI_uidlNotModified()
+            throws Exception {
+        UI ui = mock(UI.class);
+
+        UidlRequestHandler handler = spy(new UidlRequestHandler());
+        JsonObject uidl = generateUidl(true, true);
+        String expected = uidl.toJson();
+        doReturn(streamingUidlWriter(uidl)).when(handler).createUidlWriter();
+        StringWriter writer = new StringWriter();
+
+        handler.streamUidl(ui, writer, false);
+
+        assertEquals("for(;;);[" + expected + "]", writer.toString());
+    }
+
+    @Test
+    public void handleRequest_uiLockingEnabled_accessTasksRunAndResponseWritten()
+            throws IOException {
+        MockDeploymentConfiguration configuration = new MockDeploymentConfiguration();
+        configuration.setApplicationOrSystemProperty(
+                InitParameters.SERVLET_PARAMETER_UI_LOCKING, "true");
+        MockVaadinServletService service = new MockVaadinServletService(
+                configuration) {
+            @Override
+            public Iterable<DependencyFilter> getDependencyFilters() {
+                return Collections.emptyList();
+            }
+        };
+        service.init();
+        MockVaadinSession session = new MockVaadinSession(service);
+        UI ui = new UI();
+        session.lock();
+        try {
+            session.setConfiguration(configuration);
+            ui.getInternals().setSession(session);
+            VaadinServletRequest initRequest = mock(VaadinServletRequest.class);
+            when(initRequest.getHttpServletRequest())
+                    .thenReturn(mock(HttpServletRequest.class));
+            ui.doInit(initRequest, session.getNextUIid());
+            session.addUI(ui);
+        } finally {
+            session.unlock();
+        }
+
+        handler = new UidlRequestHandler() {
+            @Override
+            protected ServerRpcHandler createRpcHandler() {
+                return new ServerRpcHandler() {
+                    @Override
+                    public void handleRpc(UI ui, Reader reader,
+                            VaadinRequest request) throws IOException,
+                            InvalidUIDLSecurityKeyException {
+                        Assert.assertFalse(ui.getSession().hasLock());
+                        super.handleRpc(ui, reader, request);
+                        // Queued as the UI is locked by the current thread
+                        ui.access(() -> ui.getElement().setAttribute("foo",
+                                "bar"));
+                    }
+                };
+            }
+        };
+        when(request.getService()).thenReturn(service);
+        when(request.getParameter(ApplicationConstants.REQUEST_TYPE_PARAMETER))
+                .thenReturn(RequestType.UIDL.getIdentifier());
+        when(request.getParameter(ApplicationConstants.UI_ID_PARAMETER))
+                .thenReturn(String.valueOf(ui.getUIId()));
+        when(request.getReader()).thenReturn(new BufferedReader(
+                new StringReader("{\"" + ApplicationConstants.CSRF_TOKEN
+                        + "\":\"" + session.getCsrfToken() + "\",\"rpc\":[],"
+                        + "\"syncId\":0,\"clientId\":0}")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        when(response.getOutputStream()).thenReturn(out);
+
+        try {
+            assertTrue(handler.handleRequest(session, request, response));
+        } finally {
+            service.destroy();
+            CurrentInstance.clearAll();
+        }
+
+        String responseContent = new String(out.toByteArray(),
+                StandardCharsets.UTF_8);
+        assertTrue(responseContent.startsWith("for(;;);[{"));
+        assertTrue(responseContent.contains("\"bar\""));
+        assertFalse(ui.getInternals().hasLock());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static UidlWriter streamingUidlWriter(JsonObject uidl)
+            throws IOException {
+        UidlWriter uidlWriter = mock(UidlWriter.class);
+        doAnswer(invocation -> {
+            Object[] arguments = invocation.getArguments();
+            SerializableConsumer<JsonArray> executeFilter = (SerializableConsumer<JsonArray>) arguments[4];
+            if (executeFilter != null) {
+                executeFilter.accept(uidl.getArray("execute"));
+            }
+            ((Writer) arguments[3]).write(uidl.toJson());
+            return null;
+        }).when(uidlWriter).writeUidl(any(UI.class), anyBoolean(),
+                anyBoolean(), any(Writer.class),
+                any(SerializableConsumer.class));
+        return uidlWriter;
+    }
+
     private JsonObject generateUidl(boolean withLocation, boolean withHash) {
         JsonObject uidl = JsonUtil.parse(
             "{" +
@@ -283,6 +493,9 @@ public class UidlRequestHandlerTest {
         return uidl;
     }
 
-
-
+    private static ByteArrayOutputStream utf8(String json) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        buffer.write(json.getBytes(StandardCharsets.UTF_8));
+        return buffer;
+    }
 }
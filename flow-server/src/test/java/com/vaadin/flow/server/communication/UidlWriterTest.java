@@ -17,6 +17,7 @@ package com.vaadin.flow.server.communication;
 
 import javax.servlet.http.HttpServletRequest;
 
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -34,7 +35,9 @@ import com.vaadin.flow.component.Tag;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.dependency.JavaScript;
 import com.vaadin.flow.component.dependency.StyleSheet;
+import com.vaadin.flow.component.internal.JavaScriptBootstrapUI;
 import com.vaadin.flow.component.internal.PendingJavaScriptInvocation;
+import com.vaadin.flow.component.internal.UIInternals;
 import com.vaadin.flow.component.internal.UIInternals.JavaScriptInvocation;
 import com.vaadin.flow.dom.Element;
 import com.vaadin.flow.dom.ElementFactory;
@@ -43,16 +46,20 @@ import com.vaadin.flow.router.ParentLayout;
 import com.vaadin.flow.router.Route;
 import com.vaadin.flow.router.RouteConfiguration;
 import com.vaadin.flow.router.RouterLayout;
+import com.vaadin.flow.server.InitParameters;
 import com.vaadin.flow.server.MockServletServiceSessionSetup;
 import com.vaadin.flow.server.VaadinServletRequest;
 import com.vaadin.flow.server.VaadinSession;
 import com.vaadin.flow.shared.ApplicationConstants;
+import com.vaadin.flow.shared.JsonConstants;
 import com.vaadin.flow.shared.ui.Dependency;
 import com.vaadin.flow.shared.ui.LoadMode;
 
 import elemental.json.Json;
 import elemental.json.JsonArray;
 import elemental.json.JsonObject;
+import elemental.json.JsonType;
+import elemental.json.impl.JsonUtil;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.core.Is.is;
@@ -180,6 +187,63 @@ public class UidlWriterTest {
         assertTrue(JsonUtils.jsonEquals(expectedJson, json));
     }
 
+    @Test
+    public void encodeExecuteJavaScript_repeatedExpression_sentAsConstant() {
+        UI ui = new UI();
+        UIInternals uiInternals = ui.getInternals();
+        Element element = ElementFactory.createDiv();
+        Function<Integer, List<PendingJavaScriptInvocation>> invocations = value -> Collections
+                .singletonList(new PendingJavaScriptInvocation(
+                        element.getNode(),
+                        new JavaScriptInvocation("console.log($0)", value)));
+
+        JsonArray first = UidlWriter
+                .encodeExecuteJavaScriptList(invocations.apply(1), uiInternals);
+        assertEquals("console.log($0)", first.getArray(0).getString(1));
+        assertFalse(uiInternals.getConstantPool().hasNewConstants());
+
+        JsonArray second = UidlWriter
+                .encodeExecuteJavaScriptList(invocations.apply(2), uiInternals);
+        JsonArray script = second.getArray(0).getArray(1);
+        JsonObject constants = uiInternals.getConstantPool().dumpConstants();
+        assertEquals(2, (int) second.getArray(0).getNumber(0));
+        assertEquals("console.log($0)",
+                constants.getString(script.getString(0)));
+
+        JsonArray third = UidlWriter
+                .encodeExecuteJavaScriptList(invocations.apply(3), uiInternals);
+        assertTrue(JsonUtils.jsonEquals(script,
+                third.getArray(0).getArray(1)));
+        assertFalse(uiInternals.getConstantPool().hasNewConstants());
+    }
+
+    @Test
+    public void encodeExecuteJavaScript_javaScriptBootstrapUI_onlyPushStateSentInline() {
+        UI ui = new JavaScriptBootstrapUI();
+        UIInternals uiInternals = ui.getInternals();
+        Element element = ElementFactory.createDiv();
+        String pushState = "setTimeout(() => history.pushState(null, null, $0))";
+        Function<String, List<PendingJavaScriptInvocation>> invocations = expression -> Collections
+                .singletonList(new PendingJavaScriptInvocation(
+                        element.getNode(),
+                        new JavaScriptInvocation(expression, "foo")));
+
+        for (int i = 0; i < 3; i++) {
+            JsonArray pushStateJson = UidlWriter.encodeExecuteJavaScriptList(
+                    invocations.apply(pushState), uiInternals);
+            assertEquals(pushState, pushStateJson.getArray(0).getString(1));
+        }
+        assertFalse(uiInternals.getConstantPool().hasNewConstants());
+
+        UidlWriter.encodeExecuteJavaScriptList(
+                invocations.apply("console.log($0)"), uiInternals);
+        JsonArray repeated = UidlWriter.encodeExecuteJavaScriptList(
+                invocations.apply("console.log($0)"), uiInternals);
+        assertEquals(JsonType.ARRAY,
+                repeated.getArray(0).get(1).getType());
+        assertTrue(uiInternals.getConstantPool().hasNewConstants());
+    }
+
     @Test
     public void componentDependencies_npmMode() throws Exception {
         UI ui = initializeUIForDependenciesTest(new TestUI());
@@ -283,6 +347,101 @@ public class UidlWriterTest {
                 response.getBoolean(ApplicationConstants.RESYNCHRONIZE_ID));
     }
 
+    @Test
+    public void writeUidl_streamedResponseContainsChangesAndDependencies()
+            throws Exception {
+        UI ui = initializeUIForDependenciesTest(new TestUI());
+        UidlWriter uidlWriter = new UidlWriter();
+        ui.add(new ActualComponent());
+        ui.getPage().executeJs("console.log($0)", "foo");
+
+        StringWriter writer = new StringWriter();
+        uidlWriter.writeUidl(ui, false, false, writer);
+        JsonObject response = JsonUtil.parse(writer.toString());
+
+        assertTrue(response.hasKey(ApplicationConstants.SERVER_SYNC_ID));
+        assertTrue(response.hasKey(ApplicationConstants.CLIENT_TO_SERVER_ID));
+        assertFalse(response.hasKey(ApplicationConstants.RESYNCHRONIZE_ID));
+        assertTrue(response.getArray("changes").length() > 0);
+        JsonArray execute = response.getArray(JsonConstants.UIDL_KEY_EXECUTE);
+        JsonArray invocation = execute.getArray(execute.length() - 1);
+        assertEquals("console.log($0)",
+                invocation.getString(invocation.length() - 1));
+
+        Map<String, JsonObject> dependenciesMap = getDependenciesMap(response);
+        assertDependency("super-" + CSS_STYLE_NAME, CSS_STYLE_NAME,
+                dependenciesMap);
+        assertDependency(CSS_STYLE_NAME, CSS_STYLE_NAME, dependenciesMap);
+    }
+
+    @Test
+    public void writeUidl_executeFilter_modifiedInvocationsWritten()
+            throws Exception {
+        UI ui = initializeUIForDependenciesTest(new TestUI());
+        UidlWriter uidlWriter = new UidlWriter();
+        ui.getPage().executeJs("console.log($0)", "foo");
+
+        StringWriter writer = new StringWriter();
+        uidlWriter.writeUidl(ui, false, false, writer, execute -> {
+            JsonArray invocation = execute.getArray(execute.length() - 1);
+            invocation.set(invocation.length() - 1, "console.info($0)");
+        });
+        JsonObject response = JsonUtil.parse(writer.toString());
+
+        JsonArray execute = response.getArray(JsonConstants.UIDL_KEY_EXECUTE);
+        JsonArray invocation = execute.getArray(execute.length() - 1);
+        assertEquals("console.info($0)",
+                invocation.getString(invocation.length() - 1));
+    }
+
+    @Test
+    public void createUidl_resyncBufferEnabled_missedMessagesReplayed()
+            throws Exception {
+        UI ui = initializeUIForDependenciesTest(new TestUI());
+        mocks.getDeploymentConfiguration().setApplicationOrSystemProperty(
+                InitParameters.SERVLET_PARAMETER_RESYNC_BUFFER_SIZE, "5");
+        UidlWriter uidlWriter = new UidlWriter();
+
+        JsonObject seen = uidlWriter.createUidl(ui, false);
+        ui.add(new ActualComponent());
+        JsonObject missed = uidlWriter.createUidl(ui, false);
+
+        assertTrue(ui.getInternals().replayMessagesAfter(
+                (int) seen.getNumber(ApplicationConstants.SERVER_SYNC_ID)));
+        StringWriter writer = new StringWriter();
+        uidlWriter.writeUidl(ui, false, false, writer);
+        JsonObject response = JsonUtil.parse(writer.toString());
+
+        JsonArray replay = response
+                .getArray(ApplicationConstants.REPLAYED_MESSAGES);
+        assertEquals(1, replay.length());
+        JsonObject replayed = replay.getObject(0);
+        assertEquals(missed.getNumber(ApplicationConstants.SERVER_SYNC_ID),
+                replayed.getNumber(ApplicationConstants.SERVER_SYNC_ID), 0);
+        assertEquals(missed.getArray("changes").toJson(),
+                replayed.getArray("changes").toJson());
+        assertTrue(replayed.getObject("meta")
+                .getBoolean(JsonConstants.META_ASYNC));
+
+        assertFalse(uidlWriter.createUidl(ui, false)
+                .hasKey(ApplicationConstants.REPLAYED_MESSAGES));
+    }
+
+    @Test
+    public void writeUidl_noPendingChanges_changesKeyOmitted()
+            throws Exception {
+        UI ui = initializeUIForDependenciesTest(new TestUI());
+        UidlWriter uidlWriter = new UidlWriter();
+        uidlWriter.createUidl(ui, false);
+
+        StringWriter writer = new StringWriter();
+        uidlWriter.writeUidl(ui, false, true, writer);
+        JsonObject response = JsonUtil.parse(writer.toString());
+
+        assertFalse(response.hasKey("changes"));
+        assertTrue(response.getBoolean(ApplicationConstants.RESYNCHRONIZE_ID));
+    }
+
     private void assertInlineDependencies(List<JsonObject> inlineDependencies) {
         assertThat("Should have an inline dependency", inlineDependencies,
                 hasSize(1));